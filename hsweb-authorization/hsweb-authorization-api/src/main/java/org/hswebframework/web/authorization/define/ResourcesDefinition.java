@@ -4,6 +4,7 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Getter;
 import lombok.Setter;
 import org.apache.commons.collections.CollectionUtils;
+import org.hswebframework.web.authorization.Authentication;
 import org.hswebframework.web.authorization.Permission;
 import org.hswebframework.web.authorization.annotation.Logical;
 
@@ -66,6 +67,48 @@ public class ResourcesDefinition {
         return resources.isEmpty();
     }
 
+    /**
+     * 判断权限信息是否满足当前资源定义,通过{@link Authentication#getPermission(String)}获取每个资源对应的权限,
+     * 不再为用户的所有权限创建Map.
+     *
+     * @param authentication 权限信息
+     * @return 是否有权限
+     * @since 4.0.15
+     */
+    public boolean hasPermission(Authentication authentication) {
+        if (CollectionUtils.isEmpty(resources)) {
+            return true;
+        }
+        List<Permission> permissions = authentication.getPermissions();
+        if (CollectionUtils.isEmpty(permissions)) {
+            return false;
+        }
+        if (permissions.size() == 1) {
+            return hasPermission(permissions.get(0));
+        }
+        if (logical == Logical.AND) {
+            for (ResourceDefinition resource : resources) {
+                if (!hasPermission(resource, authentication)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        for (ResourceDefinition resource : resources) {
+            if (hasPermission(resource, authentication)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean hasPermission(ResourceDefinition resource, Authentication authentication) {
+        return authentication
+                .getPermission(resource.getId())
+                .map(per -> resource.hasAction(per.getActions()))
+                .orElse(false);
+    }
+
     public boolean hasPermission(Collection<Permission> permissions) {
 
         if (CollectionUtils.isEmpty(resources)) {
@@ -9,13 +9,16 @@ import org.hswebframework.web.authorization.simple.builder.DataAccessConfigConve
 import org.hswebframework.web.authorization.simple.builder.SimpleAuthenticationBuilderFactory;
 import org.hswebframework.web.authorization.simple.builder.SimpleDataAccessConfigBuilderFactory;
 import org.hswebframework.web.authorization.token.*;
+import org.hswebframework.web.authorization.token.redis.CompactRedisSerializer;
 import org.hswebframework.web.authorization.twofactor.TwoFactorValidatorManager;
 import org.hswebframework.web.authorization.twofactor.defaults.DefaultTwoFactorValidatorManager;
 import org.hswebframework.web.convert.CustomMessageConverter;
 import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -114,4 +117,22 @@ public class DefaultAuthorizationAutoConfiguration {
 
         return manager;
     }
+
+    /**
+     * 配置hsweb.authorize.redis.serializer=compact时,注册redis中存储令牌等信息使用的紧凑序列化器
+     *
+     * @since 4.0.15
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(name = "org.springframework.data.redis.serializer.RedisSerializer")
+    static class CompactRedisSerializerConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        @ConditionalOnProperty(prefix = "hsweb.authorize.redis", name = "serializer", havingValue = "compact")
+        @ConfigurationProperties(prefix = "hsweb.authorize.redis")
+        public CompactRedisSerializer compactRedisSerializer() {
+            return new CompactRedisSerializer();
+        }
+    }
 }
@@ -17,14 +17,15 @@
 
 package org.hswebframework.web.authorization.simple;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import org.hswebframework.web.authorization.*;
+import org.springframework.util.StringUtils;
 
 import java.io.Serializable;
 import java.util.*;
 import java.util.function.BiPredicate;
-import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
@@ -34,6 +35,19 @@ public class SimpleAuthentication implements Authentication {
 
     private static final long serialVersionUID = -2898863220255336528L;
 
+    //维度类型是否使用默认的isSameType,即只根据类型ID判断是否为相同类型
+    private static final ClassValue<Boolean> DEFAULT_SAME_TYPE = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            try {
+                return type.getMethod("isSameType", String.class).getDeclaringClass() == DimensionType.class
+                        && type.getMethod("isSameType", DimensionType.class).getDeclaringClass() == DimensionType.class;
+            } catch (NoSuchMethodException e) {
+                return false;
+            }
+        }
+    };
+
     private User user;
 
     private List<Permission> permissions = new ArrayList<>();
@@ -42,6 +56,24 @@ public class SimpleAuthentication implements Authentication {
 
     private Map<String, Serializable> attributes = new HashMap<>();
 
+    //权限和维度索引,在第一次查询时创建.通过setter或者getter返回的列表修改权限,维度后清空,在下一次查询时重新创建
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private transient volatile Index index;
+
+    //权限或者维度的修改次数
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private transient volatile long version;
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private transient List<Permission> permissionsView;
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private transient List<Dimension> dimensionsView;
+
     public static Authentication of() {
         return new SimpleAuthentication();
     }
@@ -57,27 +89,197 @@ public class SimpleAuthentication implements Authentication {
         return attributes;
     }
 
+    /**
+     * 获取全部权限,对返回的列表进行修改后会重新创建索引
+     *
+     * @return 权限列表
+     */
+    @Override
+    public List<Permission> getPermissions() {
+        List<Permission> view = permissionsView;
+        if (view == null) {
+            permissionsView = view = new IndexedList<>(permissions);
+        }
+        return view;
+    }
+
+    /**
+     * 获取全部维度,对返回的列表进行修改后会重新创建索引
+     *
+     * @return 维度列表
+     */
+    @Override
+    public List<Dimension> getDimensions() {
+        List<Dimension> view = dimensionsView;
+        if (view == null) {
+            dimensionsView = view = new IndexedList<>(dimensions);
+        }
+        return view;
+    }
+
+    /**
+     * 设置权限,将复制一份新的列表,设置后再修改原列表不会影响当前权限信息
+     *
+     * @param permissions 权限列表
+     */
+    public void setPermissions(List<Permission> permissions) {
+        this.permissions = permissions == null ? new ArrayList<>() : new ArrayList<>(permissions);
+        this.permissionsView = null;
+        changed();
+    }
+
+    /**
+     * 设置维度,将复制一份新的列表,设置后再修改原列表不会影响当前权限信息
+     *
+     * @param dimensions 维度列表
+     */
+    public void setDimensions(List<Dimension> dimensions) {
+        this.dimensions = dimensions == null ? new ArrayList<>() : new ArrayList<>(dimensions);
+        this.dimensionsView = null;
+        changed();
+    }
+
+    /**
+     * 获取权限信息的版本,通过setter,{@link #merge(Authentication)}或者getter返回的列表修改权限,维度后版本会发生变化,
+     * 可用于判断基于权限信息的缓存是否需要重新计算.
+     * <p>
+     * 直接修改{@link Permission#getActions()}等权限内部的信息时版本不会发生变化.
+     *
+     * @return 版本
+     * @since 4.0.15
+     */
+    public long version() {
+        return version;
+    }
+
+    private void changed() {
+        this.index = null;
+        this.version++;
+    }
+
+    private Index index() {
+        Index index = this.index;
+        if (index == null) {
+            this.index = index = new Index(permissions, dimensions);
+        }
+        return index;
+    }
+
+    @Override
+    public Optional<Permission> getPermission(String id) {
+        if (null == id) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(index().permissions.get(id));
+    }
+
+    @Override
+    public boolean hasPermission(String permissionId, Collection<String> actions) {
+        if (null == permissionId) {
+            return false;
+        }
+        Permission permission = index().permissions.get(permissionId);
+        return permission != null && (actions.isEmpty() || permission.getActions().containsAll(actions));
+    }
+
+    @Override
+    public boolean hasDimension(String type, Collection<String> id) {
+        if (StringUtils.isEmpty(type)) {
+            return false;
+        }
+        if (!index().exactType) {
+            return Authentication.super.hasDimension(type, id);
+        }
+        Map<String, Dimension> dimensions = index().dimensions.get(type);
+        if (dimensions == null) {
+            return false;
+        }
+        if (id.isEmpty()) {
+            return true;
+        }
+        for (String dimensionId : id) {
+            if (dimensions.containsKey(dimensionId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Optional<Dimension> getDimension(String type, String id) {
+        if (StringUtils.isEmpty(type)) {
+            return Optional.empty();
+        }
+        Map<String, Dimension> dimensions = index().dimensionsIgnoreCase.get(type.toLowerCase());
+        return dimensions == null ? Optional.empty() : Optional.ofNullable(dimensions.get(id));
+    }
+
+    @Override
+    public Optional<Dimension> getDimension(DimensionType type, String id) {
+        if (type == null) {
+            return Optional.empty();
+        }
+        if (!index().exactType || !isDefaultSameType(type)) {
+            return Authentication.super.getDimension(type, id);
+        }
+        Map<String, Dimension> dimensions = index().dimensions.get(type.getId());
+        return dimensions == null ? Optional.empty() : Optional.ofNullable(dimensions.get(id));
+    }
+
+    @Override
+    public List<Dimension> getDimensions(String type) {
+        if (StringUtils.isEmpty(type)) {
+            return Collections.emptyList();
+        }
+        if (!index().exactType) {
+            return Authentication.super.getDimensions(type);
+        }
+        List<Dimension> dimensions = index().dimensionsByType.get(type);
+        return dimensions == null ? Collections.emptyList() : new ArrayList<>(dimensions);
+    }
+
+    @Override
+    public List<Dimension> getDimensions(DimensionType type) {
+        if (type == null) {
+            return Collections.emptyList();
+        }
+        if (!index().exactType) {
+            return Authentication.super.getDimensions(type);
+        }
+        return getDimensions(type.getId());
+    }
+
+    static boolean isDefaultSameType(DimensionType type) {
+        return DEFAULT_SAME_TYPE.get(type.getClass());
+    }
+
     public SimpleAuthentication merge(Authentication authentication) {
-        Map<String, Permission> mePermissionGroup = permissions.stream()
-                .collect(Collectors.toMap(Permission::getId, Function.identity()));
+        Index index = index();
+        Map<String, Permission> mePermissionGroup = new HashMap<>(index.permissions);
         user = authentication.getUser();
         attributes.putAll(authentication.getAttributes());
         for (Permission permission : authentication.getPermissions()) {
             Permission me = mePermissionGroup.get(permission.getId());
             if (me == null) {
-                permissions.add(permission.copy());
+                Permission copy = permission.copy();
+                permissions.add(copy);
+                mePermissionGroup.put(copy.getId(), copy);
                 continue;
             }
             me.getActions().addAll(permission.getActions());
             me.getDataAccesses().addAll(permission.getDataAccesses());
         }
 
-
+        Map<String, Set<String>> meDimensions = new HashMap<>();
+        index.dimensions.forEach((type, group) -> meDimensions.put(type, new HashSet<>(group.keySet())));
         for (Dimension dimension : authentication.getDimensions()) {
-            if (!getDimension(dimension.getType(), dimension.getId()).isPresent()) {
+            if (meDimensions
+                    .computeIfAbsent(dimension.getType().getId(), ignore -> new HashSet<>())
+                    .add(dimension.getId())) {
                 dimensions.add(dimension);
             }
         }
+        changed();
         return this;
     }
 
@@ -95,4 +297,99 @@ public class SimpleAuthentication implements Authentication {
         );
         return authentication;
     }
+
+    /**
+     * 权限或者维度列表,修改列表时清空索引.
+     * 迭代器,子列表以及排序等操作最终都会调用{@link #set(int, Object)},{@link #add(int, Object)}
+     * 或者{@link #remove(int)},因此任何修改都会使索引重新创建.
+     */
+    private class IndexedList<E> extends AbstractList<E> implements RandomAccess {
+        private final List<E> source;
+
+        IndexedList(List<E> source) {
+            this.source = source;
+        }
+
+        @Override
+        public E get(int index) {
+            return source.get(index);
+        }
+
+        @Override
+        public int size() {
+            return source.size();
+        }
+
+        @Override
+        public E set(int index, E element) {
+            E old = source.set(index, element);
+            changed();
+            return old;
+        }
+
+        @Override
+        public void add(int index, E element) {
+            source.add(index, element);
+            modCount++;
+            changed();
+        }
+
+        @Override
+        public E remove(int index) {
+            E old = source.remove(index);
+            modCount++;
+            changed();
+            return old;
+        }
+    }
+
+    /**
+     * 权限和维度索引,创建后不再修改,权限或者维度列表发生变化时丢弃并重新创建.
+     * 权限的可操作事件直接使用{@link Permission#getActions()},因此修改权限的操作事件后不需要重新创建索引.
+     * <p>
+     * 维度按类型ID索引,存在重写了{@link DimensionType#isSameType(String)}的维度类型(如类型别名)时,
+     * 根据类型查询维度将遍历全部维度,与{@link Authentication}中的默认实现保持一致.
+     */
+    private static class Index {
+
+        //权限ID -> 权限
+        private final Map<String, Permission> permissions = new HashMap<>();
+
+        //维度类型 -> 维度
+        private final Map<String, List<Dimension>> dimensionsByType = new HashMap<>();
+
+        //维度类型 -> 维度ID -> 维度
+        private final Map<String, Map<String, Dimension>> dimensions = new HashMap<>();
+
+        //维度类型(小写) -> 维度ID -> 维度
+        private final Map<String, Map<String, Dimension>> dimensionsIgnoreCase = new HashMap<>();
+
+        //所有维度类型都只根据类型ID判断是否为相同类型
+        private final boolean exactType;
+
+        Index(List<Permission> permissionSource, List<Dimension> dimensionSource) {
+            if (permissionSource != null) {
+                for (Permission permission : permissionSource) {
+                    permissions.putIfAbsent(permission.getId(), permission);
+                }
+            }
+            boolean exactType = true;
+            if (dimensionSource != null) {
+                for (Dimension dimension : dimensionSource) {
+                    exactType &= isDefaultSameType(dimension.getType());
+                    String type = dimension.getType().getId();
+                    dimensionsByType
+                            .computeIfAbsent(type, ignore -> new ArrayList<>())
+                            .add(dimension);
+                    dimensions
+                            .computeIfAbsent(type, ignore -> new HashMap<>())
+                            .putIfAbsent(dimension.getId(), dimension);
+                    dimensionsIgnoreCase
+                            .computeIfAbsent(type.toLowerCase(), ignore -> new HashMap<>())
+                            .putIfAbsent(dimension.getId(), dimension);
+                }
+            }
+            this.exactType = exactType;
+        }
+    }
 }
@@ -25,24 +25,30 @@ import org.hswebframework.web.authorization.exception.AccessDenyException;
 import org.hswebframework.web.authorization.token.event.UserTokenChangedEvent;
 import org.hswebframework.web.authorization.token.event.UserTokenCreatedEvent;
 import org.hswebframework.web.authorization.token.event.UserTokenRemovedEvent;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationEvent;
 import org.springframework.context.ApplicationEventPublisher;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.function.Supplier;
 
 /**
- * 默认到用户令牌管理器，使用ConcurrentMap来存储令牌信息
+ * 默认到用户令牌管理器，使用ConcurrentMap来存储令牌信息.
+ * <p>
+ * 设置了最大不活动时间的令牌将通过{@link TokenExpirationWheel}在过期后自动移除,并发送{@link UserTokenRemovedEvent}.
+ * 过期检查在第一次登录了会过期的令牌时才启动,启动时将调度tokenStorage中已有的全部令牌.
+ * 启动后不再使用时需要调用{@link #destroy()}停止过期检查.
  *
  * @author zhouhao
  * @since 3.0
  */
-public class DefaultUserTokenManager implements UserTokenManager {
+public class DefaultUserTokenManager implements UserTokenManager, DisposableBean {
 
     protected final ConcurrentMap<String, LocalUserToken> tokenStorage;
 
@@ -68,6 +74,30 @@ public class DefaultUserTokenManager implements UserTokenManager {
         this.userStorage = userStorage;
     }
 
+    /**
+     * 令牌过期检查,可通过此对象获取已过期的令牌数量等信息,未启动时为null
+     *
+     * @since 4.0.15
+     */
+    @Getter
+    private volatile TokenExpirationWheel expirationWheel;
+
+    /**
+     * 令牌过期检查的周期,令牌将在过期后的1到2个周期内被移除
+     *
+     * @since 4.0.15
+     */
+    @Getter
+    private Duration expirationCheckTick = Duration.ofSeconds(1);
+
+    /**
+     * 令牌过期检查的槽数量,将向上取整为2的幂.槽数量与周期的乘积越大,过期时间较长的令牌被提前检查的次数越少
+     *
+     * @since 4.0.15
+     */
+    @Getter
+    private int expirationCheckSlots = 1024;
+
     //异地登录模式，默认允许异地登录
     private AllopatricLoginMode allopatricLoginMode = AllopatricLoginMode.allow;
 
@@ -87,8 +117,110 @@ public class DefaultUserTokenManager implements UserTokenManager {
         return allopatricLoginMode;
     }
 
+    public void setExpirationCheckTick(Duration expirationCheckTick) {
+        this.expirationCheckTick = expirationCheckTick;
+        resetExpirationWheel();
+    }
+
+    public void setExpirationCheckSlots(int expirationCheckSlots) {
+        this.expirationCheckSlots = expirationCheckSlots;
+        resetExpirationWheel();
+    }
+
+    //获取时间轮,未启动时启动
+    private TokenExpirationWheel getOrStartExpirationWheel() {
+        TokenExpirationWheel wheel = this.expirationWheel;
+        if (wheel != null) {
+            return wheel;
+        }
+        synchronized (this) {
+            if (this.expirationWheel == null) {
+                startExpirationWheel();
+            }
+            return this.expirationWheel;
+        }
+    }
+
+    //已经启动时,使用当前配置重新创建时间轮
+    private synchronized void resetExpirationWheel() {
+        TokenExpirationWheel old = this.expirationWheel;
+        if (old == null || old.isDisposed()) {
+            return;
+        }
+        startExpirationWheel();
+        old.dispose();
+    }
+
+    //使用当前配置创建时间轮,并将已有的令牌调度到新的时间轮中
+    private void startExpirationWheel() {
+        TokenExpirationWheel wheel = new TokenExpirationWheel(expirationCheckTick, expirationCheckSlots, this::getExpireTime, this::handleExpired);
+        wheel.start();
+        this.expirationWheel = wheel;
+        for (String token : tokenStorage.keySet()) {
+            Long expireAt = getExpireTime(token);
+            if (expireAt != null) {
+                wheel.schedule(token, expireAt);
+            }
+        }
+    }
+
+    /**
+     * 停止令牌过期检查
+     */
+    @Override
+    public synchronized void destroy() {
+        if (expirationWheel != null) {
+            expirationWheel.dispose();
+        }
+    }
+
     protected Set<String> getUserToken(String userId) {
-        return userStorage.computeIfAbsent(userId, key -> new HashSet<>());
+        return userStorage.computeIfAbsent(userId, key -> ConcurrentHashMap.newKeySet());
+    }
+
+    private void addUserToken(String userId, String token) {
+        userStorage.compute(userId, (key, tokens) -> {
+            if (tokens == null) {
+                tokens = ConcurrentHashMap.newKeySet();
+            }
+            tokens.add(token);
+            return tokens;
+        });
+    }
+
+    //移除用户的令牌,用户没有令牌时移除用户
+    private void removeUserToken(String userId, String token) {
+        userStorage.computeIfPresent(userId, (key, tokens) -> {
+            tokens.remove(token);
+            return tokens.isEmpty() ? null : tokens;
+        });
+    }
+
+    private Long getExpireTime(String token) {
+        LocalUserToken userToken = tokenStorage.get(token);
+        if (userToken == null || userToken.getMaxInactiveInterval() <= 0) {
+            return null;
+        }
+        return userToken.getLastRequestTime() + userToken.getMaxInactiveInterval();
+    }
+
+    //批量移除已过期的令牌,移除后再统一发送事件
+    private void handleExpired(List<String> tokens) {
+        List<LocalUserToken> removed = new ArrayList<>(tokens.size());
+        for (String token : tokens) {
+            LocalUserToken userToken = tokenStorage.get(token);
+            if (userToken == null || !userToken.checkExpired()) {
+                continue;
+            }
+            userToken.setState(TokenState.expired);
+            userToken = removeToken(token, true);
+            if (userToken != null) {
+                removed.add(userToken);
+            }
+        }
+        for (LocalUserToken userToken : removed) {
+            publishEvent(new UserTokenRemovedEvent(userToken));
+        }
     }
 
     private Mono<UserToken> checkTimeout(UserToken detail) {
@@ -118,9 +250,8 @@ public class DefaultUserTokenManager implements UserTokenManager {
         if (userId == null) {
             return Flux.empty();
         }
-        Set<String> tokens = getUserToken(userId);
-        if (tokens.isEmpty()) {
-            userStorage.remove(userId);
+        Set<String> tokens = userStorage.get(userId);
+        if (tokens == null || tokens.isEmpty()) {
             return Flux.empty();
         }
         return Flux.fromStream(tokens
@@ -169,30 +300,28 @@ public class DefaultUserTokenManager implements UserTokenManager {
             return Mono.empty();
         }
         return Mono.defer(() -> {
-            Set<String> tokens = getUserToken(userId);
-            tokens.forEach(token -> signOutByToken(token, false));
-            tokens.clear();
-            userStorage.remove(userId);
+            Set<String> tokens = userStorage.remove(userId);
+            if (tokens != null) {
+                tokens.forEach(token -> signOutByToken(token, false));
+            }
             return Mono.empty();
         });
     }
 
+    private LocalUserToken removeToken(String token, boolean removeUserToken) {
+        LocalUserToken tokenObject = tokenStorage.remove(token);
+        if (tokenObject != null && removeUserToken) {
+            removeUserToken(tokenObject.getUserId(), token);
+        }
+        return tokenObject;
+    }
+
     private void signOutByToken(String token, boolean removeUserToken) {
         if (token == null) {
             return;
         }
-        LocalUserToken tokenObject = tokenStorage.remove(token);
+        LocalUserToken tokenObject = removeToken(token, removeUserToken);
         if (tokenObject != null) {
-            String userId = tokenObject.getUserId();
-            if (removeUserToken) {
-                Set<String> tokens = getUserToken(userId);
-                if (!tokens.isEmpty()) {
-                    tokens.remove(token);
-                }
-                if (tokens.isEmpty()) {
-                    userStorage.remove(tokenObject.getUserId());
-                }
-            }
             publishEvent(new UserTokenRemovedEvent(tokenObject));
         }
     }
@@ -253,7 +382,11 @@ public class DefaultUserTokenManager implements UserTokenManager {
             Runnable doSign = () -> {
                 tokenStorage.put(token, detail);
 
-                getUserToken(userId).add(token);
+                addUserToken(userId, token);
+
+                if (maxInactiveInterval > 0) {
+                    getOrStartExpirationWheel().schedule(token, detail.getLastRequestTime() + maxInactiveInterval);
+                }
 
                 publishEvent(new UserTokenCreatedEvent(detail));
             };
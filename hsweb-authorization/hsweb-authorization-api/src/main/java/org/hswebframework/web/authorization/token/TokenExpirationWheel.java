@@ -0,0 +1,198 @@
+package org.hswebframework.web.authorization.token;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * 基于时间轮的令牌过期检查.
+ * <p>
+ * 令牌按过期时间分散到不同的槽中,每个周期只检查当前槽中的令牌,而不是遍历所有令牌.
+ * 令牌在有效期内被访问(touch)时不需要重新调度,槽到期时会重新获取令牌的过期时间,
+ * 未过期的令牌将被重新放入对应的槽中,已经不存在的令牌直接丢弃.
+ * <p>
+ * 令牌将在过期时间之后的第1到第2个周期之间被检查到,同一个周期内过期的令牌将作为一批交给处理器处理.
+ *
+ * @since 4.0.15
+ */
+@Slf4j
+public class TokenExpirationWheel implements Disposable {
+
+    private final long tickMillis;
+
+    private final int mask;
+
+    private final Set<String>[] slots;
+
+    //令牌->过期时间,令牌不存在或者不会过期时返回null
+    private final Function<String, Long> expireTimeGetter;
+
+    private final Consumer<List<String>> expiredHandler;
+
+    private final LongAdder expiredCount = new LongAdder();
+
+    private final LongAdder rescheduledCount = new LongAdder();
+
+    //已经处理到的周期
+    private volatile long currentTick;
+
+    private volatile Disposable disposable;
+
+    /**
+     * @param tick             周期
+     * @param slots            槽数量,将向上取整为2的幂
+     * @param expireTimeGetter 获取令牌当前的过期时间,令牌不存在或者不会过期时返回null
+     * @param expiredHandler   已过期令牌的处理器
+     */
+    @SuppressWarnings("unchecked")
+    public TokenExpirationWheel(Duration tick,
+                                int slots,
+                                Function<String, Long> expireTimeGetter,
+                                Consumer<List<String>> expiredHandler) {
+        this.tickMillis = Math.max(1, tick.toMillis());
+        int size = Integer.highestOneBit(Math.max(2, slots) - 1) << 1;
+        this.mask = size - 1;
+        this.slots = new Set[size];
+        for (int i = 0; i < size; i++) {
+            this.slots[i] = ConcurrentHashMap.newKeySet();
+        }
+        this.expireTimeGetter = expireTimeGetter;
+        this.expiredHandler = expiredHandler;
+        this.currentTick = System.currentTimeMillis() / tickMillis;
+    }
+
+    /**
+     * 开始定时检查
+     */
+    public synchronized void start() {
+        if (disposable != null) {
+            disposable.dispose();
+        }
+        disposable = Flux
+                .interval(Duration.ofMillis(tickMillis))
+                .onBackpressureDrop()
+                .subscribe(ignore -> advance(System.currentTimeMillis()));
+    }
+
+    /**
+     * 调度令牌的过期检查
+     *
+     * @param token    令牌
+     * @param expireAt 过期时间
+     */
+    public void schedule(String token, long expireAt) {
+        //在过期时间所在周期的下下个周期检查,保证检查时至少已经过期了一个周期.
+        //至少在下一个周期才检查,避免放入正在处理或者已经处理过的槽
+        long tick = Math.max(expireAt / tickMillis + 2, currentTick + 1);
+        for (; ; ) {
+            Set<String> slot = slots[(int) (tick & mask)];
+            slot.add(token);
+            //放入后重新检查,放入期间此槽已经开始处理时可能不会检查到此令牌,从槽中取回后放入下一个周期.
+            //取回失败说明已经被处理
+            long current = currentTick;
+            if (tick > current || !slot.remove(token)) {
+                return;
+            }
+            tick = current + 1;
+        }
+    }
+
+    /**
+     * 处理截止到指定时间的所有槽
+     *
+     * @param now 当前时间
+     */
+    public synchronized void advance(long now) {
+        long target = now / tickMillis;
+        //落后超过一圈时,只需要处理一圈
+        long from = Math.max(currentTick + 1, target - mask);
+        for (long tick = from; tick <= target; tick++) {
+            currentTick = tick;
+            List<String> expired = drain(slots[(int) (tick & mask)], now);
+            if (!expired.isEmpty()) {
+                expiredCount.add(expired.size());
+                try {
+                    expiredHandler.accept(expired);
+                } catch (Throwable err) {
+                    log.warn("handle expired token error", err);
+                }
+            }
+        }
+        currentTick = Math.max(currentTick, target);
+    }
+
+    private List<String> drain(Set<String> slot, long now) {
+        List<String> expired = new ArrayList<>();
+        List<String> reschedule = new ArrayList<>();
+        for (String token : slot) {
+            //遍历可能返回已经被取回的令牌,以移除成功为准
+            if (!slot.remove(token)) {
+                continue;
+            }
+            Long expireAt = expireTimeGetter.apply(token);
+            if (expireAt == null) {
+                continue;
+            }
+            if (expireAt <= now) {
+                expired.add(token);
+            } else {
+                reschedule.add(token);
+            }
+        }
+        //在遍历之后重新调度,避免放入当前正在遍历的槽
+        for (String token : reschedule) {
+            Long expireAt = expireTimeGetter.apply(token);
+            if (expireAt != null) {
+                rescheduledCount.increment();
+                schedule(token, expireAt);
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * @return 等待检查的令牌数量
+     */
+    public int size() {
+        int size = 0;
+        for (Set<String> slot : slots) {
+            size += slot.size();
+        }
+        return size;
+    }
+
+    /**
+     * @return 已过期的令牌数量
+     */
+    public long getExpiredCount() {
+        return expiredCount.sum();
+    }
+
+    /**
+     * @return 检查时未过期而重新调度的次数
+     */
+    public long getRescheduledCount() {
+        return rescheduledCount.sum();
+    }
+
+    @Override
+    public synchronized void dispose() {
+        if (disposable != null) {
+            disposable.dispose();
+        }
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return disposable == null || disposable.isDisposed();
+    }
+}
@@ -0,0 +1,672 @@
+package org.hswebframework.web.authorization.token.redis;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.hswebframework.web.authorization.DefaultDimensionType;
+import org.hswebframework.web.authorization.DimensionType;
+import org.hswebframework.web.authorization.simple.*;
+import org.hswebframework.web.authorization.token.TokenState;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.DataFormatException;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+
+/**
+ * 紧凑的二进制序列化器,用于替换redis中默认的java序列化.
+ * <p>
+ * 对{@link SimpleAuthentication},{@link SimplePermission},{@link SimpleDimension},{@link SimpleUser},
+ * {@link SimpleUserToken}以及常用的基本类型,集合类型使用固定的结构进行序列化,
+ * 其他类型可通过{@link #register(int, Class, TypeCodec)}注册,未注册的类型使用java序列化.
+ * <p>
+ * 序列化后的数据大于{@link #setCompressThreshold(int)}时将使用deflate进行压缩,
+ * 解压后的数据大于{@link #setMaxInflatedSize(int)}时反序列化失败.
+ * 反序列化时兼容使用java序列化的旧数据,可以直接替换正在使用的{@link RedisSerializer#java()}.
+ *
+ * <pre>
+ *  new RedisUserTokenManager(connectionFactory, new CompactRedisSerializer());
+ * </pre>
+ * 配置hsweb.authorize.redis.serializer=compact时,将注册此序列化器,oauth2的token和授权码存储将自动使用,
+ * 自定义的{@link RedisUserTokenManager}可注入此bean使用.
+ * 序列化次数,字节数以及耗时等统计信息通过JMX(spring.jmx.enabled=true)发布.
+ *
+ * @since 4.0.15
+ */
+@ManagedResource(description = "Compact redis serializer statistics")
+public class CompactRedisSerializer implements RedisSerializer<Object> {
+
+    static final byte MAGIC = 0x48;
+
+    static final byte FLAG_COMPRESSED = 0x01;
+
+    //java序列化数据的开头
+    static final byte JAVA_MAGIC = (byte) 0xAC;
+
+    static final int TAG_NULL = 0,
+            TAG_STRING = 1,
+            TAG_INT = 2,
+            TAG_LONG = 3,
+            TAG_TRUE = 4,
+            TAG_FALSE = 5,
+            TAG_DOUBLE = 6,
+            TAG_MAP = 7,
+            TAG_LIST = 8,
+            TAG_SET = 9,
+            TAG_AUTHENTICATION = 16,
+            TAG_PERMISSION = 17,
+            TAG_DIMENSION = 18,
+            TAG_USER = 19,
+            TAG_DIMENSION_TYPE = 20,
+            TAG_DEFAULT_DIMENSION_TYPE = 21,
+            TAG_USER_TOKEN = 22,
+            TAG_JAVA = 127;
+
+    /**
+     * 自定义类型可用的最小标识
+     */
+    public static final int MIN_CUSTOM_TAG = 64;
+
+    private final JdkSerializationRedisSerializer java;
+
+    private final Map<Class<?>, Registration> codecByType = new ConcurrentHashMap<>();
+
+    //注册时复制后整体替换,读取时不需要加锁
+    private volatile Registration[] codecByTag = new Registration[128];
+
+    /**
+     * 序列化后的数据大于此值时进行压缩,小于等于0时不压缩
+     */
+    @Getter
+    @Setter
+    private int compressThreshold = 1024;
+
+    /**
+     * 解压后数据的最大字节数,用于避免错误或者恶意的数据占用过多内存
+     */
+    @Getter
+    @Setter
+    private int maxInflatedSize = 16 * 1024 * 1024;
+
+    private final LongAdder encodeCount = new LongAdder();
+    private final LongAdder encodeBytes = new LongAdder();
+    private final LongAdder encodeNanos = new LongAdder();
+    private final LongAdder compressedCount = new LongAdder();
+    private final LongAdder decodeCount = new LongAdder();
+    private final LongAdder decodeBytes = new LongAdder();
+    private final LongAdder decodeNanos = new LongAdder();
+
+    public CompactRedisSerializer() {
+        this(null);
+    }
+
+    public CompactRedisSerializer(ClassLoader classLoader) {
+        this.java = new JdkSerializationRedisSerializer(classLoader);
+        registerBuiltin(TAG_AUTHENTICATION, SimpleAuthentication.class, new AuthenticationCodec());
+        registerBuiltin(TAG_PERMISSION, SimplePermission.class, new PermissionCodec());
+        registerBuiltin(TAG_DIMENSION, SimpleDimension.class, new DimensionCodec());
+        registerBuiltin(TAG_USER, SimpleUser.class, new UserCodec());
+        registerBuiltin(TAG_DIMENSION_TYPE, SimpleDimensionType.class, new DimensionTypeCodec());
+        registerBuiltin(TAG_DEFAULT_DIMENSION_TYPE, DefaultDimensionType.class, new TypeCodec<DefaultDimensionType>() {
+            @Override
+            public void encode(DefaultDimensionType value, Output output) throws IOException {
+                output.writeString(value.name());
+            }
+
+            @Override
+            public DefaultDimensionType decode(Input input) throws IOException {
+                return DefaultDimensionType.valueOf(input.readString());
+            }
+        });
+        registerBuiltin(TAG_USER_TOKEN, SimpleUserToken.class, new UserTokenCodec());
+    }
+
+    /**
+     * 注册自定义类型的序列化方式,只对类型完全一致的对象生效.
+     * 修改已注册类型的结构时,请使用新的标识,否则将无法读取旧数据.
+     *
+     * @param tag   类型标识,范围:[{@link #MIN_CUSTOM_TAG},126]
+     * @param type  类型
+     * @param codec 序列化方式
+     * @param <T>   类型
+     * @return this
+     */
+    public <T> CompactRedisSerializer register(int tag, Class<T> type, TypeCodec<T> codec) {
+        if (tag < MIN_CUSTOM_TAG || tag >= TAG_JAVA) {
+            throw new IllegalArgumentException("tag must between " + MIN_CUSTOM_TAG + " and " + (TAG_JAVA - 1));
+        }
+        registerBuiltin(tag, type, codec);
+        return this;
+    }
+
+    private synchronized <T> void registerBuiltin(int tag, Class<T> type, TypeCodec<T> codec) {
+        Registration[] tags = codecByTag.clone();
+        Registration old = tags[tag];
+        if (old != null && old.type != type) {
+            throw new IllegalArgumentException("tag [" + tag + "] already registered by " + old.type);
+        }
+        Registration registration = new Registration(tag, type, codec);
+        tags[tag] = registration;
+        codecByTag = tags;
+        codecByType.put(type, registration);
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+        long time = System.nanoTime();
+        try {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(256);
+            buffer.write(MAGIC);
+            buffer.write(0);
+            new Output(new DataOutputStream(buffer)).writeObject(value);
+            byte[] data = buffer.toByteArray();
+            if (compressThreshold > 0 && data.length > compressThreshold) {
+                data = compress(data);
+                compressedCount.increment();
+            }
+            encodeCount.increment();
+            encodeBytes.add(data.length);
+            return data;
+        } catch (IOException e) {
+            throw new SerializationException("serialize " + value.getClass() + " error", e);
+        } finally {
+            encodeNanos.add(System.nanoTime() - time);
+        }
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        long time = System.nanoTime();
+        try {
+            if (bytes[0] == JAVA_MAGIC) {
+                return java.deserialize(bytes);
+            }
+            if (bytes[0] != MAGIC || bytes.length < 3) {
+                throw new SerializationException("unsupported data format");
+            }
+            InputStream stream = (bytes[1] & FLAG_COMPRESSED) != 0
+                    ? new ByteArrayInputStream(decompress(bytes))
+                    : new ByteArrayInputStream(bytes, 2, bytes.length - 2);
+            return new Input(new DataInputStream(stream)).readObject();
+        } catch (IOException e) {
+            throw new SerializationException("deserialize error", e);
+        } finally {
+            decodeCount.increment();
+            decodeBytes.add(bytes.length);
+            decodeNanos.add(System.nanoTime() - time);
+        }
+    }
+
+    private byte[] compress(byte[] data) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(data.length / 2);
+        buffer.write(MAGIC);
+        buffer.write(FLAG_COMPRESSED);
+        try (DeflaterOutputStream out = new DeflaterOutputStream(buffer)) {
+            out.write(data, 2, data.length - 2);
+        }
+        return buffer.toByteArray();
+    }
+
+    private byte[] decompress(byte[] data) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data, 2, data.length - 2);
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(data.length * 2);
+            byte[] buf = new byte[4096];
+            while (!inflater.finished()) {
+                int len = inflater.inflate(buf);
+                if (len == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new SerializationException("compressed data is truncated");
+                }
+                if (buffer.size() + len > maxInflatedSize) {
+                    throw new SerializationException("inflated data exceeds " + maxInflatedSize + " bytes");
+                }
+                buffer.write(buf, 0, len);
+            }
+            return buffer.toByteArray();
+        } catch (DataFormatException e) {
+            throw new SerializationException("decompress error", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * @return 序列化次数
+     */
+    @ManagedAttribute
+    public long getEncodeCount() {
+        return encodeCount.sum();
+    }
+
+    /**
+     * @return 序列化后的总字节数
+     */
+    @ManagedAttribute
+    public long getEncodeBytes() {
+        return encodeBytes.sum();
+    }
+
+    /**
+     * @return 序列化总耗时(纳秒)
+     */
+    @ManagedAttribute
+    public long getEncodeNanos() {
+        return encodeNanos.sum();
+    }
+
+    /**
+     * @return 进行了压缩的次数
+     */
+    @ManagedAttribute
+    public long getCompressedCount() {
+        return compressedCount.sum();
+    }
+
+    /**
+     * @return 反序列化次数
+     */
+    @ManagedAttribute
+    public long getDecodeCount() {
+        return decodeCount.sum();
+    }
+
+    /**
+     * @return 反序列化的总字节数
+     */
+    @ManagedAttribute
+    public long getDecodeBytes() {
+        return decodeBytes.sum();
+    }
+
+    /**
+     * @return 反序列化总耗时(纳秒)
+     */
+    @ManagedAttribute
+    public long getDecodeNanos() {
+        return decodeNanos.sum();
+    }
+
+    /**
+     * 类型的序列化方式
+     *
+     * @param <T> 类型
+     */
+    public interface TypeCodec<T> {
+        void encode(T value, Output output) throws IOException;
+
+        T decode(Input input) throws IOException;
+    }
+
+    private static class Registration {
+        private final int tag;
+        private final Class<?> type;
+        private final TypeCodec<Object> codec;
+
+        @SuppressWarnings("all")
+        private Registration(int tag, Class<?> type, TypeCodec<?> codec) {
+            this.tag = tag;
+            this.type = type;
+            this.codec = (TypeCodec) codec;
+        }
+    }
+
+    public class Output {
+        private final DataOutputStream out;
+
+        Output(DataOutputStream out) {
+            this.out = out;
+        }
+
+        public void writeVarInt(int value) throws IOException {
+            while ((value & ~0x7F) != 0) {
+                out.write((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            out.write(value);
+        }
+
+        public void writeLong(long value) throws IOException {
+            out.writeLong(value);
+        }
+
+        public void writeBoolean(boolean value) throws IOException {
+            out.writeBoolean(value);
+        }
+
+        public void writeString(String value) throws IOException {
+            if (value == null) {
+                writeVarInt(0);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(bytes.length + 1);
+            out.write(bytes);
+        }
+
+        public void writeObject(Object value) throws IOException {
+            if (value == null) {
+                out.write(TAG_NULL);
+                return;
+            }
+            Class<?> type = value.getClass();
+            if (type == String.class) {
+                out.write(TAG_STRING);
+                writeString(((String) value));
+            } else if (type == Integer.class) {
+                out.write(TAG_INT);
+                out.writeInt(((Integer) value));
+            } else if (type == Long.class) {
+                out.write(TAG_LONG);
+                out.writeLong(((Long) value));
+            } else if (type == Boolean.class) {
+                out.write(((Boolean) value) ? TAG_TRUE : TAG_FALSE);
+            } else if (type == Double.class) {
+                out.write(TAG_DOUBLE);
+                out.writeDouble(((Double) value));
+            } else if (type == HashMap.class || type == LinkedHashMap.class) {
+                out.write(TAG_MAP);
+                writeMap(((Map<?, ?>) value));
+            } else if (type == ArrayList.class) {
+                out.write(TAG_LIST);
+                writeCollection(((Collection<?>) value));
+            } else if (type == HashSet.class || type == LinkedHashSet.class) {
+                out.write(TAG_SET);
+                writeCollection(((Collection<?>) value));
+            } else {
+                Registration registration = codecByType.get(type);
+                if (registration != null) {
+                    out.write(registration.tag);
+                    registration.codec.encode(value, this);
+                } else {
+                    byte[] bytes = java.serialize(value);
+                    out.write(TAG_JAVA);
+                    writeVarInt(bytes.length);
+                    out.write(bytes);
+                }
+            }
+        }
+
+        public void writeMap(Map<?, ?> map) throws IOException {
+            if (map == null) {
+                writeVarInt(0);
+                return;
+            }
+            writeVarInt(map.size() + 1);
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                writeObject(entry.getKey());
+                writeObject(entry.getValue());
+            }
+        }
+
+        public void writeCollection(Collection<?> collection) throws IOException {
+            if (collection == null) {
+                writeVarInt(0);
+                return;
+            }
+            writeVarInt(collection.size() + 1);
+            for (Object o : collection) {
+                writeObject(o);
+            }
+        }
+    }
+
+    public class Input {
+        private final DataInputStream in;
+
+        Input(DataInputStream in) {
+            this.in = in;
+        }
+
+        public int readVarInt() throws IOException {
+            int value = 0;
+            int shift = 0;
+            int b;
+            do {
+                b = in.readUnsignedByte();
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return value;
+        }
+
+        public long readLong() throws IOException {
+            return in.readLong();
+        }
+
+        //数据都在内存中,长度不能超过剩余的字节数
+        private int checkLength(int len) throws IOException {
+            if (len < 0 || len > in.available()) {
+                throw new SerializationException("illegal length:" + len);
+            }
+            return len;
+        }
+
+        public boolean readBoolean() throws IOException {
+            return in.readBoolean();
+        }
+
+        public String readString() throws IOException {
+            int len = readVarInt();
+            if (len == 0) {
+                return null;
+            }
+            byte[] bytes = new byte[checkLength(len - 1)];
+            in.readFully(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        public Object readObject() throws IOException {
+            int tag = in.readUnsignedByte();
+            switch (tag) {
+                case TAG_NULL:
+                    return null;
+                case TAG_STRING:
+                    return readString();
+                case TAG_INT:
+                    return in.readInt();
+                case TAG_LONG:
+                    return in.readLong();
+                case TAG_TRUE:
+                    return Boolean.TRUE;
+                case TAG_FALSE:
+                    return Boolean.FALSE;
+                case TAG_DOUBLE:
+                    return in.readDouble();
+                case TAG_MAP:
+                    return readMap();
+                case TAG_LIST:
+                    return readCollection(new ArrayList<>());
+                case TAG_SET:
+                    return readCollection(new LinkedHashSet<>());
+                case TAG_JAVA: {
+                    byte[] bytes = new byte[checkLength(readVarInt())];
+                    in.readFully(bytes);
+                    return java.deserialize(bytes);
+                }
+                default:
+                    Registration[] tags = codecByTag;
+                    Registration registration = tag < tags.length ? tags[tag] : null;
+                    if (registration == null) {
+                        throw new SerializationException("unknown type tag:" + tag);
+                    }
+                    return registration.codec.decode(this);
+            }
+        }
+
+        @SuppressWarnings("all")
+        public <K, V> Map<K, V> readMap() throws IOException {
+            int size = readVarInt();
+            if (size == 0) {
+                return null;
+            }
+            Map<K, V> map = new LinkedHashMap<>();
+            for (int i = 0; i < size - 1; i++) {
+                map.put((K) readObject(), (V) readObject());
+            }
+            return map;
+        }
+
+        @SuppressWarnings("all")
+        public <T, C extends Collection<T>> C readCollection(C container) throws IOException {
+            int size = readVarInt();
+            if (size == 0) {
+                return null;
+            }
+            for (int i = 0; i < size - 1; i++) {
+                container.add((T) readObject());
+            }
+            return container;
+        }
+    }
+
+    static class AuthenticationCodec implements TypeCodec<SimpleAuthentication> {
+        @Override
+        public void encode(SimpleAuthentication value, Output output) throws IOException {
+            output.writeObject(value.getUser());
+            output.writeCollection(value.getPermissions());
+            output.writeCollection(value.getDimensions());
+            output.writeMap(value.getAttributes());
+        }
+
+        @Override
+        public SimpleAuthentication decode(Input input) throws IOException {
+            SimpleAuthentication authentication = new SimpleAuthentication();
+            authentication.setUser((org.hswebframework.web.authorization.User) input.readObject());
+            List<org.hswebframework.web.authorization.Permission> permissions = input.readCollection(new ArrayList<>());
+            if (permissions != null) {
+                authentication.setPermissions(permissions);
+            }
+            List<org.hswebframework.web.authorization.Dimension> dimensions = input.readCollection(new ArrayList<>());
+            if (dimensions != null) {
+                authentication.setDimensions(dimensions);
+            }
+            Map<String, Serializable> attributes = input.readMap();
+            if (attributes != null) {
+                authentication.setAttributes(attributes);
+            }
+            return authentication;
+        }
+    }
+
+    static class PermissionCodec implements TypeCodec<SimplePermission> {
+        @Override
+        @SuppressWarnings("all")
+        public void encode(SimplePermission value, Output output) throws IOException {
+            output.writeString(value.getId());
+            output.writeString(value.getName());
+            output.writeCollection(value.getActions());
+            output.writeCollection(value.getDataAccesses());
+            output.writeMap(value.getOptions());
+        }
+
+        @Override
+        public SimplePermission decode(Input input) throws IOException {
+            SimplePermission permission = new SimplePermission();
+            permission.setId(input.readString());
+            permission.setName(input.readString());
+            permission.setActions(input.readCollection(new HashSet<>()));
+            permission.setDataAccesses(input.readCollection(new HashSet<>()));
+            permission.setOptions(input.readMap());
+            return permission;
+        }
+    }
+
+    static class DimensionCodec implements TypeCodec<SimpleDimension> {
+        @Override
+        public void encode(SimpleDimension value, Output output) throws IOException {
+            output.writeString(value.getId());
+            output.writeString(value.getName());
+            output.writeObject(value.getType());
+            output.writeMap(value.getOptions());
+        }
+
+        @Override
+        public SimpleDimension decode(Input input) throws IOException {
+            SimpleDimension dimension = new SimpleDimension();
+            dimension.setId(input.readString());
+            dimension.setName(input.readString());
+            dimension.setType((DimensionType) input.readObject());
+            dimension.setOptions(input.readMap());
+            return dimension;
+        }
+    }
+
+    static class DimensionTypeCodec implements TypeCodec<SimpleDimensionType> {
+        @Override
+        public void encode(SimpleDimensionType value, Output output) throws IOException {
+            output.writeString(value.getId());
+            output.writeString(value.getName());
+        }
+
+        @Override
+        public SimpleDimensionType decode(Input input) throws IOException {
+            return SimpleDimensionType.of(input.readString(), input.readString());
+        }
+    }
+
+    static class UserCodec implements TypeCodec<SimpleUser> {
+        @Override
+        public void encode(SimpleUser value, Output output) throws IOException {
+            output.writeString(value.getId());
+            output.writeString(value.getUsername());
+            output.writeString(value.getName());
+            output.writeString(value.getUserType());
+            output.writeMap(value.getOptions());
+        }
+
+        @Override
+        public SimpleUser decode(Input input) throws IOException {
+            SimpleUser user = new SimpleUser();
+            user.setId(input.readString());
+            user.setUsername(input.readString());
+            user.setName(input.readString());
+            user.setUserType(input.readString());
+            user.setOptions(input.readMap());
+            return user;
+        }
+    }
+
+    static class UserTokenCodec implements TypeCodec<SimpleUserToken> {
+        @Override
+        public void encode(SimpleUserToken value, Output output) throws IOException {
+            output.writeString(value.getToken());
+            output.writeString(value.getUserId());
+            output.writeString(value.getType());
+            output.writeString(value.getState() == null ? null : value.getState().name());
+            output.writeLong(value.getRequestTimes());
+            output.writeLong(value.getLastRequestTime());
+            output.writeLong(value.getSignInTime());
+            output.writeLong(value.getMaxInactiveInterval());
+        }
+
+        @Override
+        public SimpleUserToken decode(Input input) throws IOException {
+            SimpleUserToken token = new SimpleUserToken();
+            token.setToken(input.readString());
+            token.setUserId(input.readString());
+            token.setType(input.readString());
+            String state = input.readString();
+            token.setState(state == null ? null : TokenState.valueOf(state));
+            token.setRequestTimes(input.readLong());
+            token.setLastRequestTime(input.readLong());
+            token.setSignInTime(input.readLong());
+            token.setMaxInactiveInterval(input.readLong());
+            return token;
+        }
+    }
+}
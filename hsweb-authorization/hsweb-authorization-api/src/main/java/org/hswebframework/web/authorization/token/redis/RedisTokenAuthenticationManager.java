@@ -17,12 +17,22 @@ public class RedisTokenAuthenticationManager implements TokenAuthenticationManag
 
     @SuppressWarnings("all")
     public RedisTokenAuthenticationManager(ReactiveRedisConnectionFactory connectionFactory) {
+        this(connectionFactory, (RedisSerializer) RedisSerializer.java());
+    }
+
+    /**
+     * @param connectionFactory 连接工厂
+     * @param serializer        序列化器,如:{@link CompactRedisSerializer}
+     * @since 4.0.15
+     */
+    @SuppressWarnings("all")
+    public RedisTokenAuthenticationManager(ReactiveRedisConnectionFactory connectionFactory, RedisSerializer<Object> serializer) {
         this(new ReactiveRedisTemplate<>(
                 connectionFactory, RedisSerializationContext.<String, Authentication>newSerializationContext()
                 .key(RedisSerializer.string())
-                .value((RedisSerializer) RedisSerializer.java())
+                .value((RedisSerializer) serializer)
                 .hashKey(RedisSerializer.string())
-                .hashValue(RedisSerializer.java())
+                .hashValue(serializer)
                 .build()
         ));
     }
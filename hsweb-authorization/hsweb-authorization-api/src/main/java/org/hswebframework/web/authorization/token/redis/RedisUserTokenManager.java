@@ -2,6 +2,7 @@ package org.hswebframework.web.authorization.token.redis;
 
 import lombok.Getter;
 import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
 import org.hswebframework.web.authorization.Authentication;
 import org.hswebframework.web.authorization.exception.AccessDenyException;
 import org.hswebframework.web.authorization.token.*;
@@ -9,26 +10,48 @@ import org.hswebframework.web.authorization.token.event.UserTokenChangedEvent;
 import org.hswebframework.web.authorization.token.event.UserTokenCreatedEvent;
 import org.hswebframework.web.authorization.token.event.UserTokenRemovedEvent;
 import org.hswebframework.web.bean.FastBeanCopier;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Range;
 import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisZSetCommands;
 import org.springframework.data.redis.core.*;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.RedisSerializer;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
 import reactor.core.publisher.Flux;
-import reactor.core.publisher.FluxSink;
 import reactor.core.publisher.Mono;
 
 import java.time.Duration;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.*;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
-public class RedisUserTokenManager implements UserTokenManager {
+@Slf4j
+public class RedisUserTokenManager implements UserTokenManager, InitializingBean, DisposableBean {
+
+    //索引都是全局的key,在redis集群中每个索引只位于一个节点上,所有登录,退出以及过期检查都会访问这些key.
+    //更新索引时每个key单独执行命令,不会跨slot.
+
+    //令牌->用户ID
+    static final String TOKEN_OWNERS_KEY = "user-token-index:owners";
+
+    //已登录的用户ID
+    static final String LOGGED_USERS_KEY = "user-token-index:users";
+
+    //令牌->过期时间
+    static final String TOKEN_EXPIRES_KEY = "user-token-index:expires";
+
+    //索引已重建的标记,重建完成后才设置
+    static final String INDEX_REBUILT_KEY = "user-token-index:rebuilt";
+
+    //正在重建索引的锁,设置了有效期,重建的节点异常退出后可由其他节点重新重建
+    static final String INDEX_REBUILD_LOCK_KEY = "user-token-index:rebuilding";
+
+    private static final int EXPIRED_CHECK_BATCH_SIZE = 500;
 
     private final ReactiveRedisOperations<Object, Object> operations;
 
@@ -36,40 +59,97 @@ public class RedisUserTokenManager implements UserTokenManager {
 
     private final ReactiveSetOperations<Object, Object> userTokenMapping;
 
+    /**
+     * 本地缓存,可通过此对象设置最大缓存数量,有效期以及获取命中率等信息
+     *
+     * @since 4.0.15
+     */
+    @Getter
+    private final UserTokenNearCache localCache = new UserTokenNearCache();
+
+    /**
+     * 批量刷新令牌有效期,可通过此对象设置刷新周期,批量大小以及获取队列长度等信息
+     *
+     * @since 4.0.15
+     */
+    @Getter
+    private final RedisUserTokenTouchWriter touchWriter;
+
+    /**
+     * 检查过期令牌的周期,过期的令牌会从在线用户,令牌数量以及过期时间索引中移除
+     *
+     * @since 4.0.15
+     */
+    @Getter
+    private Duration expiredCheckInterval = Duration.ofMinutes(1);
+
+    /**
+     * 启动时是否根据redis中的令牌重建索引,整个集群只会重建一次.
+     * 从旧版本升级后,旧版本创建的令牌没有索引,不重建时{@link #totalUser()},{@link #totalToken()},{@link #allLoggedUser()}
+     * 在这些令牌过期前都会少算,因此默认开启.
+     *
+     * @see #rebuildIndexOnce()
+     * @since 4.0.15
+     */
+    @Getter
+    @Setter
+    private boolean rebuildIndexOnStartup = true;
+
+    /**
+     * 重建索引时锁的有效期,应大于重建索引需要的时间
+     *
+     * @since 4.0.15
+     */
+    @Getter
     @Setter
-    private Map<String, SimpleUserToken> localCache = new ConcurrentHashMap<>();
+    private Duration rebuildIndexLockTtl = Duration.ofMinutes(10);
+
+    private final Disposable.Composite disposable = Disposables.composite();
 
-    private FluxSink<UserToken> touchSink;
+    private Disposable expiredChecker;
 
     public RedisUserTokenManager(ReactiveRedisOperations<Object, Object> operations) {
         this.operations = operations;
         this.userTokenStore = operations.opsForHash();
         this.userTokenMapping = operations.opsForSet();
-        this.operations
-                .listenToChannel("_user_token_removed")
-                .subscribe(msg -> localCache.remove(String.valueOf(msg.getMessage())));
+        this.disposable.add(
+                this.operations
+                        .listenToChannel("_user_token_removed")
+                        .subscribe(msg -> localCache.remove(String.valueOf(msg.getMessage()))));
 
-        Flux.<UserToken>create(sink -> this.touchSink = sink)
-            .buffer(Flux.interval(Duration.ofSeconds(10)), HashSet::new)
-            .flatMap(list -> Flux
-                    .fromIterable(list)
-                    .flatMap(token -> operations
-                            .expire(getTokenRedisKey(token.getToken()), Duration.ofMillis(token.getMaxInactiveInterval()))
-                            .then())
-                    .onErrorResume(err -> Mono.empty()))
-            .subscribe();
+        //定时清理本地缓存中已过期的令牌
+        this.disposable.add(
+                Flux.interval(Duration.ofMinutes(1))
+                    .subscribe(ignore -> localCache.cleanup()));
 
+        this.touchWriter = new RedisUserTokenTouchWriter(operations, this::getTokenRedisKey, TOKEN_EXPIRES_KEY);
+        this.touchWriter.start();
+        this.disposable.add(touchWriter);
+
+        startExpiredCheck();
     }
 
     @SuppressWarnings("all")
     public RedisUserTokenManager(ReactiveRedisConnectionFactory connectionFactory) {
+        this(connectionFactory, (RedisSerializer) RedisSerializer.java());
+    }
+
+    /**
+     * 使用指定的序列化器序列化token信息
+     *
+     * @param connectionFactory 连接工厂
+     * @param serializer        序列化器,如:{@link CompactRedisSerializer}
+     * @since 4.0.15
+     */
+    @SuppressWarnings("all")
+    public RedisUserTokenManager(ReactiveRedisConnectionFactory connectionFactory, RedisSerializer<Object> serializer) {
         this(new ReactiveRedisTemplate<>(connectionFactory,
                                          RedisSerializationContext
                                                  .newSerializationContext()
                                                  .key((RedisSerializer) RedisSerializer.string())
-                                                 .value(RedisSerializer.java())
+                                                 .value(serializer)
                                                  .hashKey(RedisSerializer.string())
-                                                 .hashValue(RedisSerializer.java())
+                                                 .hashValue(serializer)
                                                  .build()
         ));
     }
@@ -86,6 +166,46 @@ public class RedisUserTokenManager implements UserTokenManager {
     @Setter
     private ApplicationEventPublisher eventPublisher;
 
+    public synchronized void setExpiredCheckInterval(Duration expiredCheckInterval) {
+        this.expiredCheckInterval = expiredCheckInterval;
+        startExpiredCheck();
+    }
+
+    //定时检查过期令牌,否则由redis过期的令牌会一直留在索引中
+    private synchronized void startExpiredCheck() {
+        if (expiredChecker != null) {
+            disposable.remove(expiredChecker);
+            expiredChecker.dispose();
+        }
+        expiredChecker = Flux
+                .interval(expiredCheckInterval)
+                .onBackpressureDrop()
+                .concatMap(ignore -> checkExpiredToken()
+                        .onErrorResume(err -> {
+                            log.warn("check expired user token error", err);
+                            return Mono.empty();
+                        }))
+                .subscribe();
+        disposable.add(expiredChecker);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (rebuildIndexOnStartup) {
+            rebuildIndexOnce()
+                    .subscribe(rebuilt -> {
+                        if (rebuilt) {
+                            log.info("rebuild user token index complete");
+                        }
+                    }, err -> log.warn("rebuild user token index error", err));
+        }
+    }
+
+    @Override
+    public void destroy() {
+        disposable.dispose();
+    }
+
     private String getTokenRedisKey(String key) {
         return "user-token:".concat(key);
     }
@@ -94,6 +214,104 @@ public class RedisUserTokenManager implements UserTokenManager {
         return "user-token-user:".concat(key);
     }
 
+    /**
+     * 从索引中移除令牌,用户没有其他令牌时从在线用户中移除.
+     * <p>
+     * 每个key单独执行命令,不使用脚本,用户令牌集合与索引可以位于redis集群的不同slot中.
+     * 最后才从过期时间索引中移除,前面的命令失败时,下次检查过期令牌时会重新移除.
+     * 移除失败只记录日志,不影响退出登录.
+     *
+     * @param token  令牌
+     * @param userId 用户ID
+     * @return void
+     */
+    private Mono<Void> removeTokenIndex(String token, String userId) {
+        return Mono
+                .when(userTokenMapping.remove(getUserRedisKey(userId), token),
+                      userTokenStore.remove(TOKEN_OWNERS_KEY, token))
+                .then(removeLoggedUserIfAbsent(userId))
+                .then(operations.opsForZSet().remove(TOKEN_EXPIRES_KEY, token))
+                .onErrorResume(err -> {
+                    log.warn("remove user token [{}] index error", token, err);
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    //用户没有令牌时从在线用户中移除,移除后用户又登录了则重新添加
+    private Mono<Void> removeLoggedUserIfAbsent(String userId) {
+        String userKey = getUserRedisKey(userId);
+        return userTokenMapping
+                .size(userKey)
+                .filter(size -> size == 0)
+                .flatMap(ignore -> userTokenMapping
+                        .remove(LOGGED_USERS_KEY, userId)
+                        .then(userTokenMapping.size(userKey)))
+                .filter(size -> size > 0)
+                .flatMap(ignore -> userTokenMapping.add(LOGGED_USERS_KEY, userId))
+                .then();
+    }
+
+    private Mono<Void> addTokenIndex(String token, String userId, long maxInactiveInterval) {
+        Mono<Boolean> expires = maxInactiveInterval > 0
+                ? operations.opsForZSet().add(TOKEN_EXPIRES_KEY, token, System.currentTimeMillis() + maxInactiveInterval)
+                : Mono.empty();
+        return Mono.when(
+                userTokenMapping.add(getUserRedisKey(userId), token)
+                                .then(userTokenMapping.add(LOGGED_USERS_KEY, userId)),
+                userTokenStore.put(TOKEN_OWNERS_KEY, token, userId),
+                expires
+        );
+    }
+
+    /**
+     * 根据当前redis中的令牌重建在线用户,令牌数量以及过期时间索引.
+     * <p>
+     * 此操作会使用scan扫描整个redis,仅用于从旧版本升级后初始化索引.
+     *
+     * @return void
+     * @since 4.0.15
+     */
+    public Mono<Void> rebuildIndex() {
+        return operations
+                .scan(ScanOptions
+                              .scanOptions()
+                              .match("*user-token:*")
+                              .build())
+                .map(val -> String.valueOf(val).substring(11))
+                .flatMap(token -> getByToken(token)
+                        .flatMap(userToken -> addTokenIndex(token, userToken.getUserId(), userToken.getMaxInactiveInterval())))
+                .then();
+    }
+
+    /**
+     * 重建索引,整个集群只会成功执行一次.
+     * <p>
+     * 重建期间持有有效期为{@link #getRebuildIndexLockTtl()}的锁,完成后才设置已重建的标记,
+     * 重建失败或者节点在重建过程中退出时,下次(锁过期后)仍然可以重建.
+     *
+     * @return 是否执行了重建
+     * @see #rebuildIndex()
+     * @since 4.0.15
+     */
+    public Mono<Boolean> rebuildIndexOnce() {
+        return operations
+                .hasKey(INDEX_REBUILT_KEY)
+                .filter(rebuilt -> !rebuilt)
+                .flatMap(ignore -> operations
+                        .opsForValue()
+                        .setIfAbsent(INDEX_REBUILD_LOCK_KEY, System.currentTimeMillis(), rebuildIndexLockTtl))
+                .filter(Boolean::booleanValue)
+                .flatMap(ignore -> rebuildIndex()
+                        .then(operations.opsForValue().set(INDEX_REBUILT_KEY, System.currentTimeMillis()))
+                        .then(operations.delete(INDEX_REBUILD_LOCK_KEY))
+                        .onErrorResume(err -> operations
+                                .delete(INDEX_REBUILD_LOCK_KEY)
+                                .then(Mono.error(err)))
+                        .thenReturn(true))
+                .defaultIfEmpty(false);
+    }
+
     @Override
     public Mono<UserToken> getByToken(String token) {
         SimpleUserToken inCache = localCache.get(token);
@@ -105,7 +323,7 @@ public class RedisUserTokenManager implements UserTokenManager {
                 .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue))
                 .filter(map -> !map.isEmpty())
                 .map(SimpleUserToken::of)
-                .doOnNext(userToken -> localCache.put(userToken.getToken(), userToken))
+                .doOnNext(localCache::put)
                 .cast(UserToken.class);
     }
 
@@ -116,8 +334,7 @@ public class RedisUserTokenManager implements UserTokenManager {
                 .members(redisKey)
                 .map(String::valueOf)
                 .flatMap(token -> getByToken(token)
-                        .switchIfEmpty(Mono.defer(() -> userTokenMapping
-                                .remove(redisKey, token)
+                        .switchIfEmpty(Mono.defer(() -> removeTokenIndex(token, userId)
                                 .then(Mono.empty()))));
     }
 
@@ -134,35 +351,23 @@ public class RedisUserTokenManager implements UserTokenManager {
 
     @Override
     public Mono<Integer> totalUser() {
-
-        return operations
-                .scan(ScanOptions
-                              .scanOptions()
-                              .match("*user-token-user:*")
-                              .build())
-                .count()
+        return userTokenMapping
+                .size(LOGGED_USERS_KEY)
                 .map(Long::intValue);
     }
 
     @Override
     public Mono<Integer> totalToken() {
-        return operations
-                .scan(ScanOptions
-                              .scanOptions()
-                              .match("*user-token:*")
-                              .build())
-                .count()
+        return userTokenStore
+                .size(TOKEN_OWNERS_KEY)
                 .map(Long::intValue);
     }
 
     @Override
     public Flux<UserToken> allLoggedUser() {
-        return operations
-                .scan(ScanOptions
-                              .scanOptions()
-                              .match("*user-token:*")
-                              .build())
-                .map(val -> String.valueOf(val).substring(11))
+        return userTokenStore
+                .scan(TOKEN_OWNERS_KEY)
+                .map(Map.Entry::getKey)
                 .flatMap(this::getByToken);
     }
 
@@ -172,6 +377,7 @@ public class RedisUserTokenManager implements UserTokenManager {
                 .getByUserId(userId)
                 .flatMap(userToken -> operations
                         .delete(getTokenRedisKey(userToken.getToken()))
+                        .then(removeTokenIndex(userToken.getToken(), userId))
                         .then(onTokenRemoved(userToken)))
                 .then(operations.delete(getUserRedisKey(userId)))
                 .then();
@@ -184,7 +390,7 @@ public class RedisUserTokenManager implements UserTokenManager {
         return getByToken(token)
                 .flatMap(t -> operations
                         .delete(getTokenRedisKey(t.getToken()))
-                        .then(userTokenMapping.remove(getUserRedisKey(t.getUserId()), token))
+                        .then(removeTokenIndex(token, t.getUserId()))
                         .then(onTokenRemoved(t))
                 )
                 .then();
@@ -237,7 +443,7 @@ public class RedisUserTokenManager implements UserTokenManager {
                                     }
                                     return Mono.empty();
                                 }))
-                                .then(userTokenMapping.add(getUserRedisKey(userId), token))
+                                .then(addTokenIndex(token, userId, maxInactiveInterval))
                                 .thenReturn(SimpleUserToken.of(map));
                     });
 
@@ -292,36 +498,60 @@ public class RedisUserTokenManager implements UserTokenManager {
             inCache.setLastRequestTime(System.currentTimeMillis());
             if (inCache.getMaxInactiveInterval() > 0) {
                 //异步touch
-                touchSink.next(inCache);
+                touchWriter.touch(token, inCache.getMaxInactiveInterval());
             }
             return Mono.empty();
         }
         return getByToken(token)
                 .flatMap(userToken -> {
-                    if (userToken.getMaxInactiveInterval() > 0) {
-                        touchSink.next(userToken);
-                    }
+                    touchWriter.touch(token, userToken.getMaxInactiveInterval());
                     return Mono.empty();
                 });
     }
 
+    /**
+     * 从过期时间索引中获取已到期的令牌进行检查,只处理到期的令牌,不再扫描所有用户.
+     * 令牌仍然存在时(其他节点刷新了有效期),根据剩余有效期更新索引.
+     */
     @Override
     public Mono<Void> checkExpiredToken() {
+        Mono<Long> batch = Mono
+                .defer(() -> operations
+                        .opsForZSet()
+                        .rangeByScore(TOKEN_EXPIRES_KEY,
+                                      Range.closed(0D, (double) System.currentTimeMillis()),
+                                      RedisZSetCommands.Limit.limit().count(EXPIRED_CHECK_BATCH_SIZE))
+                        .map(String::valueOf)
+                        .flatMap(token -> checkExpiredToken(token).thenReturn(token))
+                        .count());
+        return batch
+                //一批处理满了则继续处理下一批
+                .expand(count -> count == EXPIRED_CHECK_BATCH_SIZE ? batch : Mono.empty())
+                .then();
+    }
 
+    private Mono<Void> checkExpiredToken(String token) {
         return operations
-                .scan(ScanOptions.scanOptions().match("*user-token-user:*").build())
-                .map(String::valueOf)
-                .flatMap(key -> userTokenMapping
-                        .members(key)
+                .getExpire(getTokenRedisKey(token))
+                .flatMap(ttl -> {
+                    //令牌不再过期
+                    if (ttl.isZero()) {
+                        return operations.opsForZSet().remove(TOKEN_EXPIRES_KEY, token).thenReturn(true);
+                    }
+                    return operations
+                            .opsForZSet()
+                            .add(TOKEN_EXPIRES_KEY, token, System.currentTimeMillis() + ttl.toMillis());
+                })
+                //令牌已经过期
+                .switchIfEmpty(Mono.defer(() -> userTokenStore
+                        .get(TOKEN_OWNERS_KEY, token)
                         .map(String::valueOf)
-                        .flatMap(token -> operations
-                                .hasKey(getTokenRedisKey(token))
-                                .flatMap(exists -> {
-                                    if (!exists) {
-                                        return userTokenMapping.remove(key, token);
-                                    }
-                                    return Mono.empty();
-                                })))
+                        .flatMap(userId -> removeTokenIndex(token, userId).thenReturn(true))
+                        //没有令牌所属用户的信息时,仅从过期时间索引中移除
+                        .switchIfEmpty(Mono.defer(() -> operations
+                                .opsForZSet()
+                                .remove(TOKEN_EXPIRES_KEY, token)
+                                .thenReturn(true)))))
                 .then();
     }
 
@@ -340,7 +570,7 @@ public class RedisUserTokenManager implements UserTokenManager {
     }
 
     private Mono<Void> onTokenChanged(UserToken old, SimpleUserToken newToken) {
-        localCache.put(newToken.getToken(), newToken);
+        localCache.put(newToken);
         if (eventPublisher == null) {
             return notifyTokenRemoved(newToken.getToken());
         }
@@ -348,7 +578,7 @@ public class RedisUserTokenManager implements UserTokenManager {
     }
 
     private Mono<UserToken> onUserTokenCreated(SimpleUserToken token) {
-        localCache.put(token.getToken(), token);
+        localCache.put(token);
         if (eventPublisher == null) {
             return notifyTokenRemoved(token.getToken())
                     .thenReturn(token);
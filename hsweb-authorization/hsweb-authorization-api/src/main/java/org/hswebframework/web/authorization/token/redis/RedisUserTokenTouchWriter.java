@@ -0,0 +1,246 @@
+package org.hswebframework.web.authorization.token.redis;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.ReactiveKeyCommands;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.ReactiveRedisOperations;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * 批量刷新令牌有效期.
+ * <p>
+ * 调用{@link #touch(String, long)}时只记录令牌,同一个令牌在一个周期内只会刷新一次.
+ * 每隔{@link #setInterval(Duration)}将记录的令牌按{@link #setBatchSize(int)}分批,
+ * 在同一个连接上使用pipeline执行PEXPIRE,使得刷新的开销与批次数量相关,而不是令牌数量.
+ * 设置了expiresIndexKey时,同时使用一条ZADD命令更新令牌过期时间索引.
+ *
+ * @since 4.0.15
+ */
+@Slf4j
+public class RedisUserTokenTouchWriter implements Disposable {
+
+    private final ReactiveRedisOperations<Object, Object> operations;
+
+    private final Function<String, String> keyMapper;
+
+    private final String expiresIndexKey;
+
+    //令牌->最大不活动时间
+    private final Map<String, Long> pending = new ConcurrentHashMap<>();
+
+    private final AtomicBoolean flushing = new AtomicBoolean();
+
+    private final LongAdder touchedCount = new LongAdder();
+
+    private final LongAdder flushCount = new LongAdder();
+
+    private final LongAdder batchCount = new LongAdder();
+
+    private final AtomicLong lastFlushNanos = new AtomicLong();
+
+    private final AtomicLong maxFlushNanos = new AtomicLong();
+
+    /**
+     * 刷新周期
+     */
+    @Getter
+    private Duration interval = Duration.ofSeconds(10);
+
+    /**
+     * 每批最多刷新的令牌数量
+     */
+    @Getter
+    private int batchSize = 1000;
+
+    private volatile Disposable disposable;
+
+    public RedisUserTokenTouchWriter(ReactiveRedisOperations<Object, Object> operations,
+                                     Function<String, String> keyMapper) {
+        this(operations, keyMapper, null);
+    }
+
+    /**
+     * @param operations      ReactiveRedisOperations
+     * @param keyMapper       令牌转换为redis key
+     * @param expiresIndexKey 令牌过期时间索引(sorted set)的key,为null时不更新索引
+     */
+    public RedisUserTokenTouchWriter(ReactiveRedisOperations<Object, Object> operations,
+                                     Function<String, String> keyMapper,
+                                     String expiresIndexKey) {
+        this.operations = operations;
+        this.keyMapper = keyMapper;
+        this.expiresIndexKey = expiresIndexKey;
+    }
+
+    /**
+     * 记录需要刷新有效期的令牌,将在下一个周期中刷新
+     *
+     * @param token               令牌
+     * @param maxInactiveInterval 最大不活动时间,单位毫秒
+     */
+    public void touch(String token, long maxInactiveInterval) {
+        if (maxInactiveInterval <= 0) {
+            return;
+        }
+        pending.put(token, maxInactiveInterval);
+    }
+
+    public void setInterval(Duration interval) {
+        this.interval = interval;
+        if (disposable != null) {
+            start();
+        }
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    public synchronized void start() {
+        if (disposable != null) {
+            disposable.dispose();
+        }
+        disposable = Flux
+                .interval(interval)
+                .onBackpressureDrop()
+                .concatMap(ignore -> flush()
+                        .onErrorResume(err -> {
+                            log.warn("flush user token touch error", err);
+                            return Mono.empty();
+                        }))
+                .subscribe();
+    }
+
+    /**
+     * 立即刷新所有已记录的令牌
+     *
+     * @return void
+     */
+    public Mono<Void> flush() {
+        return Mono.defer(() -> {
+            if (pending.isEmpty() || !flushing.compareAndSet(false, true)) {
+                return Mono.empty();
+            }
+            List<Map.Entry<String, Long>> tokens = new ArrayList<>(pending.size());
+            for (String token : pending.keySet()) {
+                Long maxInactiveInterval = pending.remove(token);
+                if (maxInactiveInterval != null) {
+                    tokens.add(new AbstractMap.SimpleImmutableEntry<>(token, maxInactiveInterval));
+                }
+            }
+            long startTime = System.nanoTime();
+            return Flux
+                    .fromIterable(tokens)
+                    .buffer(batchSize)
+                    .concatMap(this::writeBatch)
+                    .then()
+                    .doFinally(signal -> {
+                        long nanos = System.nanoTime() - startTime;
+                        lastFlushNanos.set(nanos);
+                        maxFlushNanos.accumulateAndGet(nanos, Math::max);
+                        flushCount.increment();
+                        flushing.set(false);
+                    });
+        });
+    }
+
+    @SuppressWarnings("all")
+    private Mono<Void> writeBatch(List<Map.Entry<String, Long>> batch) {
+        RedisSerializationContext.SerializationPair<Object> keyPair = operations
+                .getSerializationContext()
+                .getKeySerializationPair();
+        Mono<Void> expire = operations
+                .execute(connection -> connection
+                        .keyCommands()
+                        .pExpire(Flux
+                                         .fromIterable(batch)
+                                         .map(e -> {
+                                             ByteBuffer key = keyPair.write(keyMapper.apply(e.getKey()));
+                                             return ReactiveKeyCommands.ExpireCommand
+                                                     .key(key)
+                                                     .timeout(Duration.ofMillis(e.getValue()));
+                                         })))
+                .then();
+        if (expiresIndexKey != null) {
+            long now = System.currentTimeMillis();
+            Set<ZSetOperations.TypedTuple<Object>> tuples = new HashSet<>(batch.size());
+            for (Map.Entry<String, Long> e : batch) {
+                tuples.add(new DefaultTypedTuple<>(e.getKey(), (double) (now + e.getValue())));
+            }
+            expire = Mono.when(expire, operations.opsForZSet().addAll(expiresIndexKey, tuples));
+        }
+        return expire
+                .doOnSuccess(ignore -> {
+                    batchCount.increment();
+                    touchedCount.add(batch.size());
+                });
+    }
+
+    /**
+     * @return 等待刷新的令牌数量
+     */
+    public int getQueueSize() {
+        return pending.size();
+    }
+
+    /**
+     * @return 已刷新的令牌数量
+     */
+    public long getTouchedCount() {
+        return touchedCount.sum();
+    }
+
+    /**
+     * @return 已执行的刷新次数
+     */
+    public long getFlushCount() {
+        return flushCount.sum();
+    }
+
+    /**
+     * @return 已执行的批次数量
+     */
+    public long getBatchCount() {
+        return batchCount.sum();
+    }
+
+    /**
+     * @return 最近一次刷新的耗时
+     */
+    public Duration getLastFlushLatency() {
+        return Duration.ofNanos(lastFlushNanos.get());
+    }
+
+    /**
+     * @return 刷新的最大耗时
+     */
+    public Duration getMaxFlushLatency() {
+        return Duration.ofNanos(maxFlushNanos.get());
+    }
+
+    @Override
+    public synchronized void dispose() {
+        if (disposable != null) {
+            disposable.dispose();
+        }
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return disposable == null || disposable.isDisposed();
+    }
+}
@@ -0,0 +1,221 @@
+package org.hswebframework.web.authorization.token.redis;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 用户令牌本地缓存,限制缓存数量以及有效期,避免令牌在redis中过期后本地缓存无限增长.
+ * <p>
+ * 缓存有效期取以下两者中较早的时间:
+ * <ul>
+ *     <li>令牌的最后请求时间+最大不活动时间({@link SimpleUserToken#getMaxInactiveInterval()})</li>
+ *     <li>放入缓存的时间+{@link #setTimeToLive(Duration)}</li>
+ * </ul>
+ * 缓存数量超过{@link #setMaximumSize(int)}时,优先清除已过期的缓存,然后按过期时间从早到晚清除,直到数量低于上限的90%.
+ * 清理在{@link #setCleanupScheduler(Scheduler)}中异步执行,不会阻塞放入缓存的线程(通常是IO线程),
+ * 因此清理完成前缓存数量可能短暂超过上限.
+ *
+ * @since 4.0.15
+ */
+@Slf4j
+public class UserTokenNearCache {
+
+    private final Map<String, Entry> cache = new ConcurrentHashMap<>();
+
+    private final AtomicBoolean cleaning = new AtomicBoolean();
+
+    private final LongAdder hitCount = new LongAdder();
+
+    private final LongAdder missCount = new LongAdder();
+
+    private final LongAdder expiredCount = new LongAdder();
+
+    private final LongAdder evictionCount = new LongAdder();
+
+    /**
+     * 最大缓存数量
+     */
+    @Getter
+    @Setter
+    private int maximumSize = 100_000;
+
+    /**
+     * 本地缓存最大存活时间,超过后将重新从redis中加载
+     */
+    @Getter
+    @Setter
+    private Duration timeToLive = Duration.ofMinutes(30);
+
+    /**
+     * 执行清理的调度器
+     */
+    @Getter
+    @Setter
+    private Scheduler cleanupScheduler = Schedulers.boundedElastic();
+
+    public SimpleUserToken get(String token) {
+        Entry entry = cache.get(token);
+        if (entry == null) {
+            missCount.increment();
+            return null;
+        }
+        if (entry.isExpired(System.currentTimeMillis())) {
+            if (cache.remove(token, entry)) {
+                expiredCount.increment();
+            }
+            missCount.increment();
+            return null;
+        }
+        hitCount.increment();
+        return entry.token;
+    }
+
+    public void put(SimpleUserToken token) {
+        cache.put(token.getToken(), new Entry(token, System.currentTimeMillis() + timeToLive.toMillis()));
+        if (cache.size() > maximumSize) {
+            scheduleCleanup();
+        }
+    }
+
+    private void scheduleCleanup() {
+        if (!cleaning.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            cleanupScheduler.schedule(() -> {
+                try {
+                    doCleanup();
+                } catch (Throwable error) {
+                    log.warn("cleanup user token cache error", error);
+                } finally {
+                    cleaning.set(false);
+                }
+                //清理期间又放入了缓存
+                if (cache.size() > maximumSize) {
+                    scheduleCleanup();
+                }
+            });
+        } catch (Throwable error) {
+            //调度器已关闭
+            cleaning.set(false);
+            log.warn("schedule user token cache cleanup error", error);
+        }
+    }
+
+    public void remove(String token) {
+        cache.remove(token);
+    }
+
+    public void clear() {
+        cache.clear();
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    /**
+     * 清除已过期的缓存,如果缓存数量仍然超过上限,则按过期时间从早到晚清除.
+     * 同一时间只有一个线程执行清理.
+     */
+    public void cleanup() {
+        if (!cleaning.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            doCleanup();
+        } finally {
+            cleaning.set(false);
+        }
+    }
+
+    private void doCleanup() {
+        long now = System.currentTimeMillis();
+        cache.entrySet().removeIf(e -> {
+            if (e.getValue().isExpired(now)) {
+                expiredCount.increment();
+                return true;
+            }
+            return false;
+        });
+        int size = cache.size();
+        if (size <= maximumSize) {
+            return;
+        }
+        int retain = Math.max(1, maximumSize * 9 / 10);
+        //touch会修改过期时间,排序前先固定下来
+        List<Object[]> entries = new ArrayList<>(size);
+        cache.forEach((key, entry) -> entries.add(new Object[]{key, entry, entry.getExpireAt()}));
+        entries.sort(Comparator.comparingLong(e -> (long) e[2]));
+        for (int i = 0, len = entries.size() - retain; i < len; i++) {
+            Object[] e = entries.get(i);
+            if (cache.remove(e[0], e[1])) {
+                evictionCount.increment();
+            }
+        }
+    }
+
+    /**
+     * @return 命中次数
+     */
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * @return 未命中次数
+     */
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * @return 因过期而清除的数量
+     */
+    public long getExpiredCount() {
+        return expiredCount.sum();
+    }
+
+    /**
+     * @return 因超过最大数量而清除的数量
+     */
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    private static class Entry {
+        private final SimpleUserToken token;
+
+        private final long deadline;
+
+        Entry(SimpleUserToken token, long deadline) {
+            this.token = token;
+            this.deadline = deadline;
+        }
+
+        //令牌被touch时会更新最后请求时间,因此过期时间需要每次计算
+        long getExpireAt() {
+            long maxInactiveInterval = token.getMaxInactiveInterval();
+            if (maxInactiveInterval > 0) {
+                return Math.min(deadline, token.getLastRequestTime() + maxInactiveInterval);
+            }
+            return deadline;
+        }
+
+        boolean isExpired(long now) {
+            return now > getExpireAt();
+        }
+    }
+}
@@ -3,10 +3,17 @@ package org.hswebframework.web.authorization;
 import org.hswebframework.web.authorization.exception.AccessDenyException;
 import org.hswebframework.web.authorization.simple.SimpleAuthentication;
 import org.hswebframework.web.authorization.token.*;
+import org.hswebframework.web.authorization.token.event.UserTokenRemovedEvent;
 import org.junit.Assert;
 import org.junit.Test;
 import reactor.test.StepVerifier;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
 public class UserTokenManagerTests {
 
 
@@ -115,6 +122,88 @@ public class UserTokenManagerTests {
 
     }
 
+    /**
+     * 测试过期令牌自动移除
+     */
+    @Test
+    public void testAutoExpire() throws InterruptedException {
+        DefaultUserTokenManager userTokenManager = new DefaultUserTokenManager();
+        List<UserTokenRemovedEvent> events = new CopyOnWriteArrayList<>();
+        userTokenManager.setEventPublisher(event -> {
+            if (event instanceof UserTokenRemovedEvent) {
+                events.add(((UserTokenRemovedEvent) event));
+            }
+        });
+
+        userTokenManager.signIn("test", "sessionId", "admin", 100).block();
+        userTokenManager.signIn("test2", "sessionId", "admin", 100).block();
+        userTokenManager.signIn("test3", "sessionId", "admin", -1).block();
+
+        Thread.sleep(3000);
+
+        Assert.assertEquals(2, events.size());
+        Assert.assertNull(userTokenManager.getByToken("test").block());
+        Assert.assertEquals(TokenState.expired, events.get(0).getDetail().getState());
+
+        userTokenManager.totalToken()
+                        .as(StepVerifier::create)
+                        .expectNext(1)
+                        .verifyComplete();
+    }
+
+    /**
+     * 测试自定义过期检查周期以及销毁
+     */
+    @Test
+    public void testExpirationCheckConfig() throws InterruptedException {
+        DefaultUserTokenManager userTokenManager = new DefaultUserTokenManager();
+        userTokenManager.signIn("test", "sessionId", "admin", 100).block();
+
+        userTokenManager.setExpirationCheckTick(Duration.ofMillis(50));
+        userTokenManager.setExpirationCheckSlots(16);
+
+        //已有的令牌调度到了新的时间轮中
+        Assert.assertEquals(1, userTokenManager.getExpirationWheel().size());
+        Thread.sleep(500);
+        Assert.assertEquals(1, userTokenManager.getExpirationWheel().getExpiredCount());
+
+        userTokenManager.totalToken()
+                        .as(StepVerifier::create)
+                        .expectNext(0)
+                        .verifyComplete();
+
+        userTokenManager.destroy();
+        Assert.assertTrue(userTokenManager.getExpirationWheel().isDisposed());
+    }
+
+    /**
+     * 测试延迟启动过期检查,启动时调度已有的令牌
+     */
+    @Test
+    public void testExistingTokenExpiration() throws InterruptedException {
+        LocalUserToken existing = new LocalUserToken("admin", "existing");
+        existing.setType("sessionId");
+        existing.setState(TokenState.normal);
+        existing.setMaxInactiveInterval(100);
+        ConcurrentMap<String, LocalUserToken> storage = new ConcurrentHashMap<>();
+        storage.put(existing.getToken(), existing);
+
+        DefaultUserTokenManager userTokenManager = new DefaultUserTokenManager(storage);
+        userTokenManager.setExpirationCheckTick(Duration.ofMillis(50));
+        //没有登录会过期的令牌时不启动
+        Assert.assertNull(userTokenManager.getExpirationWheel());
+
+        userTokenManager.signIn("test", "sessionId", "admin", 100).block();
+        Assert.assertEquals(2, userTokenManager.getExpirationWheel().size());
+        Thread.sleep(500);
+
+        userTokenManager.totalToken()
+                        .as(StepVerifier::create)
+                        .expectNext(0)
+                        .verifyComplete();
+        userTokenManager.destroy();
+    }
+
     @Test
     public void testAuth() {
         UserTokenManager userTokenManager = new DefaultUserTokenManager();
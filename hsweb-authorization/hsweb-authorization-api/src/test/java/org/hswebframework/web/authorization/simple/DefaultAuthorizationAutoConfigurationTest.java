@@ -0,0 +1,52 @@
+package org.hswebframework.web.authorization.simple;
+
+import org.hswebframework.web.authorization.token.redis.CompactRedisSerializer;
+import org.junit.Test;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class DefaultAuthorizationAutoConfigurationTest {
+
+    @Test
+    public void testCompactRedisSerializer() {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("hsweb.authorize.redis.serializer", "compact");
+        properties.put("hsweb.authorize.redis.compress-threshold", "128");
+
+        try (AnnotationConfigApplicationContext context = createContext(properties)) {
+            CompactRedisSerializer serializer = context.getBean(CompactRedisSerializer.class);
+            assertEquals(128, serializer.getCompressThreshold());
+        }
+    }
+
+    @Test
+    public void testDefaultSerializer() {
+        try (AnnotationConfigApplicationContext context = createContext(new HashMap<>())) {
+            assertEquals(0, context.getBeanNamesForType(CompactRedisSerializer.class).length);
+        }
+    }
+
+    private AnnotationConfigApplicationContext createContext(Map<String, Object> properties) {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.getEnvironment()
+               .getPropertySources()
+               .addFirst(new MapPropertySource("test", properties));
+        context.register(PropertiesConfiguration.class,
+                         DefaultAuthorizationAutoConfiguration.CompactRedisSerializerConfiguration.class);
+        context.refresh();
+        return context;
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @EnableConfigurationProperties
+    static class PropertiesConfiguration {
+
+    }
+}
@@ -0,0 +1,156 @@
+package org.hswebframework.web.authorization.simple;
+
+import org.hswebframework.web.authorization.DefaultDimensionType;
+import org.hswebframework.web.authorization.DimensionType;
+import org.hswebframework.web.authorization.Permission;
+import org.hswebframework.web.authorization.annotation.Logical;
+import org.hswebframework.web.authorization.define.ResourceDefinition;
+import org.hswebframework.web.authorization.define.ResourcesDefinition;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class SimpleAuthenticationTest {
+
+    private static Permission createPermission(String id, String... actions) {
+        return SimplePermission
+                .builder()
+                .id(id)
+                .name(id)
+                .actions(new HashSet<>(Arrays.asList(actions)))
+                .build();
+    }
+
+    @Test
+    public void testIndex() {
+        SimpleAuthentication authentication = new SimpleAuthentication();
+        authentication.getPermissions().add(createPermission("user", "query", "save"));
+        authentication.getDimensions().add(SimpleDimension.of("admin", "管理员", DefaultDimensionType.role, null));
+
+        assertTrue(authentication.hasPermission("user", "query"));
+        assertFalse(authentication.hasPermission("user", "delete"));
+        assertFalse(authentication.hasPermission("role"));
+        assertTrue(authentication.hasDimension("role", "admin"));
+        assertTrue(authentication.hasDimension("role", Collections.emptyList()));
+        assertTrue(authentication.getDimension("ROLE", "admin").isPresent());
+        assertTrue(authentication.hasDimension(DefaultDimensionType.role, "admin"));
+        assertEquals(1, authentication.getDimensions(DefaultDimensionType.role).size());
+        assertTrue(authentication.getDimensions("org").isEmpty());
+
+        //修改后索引重新创建
+        authentication.getPermissions().add(createPermission("role", "query"));
+        assertTrue(authentication.hasPermission("role", "query"));
+        authentication.getPermission("user").ifPresent(permission -> permission.getActions().add("delete"));
+        assertTrue(authentication.hasPermission("user", "delete"));
+
+        authentication.setDimensions(Collections.emptyList());
+        assertFalse(authentication.hasDimension("role", "admin"));
+    }
+
+    @Test
+    public void testIndexAfterInPlaceModify() {
+        SimpleAuthentication authentication = new SimpleAuthentication();
+        authentication.getPermissions().add(createPermission("user", "query"));
+        authentication.getDimensions().add(SimpleDimension.of("admin", "管理员", DefaultDimensionType.role, null));
+        assertTrue(authentication.hasPermission("user", "query"));
+        assertTrue(authentication.hasDimension("role", "admin"));
+
+        //替换元素,列表大小不变
+        authentication.getPermissions().set(0, createPermission("role", "query"));
+        assertFalse(authentication.hasPermission("user", "query"));
+        assertTrue(authentication.hasPermission("role", "query"));
+
+        //删除后再新增,列表大小不变
+        authentication.getDimensions().remove(0);
+        authentication.getDimensions().add(SimpleDimension.of("test", "测试", DefaultDimensionType.role, null));
+        assertFalse(authentication.hasDimension("role", "admin"));
+        assertTrue(authentication.hasDimension("role", "test"));
+
+        authentication.getPermissions().removeIf(permission -> permission.getId().equals("role"));
+        assertFalse(authentication.hasPermission("role", "query"));
+
+        //设置后再修改原列表不影响权限信息
+        List<Permission> permissions = new ArrayList<>();
+        permissions.add(createPermission("user", "query"));
+        authentication.setPermissions(permissions);
+        assertTrue(authentication.hasPermission("user", "query"));
+        permissions.set(0, createPermission("role", "query"));
+        assertTrue(authentication.hasPermission("user", "query"));
+        assertFalse(authentication.hasPermission("role", "query"));
+    }
+
+    @Test
+    public void testCustomSameType() {
+        //role类型的别名
+        DimensionType alias = new DimensionType() {
+            @Override
+            public String getId() {
+                return "role-alias";
+            }
+
+            @Override
+            public String getName() {
+                return "角色别名";
+            }
+
+            @Override
+            public boolean isSameType(String anotherId) {
+                return "role".equals(anotherId) || getId().equals(anotherId);
+            }
+        };
+        SimpleAuthentication authentication = new SimpleAuthentication();
+        authentication.getDimensions().add(SimpleDimension.of("admin", "管理员", alias, null));
+        authentication.getDimensions().add(SimpleDimension.of("test", "测试", DefaultDimensionType.role, null));
+
+        assertTrue(authentication.hasDimension("role", "admin"));
+        assertEquals(2, authentication.getDimensions("role").size());
+        assertEquals(2, authentication.getDimensions(DefaultDimensionType.role).size());
+        assertTrue(authentication.getDimension(alias, "test").isPresent());
+        assertFalse(authentication.getDimension(DefaultDimensionType.role, "admin").isPresent());
+        assertEquals(1, authentication.getDimensions("role-alias").size());
+    }
+
+    @Test
+    public void testMerge() {
+        SimpleAuthentication authentication = new SimpleAuthentication();
+        authentication.getPermissions().add(createPermission("user", "query"));
+        authentication.getDimensions().add(SimpleDimension.of("admin", "管理员", DefaultDimensionType.role, null));
+
+        SimpleAuthentication other = new SimpleAuthentication();
+        other.getPermissions().add(createPermission("user", "save"));
+        other.getPermissions().add(createPermission("role", "query"));
+        other.getDimensions().add(SimpleDimension.of("admin", "管理员", DefaultDimensionType.role, null));
+        other.getDimensions().add(SimpleDimension.of("test", "测试", DefaultDimensionType.role, null));
+
+        authentication.merge(other);
+
+        assertTrue(authentication.hasPermission("user", "query", "save"));
+        assertTrue(authentication.hasPermission("role", "query"));
+        assertEquals(2, authentication.getPermissions().size());
+        assertEquals(2, authentication.getDimensions("role").size());
+    }
+
+    @Test
+    public void testResourcesDefinition() {
+        SimpleAuthentication authentication = new SimpleAuthentication();
+        authentication.getPermissions().add(createPermission("user", "query"));
+        authentication.getPermissions().add(createPermission("role", "query"));
+
+        ResourcesDefinition definition = new ResourcesDefinition();
+        definition.addResource(ResourceDefinition.of("user", "用户").addAction("query", "查询"), false);
+        definition.addResource(ResourceDefinition.of("menu", "菜单").addAction("query", "查询"), false);
+
+        assertTrue(definition.hasPermission(authentication));
+        assertEquals(definition.hasPermission(authentication.getPermissions()), definition.hasPermission(authentication));
+
+        definition.setLogical(Logical.AND);
+        assertFalse(definition.hasPermission(authentication));
+        assertEquals(definition.hasPermission(authentication.getPermissions()), definition.hasPermission(authentication));
+    }
+}
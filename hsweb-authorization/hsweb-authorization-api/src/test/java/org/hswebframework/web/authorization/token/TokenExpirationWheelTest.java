@@ -0,0 +1,89 @@
+package org.hswebframework.web.authorization.token;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.Assert.*;
+
+public class TokenExpirationWheelTest {
+
+    @Test
+    public void test() {
+        Map<String, Long> expires = new ConcurrentHashMap<>();
+        List<List<String>> batches = new ArrayList<>();
+
+        TokenExpirationWheel wheel = new TokenExpirationWheel(Duration.ofMillis(100), 8, expires::get, batches::add);
+
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < 10; i++) {
+            expires.put("test" + i, now + 100);
+            wheel.schedule("test" + i, now + 100);
+        }
+        //超过一圈
+        expires.put("long", now + 5000);
+        wheel.schedule("long", now + 5000);
+        //已经移除的令牌
+        wheel.schedule("removed", now + 100);
+
+        assertEquals(12, wheel.size());
+
+        wheel.advance(now + 50);
+        assertTrue(batches.isEmpty());
+
+        wheel.advance(now + 400);
+        assertEquals(1, batches.size());
+        assertEquals(10, batches.get(0).size());
+        assertEquals(10, wheel.getExpiredCount());
+        assertEquals(1, wheel.size());
+
+        //访问后延长了有效期
+        expires.put("long", now + 6000);
+        wheel.advance(now + 5500);
+        assertEquals(1, batches.size());
+        assertEquals(1, wheel.size());
+
+        wheel.advance(now + 6500);
+        assertEquals(2, batches.size());
+        assertEquals("long", batches.get(1).get(0));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void testScheduleWhileAdvancing() throws Exception {
+        Map<String, Long> expires = new ConcurrentHashMap<>();
+        LongAdder handled = new LongAdder();
+        TokenExpirationWheel wheel = new TokenExpirationWheel(Duration.ofMillis(10), 8, expires::get, list -> handled.add(list.size()));
+
+        long now = System.currentTimeMillis();
+        int count = 200000;
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicLong tick = new AtomicLong();
+        Thread advancer = new Thread(() -> {
+            while (!done.get()) {
+                wheel.advance(now + tick.incrementAndGet() * 10);
+            }
+        });
+        advancer.start();
+        for (int i = 0; i < count; i++) {
+            String token = "test" + i;
+            expires.put(token, 0L);
+            //已经过期的令牌,放入下一个周期
+            wheel.schedule(token, 0L);
+        }
+        done.set(true);
+        advancer.join();
+
+        //处理完下一个周期后,不会有令牌留在已经处理过的槽中
+        wheel.advance(now + (tick.get() + 1) * 10);
+        assertEquals(0, wheel.size());
+        assertEquals(count, handled.sum());
+    }
+}
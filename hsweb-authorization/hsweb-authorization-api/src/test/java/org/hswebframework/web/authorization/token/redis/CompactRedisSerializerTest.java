@@ -0,0 +1,119 @@
+package org.hswebframework.web.authorization.token.redis;
+
+import com.alibaba.fastjson.JSON;
+import org.hswebframework.web.authorization.Authentication;
+import org.hswebframework.web.authorization.simple.builder.SimpleAuthenticationBuilder;
+import org.hswebframework.web.authorization.simple.builder.SimpleDataAccessConfigBuilderFactory;
+import org.hswebframework.web.authorization.token.TokenState;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+public class CompactRedisSerializerTest {
+
+    private Authentication authentication;
+
+    @Before
+    public void init() {
+        SimpleDataAccessConfigBuilderFactory builderFactory = new SimpleDataAccessConfigBuilderFactory();
+        builderFactory.init();
+
+        authentication = new SimpleAuthenticationBuilder(builderFactory)
+                .user("{\"id\":\"admin\",\"username\":\"admin\",\"name\":\"Administrator\",\"userType\":\"default\"}")
+                .role("[{\"id\":\"admin-role\",\"name\":\"admin\"}]")
+                .permission("[{\"id\":\"user-manager\",\"actions\":[\"query\",\"get\",\"update\"]" +
+                                    ",\"dataAccesses\":[{\"action\":\"query\",\"field\":\"test\",\"fields\":[\"1\",\"2\",\"3\"],\"scopeType\":\"CUSTOM_SCOPE\",\"type\":\"DENY_FIELDS\"}]}]")
+                .attributes("{\"tenantId\":\"t1\"}")
+                .build();
+    }
+
+    @Test
+    public void testAuthentication() {
+        CompactRedisSerializer serializer = new CompactRedisSerializer();
+        serializer.setCompressThreshold(0);
+
+        byte[] data = serializer.serialize(authentication);
+        Authentication decoded = (Authentication) serializer.deserialize(data);
+
+        Assert.assertEquals(JSON.toJSONString(authentication), JSON.toJSONString(decoded));
+        Assert.assertTrue(decoded.hasPermission("user-manager", "query"));
+        Assert.assertTrue(decoded.hasDimension("role", "admin-role"));
+        Assert.assertTrue(data.length < RedisSerializer.java().serialize(authentication).length);
+
+        Assert.assertEquals(1, serializer.getEncodeCount());
+        Assert.assertEquals(1, serializer.getDecodeCount());
+        Assert.assertEquals(data.length, serializer.getEncodeBytes());
+    }
+
+    @Test
+    public void testCompress() {
+        CompactRedisSerializer serializer = new CompactRedisSerializer();
+        serializer.setCompressThreshold(16);
+
+        byte[] data = serializer.serialize(authentication);
+        Assert.assertEquals(1, serializer.getCompressedCount());
+        Assert.assertEquals(JSON.toJSONString(authentication), JSON.toJSONString(serializer.deserialize(data)));
+    }
+
+    @Test
+    public void testMaxInflatedSize() {
+        CompactRedisSerializer serializer = new CompactRedisSerializer();
+        serializer.setCompressThreshold(16);
+        byte[] data = serializer.serialize(authentication);
+
+        serializer.setMaxInflatedSize(64);
+        try {
+            serializer.deserialize(data);
+            Assert.fail();
+        } catch (SerializationException ignore) {
+        }
+
+        //截断的压缩数据
+        serializer.setMaxInflatedSize(1024 * 1024);
+        try {
+            serializer.deserialize(Arrays.copyOf(data, data.length / 2));
+            Assert.fail();
+        } catch (SerializationException ignore) {
+        }
+    }
+
+    @Test
+    public void testValues() {
+        CompactRedisSerializer serializer = new CompactRedisSerializer();
+
+        Map<String, Object> map = new HashMap<>();
+        map.put("token", "test");
+        map.put("maxInactiveInterval", 1000L);
+        map.put("state", TokenState.normal.getValue());
+        map.put("enabled", true);
+
+        Assert.assertEquals(map, serializer.deserialize(serializer.serialize(map)));
+        Assert.assertEquals("test", serializer.deserialize(serializer.serialize("test")));
+        Assert.assertEquals(1000L, serializer.deserialize(serializer.serialize(1000L)));
+
+        SimpleUserToken token = new SimpleUserToken();
+        token.setToken("test");
+        token.setUserId("admin");
+        token.setState(TokenState.normal);
+        token.setMaxInactiveInterval(1000);
+        SimpleUserToken decoded = (SimpleUserToken) serializer.deserialize(serializer.serialize(token));
+        Assert.assertEquals(JSON.toJSONString(token), JSON.toJSONString(decoded));
+    }
+
+    @Test
+    public void testReadJavaSerialized() {
+        CompactRedisSerializer serializer = new CompactRedisSerializer();
+
+        byte[] data = RedisSerializer.java().serialize(authentication);
+        Authentication decoded = (Authentication) serializer.deserialize(data);
+        Assert.assertEquals(authentication.getUser().getId(), decoded.getUser().getId());
+        Assert.assertTrue(decoded.hasPermission("user-manager", "query", "get", "update"));
+        Assert.assertTrue(decoded.hasDimension("role", "admin-role"));
+    }
+}
@@ -6,6 +6,7 @@ import org.hswebframework.web.authorization.exception.AccessDenyException;
 import org.hswebframework.web.authorization.exception.UnAuthorizedException;
 import org.hswebframework.web.authorization.simple.SimpleAuthentication;
 import org.hswebframework.web.authorization.token.*;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
@@ -15,6 +16,7 @@ import org.springframework.data.redis.serializer.RedisSerializationContext;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.time.Duration;
 import java.util.HashMap;
 
 import static org.junit.Assert.*;
@@ -23,6 +25,8 @@ public class RedisUserTokenManagerTest {
 
     UserTokenManager tokenManager;
 
+    ReactiveRedisTemplate<Object, Object> template;
+
     @Before
     public void init() {
         LettuceConnectionFactory factory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("127.0.0.1"));
@@ -32,6 +36,7 @@ public class RedisUserTokenManagerTest {
                 RedisSerializationContext.java()
         );
         factory.afterPropertiesSet();
+        this.template = template;
 
         RedisUserTokenManager tokenManager = new RedisUserTokenManager(template);
         this.tokenManager = tokenManager;
@@ -43,6 +48,11 @@ public class RedisUserTokenManagerTest {
         });
     }
 
+    @After
+    public void destroy() {
+        ((RedisUserTokenManager) tokenManager).destroy();
+    }
+
     @Test
     public void testSign() {
 
@@ -141,6 +151,191 @@ public class RedisUserTokenManagerTest {
                     .verifyComplete();
     }
 
+    @Test
+    @SneakyThrows
+    public void testBatchTouch() {
+        RedisUserTokenTouchWriter writer = ((RedisUserTokenManager) tokenManager).getTouchWriter();
+        writer.setBatchSize(2);
+        for (int i = 0; i < 5; i++) {
+            tokenManager.signIn("test-touch-" + i, "test", "test-touch", 1000)
+                        .then(tokenManager.touch("test-touch-" + i))
+                        .as(StepVerifier::create)
+                        .verifyComplete();
+        }
+        assertEquals(5, writer.getQueueSize());
+
+        Thread.sleep(600);
+        writer.flush()
+              .as(StepVerifier::create)
+              .verifyComplete();
+        assertEquals(0, writer.getQueueSize());
+        assertEquals(5, writer.getTouchedCount());
+        assertEquals(3, writer.getBatchCount());
+
+        //刷新后有效期重新计算
+        Thread.sleep(600);
+        tokenManager.tokenIsLoggedIn("test-touch-4")
+                    .as(StepVerifier::create)
+                    .expectNext(true)
+                    .verifyComplete();
+    }
+
+    @Test
+    @SneakyThrows
+    public void testIndex() {
+        String id = "test-index-" + System.nanoTime();
+        int users = tokenManager.totalUser().blockOptional().orElse(0);
+        int tokens = tokenManager.totalToken().blockOptional().orElse(0);
+
+        tokenManager.signIn(id + "-1", "test", id, 500)
+                    .then(tokenManager.signIn(id + "-2", "test", id, 60000))
+                    .then(tokenManager.signIn(id + "-3", "test", id + "-user2", 500))
+                    .as(StepVerifier::create)
+                    .expectNextCount(1)
+                    .verifyComplete();
+
+        tokenManager.totalUser()
+                    .as(StepVerifier::create)
+                    .expectNext(users + 2)
+                    .verifyComplete();
+        tokenManager.totalToken()
+                    .as(StepVerifier::create)
+                    .expectNext(tokens + 3)
+                    .verifyComplete();
+
+        Thread.sleep(1000);
+        tokenManager.checkExpiredToken()
+                    .as(StepVerifier::create)
+                    .verifyComplete();
+
+        //过期的令牌以及没有令牌的用户已从索引中移除
+        template.opsForHash()
+                .hasKey(RedisUserTokenManager.TOKEN_OWNERS_KEY, id + "-1")
+                .as(StepVerifier::create)
+                .expectNext(false)
+                .verifyComplete();
+        template.opsForSet()
+                .isMember(RedisUserTokenManager.LOGGED_USERS_KEY, id + "-user2")
+                .as(StepVerifier::create)
+                .expectNext(false)
+                .verifyComplete();
+        template.opsForSet()
+                .isMember(RedisUserTokenManager.LOGGED_USERS_KEY, id)
+                .as(StepVerifier::create)
+                .expectNext(true)
+                .verifyComplete();
+
+        users = tokenManager.totalUser().blockOptional().orElse(0);
+        tokens = tokenManager.totalToken().blockOptional().orElse(0);
+        tokenManager.signOutByUserId(id)
+                    .as(StepVerifier::create)
+                    .verifyComplete();
+        tokenManager.totalUser()
+                    .as(StepVerifier::create)
+                    .expectNext(users - 1)
+                    .verifyComplete();
+        tokenManager.totalToken()
+                    .as(StepVerifier::create)
+                    .expectNext(tokens - 1)
+                    .verifyComplete();
+    }
+
+    @Test
+    @SneakyThrows
+    public void testScheduledExpiredCheck() {
+        String id = "test-expired-check-" + System.nanoTime();
+        ((RedisUserTokenManager) tokenManager).setExpiredCheckInterval(Duration.ofMillis(200));
+
+        tokenManager.signIn(id, "test", id, 300)
+                    .as(StepVerifier::create)
+                    .expectNextCount(1)
+                    .verifyComplete();
+
+        //不手动调用checkExpiredToken,由定时任务从索引中移除
+        Thread.sleep(1500);
+        template.opsForHash()
+                .hasKey(RedisUserTokenManager.TOKEN_OWNERS_KEY, id)
+                .as(StepVerifier::create)
+                .expectNext(false)
+                .verifyComplete();
+        template.opsForSet()
+                .isMember(RedisUserTokenManager.LOGGED_USERS_KEY, id)
+                .as(StepVerifier::create)
+                .expectNext(false)
+                .verifyComplete();
+    }
+
+    @Test
+    public void testRebuildIndexOnce() {
+        RedisUserTokenManager manager = (RedisUserTokenManager) tokenManager;
+        //从旧版本升级后需要重建索引,默认开启
+        assertTrue(manager.isRebuildIndexOnStartup());
+        String id = "test-rebuild-" + System.nanoTime();
+
+        template.delete(RedisUserTokenManager.INDEX_REBUILT_KEY, RedisUserTokenManager.INDEX_REBUILD_LOCK_KEY)
+                .then(manager.signIn(id, "test", id, 60000))
+                //模拟旧版本没有索引的令牌
+                .then(template.opsForHash().remove(RedisUserTokenManager.TOKEN_OWNERS_KEY, id))
+                .as(StepVerifier::create)
+                .expectNextCount(1)
+                .verifyComplete();
+
+        manager.rebuildIndexOnce()
+               .as(StepVerifier::create)
+               .expectNext(true)
+               .verifyComplete();
+
+        template.opsForHash()
+                .hasKey(RedisUserTokenManager.TOKEN_OWNERS_KEY, id)
+                .as(StepVerifier::create)
+                .expectNext(true)
+                .verifyComplete();
+
+        //只会重建一次
+        manager.rebuildIndexOnce()
+               .as(StepVerifier::create)
+               .expectNext(false)
+               .verifyComplete();
+
+        manager.signOutByToken(id)
+               .as(StepVerifier::create)
+               .verifyComplete();
+    }
+
+    /**
+     * 测试重建索引的节点异常退出后,锁过期时可以重新重建
+     */
+    @Test
+    public void testRebuildIndexAfterCrash() throws InterruptedException {
+        RedisUserTokenManager manager = (RedisUserTokenManager) tokenManager;
+
+        //模拟其他节点正在重建时退出,只留下了锁
+        template.delete(RedisUserTokenManager.INDEX_REBUILT_KEY)
+                .then(template.opsForValue().set(RedisUserTokenManager.INDEX_REBUILD_LOCK_KEY,
+                                                 System.currentTimeMillis(),
+                                                 Duration.ofMillis(200)))
+                .as(StepVerifier::create)
+                .expectNext(true)
+                .verifyComplete();
+
+        manager.rebuildIndexOnce()
+               .as(StepVerifier::create)
+               .expectNext(false)
+               .verifyComplete();
+
+        Thread.sleep(300);
+
+        manager.rebuildIndexOnce()
+               .as(StepVerifier::create)
+               .expectNext(true)
+               .verifyComplete();
+
+        template.hasKey(RedisUserTokenManager.INDEX_REBUILT_KEY)
+                .as(StepVerifier::create)
+                .expectNext(true)
+                .verifyComplete();
+    }
+
     @Test
     public void testAuth() {
         Authentication authentication = new SimpleAuthentication();
@@ -0,0 +1,87 @@
+package org.hswebframework.web.authorization.token.redis;
+
+import org.hswebframework.web.authorization.token.TokenState;
+import org.junit.Test;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class UserTokenNearCacheTest {
+
+    private SimpleUserToken createToken(String token, long maxInactiveInterval) {
+        SimpleUserToken userToken = new SimpleUserToken();
+        userToken.setToken(token);
+        userToken.setUserId("test");
+        userToken.setState(TokenState.normal);
+        userToken.setLastRequestTime(System.currentTimeMillis());
+        userToken.setMaxInactiveInterval(maxInactiveInterval);
+        return userToken;
+    }
+
+    @Test
+    public void testExpire() throws Exception {
+        UserTokenNearCache cache = new UserTokenNearCache();
+        cache.put(createToken("test", 100));
+        cache.put(createToken("test2", -1));
+
+        assertNotNull(cache.get("test"));
+        Thread.sleep(200);
+        assertNull(cache.get("test"));
+        assertNotNull(cache.get("test2"));
+
+        assertEquals(2, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getExpiredCount());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testTimeToLive() throws Exception {
+        UserTokenNearCache cache = new UserTokenNearCache();
+        cache.setTimeToLive(Duration.ofMillis(100));
+        cache.put(createToken("test", -1));
+        cache.put(createToken("test2", -1));
+
+        Thread.sleep(200);
+        cache.cleanup();
+        assertEquals(0, cache.size());
+        assertEquals(2, cache.getExpiredCount());
+    }
+
+    @Test
+    public void testMaximumSize() throws Exception {
+        UserTokenNearCache cache = new UserTokenNearCache();
+        cache.setMaximumSize(100);
+
+        for (int i = 0; i < 1000; i++) {
+            cache.put(createToken("test" + i, 10000));
+        }
+        //异步清理
+        for (int i = 0; i < 100 && cache.size() > 100; i++) {
+            Thread.sleep(50);
+        }
+        assertTrue(cache.size() <= 100);
+        assertEquals(1000 - cache.size(), cache.getEvictionCount());
+        //最后放入的令牌不会被清除
+        assertNotNull(cache.get("test999"));
+    }
+
+    @Test
+    public void testCleanupOffCallerThread() {
+        UserTokenNearCache cache = new UserTokenNearCache();
+        cache.setMaximumSize(10);
+        AtomicInteger scheduled = new AtomicInteger();
+        //调度器不执行任务,放入缓存的线程上不执行清理
+        cache.setCleanupScheduler(Schedulers.fromExecutor(task -> scheduled.incrementAndGet()));
+
+        for (int i = 0; i < 100; i++) {
+            cache.put(createToken("test" + i, 10000));
+        }
+        assertEquals(100, cache.size());
+        assertEquals(1, scheduled.get());
+    }
+
+}
@@ -6,10 +6,26 @@ import org.hswebframework.web.authorization.define.AuthorizeDefinition;
 import java.lang.reflect.Method;
 
 /**
- * 自定义权限控制定义，在拦截到方法后，优先使用此接口来获取权限控制方式
+ * 自定义权限控制定义，在拦截到方法后，优先使用此接口来获取权限控制方式.
+ * <p>
+ * 默认每次调用方法都会重新调用此解析器,返回{@code null}时使用的注解解析结果仍然会被缓存.
+ * 解析结果不依赖上下文时,可以重写{@link #isCacheable()}返回{@code true},解析结果将按类和方法缓存,每个方法只会解析一次.
+ * 开启autoParse时,启动时会在没有上下文(context为{@code null})的情况下预先解析.
+ * 需要根据请求参数动态控制权限时,请使用{@link org.hswebframework.web.authorization.events.AuthorizingHandleBeforeEvent}.
  * @see AuthorizeDefinition
  * @author zhouhao
  */
 public interface AopMethodAuthorizeDefinitionCustomizerParser {
     AuthorizeDefinition parse(Class<?> target, Method method, MethodInterceptorContext context);
+
+    /**
+     * 解析结果是否可以缓存,返回{@code true}时每个方法只会解析一次,
+     * 只有解析结果不依赖上下文时才能返回{@code true}.
+     *
+     * @return 是否可以缓存
+     * @since 4.0.15
+     */
+    default boolean isCacheable() {
+        return false;
+    }
 }
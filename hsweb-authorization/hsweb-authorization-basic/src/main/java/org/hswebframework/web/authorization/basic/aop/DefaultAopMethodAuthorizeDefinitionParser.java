@@ -33,7 +33,10 @@ import java.util.concurrent.ConcurrentHashMap;
 @Slf4j
 public class DefaultAopMethodAuthorizeDefinitionParser implements AopMethodAuthorizeDefinitionParser {
 
-    private final Map<CacheKey, AuthorizeDefinition> cache = new ConcurrentHashMap<>();
+    private final Map<CacheKey, Parsed> cache = new ConcurrentHashMap<>();
+
+    //使用了不可缓存的自定义解析器时,预先解析(没有上下文)的结果,仅用于获取全部解析结果
+    private final Map<CacheKey, AuthorizeDefinition> uncached = new ConcurrentHashMap<>();
 
     private List<AopMethodAuthorizeDefinitionCustomizerParser> parserCustomizers;
 
@@ -46,7 +49,13 @@ public class DefaultAopMethodAuthorizeDefinitionParser implements AopMethodAutho
 
     @Override
     public List<AuthorizeDefinition> getAllParsed() {
-        return new ArrayList<>(cache.values());
+        Map<CacheKey, AuthorizeDefinition> all = new HashMap<>(uncached);
+        cache.forEach((key, parsed) -> {
+            if (parsed.customizers.isEmpty()) {
+                all.put(key, parsed.definition);
+            }
+        });
+        return new ArrayList<>(all.values());
     }
 
     @Override
@@ -57,45 +66,82 @@ public class DefaultAopMethodAuthorizeDefinitionParser implements AopMethodAutho
         }
         CacheKey key = buildCacheKey(target, method);
 
-        AuthorizeDefinition definition = cache.get(key);
-        if (definition instanceof EmptyAuthorizeDefinition) {
-            return null;
+        Parsed parsed = cache.get(key);
+        if (parsed == null) {
+            //在锁外解析,避免自定义解析器递归调用时死锁.并发解析时使用先放入缓存的结果
+            parsed = parseAndCache(key, target, method, context);
         }
-        if (null != definition) {
-            return definition;
+        AuthorizeDefinition definition = parsed.definition;
+        //不可缓存的自定义解析器可能根据上下文返回不同的结果,每次都重新解析
+        if (!parsed.customizers.isEmpty()) {
+            for (AopMethodAuthorizeDefinitionCustomizerParser customizer : parsed.customizers) {
+                AuthorizeDefinition customized = customizer.parse(target, method, context);
+                if (customized != null) {
+                    definition = customized;
+                    break;
+                }
+            }
+            if (context == null) {
+                uncached.put(key, definition);
+            }
         }
-        //使用自定义
+        return definition instanceof EmptyAuthorizeDefinition ? null : definition;
+    }
+
+    private Parsed parseAndCache(CacheKey key, Class<?> target, Method method, MethodInterceptorContext context) {
+        List<AopMethodAuthorizeDefinitionCustomizerParser> uncacheable = new ArrayList<>();
+        AuthorizeDefinition definition = null;
         if (!CollectionUtils.isEmpty(parserCustomizers)) {
-            definition = parserCustomizers
-                    .stream()
-                    .map(customizer -> customizer.parse(target, method, context))
-                    .filter(Objects::nonNull)
-                    .findAny().orElse(null);
-            if (definition instanceof EmptyAuthorizeDefinition) {
-                return null;
-            }
-            if (definition != null) {
-                return definition;
+            for (AopMethodAuthorizeDefinitionCustomizerParser customizer : parserCustomizers) {
+                if (!customizer.isCacheable()) {
+                    uncacheable.add(customizer);
+                    continue;
+                }
+                //可缓存的自定义解析器只解析一次,返回了结果则不再需要之后的解析器和注解解析
+                definition = customizer.parse(target, method, context);
+                if (definition != null) {
+                    break;
+                }
             }
         }
+        if (definition == null) {
+            definition = parseAnnotation(target, method);
+        }
+        Parsed parsed = new Parsed(definition, uncacheable.isEmpty() ? Collections.emptyList() : uncacheable);
+        Parsed old = cache.putIfAbsent(key, parsed);
+        return old == null ? parsed : old;
+    }
 
+    private AuthorizeDefinition parseAnnotation(Class<?> target, Method method) {
         Authorize annotation = AnnotationUtils.findAnnotation(target, method, Authorize.class);
 
         if (isIgnoreMethod(method) || (annotation != null && annotation.ignore())) {
-            cache.put(key, EmptyAuthorizeDefinition.instance);
-            return null;
-        }
-        synchronized (cache) {
-            return cache.computeIfAbsent(key, (__) -> {
-                return DefaultBasicAuthorizeDefinition.from(target, method);
-            });
+            return EmptyAuthorizeDefinition.instance;
         }
+        return DefaultBasicAuthorizeDefinition.from(target, method);
     }
 
     public CacheKey buildCacheKey(Class<?> target, Method method) {
         return new CacheKey(ClassUtils.getUserClass(target), method);
     }
 
+    /**
+     * 解析结果,{@link #customizers}不为空时,调用方法时先使用这些不可缓存的自定义解析器解析,
+     * 都没有返回结果时才使用{@link #definition}.
+     */
+    static class Parsed {
+        //可缓存的自定义解析结果或者注解解析结果
+        private final AuthorizeDefinition definition;
+
+        //排在可缓存的解析结果之前,不可缓存的自定义解析器
+        private final List<AopMethodAuthorizeDefinitionCustomizerParser> customizers;
+
+        Parsed(AuthorizeDefinition definition, List<AopMethodAuthorizeDefinitionCustomizerParser> customizers) {
+            this.definition = definition;
+            this.customizers = customizers;
+        }
+    }
+
     @EqualsAndHashCode
     static class CacheKey {
         private final Class<?> type;
@@ -109,6 +155,7 @@ public class DefaultAopMethodAuthorizeDefinitionParser implements AopMethodAutho
 
     public void destroy() {
         cache.clear();
+        uncached.clear();
     }
 
     static boolean isIgnoreMethod(Method method) {
@@ -14,6 +14,7 @@ import org.hswebframework.web.authorization.basic.twofactor.TwoFactorHandlerInte
 import org.hswebframework.web.authorization.basic.web.*;
 import org.hswebframework.web.authorization.token.UserTokenManager;
 import org.hswebframework.web.authorization.twofactor.TwoFactorValidatorManager;
+import org.hswebframework.web.event.ListenerAwareEventPublisher;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.boot.autoconfigure.condition.*;
@@ -45,6 +46,12 @@ public class AuthorizingHandlerAutoConfiguration {
         return new DefaultDataAccessController();
     }
 
+    @Bean
+    @ConditionalOnMissingBean
+    public ListenerAwareEventPublisher listenerAwareEventPublisher() {
+        return new ListenerAwareEventPublisher();
+    }
+
     @Bean
     public DefaultAuthorizingHandler authorizingHandler(DataAccessController dataAccessController) {
         return new DefaultAuthorizingHandler(dataAccessController);
@@ -0,0 +1,218 @@
+package org.hswebframework.web.authorization.basic.handler;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+import org.hswebframework.web.authorization.Authentication;
+import org.hswebframework.web.authorization.Permission;
+import org.hswebframework.web.authorization.define.ResourcesDefinition;
+import org.hswebframework.web.authorization.simple.SimpleAuthentication;
+import org.springframework.util.ConcurrentReferenceHashMap;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * RBAC权限控制结果缓存.
+ * <p>
+ * 结果以(资源定义,权限集合)为key缓存,拥有相同权限集合的用户(比如同一角色)访问同一个方法时,
+ * 只需要一次map查找即可得到结果.
+ * <p>
+ * 权限集合会被转换为不可变的快照并复用相同内容的快照实例,快照包含了完整的权限和操作,因此不同的权限集合不会得到相同的结果.
+ * <p>
+ * 快照以{@link Authentication}实例为key缓存,同一个实例第二次参与判断时才创建快照,
+ * 每次请求都重新加载权限信息(没有缓存用户权限)时,不会在每次请求中复制权限信息.对于{@link SimpleAuthentication},通过{@link SimpleAuthentication#version()}
+ * 判断权限是否被修改(如{@link SimpleAuthentication#merge(Authentication)}),修改后重新创建快照.
+ * 其他实现以及直接修改{@link Permission#getActions()}的情况无法感知,修改已经参与过判断的权限信息后需要调用{@link #clear()}.
+ * 用户权限变更后重新加载的权限信息是新的实例,不受影响.
+ *
+ * @since 4.0.15
+ */
+public class AuthorizingDecisionCache {
+
+    //权限信息->权限快照,弱引用,权限信息被回收后自动移除
+    private final Map<Authentication, VersionedSnapshot> snapshots =
+            new ConcurrentReferenceHashMap<>(256, ConcurrentReferenceHashMap.ReferenceType.WEAK);
+
+    //相同内容的快照使用同一个实例
+    private final Map<PermissionSnapshot, PermissionSnapshot> interned = new ConcurrentHashMap<>();
+
+    private final Map<DecisionKey, Boolean> decisions = new ConcurrentHashMap<>();
+
+    private final LongAdder hitCount = new LongAdder();
+
+    private final LongAdder missCount = new LongAdder();
+
+    /**
+     * 最大缓存数量,超过后清空缓存
+     */
+    @Getter
+    @Setter
+    private int maximumSize = 10000;
+
+    /**
+     * 判断是否有权限,结果不存在时使用{@link ResourcesDefinition#hasPermission(Authentication)}进行判断并缓存
+     *
+     * @param resources      资源定义
+     * @param authentication 权限信息
+     * @return 是否有权限
+     */
+    public boolean hasPermission(ResourcesDefinition resources, Authentication authentication) {
+        PermissionSnapshot snapshot = snapshot(authentication);
+        if (snapshot == null) {
+            missCount.increment();
+            return resources.hasPermission(authentication);
+        }
+        DecisionKey key = new DecisionKey(resources, snapshot);
+        Boolean decision = decisions.get(key);
+        if (decision != null) {
+            hitCount.increment();
+            return decision;
+        }
+        missCount.increment();
+        decision = resources.hasPermission(authentication);
+        if (decisions.size() >= maximumSize) {
+            clear();
+        }
+        decisions.put(key, decision);
+        return decision;
+    }
+
+    //第一次参与判断时只记录版本并返回null,之后再创建快照
+    private PermissionSnapshot snapshot(Authentication authentication) {
+        long version = versionOf(authentication);
+        VersionedSnapshot snapshot = snapshots.get(authentication);
+        if (snapshot == null || snapshot.version != version) {
+            snapshots.put(authentication, new VersionedSnapshot(version, null));
+            return null;
+        }
+        if (snapshot.snapshot == null) {
+            PermissionSnapshot created = PermissionSnapshot.of(authentication);
+            if (interned.size() >= maximumSize) {
+                clear();
+            }
+            snapshot = new VersionedSnapshot(version, interned.computeIfAbsent(created, ignore -> created));
+            snapshots.put(authentication, snapshot);
+        }
+        return snapshot.snapshot;
+    }
+
+    private static long versionOf(Authentication authentication) {
+        return authentication instanceof SimpleAuthentication
+                ? ((SimpleAuthentication) authentication).version()
+                : 0;
+    }
+
+    /**
+     * 清空所有缓存,在用户权限发生变化时调用
+     */
+    public void clear() {
+        decisions.clear();
+        snapshots.clear();
+        interned.clear();
+    }
+
+    /**
+     * @return 缓存的结果数量
+     */
+    public int size() {
+        return decisions.size();
+    }
+
+    /**
+     * @return 命中次数
+     */
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * @return 未命中次数
+     */
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * @return 命中率
+     */
+    public double getHitRatio() {
+        long hit = getHitCount();
+        long total = hit + getMissCount();
+        return total == 0 ? 0 : (double) hit / total;
+    }
+
+    @AllArgsConstructor
+    private static class DecisionKey {
+        private final ResourcesDefinition resources;
+
+        private final PermissionSnapshot snapshot;
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof DecisionKey)) {
+                return false;
+            }
+            DecisionKey that = (DecisionKey) o;
+            //快照已经复用了相同内容的实例,直接比较引用
+            return resources == that.resources && snapshot == that.snapshot;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(resources) + snapshot.hashCode();
+        }
+    }
+
+    @AllArgsConstructor
+    private static class VersionedSnapshot {
+        //创建快照时权限信息的版本
+        private final long version;
+
+        //还没有创建快照时为null
+        private final PermissionSnapshot snapshot;
+    }
+
+    private static class PermissionSnapshot {
+        //权限ID->操作
+        private final Map<String, Set<String>> permissions;
+
+        private final int hash;
+
+        private PermissionSnapshot(Map<String, Set<String>> permissions) {
+            this.permissions = permissions;
+            this.hash = permissions.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof PermissionSnapshot)) {
+                return false;
+            }
+            PermissionSnapshot that = (PermissionSnapshot) o;
+            return hash == that.hash && permissions.equals(that.permissions);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        static PermissionSnapshot of(Authentication authentication) {
+            List<Permission> permissions = authentication.getPermissions();
+            Map<String, Set<String>> snapshot = new HashMap<>(permissions.size() * 2);
+            for (Permission permission : permissions) {
+                //与Authentication.getPermission(id)一致,相同ID的权限只使用第一个
+                snapshot.putIfAbsent(permission.getId(), new HashSet<>(permission.getActions()));
+            }
+            return new PermissionSnapshot(snapshot);
+        }
+    }
+}
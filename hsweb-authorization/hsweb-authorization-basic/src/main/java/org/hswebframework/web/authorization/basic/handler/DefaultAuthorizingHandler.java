@@ -9,6 +9,7 @@ import org.hswebframework.web.authorization.define.HandleType;
 import org.hswebframework.web.authorization.define.ResourcesDefinition;
 import org.hswebframework.web.authorization.events.AuthorizingHandleBeforeEvent;
 import org.hswebframework.web.authorization.exception.AccessDenyException;
+import org.hswebframework.web.event.ListenerAwareEventPublisher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -25,6 +26,11 @@ public class DefaultAuthorizingHandler implements AuthorizingHandler {
 
     private ApplicationEventPublisher eventPublisher;
 
+    private ListenerAwareEventPublisher listenerAwareEventPublisher;
+
+    //RBAC权限控制结果缓存,为null时不缓存
+    private AuthorizingDecisionCache decisionCache = new AuthorizingDecisionCache();
+
     public DefaultAuthorizingHandler(DataAccessController dataAccessController) {
         this.dataAccessController = dataAccessController;
     }
@@ -36,11 +42,36 @@ public class DefaultAuthorizingHandler implements AuthorizingHandler {
         this.dataAccessController = dataAccessController;
     }
 
+    /**
+     * 设置RBAC权限控制结果缓存,设置为null时不缓存
+     *
+     * @param decisionCache 缓存
+     * @since 4.0.15
+     */
+    public void setDecisionCache(AuthorizingDecisionCache decisionCache) {
+        this.decisionCache = decisionCache;
+    }
+
+    public AuthorizingDecisionCache getDecisionCache() {
+        return decisionCache;
+    }
+
     @Autowired
     public void setEventPublisher(ApplicationEventPublisher eventPublisher) {
         this.eventPublisher = eventPublisher;
     }
 
+    /**
+     * 设置感知监听器的事件推送器,设置后没有监听{@link AuthorizingHandleBeforeEvent}时将不再创建和推送事件
+     *
+     * @param listenerAwareEventPublisher ListenerAwareEventPublisher
+     * @since 4.0.15
+     */
+    @Autowired(required = false)
+    public void setListenerAwareEventPublisher(ListenerAwareEventPublisher listenerAwareEventPublisher) {
+        this.listenerAwareEventPublisher = listenerAwareEventPublisher;
+    }
+
     @Override
     public void handRBAC(AuthorizingContext context) {
         if (handleEvent(context, HandleType.RBAC)) {
@@ -52,15 +83,28 @@ public class DefaultAuthorizingHandler implements AuthorizingHandler {
     }
 
     private boolean handleEvent(AuthorizingContext context, HandleType type) {
+        if (listenerAwareEventPublisher != null) {
+            if (!listenerAwareEventPublisher.hasListener(AuthorizingHandleBeforeEvent.class)) {
+                return false;
+            }
+            AuthorizingHandleBeforeEvent event = new AuthorizingHandleBeforeEvent(context, type);
+            listenerAwareEventPublisher.publishEvent(event);
+            return handleEventResult(event);
+        }
         if (null != eventPublisher) {
             AuthorizingHandleBeforeEvent event = new AuthorizingHandleBeforeEvent(context, type);
             eventPublisher.publishEvent(event);
-            if (!event.isExecute()) {
-                if (event.isAllow()) {
-                    return true;
-                } else {
-                    throw new AccessDenyException(event.getMessage());
-                }
+            return handleEventResult(event);
+        }
+        return false;
+    }
+
+    private boolean handleEventResult(AuthorizingHandleBeforeEvent event) {
+        if (!event.isExecute()) {
+            if (event.isAllow()) {
+                return true;
+            } else {
+                throw new AccessDenyException(event.getMessage());
             }
         }
         return false;
@@ -105,7 +149,10 @@ public class DefaultAuthorizingHandler implements AuthorizingHandler {
 
         ResourcesDefinition resources = definition.getResources();
 
-        if (!resources.hasPermission(authentication.getPermissions())) {
+        boolean access = decisionCache == null
+                ? resources.hasPermission(authentication)
+                : decisionCache.hasPermission(resources, authentication);
+        if (!access) {
             throw new AccessDenyException(definition.getMessage(),definition.getDescription());
         }
     }
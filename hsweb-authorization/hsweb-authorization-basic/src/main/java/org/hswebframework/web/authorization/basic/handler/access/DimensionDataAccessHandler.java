@@ -8,6 +8,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections.CollectionUtils;
 import org.hswebframework.ezorm.core.param.Param;
 import org.hswebframework.ezorm.core.param.QueryParam;
+import org.hswebframework.ezorm.rdb.mapping.ReactiveQuery;
 import org.hswebframework.web.api.crud.entity.Entity;
 import org.hswebframework.web.api.crud.entity.QueryParamEntity;
 import org.hswebframework.web.authorization.Authentication;
@@ -21,6 +22,7 @@ import org.hswebframework.web.authorization.define.Phased;
 import org.hswebframework.web.authorization.exception.AccessDenyException;
 import org.hswebframework.web.authorization.simple.DimensionDataAccessConfig;
 import org.hswebframework.web.bean.FastBeanCopier;
+import org.hswebframework.web.crud.service.RepositoryMappings;
 import org.reactivestreams.Publisher;
 import org.springframework.core.annotation.AnnotatedElementUtils;
 import org.springframework.util.ClassUtils;
@@ -38,6 +40,25 @@ import java.util.stream.Stream;
 
 @Slf4j
 public class DimensionDataAccessHandler implements DataAccessHandler {
+
+    /**
+     * 根据ID进行控制时,是否使用count语句批量校验数据是否在维度范围内
+     *
+     * @since 4.0.15
+     */
+    @Getter
+    @Setter
+    private boolean verifyByCount = true;
+
+    /**
+     * 使用count语句校验时,每条语句最多校验的ID数量
+     *
+     * @since 4.0.15
+     */
+    @Getter
+    @Setter
+    private int verifyBatchSize = 500;
+
     @Override
     public boolean isSupport(DataAccessConfig access) {
         return access instanceof DimensionDataAccessConfig;
@@ -130,18 +151,7 @@ public class DimensionDataAccessHandler implements DataAccessHandler {
                         .map(Dimension::getId)
                         .collect(Collectors.toSet());
 
-        Function<Collection<Object>, Mono<Void>> reactiveCheck = obj -> context
-                .getRepository()
-                .findById(obj)
-                .doOnNext(r -> {
-                    Object val = FastBeanCopier.copy(r, new HashMap<>(), FastBeanCopier.include(mappingInfo.getProperty()))
-                            .get(mappingInfo.getProperty());
-                    if (!StringUtils.isEmpty(val)
-                            && !scope.contains(val)) {
-                        throw new AccessDenyException();
-                    }
-                })
-                .then();
+        Function<Collection<Object>, Mono<Void>> reactiveCheck = obj -> checkByIdInScope(context, mappingInfo, scope, obj);
         if (id instanceof Publisher) {
             if (id instanceof Mono) {
                 return ((Mono) id)
@@ -186,6 +196,75 @@ public class DimensionDataAccessHandler implements DataAccessHandler {
         return id;
     }
 
+    /**
+     * 校验指定ID的数据是否都在维度范围内,维度属性为空的数据视为有权限,数据不存在时忽略.
+     * <p>
+     * 开启{@link #setVerifyByCount(boolean)}时,使用一条count语句查询不在范围内的数据数量,
+     * 否则逐条查询数据并进行判断.
+     *
+     * @param context     上下文
+     * @param mappingInfo 维度映射信息
+     * @param scope       维度范围
+     * @param idList      ID集合
+     * @return void
+     * @since 4.0.15
+     */
+    protected Mono<Void> checkByIdInScope(DataAccessHandlerContext context,
+                                          MappingInfo mappingInfo,
+                                          Set<Object> scope,
+                                          Collection<Object> idList) {
+        List<Object> ids = idList
+                .stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
+        if (ids.isEmpty()) {
+            return Mono.empty();
+        }
+        String property = mappingInfo.getProperty();
+        String idProperty = verifyByCount && CollectionUtils.isNotEmpty(scope)
+                ? RepositoryMappings.getIdProperty(context.getRepository(), null)
+                : null;
+        if (idProperty != null) {
+            //只有字符串类型的字段才需要排除空字符串,其他类型与''比较在部分数据库中会报错
+            boolean stringProperty = RepositoryMappings
+                    .getJavaType(context.getRepository(), property)
+                    .map(String.class::equals)
+                    .orElse(false);
+            return Flux
+                    .fromIterable(ids)
+                    .buffer(verifyBatchSize)
+                    .concatMap(batch -> {
+                        ReactiveQuery<?> query = context
+                                .getRepository()
+                                .createQuery()
+                                .in(idProperty, batch)
+                                .notNull(property);
+                        if (stringProperty) {
+                            query = query.notEmpty(property);
+                        }
+                        return query
+                                .notIn(property, scope)
+                                .count();
+                    })
+                    .filter(count -> count > 0)
+                    .flatMap(count -> Mono.<Void>error(new AccessDenyException()))
+                    .then();
+        }
+        return context
+                .getRepository()
+                .findById(ids)
+                .doOnNext(r -> {
+                    Object val = FastBeanCopier.copy(r, new HashMap<>(), FastBeanCopier.include(property))
+                                               .get(property);
+                    if (!StringUtils.isEmpty(val)
+                            && !scope.contains(val)) {
+                        throw new AccessDenyException();
+                    }
+                })
+                .then();
+    }
+
     protected boolean doHandleUpdate(DimensionDataAccessConfig cfg,
                                      DataAccessHandlerContext context) {
         MappingInfo info = getMappingInfo(context).get(cfg.getScopeType());
@@ -1,6 +1,5 @@
 package org.hswebframework.web.authorization.basic.handler.access;
 
-import org.apache.commons.beanutils.BeanUtilsBean;
 import org.hswebframework.ezorm.core.param.QueryParam;
 import org.hswebframework.web.authorization.Permission;
 import org.hswebframework.web.authorization.access.DataAccessConfig;
@@ -8,6 +7,7 @@ import org.hswebframework.web.authorization.access.DataAccessHandler;
 import org.hswebframework.web.authorization.access.FieldFilterDataAccessConfig;
 import org.hswebframework.web.authorization.define.AuthorizingContext;
 import org.hswebframework.web.authorization.define.Phased;
+import org.hswebframework.web.bean.FieldMask;
 import org.reactivestreams.Publisher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -53,16 +53,8 @@ public class FieldFilterDataAccessHandler implements DataAccessHandler {
     protected void applyUpdateParam(FieldFilterDataAccessConfig config, Object... parameter) {
 
         for (Object data : parameter) {
-            for (String field : config.getFields()) {
-                try {
-                    //设置值为null,跳过修改
-                    BeanUtilsBean.getInstance()
-                            .getPropertyUtils()
-                            .setProperty(data, field, null);
-                } catch (Exception e) {
-                    logger.warn("can't set {} null", field, e);
-                }
-            }
+            //设置值为null,跳过修改
+            FieldMask.apply(data, config.getFields());
         }
     }
 
@@ -70,8 +62,7 @@ public class FieldFilterDataAccessHandler implements DataAccessHandler {
      * @param accesses 不可操作的字段
      * @param params   参数上下文
      * @return true
-     * @see BeanUtilsBean
-     * @see org.apache.commons.beanutils.PropertyUtilsBean
+     * @see FieldMask
      */
     protected boolean doUpdateAccess(FieldFilterDataAccessConfig accesses, AuthorizingContext params) {
 
@@ -137,6 +128,12 @@ public class FieldFilterDataAccessHandler implements DataAccessHandler {
                 applyQueryParam(access, argument);
             }
         } else {
+            //优先在查询条件中排除字段,不查询出不可访问的字段
+            for (Object argument : context.getParamContext().getArguments()) {
+                if (argument instanceof QueryParam) {
+                    applyQueryParam(access, argument);
+                }
+            }
             if (context.getParamContext().getInvokeResult() instanceof Publisher) {
                 context.getParamContext().setInvokeResult(
                         Flux.from((Publisher<?>) context.getParamContext().getInvokeResult())
@@ -153,15 +150,6 @@ public class FieldFilterDataAccessHandler implements DataAccessHandler {
     }
 
     protected void setObjectPropertyNull(Object obj, Set<String> fields) {
-        if (null == obj) {
-            return;
-        }
-        for (String field : fields) {
-            try {
-                BeanUtilsBean.getInstance().getPropertyUtils().setProperty(obj, field, null);
-            } catch (Exception ignore) {
-
-            }
-        }
+        FieldMask.apply(obj, fields);
     }
 }
@@ -31,6 +31,7 @@ import org.hswebframework.web.authorization.events.AuthorizationSuccessEvent;
 import org.hswebframework.web.authorization.exception.AuthenticationException;
 import org.hswebframework.web.authorization.exception.UnAuthorizedException;
 import org.hswebframework.web.authorization.simple.PlainTextUsernamePasswordAuthenticationRequest;
+import org.hswebframework.web.event.ListenerAwareEventPublisher;
 import org.hswebframework.web.logging.AccessLogger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationEventPublisher;
@@ -57,6 +58,9 @@ public class AuthorizationController {
     @Autowired
     private ReactiveAuthenticationManager authenticationManager;
 
+    @Autowired(required = false)
+    private ListenerAwareEventPublisher listenerAwareEventPublisher;
+
     @GetMapping("/me")
     @Authorize
     @Operation(summary = "当前登录用户权限信息")
@@ -74,6 +78,10 @@ public class AuthorizationController {
         return doLogin(parameter);
     }
 
+    private ApplicationEventPublisher getEventPublisher() {
+        return listenerAwareEventPublisher == null ? eventPublisher : listenerAwareEventPublisher::publishEvent;
+    }
+
     /**
      * <img src="https://raw.githubusercontent.com/hs-web/hsweb-framework/4.0.x/hsweb-authorization/hsweb-authorization-basic/img/autz-flow.png">
      */
@@ -91,13 +99,13 @@ public class AuthorizationController {
             return Mono.defer(() -> {
                 AuthorizationDecodeEvent decodeEvent = new AuthorizationDecodeEvent(username_, password_, parameterGetter);
                 return decodeEvent
-                        .publish(eventPublisher)
+                        .publish(getEventPublisher())
                         .then(Mono.defer(() -> {
                             String username = decodeEvent.getUsername();
                             String password = decodeEvent.getPassword();
                             AuthorizationBeforeEvent beforeEvent = new AuthorizationBeforeEvent(username, password, parameterGetter);
                             return beforeEvent
-                                    .publish(eventPublisher)
+                                    .publish(getEventPublisher())
                                     .then(authenticationManager
                                             .authenticate(Mono.just(new PlainTextUsernamePasswordAuthenticationRequest(username, password)))
                                             .switchIfEmpty(Mono.error(() -> new AuthenticationException(AuthenticationException.ILLEGAL_PASSWORD)))
@@ -106,7 +114,7 @@ public class AuthorizationController {
                                                 AuthorizationSuccessEvent event = new AuthorizationSuccessEvent(auth, parameterGetter);
                                                 event.getResult().put("userId", auth.getUser().getId());
                                                 return event
-                                                        .publish(eventPublisher)
+                                                        .publish(getEventPublisher())
                                                         .then(Mono.fromCallable(event::getResult));
                                             }));
                         }));
@@ -114,7 +122,7 @@ public class AuthorizationController {
                 AuthorizationFailedEvent failedEvent = new AuthorizationFailedEvent(username_, password_, parameterGetter);
                 failedEvent.setException(err);
                 return failedEvent
-                        .publish(eventPublisher)
+                        .publish(getEventPublisher())
                         .then(Mono.error(failedEvent.getException()));
             });
         });
@@ -0,0 +1,97 @@
+package org.hswebframework.web.authorization.basic.aop;
+
+import lombok.SneakyThrows;
+import org.hswebframework.web.aop.MethodInterceptorContext;
+import org.hswebframework.web.authorization.basic.define.EmptyAuthorizeDefinition;
+import org.hswebframework.web.authorization.define.AuthorizeDefinition;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class DefaultAopMethodAuthorizeDefinitionParserTest {
+
+    @SneakyThrows
+    private Method getMethod(String name) {
+        return TestController.class.getMethod(name);
+    }
+
+    @Test
+    public void testCache() {
+        DefaultAopMethodAuthorizeDefinitionParser parser = new DefaultAopMethodAuthorizeDefinitionParser();
+
+        AuthorizeDefinition definition = parser.parse(TestController.class, getMethod("getUser"));
+        assertNotNull(definition);
+        assertSame(definition, parser.parse(TestController.class, getMethod("getUser")));
+        assertEquals(1, parser.getAllParsed().size());
+    }
+
+    @Test
+    public void testCustomizerCache() {
+        DefaultAopMethodAuthorizeDefinitionParser parser = new DefaultAopMethodAuthorizeDefinitionParser();
+        AtomicInteger counter = new AtomicInteger();
+        parser.setParserCustomizers(Collections.singletonList(new AopMethodAuthorizeDefinitionCustomizerParser() {
+            @Override
+            public AuthorizeDefinition parse(Class<?> target, Method method, MethodInterceptorContext context) {
+                counter.incrementAndGet();
+                return "getUser".equals(method.getName()) ? EmptyAuthorizeDefinition.instance : null;
+            }
+
+            @Override
+            public boolean isCacheable() {
+                return true;
+            }
+        }));
+
+        for (int i = 0; i < 10; i++) {
+            assertNull(parser.parse(TestController.class, getMethod("getUser")));
+            assertNotNull(parser.parse(TestController.class, getMethod("getUserAfter")));
+        }
+        assertEquals(2, counter.get());
+    }
+
+    @Test
+    public void testUncacheableCustomizer() {
+        DefaultAopMethodAuthorizeDefinitionParser parser = new DefaultAopMethodAuthorizeDefinitionParser();
+        AtomicInteger counter = new AtomicInteger();
+        //默认不缓存自定义解析结果
+        parser.setParserCustomizers(Collections.singletonList((target, method, context) -> {
+            counter.incrementAndGet();
+            //只在有上下文时自定义
+            return context == null ? null : EmptyAuthorizeDefinition.instance;
+        }));
+
+        //启动时预先解析,使用注解解析的结果
+        assertNotNull(parser.parse(TestController.class, getMethod("getUser")));
+        assertEquals(1, parser.getAllParsed().size());
+
+        MethodInterceptorContext context = Mockito.mock(MethodInterceptorContext.class);
+        for (int i = 0; i < 10; i++) {
+            assertNull(parser.parse(TestController.class, getMethod("getUser"), context));
+        }
+        assertEquals(11, counter.get());
+    }
+
+    @Test
+    public void testAnnotationCachedWithUncacheableCustomizer() {
+        DefaultAopMethodAuthorizeDefinitionParser parser = new DefaultAopMethodAuthorizeDefinitionParser();
+        AtomicInteger counter = new AtomicInteger();
+        parser.setParserCustomizers(Collections.singletonList((target, method, context) -> {
+            counter.incrementAndGet();
+            return null;
+        }));
+
+        MethodInterceptorContext context = Mockito.mock(MethodInterceptorContext.class);
+        AuthorizeDefinition definition = parser.parse(TestController.class, getMethod("getUser"), context);
+        assertNotNull(definition);
+        for (int i = 0; i < 10; i++) {
+            //自定义解析器每次都调用,注解解析结果使用缓存
+            assertSame(definition, parser.parse(TestController.class, getMethod("getUser"), context));
+        }
+        assertEquals(11, counter.get());
+    }
+}
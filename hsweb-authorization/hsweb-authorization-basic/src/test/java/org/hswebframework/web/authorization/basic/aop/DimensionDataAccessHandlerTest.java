@@ -0,0 +1,98 @@
+package org.hswebframework.web.authorization.basic.aop;
+
+import org.hswebframework.web.authorization.*;
+import org.hswebframework.web.authorization.exception.AccessDenyException;
+import org.hswebframework.web.authorization.simple.*;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+/**
+ * 测试根据ID控制维度数据权限
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringBootTest(classes = TestApplication.class)
+public class DimensionDataAccessHandlerTest {
+
+    @Autowired
+    public TestController testController;
+
+    @Before
+    public void init() {
+        SimpleAuthentication authentication = new SimpleAuthentication();
+
+        DimensionDataAccessConfig config = new DimensionDataAccessConfig();
+        config.setAction("save");
+        config.setScopeType("role");
+
+        authentication.setUser(SimpleUser.builder().id("test").username("test").build());
+        authentication.setPermissions(Collections.singletonList(SimplePermission.builder()
+                .actions(new HashSet<>(Collections.singletonList("save")))
+                .dataAccesses(Collections.singleton(config))
+                .id("test").build()));
+        authentication.setDimensions(Collections.singletonList(Dimension.of("test", "test", DefaultDimensionType.role)));
+
+        ReactiveAuthenticationHolder.setSupplier(new ReactiveAuthenticationSupplier() {
+            @Override
+            public Mono<Authentication> get(String userId) {
+                return Mono.empty();
+            }
+
+            @Override
+            public Mono<Authentication> get() {
+                return Mono.just(authentication);
+            }
+        });
+    }
+
+    @Test
+    public void testUpdateById() {
+        TestEntity other = new TestEntity();
+        other.setId("dimension-other");
+        other.setRoleId("123");
+        TestEntity own = new TestEntity();
+        own.setId("dimension-own");
+        own.setRoleId("test");
+        //维度属性为空的数据视为有权限
+        TestEntity empty = new TestEntity();
+        empty.setId("dimension-empty");
+        testController.getRepository()
+                      .insert(Arrays.asList(other, own, empty))
+                      .block();
+
+        testController.update(other.getId(), Mono.just(other))
+                      .as(StepVerifier::create)
+                      .expectError(AccessDenyException.class)
+                      .verify();
+
+        testController.update(own.getId(), Mono.just(own))
+                      .as(StepVerifier::create)
+                      .expectNext(true)
+                      .verifyComplete();
+
+        //更新内容不能为空
+        empty.setRoleId("test");
+        testController.update(empty.getId(), Mono.just(empty))
+                      .as(StepVerifier::create)
+                      .expectNext(true)
+                      .verifyComplete();
+
+        //数据不存在时忽略
+        TestEntity notExists = new TestEntity();
+        notExists.setId("dimension-not-exists");
+        notExists.setRoleId("test");
+        testController.update(notExists.getId(), Mono.just(notExists))
+                      .as(StepVerifier::create)
+                      .expectNext(true)
+                      .verifyComplete();
+    }
+}
@@ -0,0 +1,103 @@
+package org.hswebframework.web.authorization.basic.handler;
+
+import org.hswebframework.web.authorization.define.ResourceDefinition;
+import org.hswebframework.web.authorization.define.ResourcesDefinition;
+import org.hswebframework.web.authorization.simple.SimpleAuthentication;
+import org.hswebframework.web.authorization.simple.SimplePermission;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import static org.junit.Assert.*;
+
+public class AuthorizingDecisionCacheTest {
+
+    private SimpleAuthentication createAuthentication(String... actions) {
+        SimpleAuthentication authentication = new SimpleAuthentication();
+        authentication.getPermissions().add(SimplePermission
+                                                    .builder()
+                                                    .id("user")
+                                                    .actions(new HashSet<>(Arrays.asList(actions)))
+                                                    .build());
+        return authentication;
+    }
+
+    @Test
+    public void test() {
+        AuthorizingDecisionCache cache = new AuthorizingDecisionCache();
+
+        ResourcesDefinition query = new ResourcesDefinition();
+        query.addResource(ResourceDefinition.of("user", "用户").addAction("query", "查询"), false);
+
+        ResourcesDefinition save = new ResourcesDefinition();
+        save.addResource(ResourceDefinition.of("user", "用户").addAction("save", "保存"), false);
+
+        SimpleAuthentication user1 = createAuthentication("query");
+        SimpleAuthentication user2 = createAuthentication("query");
+
+        //第一次参与判断的权限信息不创建快照
+        assertTrue(cache.hasPermission(query, user1));
+        assertEquals(0, cache.size());
+
+        assertTrue(cache.hasPermission(query, user1));
+        assertFalse(cache.hasPermission(save, user1));
+        assertEquals(2, cache.size());
+        assertEquals(3, cache.getMissCount());
+
+        //相同权限的用户复用结果
+        assertTrue(cache.hasPermission(query, user2));
+        assertTrue(cache.hasPermission(query, user2));
+        assertFalse(cache.hasPermission(save, user2));
+        assertEquals(2, cache.getHitCount());
+        assertEquals(4, cache.getMissCount());
+        assertEquals(2, cache.size());
+
+        //不同权限的用户不会得到相同的结果
+        SimpleAuthentication user3 = createAuthentication("query", "save");
+        assertTrue(cache.hasPermission(save, user3));
+        assertTrue(cache.hasPermission(save, user3));
+        assertEquals(3, cache.size());
+
+        cache.clear();
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testModified() {
+        AuthorizingDecisionCache cache = new AuthorizingDecisionCache();
+
+        ResourcesDefinition save = new ResourcesDefinition();
+        save.addResource(ResourceDefinition.of("user", "用户").addAction("save", "保存"), false);
+
+        SimpleAuthentication authentication = createAuthentication("query");
+        assertFalse(cache.hasPermission(save, authentication));
+
+        //合并后重新创建快照
+        authentication.merge(createAuthentication("save"));
+        assertTrue(cache.hasPermission(save, authentication));
+
+        //修改权限列表后重新创建快照
+        authentication.getPermissions().set(0, createAuthentication("query").getPermissions().get(0));
+        assertFalse(cache.hasPermission(save, authentication));
+
+        authentication.setPermissions(createAuthentication("query", "save").getPermissions());
+        assertTrue(cache.hasPermission(save, authentication));
+    }
+
+    @Test
+    public void testMaximumSize() {
+        AuthorizingDecisionCache cache = new AuthorizingDecisionCache();
+        cache.setMaximumSize(10);
+
+        ResourcesDefinition query = new ResourcesDefinition();
+        query.addResource(ResourceDefinition.of("user", "用户").addAction("query", "查询"), false);
+
+        for (int i = 0; i < 100; i++) {
+            SimpleAuthentication authentication = createAuthentication("query", "action" + i);
+            assertTrue(cache.hasPermission(query, authentication));
+            assertTrue(cache.hasPermission(query, authentication));
+        }
+        assertTrue(cache.size() <= 10);
+    }
+}
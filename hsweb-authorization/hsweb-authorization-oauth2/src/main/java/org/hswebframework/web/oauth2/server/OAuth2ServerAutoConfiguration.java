@@ -3,6 +3,7 @@ package org.hswebframework.web.oauth2.server;
 import org.hswebframework.web.authorization.ReactiveAuthenticationHolder;
 import org.hswebframework.web.authorization.ReactiveAuthenticationManager;
 import org.hswebframework.web.authorization.basic.web.ReactiveUserTokenParser;
+import org.hswebframework.web.authorization.token.redis.CompactRedisSerializer;
 import org.hswebframework.web.oauth2.server.auth.ReactiveOAuth2AccessTokenParser;
 import org.hswebframework.web.oauth2.server.code.AuthorizationCodeGranter;
 import org.hswebframework.web.oauth2.server.code.DefaultAuthorizationCodeGranter;
@@ -46,8 +47,12 @@ public class OAuth2ServerAutoConfiguration {
 
         @Bean
         @ConditionalOnMissingBean
-        public AccessTokenManager accessTokenManager(ReactiveRedisConnectionFactory redisConnectionFactory) {
-            return new RedisAccessTokenManager(redisConnectionFactory);
+        public AccessTokenManager accessTokenManager(ReactiveRedisConnectionFactory redisConnectionFactory,
+                                                     ObjectProvider<CompactRedisSerializer> serializer) {
+            CompactRedisSerializer compact = serializer.getIfAvailable();
+            return compact == null
+                    ? new RedisAccessTokenManager(redisConnectionFactory)
+                    : new RedisAccessTokenManager(redisConnectionFactory, compact);
         }
 
         @Bean
@@ -60,8 +65,12 @@ public class OAuth2ServerAutoConfiguration {
         @Bean
         @ConditionalOnMissingBean
         public AuthorizationCodeGranter authorizationCodeGranter(AccessTokenManager tokenManager,
-                                                                 ReactiveRedisConnectionFactory redisConnectionFactory) {
-            return new DefaultAuthorizationCodeGranter(tokenManager, redisConnectionFactory);
+                                                                 ReactiveRedisConnectionFactory redisConnectionFactory,
+                                                                 ObjectProvider<CompactRedisSerializer> serializer) {
+            CompactRedisSerializer compact = serializer.getIfAvailable();
+            return compact == null
+                    ? new DefaultAuthorizationCodeGranter(tokenManager, redisConnectionFactory)
+                    : new DefaultAuthorizationCodeGranter(tokenManager, redisConnectionFactory, compact);
         }
 
         @Bean
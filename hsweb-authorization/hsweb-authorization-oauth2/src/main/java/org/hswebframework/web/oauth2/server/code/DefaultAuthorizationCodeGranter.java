@@ -2,6 +2,7 @@ package org.hswebframework.web.oauth2.server.code;
 
 import lombok.AllArgsConstructor;
 import org.hswebframework.web.authorization.Authentication;
+import org.hswebframework.web.authorization.token.redis.CompactRedisSerializer;
 import org.hswebframework.web.id.IDGenerator;
 import org.hswebframework.web.oauth2.ErrorType;
 import org.hswebframework.web.oauth2.OAuth2Constants;
@@ -18,6 +19,7 @@ import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.RedisSerializer;
 import reactor.core.publisher.Mono;
 
+import java.io.IOException;
 import java.time.Duration;
 
 @AllArgsConstructor
@@ -29,16 +31,58 @@ public class DefaultAuthorizationCodeGranter implements AuthorizationCodeGranter
 
     @SuppressWarnings("all")
     public DefaultAuthorizationCodeGranter(AccessTokenManager accessTokenManager, ReactiveRedisConnectionFactory connectionFactory) {
+        this(accessTokenManager, connectionFactory, (RedisSerializer) RedisSerializer.java());
+    }
+
+    /**
+     * 使用指定的序列化器序列化授权码信息,使用{@link CompactRedisSerializer}时将自动注册{@link AuthorizationCodeCache}的序列化方式
+     *
+     * @param accessTokenManager token管理器
+     * @param connectionFactory  连接工厂
+     * @param serializer         序列化器
+     * @since 4.0.15
+     */
+    @SuppressWarnings("all")
+    public DefaultAuthorizationCodeGranter(AccessTokenManager accessTokenManager,
+                                           ReactiveRedisConnectionFactory connectionFactory,
+                                           RedisSerializer<Object> serializer) {
         this(accessTokenManager, new ReactiveRedisTemplate<>(connectionFactory, RedisSerializationContext
                 .newSerializationContext()
                 .key((RedisSerializer) RedisSerializer.string())
-                .value(RedisSerializer.java())
+                .value(registerCodec(serializer))
                 .hashKey(RedisSerializer.string())
-                .hashValue(RedisSerializer.java())
+                .hashValue(serializer)
                 .build()
         ));
     }
 
+    static RedisSerializer<Object> registerCodec(RedisSerializer<Object> serializer) {
+        if (serializer instanceof CompactRedisSerializer) {
+            ((CompactRedisSerializer) serializer).register(65, AuthorizationCodeCache.class, new AuthorizationCodeCacheCodec());
+        }
+        return serializer;
+    }
+
+    static class AuthorizationCodeCacheCodec implements CompactRedisSerializer.TypeCodec<AuthorizationCodeCache> {
+        @Override
+        public void encode(AuthorizationCodeCache value, CompactRedisSerializer.Output output) throws IOException {
+            output.writeString(value.getClientId());
+            output.writeString(value.getCode());
+            output.writeObject(value.getAuthentication());
+            output.writeString(value.getScope());
+        }
+
+        @Override
+        public AuthorizationCodeCache decode(CompactRedisSerializer.Input input) throws IOException {
+            AuthorizationCodeCache cache = new AuthorizationCodeCache();
+            cache.setClientId(input.readString());
+            cache.setCode(input.readString());
+            cache.setAuthentication((Authentication) input.readObject());
+            cache.setScope(input.readString());
+            return cache;
+        }
+    }
+
     @Override
     public Mono<AuthorizationCodeResponse> requestCode(AuthorizationCodeRequest request) {
         OAuth2Client client = request.getClient();
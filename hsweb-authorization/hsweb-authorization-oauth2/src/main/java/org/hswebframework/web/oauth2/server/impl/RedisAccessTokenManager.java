@@ -4,6 +4,7 @@ import lombok.Getter;
 import lombok.Setter;
 import org.apache.commons.codec.digest.DigestUtils;
 import org.hswebframework.web.authorization.Authentication;
+import org.hswebframework.web.authorization.token.redis.CompactRedisSerializer;
 import org.hswebframework.web.oauth2.ErrorType;
 import org.hswebframework.web.oauth2.OAuth2Exception;
 import org.hswebframework.web.oauth2.server.AccessToken;
@@ -15,6 +16,7 @@ import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.RedisSerializer;
 import reactor.core.publisher.Mono;
 
+import java.io.IOException;
 import java.time.Duration;
 import java.util.UUID;
 
@@ -36,16 +38,59 @@ public class RedisAccessTokenManager implements AccessTokenManager {
 
     @SuppressWarnings("all")
     public RedisAccessTokenManager(ReactiveRedisConnectionFactory connectionFactory) {
+        this(connectionFactory, (RedisSerializer) RedisSerializer.java());
+    }
+
+    /**
+     * 使用指定的序列化器序列化token信息,使用{@link CompactRedisSerializer}时将自动注册{@link RedisAccessToken}的序列化方式
+     *
+     * @param connectionFactory 连接工厂
+     * @param serializer        序列化器
+     * @since 4.0.15
+     */
+    @SuppressWarnings("all")
+    public RedisAccessTokenManager(ReactiveRedisConnectionFactory connectionFactory, RedisSerializer<Object> serializer) {
         this(new ReactiveRedisTemplate<>(connectionFactory, RedisSerializationContext
                 .newSerializationContext()
                 .key((RedisSerializer) RedisSerializer.string())
-                .value(RedisSerializer.java())
+                .value(registerCodec(serializer))
                 .hashKey(RedisSerializer.string())
-                .hashValue(RedisSerializer.java())
+                .hashValue(serializer)
                 .build()
         ));
     }
 
+    static RedisSerializer<Object> registerCodec(RedisSerializer<Object> serializer) {
+        if (serializer instanceof CompactRedisSerializer) {
+            ((CompactRedisSerializer) serializer).register(64, RedisAccessToken.class, new RedisAccessTokenCodec());
+        }
+        return serializer;
+    }
+
+    static class RedisAccessTokenCodec implements CompactRedisSerializer.TypeCodec<RedisAccessToken> {
+        @Override
+        public void encode(RedisAccessToken value, CompactRedisSerializer.Output output) throws IOException {
+            output.writeString(value.getClientId());
+            output.writeString(value.getAccessToken());
+            output.writeString(value.getRefreshToken());
+            output.writeLong(value.getCreateTime());
+            output.writeObject(value.getAuthentication());
+            output.writeBoolean(value.isSingleton());
+        }
+
+        @Override
+        public RedisAccessToken decode(CompactRedisSerializer.Input input) throws IOException {
+            RedisAccessToken token = new RedisAccessToken();
+            token.setClientId(input.readString());
+            token.setAccessToken(input.readString());
+            token.setRefreshToken(input.readString());
+            token.setCreateTime(input.readLong());
+            token.setAuthentication((Authentication) input.readObject());
+            token.setSingleton(input.readBoolean());
+            return token;
+        }
+    }
+
     @Override
     public Mono<Authentication> getAuthenticationByToken(String accessToken) {
 
@@ -0,0 +1,39 @@
+package org.hswebframework.web.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 基准测试启动类,默认将结果以JSON格式输出到{@code jmh-result.json},便于不同版本间的结果对比.
+ * <pre>
+ *     mvn -pl hsweb-benchmarks -am package -DskipTests
+ *     java -jar hsweb-benchmarks/target/benchmarks.jar [JMH参数,如: FastBeanCopier -rf csv -rff result.csv]
+ * </pre>
+ *
+ * @since 4.0.15
+ */
+public class BenchmarkRunner {
+
+    public static final String DEFAULT_RESULT_FILE = "jmh-result.json";
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+
+        ChainedOptionsBuilder builder = new OptionsBuilder().parent(commandLine);
+
+        //未指定结果格式时,默认输出为JSON
+        if (!commandLine.getResultFormat().hasValue()) {
+            builder.resultFormat(ResultFormatType.JSON);
+        }
+        if (!commandLine.getResult().hasValue()) {
+            builder.result(DEFAULT_RESULT_FILE);
+        }
+        if (commandLine.getIncludes().isEmpty()) {
+            builder.include(BenchmarkRunner.class.getPackage().getName() + ".*");
+        }
+        new Runner(builder.build()).run();
+    }
+}
@@ -0,0 +1,72 @@
+package org.hswebframework.web.benchmark.authorization;
+
+import org.hswebframework.web.authorization.Permission;
+import org.hswebframework.web.authorization.annotation.Logical;
+import org.hswebframework.web.authorization.define.ResourceDefinition;
+import org.hswebframework.web.authorization.define.ResourcesDefinition;
+import org.hswebframework.web.authorization.simple.SimplePermission;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ResourcesDefinition#hasPermission(Collection)}权限判断性能
+ *
+ * @since 4.0.15
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResourcesDefinitionBenchmark {
+
+    //用户持有的权限数量
+    @Param({"1", "20", "200"})
+    private int permissionSize;
+
+    @Param({"OR", "AND"})
+    private Logical logical;
+
+    private ResourcesDefinition definition;
+
+    private List<Permission> permissions;
+
+    @Setup
+    public void setup() {
+        definition = new ResourcesDefinition();
+        definition.setLogical(logical);
+        definition.addResource(ResourceDefinition
+                                       .of("user", "用户")
+                                       .addAction("query", "查询")
+                                       .addAction("save", "保存"), false);
+        definition.addResource(ResourceDefinition
+                                       .of("role", "角色")
+                                       .addAction("query", "查询"), false);
+
+        permissions = new ArrayList<>(permissionSize);
+        for (int i = 0; i < permissionSize - 2; i++) {
+            permissions.add(createPermission("permission-" + i, "query", "save", "delete"));
+        }
+        permissions.add(createPermission("user", "query"));
+        if (permissionSize > 1) {
+            permissions.add(createPermission("role", "query"));
+        }
+    }
+
+    private static Permission createPermission(String id, String... actions) {
+        return SimplePermission
+                .builder()
+                .id(id)
+                .name(id)
+                .actions(new HashSet<>(Arrays.asList(actions)))
+                .build();
+    }
+
+    @Benchmark
+    public boolean hasPermission() {
+        return definition.hasPermission(permissions);
+    }
+}
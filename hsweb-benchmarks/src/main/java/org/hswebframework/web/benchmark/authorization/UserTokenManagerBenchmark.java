@@ -0,0 +1,65 @@
+package org.hswebframework.web.benchmark.authorization;
+
+import org.hswebframework.web.authorization.token.DefaultUserTokenManager;
+import org.hswebframework.web.authorization.token.UserToken;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link DefaultUserTokenManager#getByToken(String)}令牌查找性能
+ *
+ * @since 4.0.15
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserTokenManagerBenchmark {
+
+    //已登录的令牌数量
+    @Param({"1000", "100000"})
+    private int tokenSize;
+
+    private DefaultUserTokenManager tokenManager;
+
+    private String[] tokens;
+
+    @Setup
+    public void setup() {
+        tokenManager = new DefaultUserTokenManager();
+        tokens = new String[tokenSize];
+        for (int i = 0; i < tokenSize; i++) {
+            String token = "token-" + i;
+            tokens[i] = token;
+            tokenManager
+                    .signIn(token, "default", "user-" + (i % 1000), TimeUnit.HOURS.toMillis(1))
+                    .block();
+        }
+    }
+
+    @Benchmark
+    public UserToken getByToken() {
+        return tokenManager
+                .getByToken(tokens[ThreadLocalRandom.current().nextInt(tokens.length)])
+                .block();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public UserToken getByTokenConcurrent() {
+        return tokenManager
+                .getByToken(tokens[ThreadLocalRandom.current().nextInt(tokens.length)])
+                .block();
+    }
+
+    @Benchmark
+    public UserToken getByTokenMissing() {
+        return tokenManager
+                .getByToken("missing")
+                .block();
+    }
+}
@@ -0,0 +1,32 @@
+package org.hswebframework.web.benchmark.bean;
+
+import org.hswebframework.web.bean.ClassDescription;
+import org.hswebframework.web.bean.ClassDescriptions;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ClassDescriptions}缓存查找性能
+ *
+ * @since 4.0.15
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClassDescriptionsBenchmark {
+
+    @Benchmark
+    public ClassDescription getDescription() {
+        return ClassDescriptions.getDescription(FastBeanCopierBenchmark.Bean.class);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public ClassDescription getDescriptionConcurrent() {
+        return ClassDescriptions.getDescription(FastBeanCopierBenchmark.Bean.class);
+    }
+}
@@ -0,0 +1,53 @@
+package org.hswebframework.web.benchmark.bean;
+
+import org.hswebframework.web.bean.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 不同{@link CopierFactory}创建复制器(冷启动)以及复制的性能
+ *
+ * @since 4.0.15
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CopierFactoryBenchmark {
+
+    @Param({"javassist", "lambda"})
+    private String factory;
+
+    private CopierFactory copierFactory;
+
+    private Copier copier;
+
+    private FastBeanCopierBenchmark.Bean source;
+
+    @Setup
+    public void setup() {
+        copierFactory = "lambda".equals(factory) ? LambdaCopierFactory.INSTANCE : JavassistCopierFactory.INSTANCE;
+        copier = copierFactory.createCopier(FastBeanCopierBenchmark.Bean.class, FastBeanCopierBenchmark.Bean.class);
+        source = new FastBeanCopierBenchmark.Bean();
+        source.setId("test");
+        source.setName("benchmark");
+        source.setAge(18);
+    }
+
+    @Benchmark
+    public Copier createCopier() {
+        return copierFactory.createCopier(FastBeanCopierBenchmark.Bean.class, Map.class);
+    }
+
+    @Benchmark
+    public FastBeanCopierBenchmark.Bean copy() {
+        FastBeanCopierBenchmark.Bean target = new FastBeanCopierBenchmark.Bean();
+        copier.copy(source, target, Collections.emptySet(), FastBeanCopier.DEFAULT_CONVERT);
+        return target;
+    }
+}
@@ -0,0 +1,91 @@
+package org.hswebframework.web.benchmark.bean;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.hswebframework.web.bean.BoundCopier;
+import org.hswebframework.web.bean.FastBeanCopier;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link FastBeanCopier}复制性能
+ *
+ * @since 4.0.15
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FastBeanCopierBenchmark {
+
+    private Bean source;
+
+    private Map<String, Object> sourceMap;
+
+    private final BoundCopier<Bean, Bean> boundCopier = FastBeanCopier.bind(Bean.class, Bean.class);
+
+    private final BoundCopier<Bean, Bean> boundIgnoreCopier = FastBeanCopier.bind(Bean.class, Bean.class, "id", "createTime");
+
+    @Setup
+    public void setup() {
+        source = new Bean();
+        source.setId("test");
+        source.setName("benchmark");
+        source.setAge(18);
+        source.setCreateTime(System.currentTimeMillis());
+        source.setTags(Arrays.asList("a", "b", "c"));
+        source.setEnabled(true);
+
+        sourceMap = FastBeanCopier.copy(source, new HashMap<>());
+    }
+
+    @Benchmark
+    public Bean beanToBean() {
+        return FastBeanCopier.copy(source, new Bean());
+    }
+
+    @Benchmark
+    public Bean beanToBeanIgnore() {
+        return FastBeanCopier.copy(source, new Bean(), "id", "createTime");
+    }
+
+    @Benchmark
+    public Bean boundBeanToBean() {
+        return boundCopier.copy(source, new Bean());
+    }
+
+    @Benchmark
+    public Bean boundBeanToBeanIgnore() {
+        return boundIgnoreCopier.copy(source, new Bean());
+    }
+
+    @Benchmark
+    public Map<String, Object> beanToMap() {
+        return FastBeanCopier.copy(source, new HashMap<>());
+    }
+
+    @Benchmark
+    public Bean mapToBean() {
+        return FastBeanCopier.copy(sourceMap, new Bean());
+    }
+
+    @Getter
+    @Setter
+    public static class Bean {
+        private String id;
+
+        private String name;
+
+        private int age;
+
+        private Long createTime;
+
+        private List<String> tags;
+
+        private Boolean enabled;
+    }
+}
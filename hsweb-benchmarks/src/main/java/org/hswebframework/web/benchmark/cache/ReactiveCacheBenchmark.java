@@ -0,0 +1,75 @@
+package org.hswebframework.web.benchmark.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.hswebframework.web.cache.ReactiveCache;
+import org.hswebframework.web.cache.supports.CaffeineReactiveCacheManager;
+import org.openjdk.jmh.annotations.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link org.hswebframework.web.cache.supports.CaffeineReactiveCache}读写性能
+ *
+ * @since 4.0.15
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReactiveCacheBenchmark {
+
+    private static final int KEY_SIZE = 1024;
+
+    private ReactiveCache<String> cache;
+
+    @Setup
+    public void setup() {
+        cache = new CaffeineReactiveCacheManager(Caffeine.newBuilder().maximumSize(KEY_SIZE * 2))
+                .getCache("benchmark");
+        for (int i = 0; i < KEY_SIZE; i++) {
+            cache.put("key-" + i, Mono.just("value-" + i)).block();
+            cache.put("list-" + i, Flux.just("value-" + i, "value-" + (i + 1))).block();
+        }
+    }
+
+    private static int nextKey() {
+        return ThreadLocalRandom.current().nextInt(KEY_SIZE);
+    }
+
+    @Benchmark
+    public String getMonoHit() {
+        return cache.getMono("key-" + nextKey()).block();
+    }
+
+    @Benchmark
+    public List<String> getFluxHit() {
+        return cache.getFlux("list-" + nextKey()).collectList().block();
+    }
+
+    @Benchmark
+    public String monoCacheHit() {
+        return cache
+                .mono("key-" + nextKey())
+                .onCacheMissResume(() -> Mono.just("miss"))
+                .block();
+    }
+
+    @Benchmark
+    public String monoCacheMiss() {
+        return cache
+                .mono("missing")
+                .onCacheMissResume(Mono::empty)
+                .block();
+    }
+
+    @Benchmark
+    public Void put() {
+        return cache.put("key-" + nextKey(), Mono.just("value")).block();
+    }
+}
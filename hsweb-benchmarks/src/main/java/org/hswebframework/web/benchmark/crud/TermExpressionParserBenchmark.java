@@ -0,0 +1,34 @@
+package org.hswebframework.web.benchmark.crud;
+
+import org.hswebframework.ezorm.core.param.Term;
+import org.hswebframework.web.api.crud.entity.TermExpressionParser;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link TermExpressionParser}解析性能
+ *
+ * @since 4.0.15
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TermExpressionParserBenchmark {
+
+    @Param({
+            "name = 1",
+            "name = 1 and age > 18",
+            "name gte 1 and (name not 1 or age gt 0) and status in 1,2,3"
+    })
+    private String expression;
+
+    @Benchmark
+    public List<Term> parse() {
+        return TermExpressionParser.parse(expression);
+    }
+}
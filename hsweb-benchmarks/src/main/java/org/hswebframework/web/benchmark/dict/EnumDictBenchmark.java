@@ -0,0 +1,59 @@
+package org.hswebframework.web.benchmark.dict;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.hswebframework.web.dict.EnumDict;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link EnumDict#find(Class, Object)}等查找性能
+ *
+ * @since 4.0.15
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EnumDictBenchmark {
+
+    @Benchmark
+    public Optional<Status> findByValue() {
+        return EnumDict.findByValue(Status.class, "locked");
+    }
+
+    @Benchmark
+    public Optional<Status> findByText() {
+        return EnumDict.findByText(Status.class, "锁定");
+    }
+
+    @Benchmark
+    public Optional<Status> find() {
+        return EnumDict.find(Status.class, "locked");
+    }
+
+    @Benchmark
+    public Optional<Status> findMissing() {
+        return EnumDict.find(Status.class, "missing");
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public enum Status implements EnumDict<String> {
+        enabled("正常"),
+        disabled("禁用"),
+        locked("锁定"),
+        deleted("删除");
+
+        private final String text;
+
+        @Override
+        public String getValue() {
+            return name();
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package org.hswebframework.web.api.crud.entity;
+
+/**
+ * 分页查询时查询总数的方式
+ *
+ * @see QueryParamEntity#getCountStrategy()
+ * @since 4.0.15
+ */
+public enum CountStrategy {
+    /**
+     * 每次都执行count查询准确的总数
+     */
+    exact,
+    /**
+     * 相同条件的总数在短时间内使用缓存,不重复执行count
+     */
+    cache,
+    /**
+     * 没有查询条件并且数据量超过阈值时,使用数据库的统计信息估算总数.
+     * 不支持估算时使用{@link #cache}
+     */
+    estimate
+}
@@ -0,0 +1,210 @@
+package org.hswebframework.web.api.crud.entity;
+
+import com.alibaba.fastjson.JSON;
+import lombok.Getter;
+import lombok.SneakyThrows;
+import org.apache.commons.beanutils.BeanUtilsBean;
+import org.apache.commons.beanutils.PropertyUtilsBean;
+import org.apache.commons.collections.CollectionUtils;
+import org.hswebframework.ezorm.core.param.Sort;
+import org.hswebframework.ezorm.core.param.Term;
+import org.hswebframework.ezorm.core.param.TermType;
+import org.hswebframework.web.exception.ValidationException;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * 游标分页(keyset分页).
+ * <p>
+ * 使用上一页最后一条数据的排序字段值作为游标,查询下一页时将游标转换为条件:
+ * <code>(原条件) and (c1 &gt; ? or (c1 = ? and c2 &gt; ?))</code>,不再通过offset跳过数据,
+ * 也不执行count查询总数,查询任意一页的耗时与第一页一致.
+ * <p>
+ * 排序字段的最后将追加主键作为唯一排序.不同数据库对null的排序方式不同,因此排序字段的值不能为null,
+ * 可通过{@link #of(QueryParamEntity, String, Predicate)}在查询前拒绝可以为null的排序字段,
+ * 否则在生成游标时遇到null值将抛出{@link ValidationException}.
+ * <pre>{@code
+ *  CursorPaging paging = CursorPaging.of(query, "id");
+ *  repository
+ *      .createQuery()
+ *      .setParam(paging.getQuery())
+ *      .fetch()
+ *      .collectList()
+ *      .map(list -> paging.toResult(list, Function.identity()));
+ * }</pre>
+ *
+ * @see QueryParamEntity#isCursorPaging()
+ * @see PagerResult#getNextCursor()
+ * @since 4.0.15
+ */
+public class CursorPaging {
+
+    private static final PropertyUtilsBean propertyUtils = BeanUtilsBean.getInstance().getPropertyUtils();
+
+    private final QueryParamEntity source;
+
+    private final List<Sort> sorts;
+
+    private final int pageSize;
+
+    /**
+     * 实际执行的查询条件,查询数量为分页数量+1,用于判断是否还有下一页
+     */
+    @Getter
+    private final QueryParamEntity query;
+
+    private CursorPaging(QueryParamEntity source, String idProperty) {
+        this.source = source;
+        this.pageSize = Math.max(1, source.getPageSize());
+
+        List<Sort> sorts = new ArrayList<>();
+        if (source.getSorts() != null) {
+            sorts.addAll(source.getSorts());
+        }
+        if (idProperty != null && sorts.stream().noneMatch(sort -> idProperty.equals(sort.getName()))) {
+            sorts.add(new Sort(idProperty));
+        }
+        this.sorts = sorts;
+
+        QueryParamEntity query = source.clone();
+        query.setWhere(null);
+        query.setTotal(null);
+        query.setParallelPager(false);
+        query.setCursor(null);
+        query.setTerms(new ArrayList<>());
+        if (CollectionUtils.isNotEmpty(source.getTerms())) {
+            query.nest().setTerms(new ArrayList<>(source.getTerms()));
+        }
+        List<Object> values = decode(source.getCursor());
+        if (values != null) {
+            Term keyset = query.nest();
+            for (int i = 0; i < sorts.size(); i++) {
+                Term branch = i == 0 ? keyset.nest() : keyset.orNest();
+                for (int j = 0; j < i; j++) {
+                    branch.and(sorts.get(j).getName(), TermType.eq, values.get(j));
+                }
+                branch.and(sorts.get(i).getName(), isDesc(sorts.get(i)) ? TermType.lt : TermType.gt, values.get(i));
+            }
+        }
+        query.setSorts(sorts);
+        //排序字段的值用于生成游标,必须查询
+        if (CollectionUtils.isNotEmpty(query.getIncludes())) {
+            Set<String> includes = new HashSet<>(query.getIncludes());
+            sorts.forEach(sort -> includes.add(sort.getName()));
+            query.setIncludes(includes);
+        }
+        if (CollectionUtils.isNotEmpty(query.getExcludes())) {
+            Set<String> excludes = new HashSet<>(query.getExcludes());
+            sorts.forEach(sort -> excludes.remove(sort.getName()));
+            query.setExcludes(excludes);
+        }
+        query.setFirstPageIndex(0);
+        query.doPaging(0, pageSize + 1);
+        this.query = query;
+    }
+
+    /**
+     * 根据查询条件创建游标分页
+     *
+     * @param query      查询条件
+     * @param idProperty 主键属性,将追加到排序字段的最后,保证排序唯一.为null时不追加
+     * @return CursorPaging
+     */
+    public static CursorPaging of(QueryParamEntity query, String idProperty) {
+        return new CursorPaging(query, idProperty);
+    }
+
+    /**
+     * 根据查询条件创建游标分页,并校验排序字段不能为null
+     *
+     * @param query      查询条件
+     * @param idProperty 主键属性,将追加到排序字段的最后,保证排序唯一.为null时不追加
+     * @param nullable   判断属性的值是否可以为null
+     * @return CursorPaging
+     * @throws ValidationException 排序字段的值可以为null时
+     */
+    public static CursorPaging of(QueryParamEntity query, String idProperty, Predicate<String> nullable) {
+        CursorPaging paging = new CursorPaging(query, idProperty);
+        for (Sort sort : paging.sorts) {
+            if (!sort.getName().equals(idProperty) && nullable.test(sort.getName())) {
+                throw new ValidationException("sorts", "游标分页的排序字段[" + sort.getName() + "]不能为null");
+            }
+        }
+        return paging;
+    }
+
+    /**
+     * 将{@link #getQuery()}的查询结果转换为分页结果,
+     * 游标分页不查询总数,{@link PagerResult#getTotal()}固定为-1.
+     *
+     * @param list   查询结果
+     * @param mapper 结果转换器
+     * @param <E>    查询结果类型
+     * @param <T>    转换后的类型
+     * @return 分页结果
+     */
+    public <E, T> PagerResult<T> toResult(List<E> list, Function<E, T> mapper) {
+        String nextCursor = null;
+        if (list.size() > pageSize) {
+            list = list.subList(0, pageSize);
+            nextCursor = encode(list.get(pageSize - 1));
+        }
+        List<T> data = new ArrayList<>(list.size());
+        for (E e : list) {
+            data.add(mapper.apply(e));
+        }
+        PagerResult<T> result = PagerResult.of(-1, data, source);
+        result.setNextCursor(nextCursor);
+        return result;
+    }
+
+    private static boolean isDesc(Sort sort) {
+        return "desc".equalsIgnoreCase(sort.getOrder());
+    }
+
+    @SneakyThrows
+    @SuppressWarnings("all")
+    private Object getValue(Object data, String property) {
+        if (data instanceof Map) {
+            return ((Map) data).get(property);
+        }
+        return propertyUtils.getProperty(data, property);
+    }
+
+    private String encode(Object data) {
+        List<Object> values = new ArrayList<>(sorts.size());
+        for (Sort sort : sorts) {
+            Object value = getValue(data, sort.getName());
+            //null无法转换为条件,生成的游标无法使用
+            if (value == null) {
+                throw new ValidationException("sorts", "游标分页的排序字段[" + sort.getName() + "]的值不能为null");
+            }
+            values.add(value);
+        }
+        return Base64
+                .getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(JSON.toJSONString(values).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private List<Object> decode(String cursor) {
+        if (StringUtils.isEmpty(cursor)) {
+            return null;
+        }
+        List<Object> values;
+        try {
+            values = JSON.parseArray(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (Exception e) {
+            throw new ValidationException("cursor", "无效的游标");
+        }
+        //排序条件已经改变
+        if (values == null || values.size() != sorts.size() || values.contains(null)) {
+            throw new ValidationException("cursor", "无效的游标");
+        }
+        return values;
+    }
+}
@@ -101,6 +101,15 @@ public class PagerResult<E> {
     @Schema(description = "数据列表")
     private List<E> data;
 
+    /**
+     * 游标分页时下一页的游标,为null时表示没有下一页
+     *
+     * @see CursorPaging
+     * @since 4.0.15
+     */
+    @Schema(description = "游标分页时下一页的游标,为空时表示没有下一页")
+    private String nextCursor;
+
     public PagerResult() {
     }
 
@@ -110,6 +110,9 @@ public @interface QueryOperation {
             @Parameter(name = "pageSize", description = "每页数量", schema = @Schema(implementation = Integer.class), in = ParameterIn.QUERY),
             @Parameter(name = "pageIndex", description = "页码", schema = @Schema(implementation = Integer.class), in = ParameterIn.QUERY),
             @Parameter(name = "total", description = "设置了此值后将不重复执行count查询总数", schema = @Schema(implementation = Integer.class), in = ParameterIn.QUERY),
+            @Parameter(name = "countStrategy", description = "查询总数的方式,exact(精确),cache(短时间缓存),estimate(估算)", schema = @Schema(implementation = CountStrategy.class), in = ParameterIn.QUERY),
+            @Parameter(name = "cursorPaging", description = "是否使用游标分页,游标分页不查询总数", schema = @Schema(implementation = Boolean.class), in = ParameterIn.QUERY),
+            @Parameter(name = "cursor", description = "游标分页的游标,为上一页结果中的nextCursor", schema = @Schema(implementation = String.class), in = ParameterIn.QUERY),
             @Parameter(name = "where", description = "条件表达式,和terms参数冲突", example = "id = 1", schema = @Schema(implementation = String.class), in = ParameterIn.QUERY),
             @Parameter(name = "orderBy", description = "排序表达式,和sorts参数冲突", example = "id desc", schema = @Schema(implementation = String.class), in = ParameterIn.QUERY),
             @Parameter(name = "includes", description = "指定要查询的列,多列使用逗号分隔", example = "id", schema = @Schema(implementation = String.class), in = ParameterIn.QUERY),
@@ -69,6 +69,45 @@ public class QueryParamEntity extends QueryParam {
     @Schema(description = "是否进行并行分页")
     private boolean parallelPager = false;
 
+    /**
+     * 分页查询时查询总数的方式,为null或者服务不允许此方式时使用服务的默认方式
+     *
+     * @see CountStrategy
+     * @since 4.0.15
+     */
+    @Getter
+    @Setter
+    @Schema(description = "查询总数的方式,exact(精确),cache(短时间缓存),estimate(估算)")
+    private CountStrategy countStrategy;
+
+    /**
+     * 是否使用游标分页,为true时不查询总数,使用{@link #getCursor()}查询下一页.
+     *
+     * @see CursorPaging
+     * @since 4.0.15
+     */
+    @Setter
+    @Schema(description = "是否使用游标分页,游标分页不查询总数")
+    private boolean cursorPaging = false;
+
+    /**
+     * 游标,为上一页分页结果中的{@link PagerResult#getNextCursor()}
+     *
+     * @since 4.0.15
+     */
+    @Getter
+    @Setter
+    @Schema(description = "游标分页的游标,为上一页结果中的nextCursor")
+    private String cursor;
+
+    /**
+     * @return 是否使用游标分页, 设置了游标时也将使用游标分页
+     * @since 4.0.15
+     */
+    public boolean isCursorPaging() {
+        return cursorPaging || StringUtils.hasText(cursor);
+    }
+
     @Override
     @Hidden
     public boolean isForUpdate() {
@@ -7,6 +7,8 @@ import lombok.extern.slf4j.Slf4j;
 import org.hswebframework.ezorm.rdb.metadata.RDBTableMetadata;
 import org.hswebframework.ezorm.rdb.operator.DatabaseOperator;
 import org.hswebframework.web.api.crud.entity.EntityFactory;
+import org.hswebframework.web.bean.ClassDescriptions;
+import org.hswebframework.web.bean.FastBeanCopier;
 import org.hswebframework.web.crud.entity.factory.MapperEntityFactory;
 import org.hswebframework.web.crud.events.EntityDDLEvent;
 import org.hswebframework.web.event.GenericsPayloadApplicationEvent;
@@ -19,6 +21,7 @@ import reactor.core.scheduler.Schedulers;
 import java.time.Duration;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -56,6 +59,9 @@ public class AutoDDLProcessor implements InitializingBean {
             }
         }
         List<Class> entities = this.entities.stream().map(EntityInfo::getRealType).collect(Collectors.toList());
+        if (properties.isWarmUpCopier()) {
+            warmUpCopier(entities);
+        }
         if (properties.isAutoDdl()) {
             //加载全部表信息
             if (reactive) {
@@ -105,4 +111,39 @@ public class AutoDDLProcessor implements InitializingBean {
             }
         }
     }
+
+    /**
+     * 并行为实体类生成复制器以及类描述信息
+     *
+     * @param entities 实体类
+     */
+    protected void warmUpCopier(List<Class> entities) {
+        long startWith = System.currentTimeMillis();
+        Integer count = Flux
+                .fromIterable(entities)
+                .parallel()
+                .runOn(Schedulers.parallel())
+                .map(this::warmUpCopier)
+                .reduce(Integer::sum)
+                .block(Duration.ofMinutes(5));
+        log.info("warm up {} bean copiers for {} entities in {}ms",
+                 count == null ? 0 : count,
+                 entities.size(),
+                 System.currentTimeMillis() - startWith);
+    }
+
+    private int warmUpCopier(Class<?> type) {
+        int count = 0;
+        ClassDescriptions.getDescription(type);
+        Class<?>[][] pairs = {{type, type}, {type, Map.class}, {Map.class, type}};
+        for (Class<?>[] pair : pairs) {
+            try {
+                FastBeanCopier.prepareCopier(pair[0], pair[1]);
+                count++;
+            } catch (Throwable e) {
+                log.warn("warm up bean copier {} -> {} error", pair[0], pair[1], e);
+            }
+        }
+        return count;
+    }
 }
@@ -16,6 +16,7 @@ import org.hswebframework.ezorm.rdb.metadata.RDBSchemaMetadata;
 import org.hswebframework.ezorm.rdb.operator.DatabaseOperator;
 import org.hswebframework.ezorm.rdb.operator.DefaultDatabaseOperator;
 import org.hswebframework.web.api.crud.entity.EntityFactory;
+import org.hswebframework.web.api.crud.entity.TransactionManagers;
 import org.hswebframework.web.crud.annotation.EnableEasyormRepository;
 import org.hswebframework.web.crud.entity.factory.EntityMappingCustomizer;
 import org.hswebframework.web.crud.entity.factory.MapperEntityFactory;
@@ -24,6 +25,7 @@ import org.hswebframework.web.crud.generator.CurrentTimeGenerator;
 import org.hswebframework.web.crud.generator.DefaultIdGenerator;
 import org.hswebframework.web.crud.generator.MD5Generator;
 import org.hswebframework.web.crud.generator.SnowFlakeStringIdGenerator;
+import org.hswebframework.web.crud.service.TransactionalOperatorHolder;
 import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -31,9 +33,11 @@ import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ApplicationContextAware;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.ReactiveTransactionManager;
 
 import java.time.Duration;
 import java.util.List;
@@ -147,6 +151,19 @@ public class EasyormConfiguration {
         };
     }
 
+    //在服务内部开启事务时使用的共享事务操作
+    @Bean
+    public ApplicationContextAware transactionalOperatorHolder() {
+        return context -> {
+            Object transactionManager = context.containsBean(TransactionManagers.reactiveTransactionManager)
+                    ? context.getBean(TransactionManagers.reactiveTransactionManager)
+                    : null;
+            TransactionalOperatorHolder.setTransactionManager(transactionManager instanceof ReactiveTransactionManager
+                                                                      ? (ReactiveTransactionManager) transactionManager
+                                                                      : null);
+        };
+    }
+
     @Bean
     public EntityEventListener entityEventListener(ApplicationEventPublisher eventPublisher,
                                                    ObjectProvider<EntityEventListenerCustomizer> customizers) {
@@ -32,6 +32,23 @@ public class EasyormProperties {
 
     private boolean allowTypeAlter = true;
 
+    /**
+     * 是否在启动时为所有实体类预先生成bean复制器(实体与实体,实体与Map)以及类描述信息,
+     * 避免在首次请求时才生成.
+     *
+     * @see org.hswebframework.web.bean.FastBeanCopier#prepareCopier(Class, Class)
+     */
+    private boolean warmUpCopier = false;
+
+    /**
+     * 是否在外部没有事务时,以非事务的方式执行只读操作(查询,count等),
+     * 直接从连接池中获取连接执行,节省开启和提交事务的数据库交互.
+     *
+     * @see org.hswebframework.web.crud.sql.NonTransactionalReadTransactionManager
+     * @since 4.0.15
+     */
+    private boolean readWithoutTransaction = false;
+
     private DialectEnum dialect = DialectEnum.h2;
 
     private Class<? extends Dialect> dialectType;
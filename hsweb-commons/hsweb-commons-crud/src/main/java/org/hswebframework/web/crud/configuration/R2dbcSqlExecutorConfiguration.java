@@ -4,13 +4,20 @@ import io.r2dbc.spi.ConnectionFactory;
 import org.hswebframework.ezorm.rdb.executor.SyncSqlExecutor;
 import org.hswebframework.ezorm.rdb.executor.reactive.ReactiveSqlExecutor;
 import org.hswebframework.ezorm.rdb.executor.reactive.ReactiveSyncSqlExecutor;
+import org.hswebframework.web.api.crud.entity.TransactionManagers;
 import org.hswebframework.web.crud.sql.DefaultR2dbcExecutor;
+import org.hswebframework.web.crud.sql.NonTransactionalReadTransactionManager;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.transaction.ReactiveTransactionManager;
 
 @Configuration
 @AutoConfigureAfter(name = "org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration")
@@ -30,4 +37,29 @@ public class R2dbcSqlExecutorConfiguration {
     public SyncSqlExecutor syncSqlExecutor(ReactiveSqlExecutor reactiveSqlExecutor) {
         return ReactiveSyncSqlExecutor.of(reactiveSqlExecutor);
     }
-}
\ No newline at end of file
+
+    //外部没有事务时,只读操作不开启事务
+    @Bean
+    @ConditionalOnProperty(prefix = "easyorm", name = "read-without-transaction", havingValue = "true")
+    public static NonTransactionalReadPostProcessor nonTransactionalReadPostProcessor() {
+        return new NonTransactionalReadPostProcessor();
+    }
+
+    //实现Ordered,在事务管理器初始化之前注册
+    static class NonTransactionalReadPostProcessor implements BeanPostProcessor, Ordered {
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+            if (TransactionManagers.reactiveTransactionManager.equals(beanName)
+                    && bean instanceof ReactiveTransactionManager
+                    && !(bean instanceof NonTransactionalReadTransactionManager)) {
+                return new NonTransactionalReadTransactionManager(((ReactiveTransactionManager) bean));
+            }
+            return bean;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.LOWEST_PRECEDENCE;
+        }
+    }
+}
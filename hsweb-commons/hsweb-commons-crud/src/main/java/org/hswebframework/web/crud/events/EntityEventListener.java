@@ -17,9 +17,11 @@ import org.hswebframework.ezorm.rdb.mapping.events.ReactiveResultHolder;
 import org.hswebframework.ezorm.rdb.metadata.RDBColumnMetadata;
 import org.hswebframework.ezorm.rdb.metadata.TableOrViewMetadata;
 import org.hswebframework.web.api.crud.entity.Entity;
+import org.hswebframework.web.bean.BoundCopier;
 import org.hswebframework.web.bean.FastBeanCopier;
 import org.hswebframework.web.event.AsyncEvent;
 import org.hswebframework.web.event.GenericsPayloadApplicationEvent;
+import org.springframework.beans.BeanUtils;
 import org.springframework.context.ApplicationEventPublisher;
 import reactor.core.publisher.Mono;
 import reactor.function.Function3;
@@ -145,6 +147,14 @@ public class EntityEventListener implements EventListener {
         if (idColumn == null) {
             return Collections.emptyList();
         }
+        if (olds.isEmpty()) {
+            return newValues;
+        }
+        Class<Object> entityType = (Class<Object>) mapping.getEntityType();
+        BoundCopier<Object, Object> entityCopier = FastBeanCopier.bind(entityType, entityType);
+        BoundCopier<Map, Object> updateCopier = FastBeanCopier.bind(Map.class, entityType);
+        BoundCopier<Object, Object> idCopier = FastBeanCopier.bind(entityType, entityType, FastBeanCopier.include(idColumn.getAlias()));
+
         for (Object old : olds) {
             Object newValue = context
                     .get(MappingContextKeys.instance)
@@ -154,7 +164,7 @@ public class EntityEventListener implements EventListener {
                         return context
                                 .get(MappingContextKeys.updateColumnInstance)
                                 .map(map -> {
-                                    Object data = FastBeanCopier.copy(map, FastBeanCopier.copy(old, mapping.getEntityType()));
+                                    Object data = updateCopier.copy(map, entityCopier.copy(old, BeanUtils.instantiateClass(entityType)));
                                     //set null
                                     for (Map.Entry<String, Object> stringObjectEntry : map.entrySet()) {
                                         if (stringObjectEntry.getValue() == null || stringObjectEntry.getValue() instanceof NullValue) {
@@ -169,7 +179,7 @@ public class EntityEventListener implements EventListener {
                                 .orElse(null);
                     });
             if (newValue != null) {
-                FastBeanCopier.copy(old, newValue, FastBeanCopier.include(idColumn.getAlias()));
+                idCopier.copy(old, newValue);
             }
             newValues.add(newValue);
         }
@@ -0,0 +1,39 @@
+package org.hswebframework.web.crud.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * 分批新增的进度,每一批数据新增完成后返回一次.
+ *
+ * @see ReactiveCrudService#insertStream(org.reactivestreams.Publisher, int)
+ * @since 4.0.15
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor(staticName = "of")
+public class BatchInsertProgress {
+
+    /**
+     * 批次,从1开始
+     */
+    private long batch;
+
+    /**
+     * 本批次的数据量
+     */
+    private int size;
+
+    /**
+     * 本批次新增的数据量
+     */
+    private int inserted;
+
+    /**
+     * 已经新增的数据总量
+     */
+    private long total;
+}
@@ -0,0 +1,316 @@
+package org.hswebframework.web.crud.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.collections.CollectionUtils;
+import org.hswebframework.ezorm.core.param.Term;
+import org.hswebframework.ezorm.rdb.executor.SqlRequests;
+import org.hswebframework.ezorm.rdb.executor.reactive.ReactiveSqlExecutor;
+import org.hswebframework.ezorm.rdb.executor.wrapper.ResultWrappers;
+import org.hswebframework.ezorm.rdb.mapping.EntityColumnMapping;
+import org.hswebframework.ezorm.rdb.mapping.ReactiveRepository;
+import org.hswebframework.ezorm.rdb.mapping.defaults.DefaultRepository;
+import org.hswebframework.ezorm.rdb.metadata.RDBColumnMetadata;
+import org.hswebframework.ezorm.rdb.metadata.RDBSchemaMetadata;
+import org.hswebframework.ezorm.rdb.metadata.TableOrViewMetadata;
+import org.hswebframework.ezorm.rdb.metadata.dialect.Dialect;
+import org.hswebframework.ezorm.rdb.supports.h2.H2Dialect;
+import org.hswebframework.ezorm.rdb.supports.mssql.SqlServerDialect;
+import org.hswebframework.ezorm.rdb.supports.mysql.MysqlDialect;
+import org.hswebframework.ezorm.rdb.supports.oracle.OracleDialect;
+import org.hswebframework.ezorm.rdb.supports.postgres.PostgresqlDialect;
+import org.hswebframework.web.api.crud.entity.CountStrategy;
+import org.hswebframework.web.api.crud.entity.QueryParamEntity;
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.reactive.TransactionSynchronization;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 查询总数,根据{@link CountStrategy}使用短时间缓存或者数据库的统计信息,
+ * 避免分页查询时每次都执行完整的count.
+ * <p>
+ * 缓存以(仓库,查询方式,标准化后的查询条件)为key,分页和排序不影响缓存.
+ * 通过{@link ReactiveCrudService}修改数据后会调用{@link #invalidateAfterCompletion(ReactiveRepository, Mono)}使对应仓库的缓存失效,
+ * 在事务中修改时,在事务提交或者回滚后才失效.
+ * 直接通过仓库修改数据,或者其他节点修改数据时,缓存的总数在过期前不会更新.
+ *
+ * @see ReactiveCrudService#count(QueryParamEntity)
+ * @since 4.0.15
+ */
+@Slf4j
+public class QueryCounter {
+
+    /**
+     * 默认的查询总数,缓存30秒
+     */
+    public static final QueryCounter DEFAULT = new QueryCounter(Duration.ofSeconds(30), 10000);
+
+    //仓库->查询条件->总数,使缓存失效时直接移除整个仓库的缓存
+    private final Map<ReactiveRepository<?, ?>, Map<CountKey, CachedCount>> cache = new ConcurrentHashMap<>();
+
+    private final long expiresMillis;
+
+    private final int maximumSize;
+
+    /**
+     * 使用估算总数的阈值,估算的总数小于此值时执行count查询准确的总数
+     */
+    @Getter
+    @Setter
+    private int estimateThreshold = 100000;
+
+    /**
+     * @param expires     缓存有效期
+     * @param maximumSize 每个仓库最大缓存数量,超过后清空此仓库的缓存
+     */
+    public QueryCounter(Duration expires, int maximumSize) {
+        this.expiresMillis = expires.toMillis();
+        this.maximumSize = maximumSize;
+    }
+
+    /**
+     * 查询总数
+     *
+     * @param repository 仓库
+     * @param query      查询条件
+     * @param strategy   查询方式,为null时查询准确的总数
+     * @return 总数
+     */
+    public Mono<Integer> count(ReactiveRepository<?, ?> repository, QueryParamEntity query, CountStrategy strategy) {
+        if (strategy == null || strategy == CountStrategy.exact) {
+            return doCount(repository, query);
+        }
+        List<Term> terms = query.getTerms();
+        Map<CountKey, CachedCount> counts = cache.computeIfAbsent(repository, ignore -> new ConcurrentHashMap<>());
+        CountKey key = new CountKey(strategy, normalize(terms));
+        CachedCount cached = counts.get(key);
+        if (cached != null) {
+            if (cached.expireAt > System.currentTimeMillis()) {
+                return Mono.just(cached.total);
+            }
+            counts.remove(key, cached);
+        }
+        Mono<Integer> counter = doCount(repository, query);
+        //统计信息只有整张表的数据量
+        if (strategy == CountStrategy.estimate && CollectionUtils.isEmpty(terms)) {
+            counter = estimate(repository)
+                    .filter(estimated -> estimated >= estimateThreshold)
+                    .switchIfEmpty(counter);
+        }
+        return counter.doOnNext(count -> {
+            //查询期间缓存已经失效,数据可能发生了变化,不再缓存
+            if (cache.get(repository) != counts) {
+                return;
+            }
+            if (counts.size() >= maximumSize) {
+                counts.clear();
+            }
+            counts.put(key, new CachedCount(count, System.currentTimeMillis() + expiresMillis));
+        });
+    }
+
+    /**
+     * 使缓存的总数失效
+     *
+     * @param repository 仓库
+     */
+    public void invalidate(ReactiveRepository<?, ?> repository) {
+        cache.remove(repository);
+    }
+
+    /**
+     * 执行修改数据的操作,并在操作完成后使缓存的总数失效.
+     * <p>
+     * 在事务中执行时,在事务完成(提交或者回滚)后才使缓存失效.
+     * 否则在操作完成到事务提交之间执行的count会查询到提交前的总数,并在整个有效期内使用此缓存.
+     *
+     * @param repository 仓库
+     * @param operation  修改数据的操作
+     * @param <T>        操作结果类型
+     * @return 操作结果
+     */
+    public <T> Mono<T> invalidateAfterCompletion(ReactiveRepository<?, ?> repository, Mono<T> operation) {
+        return TransactionSynchronizationManager
+                .forCurrentTransaction()
+                .filter(TransactionSynchronizationManager::isSynchronizationActive)
+                .doOnNext(manager -> manager.registerSynchronization(new InvalidateSynchronization(repository)))
+                .hasElement()
+                //不在事务中
+                .onErrorResume(NoTransactionException.class, err -> Mono.just(false))
+                .flatMap(inTransaction -> inTransaction
+                        ? operation
+                        : operation.doFinally(ignore -> invalidate(repository)));
+    }
+
+    /**
+     * 清空缓存的总数
+     */
+    public void clear() {
+        cache.clear();
+    }
+
+    private Mono<Integer> doCount(ReactiveRepository<?, ?> repository, QueryParamEntity query) {
+        return Mono.defer(() -> repository
+                .createQuery()
+                .setParam(query)
+                .count());
+    }
+
+    /**
+     * 使用数据库的统计信息估算表的数据量,不支持时返回{@link Mono#empty()}
+     *
+     * @param repository 仓库
+     * @return 估算的数据量
+     */
+    protected Mono<Integer> estimate(ReactiveRepository<?, ?> repository) {
+        TableOrViewMetadata table = getTable(repository);
+        if (table == null) {
+            return Mono.empty();
+        }
+        RDBSchemaMetadata schema = table.getSchema();
+        String sql = getEstimateSql(schema.getDatabase().getDialect());
+        ReactiveSqlExecutor executor = schema.findFeature(ReactiveSqlExecutor.ID).orElse(null);
+        if (sql == null || executor == null) {
+            return Mono.empty();
+        }
+        return executor
+                .select(SqlRequests.of(sql, schema.getName(), table.getName()), ResultWrappers.lowerCase(ResultWrappers.map()))
+                .take(1)
+                .singleOrEmpty()
+                .flatMap(row -> Mono.justOrEmpty(row.get("total")))
+                .filter(Number.class::isInstance)
+                //超过int范围时使用最大值,避免溢出为负数
+                .map(total -> (int) Math.min(((Number) total).longValue(), Integer.MAX_VALUE))
+                //没有统计信息
+                .filter(total -> total >= 0)
+                .onErrorResume(err -> {
+                    log.debug("estimate table [{}] row count error", table.getName(), err);
+                    return Mono.empty();
+                });
+    }
+
+    protected String getEstimateSql(Dialect dialect) {
+        if (dialect instanceof MysqlDialect) {
+            return "select table_rows as total from information_schema.tables " +
+                    "where upper(table_schema) = upper(?) and upper(table_name) = upper(?)";
+        }
+        if (dialect instanceof PostgresqlDialect) {
+            return "select c.reltuples as total from pg_class c join pg_namespace n on n.oid = c.relnamespace " +
+                    "where upper(n.nspname) = upper(?) and upper(c.relname) = upper(?)";
+        }
+        if (dialect instanceof OracleDialect) {
+            return "select num_rows as total from all_tables " +
+                    "where upper(owner) = upper(?) and upper(table_name) = upper(?)";
+        }
+        if (dialect instanceof SqlServerDialect) {
+            return "select sum(p.rows) as total from sys.partitions p " +
+                    "join sys.tables t on p.object_id = t.object_id join sys.schemas s on t.schema_id = s.schema_id " +
+                    "where upper(s.name) = upper(?) and upper(t.name) = upper(?) and p.index_id in (0, 1)";
+        }
+        if (dialect instanceof H2Dialect) {
+            return "select row_count_estimate as total from information_schema.tables " +
+                    "where upper(table_schema) = upper(?) and upper(table_name) = upper(?)";
+        }
+        return null;
+    }
+
+    private TableOrViewMetadata getTable(ReactiveRepository<?, ?> repository) {
+        if (!(repository instanceof DefaultRepository)) {
+            return null;
+        }
+        EntityColumnMapping mapping = ((DefaultRepository<?>) repository).getMapping();
+        return mapping
+                .getColumnPropertyMapping()
+                .keySet()
+                .stream()
+                .map(mapping::getColumnByName)
+                .filter(Optional::isPresent)
+                .map(Optional::get)
+                .map(RDBColumnMetadata::getOwner)
+                .filter(Objects::nonNull)
+                .findFirst()
+                .orElse(null);
+    }
+
+    private static String normalize(List<Term> terms) {
+        StringBuilder builder = new StringBuilder();
+        appendTerms(builder, terms);
+        return builder.toString();
+    }
+
+    private static void appendTerms(StringBuilder builder, List<Term> terms) {
+        if (CollectionUtils.isEmpty(terms)) {
+            return;
+        }
+        for (Term term : terms) {
+            builder.append(term.getType())
+                   .append(' ')
+                   .append(term.getColumn())
+                   .append(' ')
+                   .append(term.getTermType());
+            if (CollectionUtils.isNotEmpty(term.getOptions())) {
+                builder.append(term.getOptions());
+            }
+            builder.append(' ')
+                   .append(Arrays.deepToString(new Object[]{term.getValue()}));
+            if (CollectionUtils.isNotEmpty(term.getTerms())) {
+                builder.append('(');
+                appendTerms(builder, term.getTerms());
+                builder.append(')');
+            }
+            builder.append(';');
+        }
+    }
+
+    @AllArgsConstructor
+    private class InvalidateSynchronization implements TransactionSynchronization {
+        private final ReactiveRepository<?, ?> repository;
+
+        @Override
+        public Mono<Void> afterCompletion(int status) {
+            return Mono.fromRunnable(() -> invalidate(repository));
+        }
+    }
+
+    @AllArgsConstructor
+    private static class CachedCount {
+        private final int total;
+
+        private final long expireAt;
+    }
+
+    @AllArgsConstructor
+    private static class CountKey {
+        private final CountStrategy strategy;
+
+        private final String terms;
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof CountKey)) {
+                return false;
+            }
+            CountKey that = (CountKey) o;
+            return strategy == that.strategy && terms.equals(that.terms);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * strategy.hashCode() + terms.hashCode();
+        }
+    }
+}
@@ -5,16 +5,21 @@ import org.hswebframework.ezorm.rdb.mapping.ReactiveQuery;
 import org.hswebframework.ezorm.rdb.mapping.ReactiveRepository;
 import org.hswebframework.ezorm.rdb.mapping.ReactiveUpdate;
 import org.hswebframework.ezorm.rdb.mapping.defaults.SaveResult;
+import org.hswebframework.web.api.crud.entity.CountStrategy;
+import org.hswebframework.web.api.crud.entity.CursorPaging;
 import org.hswebframework.web.api.crud.entity.PagerResult;
 import org.hswebframework.web.api.crud.entity.QueryParamEntity;
 import org.hswebframework.web.api.crud.entity.TransactionManagers;
 import org.reactivestreams.Publisher;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.reactive.TransactionalOperator;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Set;
 import java.util.function.Function;
 
 /**
@@ -67,7 +72,9 @@ public interface ReactiveCrudService<E, K> {
      * @return 动态更新接口
      */
     default ReactiveUpdate<E> createUpdate() {
-        return getRepository().createUpdate();
+        return getRepository()
+                .createUpdate()
+                .onExecute((update, s) -> getQueryCounter().invalidateAfterCompletion(getRepository(), s));
     }
 
     /**
@@ -84,7 +91,9 @@ public interface ReactiveCrudService<E, K> {
      * @return 动态更新接口
      */
     default ReactiveDelete createDelete() {
-        return getRepository().createDelete();
+        return getRepository()
+                .createDelete()
+                .onExecute((delete, s) -> getQueryCounter().invalidateAfterCompletion(getRepository(), s));
     }
 
 
@@ -114,62 +123,109 @@ public interface ReactiveCrudService<E, K> {
 
     @Transactional(transactionManager = TransactionManagers.reactiveTransactionManager)
     default Mono<SaveResult> save(Publisher<E> entityPublisher) {
-        return getRepository()
-                .save(entityPublisher);
+        return getQueryCounter()
+                .invalidateAfterCompletion(getRepository(), getRepository().save(entityPublisher));
     }
 
     @Transactional(transactionManager = TransactionManagers.reactiveTransactionManager)
     default Mono<SaveResult> save(E data) {
-        return getRepository()
-                .save(data);
+        return getQueryCounter()
+                .invalidateAfterCompletion(getRepository(), getRepository().save(data));
     }
 
     @Transactional(transactionManager = TransactionManagers.reactiveTransactionManager)
     default Mono<SaveResult> save(Collection<E> collection) {
-        return getRepository()
-                .save(collection);
+        return getQueryCounter()
+                .invalidateAfterCompletion(getRepository(), getRepository().save(collection));
     }
 
     @Transactional(transactionManager = TransactionManagers.reactiveTransactionManager)
     default Mono<Integer> updateById(K id, Mono<E> entityPublisher) {
-        return getRepository()
-                .updateById(id, entityPublisher);
+        return getQueryCounter()
+                .invalidateAfterCompletion(getRepository(), getRepository().updateById(id, entityPublisher));
     }
 
     @Transactional(transactionManager = TransactionManagers.reactiveTransactionManager)
     default Mono<Integer> updateById(K id, E data) {
-        return getRepository()
-                .updateById(id, Mono.just(data));
+        return getQueryCounter()
+                .invalidateAfterCompletion(getRepository(), getRepository().updateById(id, Mono.just(data)));
     }
 
     @Transactional(transactionManager = TransactionManagers.reactiveTransactionManager)
     default Mono<Integer> insertBatch(Publisher<? extends Collection<E>> entityPublisher) {
-        return getRepository()
-                .insertBatch(entityPublisher);
+        return getQueryCounter()
+                .invalidateAfterCompletion(getRepository(), getRepository().insertBatch(entityPublisher));
+    }
+
+    /**
+     * 分批新增数据,按batchSize将数据分批后依次调用{@link #insertBatch(Publisher)},
+     * 根据新增的进度读取数据,内存中只保留少量批次的数据,占用的内存与数据总量无关.
+     * <p>
+     * 每一批使用{@link #getTransactionalOperator()}在单独的事务中执行,一批中的多条语句(如树结构展开的子节点)同时提交或者回滚.
+     * 新增失败时停止后续的新增,失败的批次回滚,已完成的批次不会回滚,可根据返回的进度确认新增的位置.
+     * 在已有的事务中调用时,所有批次都在此事务中执行.没有响应式事务管理器时不开启事务,失败的批次不会回滚.
+     *
+     * @param entityPublisher 数据流
+     * @param batchSize       每一批的数据量
+     * @return 每一批的新增进度
+     * @since 4.0.15
+     */
+    default Flux<BatchInsertProgress> insertStream(Publisher<E> entityPublisher, int batchSize) {
+        return Flux.defer(() -> {
+            long[] total = new long[1];
+            //直接调用insertBatch不会经过代理,@Transactional不生效,使用TransactionalOperator开启事务
+            TransactionalOperator operator = getTransactionalOperator();
+            return Flux
+                    .from(entityPublisher)
+                    .buffer(batchSize)
+                    .index()
+                    .concatMap(chunk -> {
+                        Mono<Integer> insert = this.insertBatch(Mono.just(chunk.getT2()));
+                        return (operator == null ? insert : operator.transactional(insert))
+                                .map(inserted -> BatchInsertProgress.of(chunk.getT1() + 1,
+                                                                        chunk.getT2().size(),
+                                                                        inserted,
+                                                                        total[0] += inserted));
+                    }, 1);
+        });
+    }
+
+    /**
+     * 在当前服务内部开启事务时使用的事务操作,为null时不开启事务.
+     * 通过this调用带有{@link Transactional}注解的方法时不会经过代理,需要使用此事务操作.
+     * 默认使用{@link TransactionManagers#reactiveTransactionManager}创建的共享事务操作.
+     *
+     * @return TransactionalOperator
+     * @see #insertStream(Publisher, int)
+     * @see TransactionalOperatorHolder
+     * @since 4.0.15
+     */
+    default TransactionalOperator getTransactionalOperator() {
+        return TransactionalOperatorHolder.get();
     }
 
     @Transactional(transactionManager = TransactionManagers.reactiveTransactionManager)
     default Mono<Integer> insert(Publisher<E> entityPublisher) {
-        return getRepository()
-                .insert(entityPublisher);
+        return getQueryCounter()
+                .invalidateAfterCompletion(getRepository(), getRepository().insert(entityPublisher));
     }
 
     @Transactional(transactionManager = TransactionManagers.reactiveTransactionManager)
     default Mono<Integer> insert(E data) {
-        return getRepository()
-                .insert(Mono.just(data));
+        return getQueryCounter()
+                .invalidateAfterCompletion(getRepository(), getRepository().insert(Mono.just(data)));
     }
 
     @Transactional(transactionManager = TransactionManagers.reactiveTransactionManager)
     default Mono<Integer> deleteById(Publisher<K> idPublisher) {
-        return getRepository()
-                .deleteById(idPublisher);
+        return getQueryCounter()
+                .invalidateAfterCompletion(getRepository(), getRepository().deleteById(idPublisher));
     }
 
     @Transactional(transactionManager = TransactionManagers.reactiveTransactionManager)
     default Mono<Integer> deleteById(K id) {
-        return getRepository()
-                .deleteById(Mono.just(id));
+        return getQueryCounter()
+                .invalidateAfterCompletion(getRepository(), getRepository().deleteById(Mono.just(id)));
     }
 
 
@@ -194,6 +250,10 @@ public interface ReactiveCrudService<E, K> {
 
     @Transactional(readOnly = true, transactionManager = TransactionManagers.reactiveTransactionManager)
     default <T> Mono<PagerResult<T>> queryPager(QueryParamEntity query, Function<E, T> mapper) {
+        //游标分页,不查询总数
+        if (query.isCursorPaging()) {
+            return queryCursorPager(query, mapper);
+        }
         //如果查询参数指定了总数,表示不需要再进行count操作.
         //建议前端在使用分页查询时,切换下一页时,将第一次查询到total结果传入查询参数,可以提升查询性能.
         if (query.getTotal() != null) {
@@ -209,15 +269,12 @@ public interface ReactiveCrudService<E, K> {
         if (query.isParallelPager()) {
             return Mono
                     .zip(
-                            createQuery().setParam(query.clone()).count(),
+                            count(query.clone()),
                             createQuery().setParam(query.clone()).fetch().map(mapper).collectList(),
                             (total, data) -> PagerResult.of(total, data, query)
                     );
         }
-        return getRepository()
-                .createQuery()
-                .setParam(query.clone())
-                .count()
+        return count(query.clone())
                 .flatMap(total -> {
                     if (total == 0) {
                         return Mono.just(PagerResult.of(0, new ArrayList<>(), query));
@@ -230,6 +287,34 @@ public interface ReactiveCrudService<E, K> {
                 });
     }
 
+    /**
+     * 游标分页查询,使用上一页最后一条数据的排序字段值作为条件查询下一页,不查询总数.
+     * 排序字段的最后将追加主键作为唯一排序,查询任意一页的耗时与第一页一致.
+     * 排序字段对应的列必须不能为null(如:{@code @Column(nullable = false)}),否则返回{@link org.hswebframework.web.exception.ValidationException}.
+     *
+     * @param query  查询条件,{@link QueryParamEntity#getCursor()}为上一页结果中的{@link PagerResult#getNextCursor()}
+     * @param mapper 结果转换器
+     * @param <T>    转换后的类型
+     * @return 分页结果
+     * @see CursorPaging
+     * @since 4.0.15
+     */
+    @Transactional(readOnly = true, transactionManager = TransactionManagers.reactiveTransactionManager)
+    default <T> Mono<PagerResult<T>> queryCursorPager(QueryParamEntity query, Function<E, T> mapper) {
+        return Mono.defer(() -> {
+            ReactiveRepository<E, K> repository = getRepository();
+            CursorPaging paging = CursorPaging.of(query,
+                                                  RepositoryMappings.getIdProperty(repository, "id"),
+                                                  property -> RepositoryMappings.isNullable(repository, property));
+            return repository
+                    .createQuery()
+                    .setParam(paging.getQuery())
+                    .fetch()
+                    .collectList()
+                    .map(list -> paging.toResult(list, mapper));
+        });
+    }
+
     @Transactional(readOnly = true, transactionManager = TransactionManagers.reactiveTransactionManager)
     default <T> Mono<PagerResult<T>> queryPager(Mono<? extends QueryParamEntity> queryParamMono, Function<E, T> mapper) {
         return queryParamMono
@@ -242,12 +327,54 @@ public interface ReactiveCrudService<E, K> {
         return queryPager(queryParamMono, Function.identity());
     }
 
+    /**
+     * 查询总数,根据{@link QueryParamEntity#getCountStrategy()}使用缓存或者估算的总数,
+     * 未指定或者指定的方式不在{@link #getAllowedCountStrategies()}中时使用{@link #getDefaultCountStrategy()}.
+     *
+     * @param queryParam 查询条件
+     * @return 总数
+     * @see QueryCounter
+     */
     @Transactional(readOnly = true, transactionManager = TransactionManagers.reactiveTransactionManager)
     default Mono<Integer> count(QueryParamEntity queryParam) {
-        return getRepository()
-                .createQuery()
-                .setParam(queryParam)
-                .count();
+        CountStrategy strategy = queryParam.getCountStrategy();
+        if (strategy == null || !getAllowedCountStrategies().contains(strategy)) {
+            strategy = getDefaultCountStrategy();
+        }
+        return getQueryCounter()
+                .count(getRepository(), queryParam, strategy);
+    }
+
+    /**
+     * 查询参数未指定{@link QueryParamEntity#getCountStrategy()}时,查询总数的方式
+     *
+     * @return 查询总数的方式
+     * @since 4.0.15
+     */
+    default CountStrategy getDefaultCountStrategy() {
+        return CountStrategy.exact;
+    }
+
+    /**
+     * 允许通过{@link QueryParamEntity#getCountStrategy()}指定的查询总数的方式.
+     * 查询参数通常直接来自前端请求,默认只允许{@link #getDefaultCountStrategy()},
+     * 避免前端在服务使用估算时强制执行完整的count,或者在需要准确总数时使用缓存的总数.
+     *
+     * @return 允许的查询总数的方式
+     * @since 4.0.15
+     */
+    default Set<CountStrategy> getAllowedCountStrategies() {
+        return EnumSet.of(getDefaultCountStrategy());
+    }
+
+    /**
+     * 通过当前服务新增,修改,删除数据后,会调用{@link QueryCounter#invalidateAfterCompletion(ReactiveRepository, Mono)}使缓存的总数失效.
+     *
+     * @return 使用缓存或者估算总数时使用的QueryCounter
+     * @since 4.0.15
+     */
+    default QueryCounter getQueryCounter() {
+        return QueryCounter.DEFAULT;
     }
 
     @Transactional(readOnly = true, transactionManager = TransactionManagers.reactiveTransactionManager)
@@ -140,12 +140,14 @@ public interface ReactiveTreeSortEntityService<E extends TreeSortSupportEntity<K
 
     @Override
     default Mono<Integer> insertBatch(Publisher<? extends Collection<E>> entityPublisher) {
-        return this.getRepository()
-                   .insertBatch(Flux.from(entityPublisher)
-                                    .flatMap(Flux::fromIterable)
-                                    .flatMap(this::applyTreeProperty)
-                                    .flatMap(e -> Flux.fromIterable(TreeSupportEntity.expandTree2List(e, getIDGenerator())))
-                                    .collectList());
+        return getQueryCounter()
+                .invalidateAfterCompletion(getRepository(), this
+                        .getRepository()
+                        .insertBatch(Flux.from(entityPublisher)
+                                         .flatMap(Flux::fromIterable)
+                                         .flatMap(this::applyTreeProperty)
+                                         .flatMap(e -> Flux.fromIterable(TreeSupportEntity.expandTree2List(e, getIDGenerator())))
+                                         .collectList()));
     }
 
     default Mono<E> applyTreeProperty(E ele) {
@@ -195,7 +197,7 @@ public interface ReactiveTreeSortEntityService<E extends TreeSortSupportEntity<K
                     }
                     return Mono.just(e);
                 })
-                .as(getRepository()::save)
+                .as(stream -> getQueryCounter().invalidateAfterCompletion(getRepository(), getRepository().save(stream)))
                 .then();
     }
 
@@ -223,7 +225,7 @@ public interface ReactiveTreeSortEntityService<E extends TreeSortSupportEntity<K
                 .flatMapIterable(e -> TreeSupportEntity.expandTree2List(e, getIDGenerator()))
                 //重构path
                 .as(this::tryRefactorPath)
-                .as(this.getRepository()::save);
+                .as(stream -> getQueryCounter().invalidateAfterCompletion(getRepository(), getRepository().save(stream)));
 
     }
 
@@ -340,7 +342,7 @@ public interface ReactiveTreeSortEntityService<E extends TreeSortSupportEntity<K
                 .findById(Flux.from(idPublisher))
                 .concatMap(e -> StringUtils.hasText(e.getPath())
                         ? createDelete().where().like$(e::getPath).execute()
-                        : getRepository().deleteById(e.getId()))
+                        : getQueryCounter().invalidateAfterCompletion(getRepository(), getRepository().deleteById(e.getId())))
                 .as(MathFlux::sumInt);
     }
 
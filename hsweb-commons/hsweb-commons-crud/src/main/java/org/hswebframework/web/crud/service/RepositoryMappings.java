@@ -0,0 +1,83 @@
+package org.hswebframework.web.crud.service;
+
+import org.hswebframework.ezorm.rdb.mapping.EntityColumnMapping;
+import org.hswebframework.ezorm.rdb.mapping.ReactiveRepository;
+import org.hswebframework.ezorm.rdb.mapping.defaults.DefaultRepository;
+import org.hswebframework.ezorm.rdb.metadata.RDBColumnMetadata;
+import org.springframework.util.ConcurrentReferenceHashMap;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * 根据仓库的实体映射获取主键属性,字段是否可以为null等信息.
+ * 不是{@link DefaultRepository}时无法获取映射,使用默认值.
+ *
+ * @since 4.0.15
+ */
+public final class RepositoryMappings {
+
+    //repository->主键属性名,弱引用,仓库被回收后自动移除
+    private static final Map<ReactiveRepository<?, ?>, Optional<String>> idProperties =
+            new ConcurrentReferenceHashMap<>(64, ConcurrentReferenceHashMap.ReferenceType.WEAK);
+
+    private RepositoryMappings() {
+    }
+
+    public static Optional<EntityColumnMapping> getMapping(ReactiveRepository<?, ?> repository) {
+        if (!(repository instanceof DefaultRepository)) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(((DefaultRepository<?>) repository).getMapping());
+    }
+
+    /**
+     * 获取主键属性
+     *
+     * @param repository   仓库
+     * @param defaultValue 无法获取映射或者没有主键时的默认值
+     * @return 主键属性
+     */
+    public static String getIdProperty(ReactiveRepository<?, ?> repository, String defaultValue) {
+        return idProperties
+                .computeIfAbsent(repository, repo -> getMapping(repo)
+                        .flatMap(mapping -> mapping
+                                .getColumnPropertyMapping()
+                                .entrySet()
+                                .stream()
+                                .filter(e -> mapping
+                                        .getColumnByName(e.getKey())
+                                        .map(RDBColumnMetadata::isPrimaryKey)
+                                        .orElse(false))
+                                .map(Map.Entry::getValue)
+                                .findFirst()))
+                .orElse(defaultValue);
+    }
+
+    /**
+     * 判断属性对应的字段是否可以为null,无法获取映射或者属性不存在时返回{@code false}
+     *
+     * @param repository 仓库
+     * @param property   属性
+     * @return 是否可以为null
+     */
+    public static boolean isNullable(ReactiveRepository<?, ?> repository, String property) {
+        return getMapping(repository)
+                .flatMap(mapping -> mapping.getColumnByProperty(property))
+                .map(column -> !column.isPrimaryKey() && !column.isNotNull())
+                .orElse(false);
+    }
+
+    /**
+     * 获取属性对应字段的java类型
+     *
+     * @param repository 仓库
+     * @param property   属性
+     * @return java类型, 无法获取映射或者属性不存在时为空
+     */
+    public static Optional<Class<?>> getJavaType(ReactiveRepository<?, ?> repository, String property) {
+        return getMapping(repository)
+                .flatMap(mapping -> mapping.getColumnByProperty(property))
+                .map(column -> column.getJavaType());
+    }
+}
@@ -0,0 +1,43 @@
+package org.hswebframework.web.crud.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hswebframework.web.api.crud.entity.TransactionManagers;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+/**
+ * 使用{@link TransactionManagers#reactiveTransactionManager}创建的共享事务操作,在容器启动时设置.
+ *
+ * @see ReactiveCrudService#getTransactionalOperator()
+ * @since 4.0.15
+ */
+@Slf4j
+public final class TransactionalOperatorHolder {
+
+    private static volatile TransactionalOperator OPERATOR;
+
+    private static volatile boolean warned;
+
+    private TransactionalOperatorHolder() {
+    }
+
+    public static void setTransactionManager(ReactiveTransactionManager transactionManager) {
+        OPERATOR = transactionManager == null ? null : TransactionalOperator.create(transactionManager);
+        warned = false;
+    }
+
+    /**
+     * 获取事务操作,没有响应式事务管理器时返回null
+     *
+     * @return TransactionalOperator
+     */
+    public static TransactionalOperator get() {
+        TransactionalOperator operator = OPERATOR;
+        if (operator == null && !warned) {
+            warned = true;
+            log.warn("reactive transaction manager [{}] not found,operations will not be executed in a transaction",
+                     TransactionManagers.reactiveTransactionManager);
+        }
+        return operator;
+    }
+}
@@ -0,0 +1,109 @@
+package org.hswebframework.web.crud.sql;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.transaction.ReactiveTransaction;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 非事务读取的响应式事务管理器.
+ * <p>
+ * 只读事务({@code @Transactional(readOnly = true)})在外部没有事务时,将以{@link TransactionDefinition#PROPAGATION_SUPPORTS}执行:
+ * 不再开启和提交事务,直接从连接池中获取连接执行查询,同一个查询范围内(如:分页查询的count和查询)仍然使用同一个连接.
+ * 外部已经存在事务时,与原来的行为一致,加入外部事务.
+ * <p>
+ * 每一次非事务读取将节省开启事务和提交事务2次数据库交互,可通过{@link #getSavedRoundTrips()}获取节省的交互次数.
+ *
+ * @see org.hswebframework.web.crud.configuration.EasyormProperties#isReadWithoutTransaction()
+ * @since 4.0.15
+ */
+@AllArgsConstructor
+public class NonTransactionalReadTransactionManager implements ReactiveTransactionManager {
+
+    @Getter
+    private final ReactiveTransactionManager target;
+
+    private final LongAdder nonTransactionalReads = new LongAdder();
+
+    @Override
+    public Mono<ReactiveTransaction> getReactiveTransaction(TransactionDefinition definition) throws TransactionException {
+        if (definition == null
+                || !definition.isReadOnly()
+                || definition.getPropagationBehavior() != TransactionDefinition.PROPAGATION_REQUIRED) {
+            return target.getReactiveTransaction(definition);
+        }
+        return TransactionSynchronizationManager
+                .forCurrentTransaction()
+                .flatMap(manager -> {
+                    //已经存在事务,加入事务
+                    if (manager.isActualTransactionActive()) {
+                        return target.getReactiveTransaction(definition);
+                    }
+                    //最外层的只读范围,节省了开启和提交事务
+                    if (!manager.isSynchronizationActive()) {
+                        nonTransactionalReads.increment();
+                    }
+                    return target.getReactiveTransaction(new SupportsTransactionDefinition(definition));
+                });
+    }
+
+    @Override
+    public Mono<Void> commit(ReactiveTransaction transaction) throws TransactionException {
+        return target.commit(transaction);
+    }
+
+    @Override
+    public Mono<Void> rollback(ReactiveTransaction transaction) throws TransactionException {
+        return target.rollback(transaction);
+    }
+
+    /**
+     * @return 未开启事务执行的只读操作次数
+     */
+    public long getNonTransactionalReads() {
+        return nonTransactionalReads.sum();
+    }
+
+    /**
+     * @return 节省的数据库交互次数(开启事务和提交事务)
+     */
+    public long getSavedRoundTrips() {
+        return getNonTransactionalReads() * 2;
+    }
+
+    @AllArgsConstructor
+    private static class SupportsTransactionDefinition implements TransactionDefinition {
+        private final TransactionDefinition definition;
+
+        @Override
+        public int getPropagationBehavior() {
+            return PROPAGATION_SUPPORTS;
+        }
+
+        @Override
+        public int getIsolationLevel() {
+            return definition.getIsolationLevel();
+        }
+
+        @Override
+        public int getTimeout() {
+            return definition.getTimeout();
+        }
+
+        @Override
+        public boolean isReadOnly() {
+            return true;
+        }
+
+        @Override
+        public String getName() {
+            return definition.getName();
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package org.hswebframework.web.crud.web;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 流式导出,将查询结果逐行编码后直接写出到响应中.
+ * <p>
+ * 与返回{@link Flux}由编码器处理不同,导出不会将结果收集为{@link List},
+ * 每次最多向数据流请求{@link #getFetchSize()}条数据,客户端读取较慢时暂停请求,内存中等待写出的数据量与导出的数据量无关.
+ * 此值只限制响应式流的请求数量,不会设置JDBC/R2DBC的fetch size,驱动每次从数据库读取的数量由驱动自身决定.
+ * <pre>{@code
+ *  StreamingExporter.DEFAULT
+ *      .write(exchange, service.createQuery().setParam(query).fetch(), StreamingExporter.Format.csv, "user");
+ * }</pre>
+ * <p>
+ * 导出CSV时,未指定表头则使用第一行数据的列作为表头,之后的数据中新出现的列不会导出.
+ * 导出的数据为{@link Map}且每行的列可能不同时,请使用{@link #write(ServerWebExchange, Flux, Format, String, List)}指定表头.
+ * 以=,+,-,@,制表符或者回车开头的文本值会在前面加上单引号,避免使用Excel等软件打开时作为公式执行.
+ *
+ * @see org.hswebframework.web.crud.web.reactive.ReactiveServiceQueryController#getExporter()
+ * @since 4.0.15
+ */
+public class StreamingExporter {
+
+    public static final StreamingExporter DEFAULT = new StreamingExporter();
+
+    private static final ObjectMapper defaultMapper = new ObjectMapper();
+
+    private static final byte[] NEW_LINE = {'\n'};
+
+    private static final byte[] CSV_NEW_LINE = {'\r', '\n'};
+
+    //UTF-8 BOM,避免使用Excel打开时中文乱码
+    private static final byte[] BOM = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+
+    //CSV需要输出值为null的列,使用单独的ObjectMapper转换数据
+    private final Map<ObjectMapper, ObjectMapper> csvMappers = new ConcurrentHashMap<>();
+
+    /**
+     * 每次向数据流请求的数据量,使用{@link Flux#limitRate(int)}实现,不是JDBC/R2DBC的fetch size
+     */
+    @Getter
+    @Setter
+    private int fetchSize = 256;
+
+    /**
+     * 导出CSV时,是否在可能被作为公式执行的文本值前面加上单引号
+     */
+    @Getter
+    @Setter
+    private boolean escapeFormula = true;
+
+    /**
+     * 将数据写出到响应
+     *
+     * @param exchange ServerWebExchange
+     * @param rows     数据流
+     * @param format   导出格式
+     * @param fileName 文件名,不包含后缀.为null时不设置Content-Disposition
+     * @return void
+     */
+    public Mono<Void> write(ServerWebExchange exchange, Flux<?> rows, Format format, String fileName) {
+        return write(exchange, rows, format, fileName, null);
+    }
+
+    /**
+     * 将数据写出到响应
+     *
+     * @param exchange ServerWebExchange
+     * @param rows     数据流
+     * @param format   导出格式
+     * @param fileName 文件名,不包含后缀.为null时不设置Content-Disposition
+     * @param header   CSV的表头,为null时使用第一行数据的列
+     * @return void
+     */
+    public Mono<Void> write(ServerWebExchange exchange, Flux<?> rows, Format format, String fileName, List<String> header) {
+        ObjectMapper mapper = getObjectMapper(exchange);
+        ServerHttpResponse response = exchange.getResponse();
+        HttpHeaders headers = response.getHeaders();
+        headers.setContentType(format.getMediaType());
+        if (fileName != null) {
+            headers.setContentDisposition(ContentDisposition
+                                                  .builder("attachment")
+                                                  .filename(fileName + "." + format.name(), StandardCharsets.UTF_8)
+                                                  .build());
+        }
+        Flux<?> source = rows.limitRate(fetchSize);
+        DataBufferFactory factory = response.bufferFactory();
+        if (format == Format.csv) {
+            return response.writeWith(encodeCsv(source, csvMappers.computeIfAbsent(mapper, this::createCsvMapper), factory, header));
+        }
+        return response.writeWith(encodeNdjson(source, mapper, factory));
+    }
+
+    protected Flux<DataBuffer> encodeNdjson(Flux<?> rows, ObjectMapper mapper, DataBufferFactory factory) {
+        return rows.map(row -> {
+            DataBuffer buffer = factory.allocateBuffer();
+            buffer.write(writeValueAsBytes(mapper, row));
+            buffer.write(NEW_LINE);
+            return buffer;
+        });
+    }
+
+    protected Flux<DataBuffer> encodeCsv(Flux<?> rows, ObjectMapper mapper, DataBufferFactory factory) {
+        return encodeCsv(rows, mapper, factory, null);
+    }
+
+    @SuppressWarnings("all")
+    protected Flux<DataBuffer> encodeCsv(Flux<?> rows, ObjectMapper mapper, DataBufferFactory factory, List<String> fixedHeader) {
+        return Flux.defer(() -> {
+            //未指定表头时使用第一行数据的列
+            List<String> header = fixedHeader == null ? new ArrayList<>() : new ArrayList<>(fixedHeader);
+            return rows
+                    .map(row -> row instanceof Map ? (Map<String, Object>) row : mapper.convertValue(row, Map.class))
+                    .index()
+                    .map(tp2 -> {
+                        Map<String, Object> row = tp2.getT2();
+                        DataBuffer buffer = factory.allocateBuffer();
+                        if (tp2.getT1() == 0) {
+                            if (fixedHeader == null) {
+                                header.addAll(row.keySet());
+                            }
+                            buffer.write(BOM);
+                            writeCsvLine(buffer, header, mapper);
+                        }
+                        List<Object> line = new ArrayList<>(header.size());
+                        for (String column : header) {
+                            line.add(row.get(column));
+                        }
+                        writeCsvLine(buffer, line, mapper);
+                        return buffer;
+                    });
+        });
+    }
+
+    private void writeCsvLine(DataBuffer buffer, List<?> values, ObjectMapper mapper) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            Object value = values.get(i);
+            if (value == null) {
+                continue;
+            }
+            String str = value instanceof Map || value instanceof Collection || value.getClass().isArray()
+                    ? new String(writeValueAsBytes(mapper, value), StandardCharsets.UTF_8)
+                    : String.valueOf(value);
+            //数字和布尔值不会被作为公式执行,不需要处理,避免负数被修改
+            if (escapeFormula && !(value instanceof Number) && !(value instanceof Boolean) && isFormula(str)) {
+                str = "'".concat(str);
+            }
+            escapeCsv(builder, str);
+        }
+        buffer.write(builder.toString().getBytes(StandardCharsets.UTF_8));
+        buffer.write(CSV_NEW_LINE);
+    }
+
+    private static boolean isFormula(String value) {
+        if (value.isEmpty()) {
+            return false;
+        }
+        char c = value.charAt(0);
+        return c == '=' || c == '+' || c == '-' || c == '@' || c == '\t' || c == '\r';
+    }
+
+    private static void escapeCsv(StringBuilder builder, String value) {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\r' || c == '\n';
+        }
+        if (!quote) {
+            builder.append(value);
+            return;
+        }
+        builder.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                builder.append('"');
+            }
+            builder.append(c);
+        }
+        builder.append('"');
+    }
+
+    private static byte[] writeValueAsBytes(ObjectMapper mapper, Object value) {
+        try {
+            return mapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+    }
+
+    private ObjectMapper createCsvMapper(ObjectMapper mapper) {
+        return mapper.copy().setSerializationInclusion(JsonInclude.Include.ALWAYS);
+    }
+
+    protected ObjectMapper getObjectMapper(ServerWebExchange exchange) {
+        ApplicationContext context = exchange.getApplicationContext();
+        if (context == null) {
+            return defaultMapper;
+        }
+        return context
+                .getBeanProvider(ObjectMapper.class)
+                .getIfAvailable(() -> defaultMapper);
+    }
+
+    @Getter
+    public enum Format {
+        /**
+         * 每行一个JSON对象
+         */
+        ndjson(MediaType.parseMediaType("application/x-ndjson")),
+        /**
+         * 第一行为表头,未指定表头时使用第一行数据的列
+         */
+        csv(new MediaType("text", "csv", StandardCharsets.UTF_8));
+
+        private final MediaType mediaType;
+
+        Format(MediaType mediaType) {
+            this.mediaType = mediaType;
+        }
+    }
+}
@@ -6,17 +6,28 @@ import org.hswebframework.web.api.crud.entity.PagerResult;
 import org.hswebframework.web.api.crud.entity.QueryNoPagingOperation;
 import org.hswebframework.web.api.crud.entity.QueryOperation;
 import org.hswebframework.web.api.crud.entity.QueryParamEntity;
+import org.hswebframework.web.authorization.Authentication;
+import org.hswebframework.web.authorization.Permission;
+import org.hswebframework.web.authorization.access.FieldFilterDataAccessConfig;
 import org.hswebframework.web.authorization.annotation.Authorize;
 import org.hswebframework.web.authorization.annotation.QueryAction;
+import org.hswebframework.web.authorization.annotation.Resource;
 import org.hswebframework.web.crud.service.ReactiveCrudService;
+import org.hswebframework.web.crud.web.StreamingExporter;
 import org.hswebframework.web.exception.NotFoundException;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.util.ClassUtils;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.function.Function;
+
 
 public interface ReactiveServiceQueryController<E, K> {
 
@@ -84,6 +95,12 @@ public interface ReactiveServiceQueryController<E, K> {
      * <pre>
      *    GET /_query/no-paging?pageIndex=0&pageSize=20&where=name is 张三&orderBy=id desc
      * </pre>
+     * <p>
+     * 游标分页,不查询总数,使用上一页结果中的nextCursor查询下一页:
+     * <pre>
+     *    GET /_query?pageSize=20&orderBy=createTime desc&cursorPaging=true
+     *    GET /_query?pageSize=20&orderBy=createTime desc&cursor={nextCursor}
+     * </pre>
      *
      * @param query 查询条件
      * @return 分页查询结果
@@ -93,6 +110,9 @@ public interface ReactiveServiceQueryController<E, K> {
     @QueryAction
     @QueryOperation(summary = "使用GET方式分页动态查询")
     default Mono<PagerResult<E>> queryPager(@Parameter(hidden = true) QueryParamEntity query) {
+        if (query.isCursorPaging()) {
+            return getService().queryCursorPager(query, Function.identity());
+        }
         if (query.getTotal() != null) {
             return getService()
                     .createQuery()
@@ -193,6 +213,102 @@ public interface ReactiveServiceQueryController<E, K> {
                 .count();
     }
 
+    /**
+     * 流式导出,导出时不分页.
+     * 数据直接写出到响应中,数据权限无法在方法调用后处理结果,
+     * 导出前会在查询条件中排除当前用户在{@link Resource}声明的资源中不能查询的字段.
+     *
+     * <pre>
+     *    GET /_export?format=csv&where=name like 张%&orderBy=id desc
+     * </pre>
+     *
+     * @param query  查询条件
+     * @param format 导出格式,ndjson或者csv
+     * @return void
+     * @see StreamingExporter
+     * @see #applyExportDenyFields(QueryParamEntity)
+     */
+    @GetMapping("/_export")
+    @QueryAction
+    @QueryNoPagingOperation(summary = "使用GET方式流式导出数据",
+            description = "format=ndjson时每行一个JSON对象,format=csv时第一行为表头")
+    default Mono<Void> export(@Parameter(hidden = true) QueryParamEntity query,
+                              @RequestParam(defaultValue = "ndjson") StreamingExporter.Format format,
+                              @Parameter(hidden = true) ServerWebExchange exchange) {
+        //在订阅时才读取查询条件,使方法调用后处理的数据权限生效
+        return Mono
+                .defer(() -> applyExportDenyFields(query))
+                .flatMap(param -> getExporter()
+                        .write(exchange,
+                               getService()
+                                       .createQuery()
+                                       .setParam(param.noPaging())
+                                       .fetch(),
+                               format,
+                               "export"));
+    }
+
+    /**
+     * POST方式流式导出,导出时不分页.
+     *
+     * <pre>
+     *     POST /_export?format=csv
+     *
+     *     {
+     *         "where":"name like 张%",
+     *         "orderBy":"id desc"
+     *     }
+     * </pre>
+     *
+     * @param query  查询条件
+     * @param format 导出格式,ndjson或者csv
+     * @return void
+     * @see StreamingExporter
+     */
+    @PostMapping("/_export")
+    @QueryAction
+    @Operation(summary = "使用POST方式流式导出数据",
+            description = "format=ndjson时每行一个JSON对象,format=csv时第一行为表头")
+    default Mono<Void> export(@RequestBody Mono<QueryParamEntity> query,
+                              @RequestParam(defaultValue = "ndjson") StreamingExporter.Format format,
+                              @Parameter(hidden = true) ServerWebExchange exchange) {
+        return query.flatMap(q -> export(q, format, exchange));
+    }
+
+    @Authorize(ignore = true)
+    default StreamingExporter getExporter() {
+        return StreamingExporter.DEFAULT;
+    }
+
+    /**
+     * 在导出的查询条件中排除当前用户不能查询的字段,即{@link Resource}声明的资源中
+     * {@link Permission#ACTION_QUERY}操作配置的{@link FieldFilterDataAccessConfig}.
+     * 未声明资源或者未登录时不做处理.
+     *
+     * @param query 查询条件
+     * @return 处理后的查询条件
+     * @since 4.0.15
+     */
+    @Authorize(ignore = true)
+    default Mono<QueryParamEntity> applyExportDenyFields(QueryParamEntity query) {
+        Resource resource = AnnotatedElementUtils.findMergedAnnotation(ClassUtils.getUserClass(this), Resource.class);
+        if (resource == null) {
+            return Mono.just(query);
+        }
+        return Authentication
+                .currentReactive()
+                .flatMap(auth -> Mono.justOrEmpty(auth.getPermission(resource.id())))
+                //与FieldFilterDataAccessHandler一致,使用字段过滤配置中的全部字段
+                .flatMap(permission -> Mono.justOrEmpty(permission.findFieldFilter(Permission.ACTION_QUERY)))
+                .map(FieldFilterDataAccessConfig::getFields)
+                .filter(fields -> !fields.isEmpty())
+                .map(fields -> {
+                    query.excludes(fields.toArray(new String[0]));
+                    return query;
+                })
+                .defaultIfEmpty(query);
+    }
+
     /**
      * 根据ID查询.
      * <pre>
@@ -8,7 +8,10 @@ import org.hswebframework.web.api.crud.entity.RecordModifierEntity;
 import org.hswebframework.web.authorization.Authentication;
 import org.hswebframework.web.authorization.annotation.Authorize;
 import org.hswebframework.web.authorization.annotation.SaveAction;
+import org.hswebframework.web.crud.service.BatchInsertProgress;
 import org.hswebframework.web.crud.service.ReactiveCrudService;
+import org.hswebframework.web.exception.ValidationException;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -117,6 +120,45 @@ public interface ReactiveServiceSaveController<E, K> {
                 .as(getService()::insertBatch);
     }
 
+    /**
+     * 流式分批新增,边读取请求体边新增,每一批新增完成后返回一次进度.
+     * 适用于大量数据的导入,配置了响应式事务管理器时每一批在单独的事务中新增,失败时回滚失败的批次,已完成的批次不会回滚.
+     * <br><br>
+     * 以类注解{@code @RequestMapping("/api/test")}为例:
+     * <pre>{@code
+     *
+     * POST /api/test/_batch/_stream?batchSize=500
+     * Content-Type: application/json
+     *
+     * [
+     *  {
+     *   "name":"value"
+     *  }
+     * ]
+     * }
+     * </pre>
+     *
+     * @param payload   payload
+     * @param batchSize 每一批的数据量
+     * @return 新增进度
+     * @see ReactiveCrudService#insertStream(org.reactivestreams.Publisher, int)
+     * @since 4.0.15
+     */
+    @PostMapping(value = "/_batch/_stream", produces = MediaType.APPLICATION_STREAM_JSON_VALUE)
+    @SaveAction
+    @Operation(summary = "流式分批新增数据", description = "每一批新增完成后返回新增进度,配置了响应式事务管理器时每一批在单独的事务中新增,失败时只回滚失败的批次")
+    default Flux<BatchInsertProgress> addStream(@RequestBody Flux<E> payload,
+                                                @RequestParam(defaultValue = "500") int batchSize) {
+        if (batchSize <= 0 || batchSize > 10000) {
+            return Flux.error(new ValidationException("batchSize", "batchSize必须在1-10000之间"));
+        }
+        return Authentication
+                .currentReactive()
+                .flatMapMany(auth -> payload.map(entity -> applyAuthentication(entity, auth)))
+                .switchIfEmpty(payload)
+                .as(flux -> getService().insertStream(flux, batchSize));
+    }
+
     /**
      * 新增单个数据,并返回新增后的数据.
      * <br><br>
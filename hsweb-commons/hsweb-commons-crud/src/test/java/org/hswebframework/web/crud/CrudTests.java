@@ -1,16 +1,46 @@
 package org.hswebframework.web.crud;
 
+import org.hswebframework.ezorm.rdb.mapping.ReactiveRepository;
+import org.hswebframework.ezorm.rdb.mapping.defaults.SaveResult;
+import org.hswebframework.web.api.crud.entity.CountStrategy;
+import org.hswebframework.web.api.crud.entity.PagerResult;
+import org.hswebframework.web.api.crud.entity.QueryParamEntity;
+import org.hswebframework.web.api.crud.entity.TransactionManagers;
+import org.hswebframework.web.bean.FastBeanCopier;
+import org.hswebframework.web.crud.entity.CursorTestEntity;
 import org.hswebframework.web.crud.entity.TestEntity;
+import org.hswebframework.web.crud.entity.TestTreeSortEntity;
+import org.hswebframework.web.crud.service.CursorTestEntityService;
+import org.hswebframework.web.crud.service.GenericReactiveCrudService;
+import org.hswebframework.web.crud.service.QueryCounter;
+import org.hswebframework.web.crud.service.ReactiveCrudService;
 import org.hswebframework.web.crud.service.TestEntityService;
+import org.hswebframework.web.crud.service.TestTreeSortEntityService;
+import org.hswebframework.web.exception.ValidationException;
 import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.reactivestreams.Publisher;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
 @SpringBootTest
 @RunWith(SpringJUnit4ClassRunner.class)
 public class CrudTests  {
@@ -18,6 +48,16 @@ public class CrudTests  {
     @Autowired
     private TestEntityService service;
 
+    @Autowired
+    private CursorTestEntityService cursorService;
+
+    @Autowired
+    private TestTreeSortEntityService treeService;
+
+    @Autowired
+    @Qualifier(TransactionManagers.reactiveTransactionManager)
+    private ReactiveTransactionManager transactionManager;
+
 
     @Test
     public void test(){
@@ -31,4 +71,325 @@ public class CrudTests  {
                 .verifyComplete();
         Assert.assertNotNull(entity.getId());
     }
+
+    @Test
+    public void testWarmUpCopier() {
+        //easyorm.warm-up-copier=true,启动时已经为注册的实体类生成了复制器
+        Assert.assertNotNull(FastBeanCopier.getCopier(new TestEntity(), new TestEntity(), false));
+        Assert.assertNotNull(FastBeanCopier.getCopier(new TestEntity(), new HashMap<>(), false));
+        Assert.assertNotNull(FastBeanCopier.getCopier(new HashMap<>(), new TestEntity(), false));
+    }
+
+    @Test
+    public void testCursorPaging() {
+        List<CursorTestEntity> entities = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            entities.add(CursorTestEntity.of("cursor-" + i, i % 5));
+        }
+        cursorService.insert(Flux.fromIterable(entities))
+               .as(StepVerifier::create)
+               .expectNext(25)
+               .verifyComplete();
+
+        List<String> expects = cursorService
+                .query(QueryParamEntity.newQuery()
+                                       .like("name", "cursor-%")
+                                       .orderByDesc("age")
+                                       .orderByAsc("id")
+                                       .noPaging()
+                                       .getParam())
+                .map(CursorTestEntity::getId)
+                .collectList()
+                .block();
+
+        List<String> ids = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            QueryParamEntity query = QueryParamEntity.newQuery()
+                                                     .like("name", "cursor-%")
+                                                     .doPaging(0, 10)
+                                                     .getParam();
+            query.setOrderBy("age desc");
+            query.setCursorPaging(true);
+            query.setCursor(cursor);
+            PagerResult<CursorTestEntity> result = cursorService.queryPager(query).block();
+            Assert.assertNotNull(result);
+            Assert.assertEquals(-1, result.getTotal());
+            result.getData().forEach(e -> ids.add(e.getId()));
+            cursor = result.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        Assert.assertEquals(3, pages);
+        Assert.assertEquals(expects, ids);
+    }
+
+    @Test
+    public void testCursorPagingNullableSort() {
+        QueryParamEntity query = QueryParamEntity.newQuery()
+                                                 .doPaging(0, 10)
+                                                 .getParam();
+        //name可以为null,不能作为游标分页的排序字段
+        query.setOrderBy("name");
+        query.setCursorPaging(true);
+        cursorService.queryPager(query)
+               .as(StepVerifier::create)
+               .expectError(ValidationException.class)
+               .verify();
+    }
+
+    @Test
+    public void testCountStrategy() {
+        service.insert(Flux.just(TestEntity.of("count-0", 1), TestEntity.of("count-1", 2)))
+               .as(StepVerifier::create)
+               .expectNext(2)
+               .verifyComplete();
+
+        QueryParamEntity query = QueryParamEntity.newQuery().in("name", "count-0", "count-1").getParam();
+        query.setCountStrategy(CountStrategy.cache);
+        service.count(query)
+               .as(StepVerifier::create)
+               .expectNext(2)
+               .verifyComplete();
+
+        //直接通过仓库新增,缓存不会失效
+        service.getRepository()
+               .insert(Mono.just(TestEntity.of("count-1", 3)))
+               .as(StepVerifier::create)
+               .expectNext(1)
+               .verifyComplete();
+
+        //相同的条件使用缓存
+        QueryParamEntity cached = QueryParamEntity.newQuery().in("name", "count-0", "count-1").getParam();
+        cached.setCountStrategy(CountStrategy.cache);
+        service.queryPager(cached)
+               .map(PagerResult::getTotal)
+               .as(StepVerifier::create)
+               .expectNext(2)
+               .verifyComplete();
+
+        query.setCountStrategy(CountStrategy.exact);
+        service.count(query)
+               .as(StepVerifier::create)
+               .expectNext(3)
+               .verifyComplete();
+
+        //通过服务修改数据后缓存失效
+        service.insert(TestEntity.of("count-0", 4))
+               .as(StepVerifier::create)
+               .expectNext(1)
+               .verifyComplete();
+        query.setCountStrategy(CountStrategy.cache);
+        service.count(query)
+               .as(StepVerifier::create)
+               .expectNext(4)
+               .verifyComplete();
+
+        service.createDelete()
+               .where("name", "count-0")
+               .execute()
+               .as(StepVerifier::create)
+               .expectNext(2)
+               .verifyComplete();
+        service.count(query)
+               .as(StepVerifier::create)
+               .expectNext(2)
+               .verifyComplete();
+
+        //服务未允许的方式使用默认方式
+        cursorService.insert(CursorTestEntity.of("count-cursor", 1))
+                     .as(StepVerifier::create)
+                     .expectNext(1)
+                     .verifyComplete();
+        QueryParamEntity notAllowed = QueryParamEntity.newQuery().is("name", "count-cursor").getParam();
+        notAllowed.setCountStrategy(CountStrategy.cache);
+        cursorService.count(notAllowed)
+                     .as(StepVerifier::create)
+                     .expectNext(1)
+                     .verifyComplete();
+        cursorService.getRepository()
+                     .insert(Mono.just(CursorTestEntity.of("count-cursor", 2)))
+                     .as(StepVerifier::create)
+                     .expectNext(1)
+                     .verifyComplete();
+        cursorService.count(notAllowed)
+                     .as(StepVerifier::create)
+                     .expectNext(2)
+                     .verifyComplete();
+
+        //树结构服务修改数据后缓存同样失效
+        QueryParamEntity treeQuery = QueryParamEntity.newQuery().like("name", "count-tree%").getParam();
+        treeQuery.setCountStrategy(CountStrategy.cache);
+        treeService.insert(createTreeEntity("count-tree-0"))
+                   .as(StepVerifier::create)
+                   .expectNext(1)
+                   .verifyComplete();
+        treeService.count(treeQuery)
+                   .as(StepVerifier::create)
+                   .expectNext(1)
+                   .verifyComplete();
+
+        treeService.insertBatch(Mono.just(Collections.singletonList(createTreeEntity("count-tree-1"))))
+                   .as(StepVerifier::create)
+                   .expectNext(1)
+                   .verifyComplete();
+        treeService.count(treeQuery)
+                   .as(StepVerifier::create)
+                   .expectNext(2)
+                   .verifyComplete();
+
+        treeService.save(createTreeEntity("count-tree-2"))
+                   .map(SaveResult::getTotal)
+                   .as(StepVerifier::create)
+                   .expectNext(1)
+                   .verifyComplete();
+        treeService.count(treeQuery)
+                   .as(StepVerifier::create)
+                   .expectNext(3)
+                   .verifyComplete();
+
+        //没有path的数据直接根据ID删除
+        TestTreeSortEntity noPath = createTreeEntity("count-tree-3");
+        noPath.setId("count-tree-3");
+        TestTreeSortEntity other = createTreeEntity("count-tree-4");
+        other.setId("count-tree-4");
+        treeService.getRepository()
+                   .insert(Flux.just(noPath, other))
+                   .as(StepVerifier::create)
+                   .expectNext(2)
+                   .verifyComplete();
+        treeService.count(treeQuery)
+                   .as(StepVerifier::create)
+                   .expectNext(3)
+                   .verifyComplete();
+        treeService.deleteById(noPath.getId())
+                   .as(StepVerifier::create)
+                   .expectNext(1)
+                   .verifyComplete();
+        treeService.count(treeQuery)
+                   .as(StepVerifier::create)
+                   .expectNext(4)
+                   .verifyComplete();
+        treeService.createDelete()
+                   .where()
+                   .like("name", "count-tree%")
+                   .execute()
+                   .as(StepVerifier::create)
+                   .expectNext(4)
+                   .verifyComplete();
+
+        //使用统计信息估算总数
+        QueryCounter counter = new QueryCounter(Duration.ofSeconds(30), 100);
+        counter.setEstimateThreshold(0);
+        counter.count(service.getRepository(), QueryParamEntity.of(), CountStrategy.estimate)
+               .as(StepVerifier::create)
+               .expectNextMatches(total -> total > 0)
+               .verifyComplete();
+    }
+
+    @Test
+    public void testCountInvalidateAfterCommit() {
+        QueryParamEntity query = QueryParamEntity.newQuery().is("name", "count-tx").getParam();
+        query.setCountStrategy(CountStrategy.cache);
+        service.count(query)
+               .as(StepVerifier::create)
+               .expectNext(0)
+               .verifyComplete();
+
+        TransactionalOperator operator = TransactionalOperator.create(transactionManager);
+        service.insert(TestEntity.of("count-tx", 1))
+               //在事务提交前,使用其他连接查询总数
+               .flatMap(ignore -> Mono.fromFuture(service.count(query).toFuture()))
+               .as(operator::transactional)
+               .as(StepVerifier::create)
+               .expectNext(0)
+               .verifyComplete();
+
+        //事务提交后缓存失效
+        service.count(query)
+               .as(StepVerifier::create)
+               .expectNext(1)
+               .verifyComplete();
+    }
+
+    @Test
+    public void testInsertStream() {
+        AtomicLong maxRequest = new AtomicLong();
+        Flux<TestEntity> entities = Flux
+                .range(0, 1050)
+                .map(i -> TestEntity.of("stream-" + i, i))
+                .doOnRequest(n -> maxRequest.accumulateAndGet(n, Math::max));
+
+        service.insertStream(entities, 100)
+               .as(StepVerifier::create)
+               .expectNextMatches(progress -> progress.getBatch() == 1 && progress.getInserted() == 100 && progress.getTotal() == 100)
+               .expectNextCount(9)
+               .expectNextMatches(progress -> progress.getBatch() == 11 && progress.getSize() == 50 && progress.getTotal() == 1050)
+               .verifyComplete();
+
+        //只读取少量批次的数据
+        Assert.assertTrue(maxRequest.get() <= 200);
+
+        service.createQuery()
+               .like("name", "stream-%")
+               .count()
+               .as(StepVerifier::create)
+               .expectNext(1050)
+               .verifyComplete();
+    }
+
+    @Test
+    public void testInsertStreamRollbackBatch() {
+        Assert.assertNotNull(service.getTransactionalOperator());
+        //每一批逐条新增,一批中包含多条语句
+        ReactiveCrudService<TestEntity, String> rowByRow = new GenericReactiveCrudService<TestEntity, String>() {
+            @Override
+            public ReactiveRepository<TestEntity, String> getRepository() {
+                return service.getRepository();
+            }
+
+            @Override
+            public Mono<Integer> insertBatch(Publisher<? extends Collection<TestEntity>> entityPublisher) {
+                return Flux.from(entityPublisher)
+                           .flatMapIterable(Function.identity())
+                           .concatMap(entity -> getRepository().insert(Mono.just(entity)))
+                           .reduce(0, Integer::sum);
+            }
+        };
+        //非容器管理的服务也使用同一个事务操作
+        Assert.assertSame(service.getTransactionalOperator(), rowByRow.getTransactionalOperator());
+
+        List<TestEntity> entities = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            TestEntity entity = TestEntity.of("rollback-" + i, i);
+            entity.setId("rollback-" + i);
+            entities.add(entity);
+        }
+        //第二批的第二条数据主键重复
+        entities.get(4).setId("rollback-3");
+
+        rowByRow.insertStream(Flux.fromIterable(entities), 3)
+                .as(StepVerifier::create)
+                .expectNextMatches(progress -> progress.getBatch() == 1 && progress.getTotal() == 3)
+                .expectError()
+                .verify();
+
+        //失败的批次整体回滚,已完成的批次保留
+        service.createQuery()
+               .like("name", "rollback-%")
+               .fetch()
+               .map(TestEntity::getName)
+               .sort()
+               .collectList()
+               .as(StepVerifier::create)
+               .expectNext(Arrays.asList("rollback-0", "rollback-1", "rollback-2"))
+               .verifyComplete();
+    }
+
+    private static TestTreeSortEntity createTreeEntity(String name) {
+        TestTreeSortEntity entity = new TestTreeSortEntity();
+        entity.setName(name);
+        return entity;
+    }
 }
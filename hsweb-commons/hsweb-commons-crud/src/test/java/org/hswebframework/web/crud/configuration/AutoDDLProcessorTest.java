@@ -0,0 +1,65 @@
+package org.hswebframework.web.crud.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.hswebframework.ezorm.rdb.operator.DatabaseOperator;
+import org.hswebframework.web.bean.FastBeanCopier;
+import org.hswebframework.web.crud.entity.factory.MapperEntityFactory;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.Collections;
+import java.util.HashMap;
+
+import static org.junit.Assert.*;
+
+public class AutoDDLProcessorTest {
+
+    @Test
+    public void testWarmUpCopier() {
+        createProcessor(WarmUpEntity.class, true).afterPropertiesSet();
+
+        assertNotNull(FastBeanCopier.getCopier(new WarmUpEntity(), new WarmUpEntity(), false));
+        assertNotNull(FastBeanCopier.getCopier(new WarmUpEntity(), new HashMap<>(), false));
+        assertNotNull(FastBeanCopier.getCopier(new HashMap<>(), new WarmUpEntity(), false));
+    }
+
+    @Test
+    public void testNoWarmUpCopier() {
+        createProcessor(NoWarmUpEntity.class, false).afterPropertiesSet();
+
+        assertNull(FastBeanCopier.getCopier(new NoWarmUpEntity(), new NoWarmUpEntity(), false));
+        assertNull(FastBeanCopier.getCopier(new NoWarmUpEntity(), new HashMap<>(), false));
+        assertNull(FastBeanCopier.getCopier(new HashMap<>(), new NoWarmUpEntity(), false));
+    }
+
+    private AutoDDLProcessor createProcessor(Class<?> entityType, boolean warmUp) {
+        EasyormProperties properties = new EasyormProperties();
+        properties.setAutoDdl(false);
+        properties.setWarmUpCopier(warmUp);
+
+        AutoDDLProcessor processor = new AutoDDLProcessor();
+        processor.setEntities(Collections.singleton(new EntityInfo(entityType, entityType, String.class, true, false)));
+        processor.setProperties(properties);
+        processor.setEntityFactory(new MapperEntityFactory());
+        processor.setResolver(Mockito.mock(EntityTableMetadataResolver.class));
+        processor.setOperator(Mockito.mock(DatabaseOperator.class, Mockito.RETURNS_DEEP_STUBS));
+        return processor;
+    }
+
+    @Getter
+    @Setter
+    public static class WarmUpEntity {
+        private String id;
+
+        private String name;
+    }
+
+    @Getter
+    @Setter
+    public static class NoWarmUpEntity {
+        private String id;
+
+        private String name;
+    }
+}
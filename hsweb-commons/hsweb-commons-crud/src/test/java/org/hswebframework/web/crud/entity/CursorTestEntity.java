@@ -0,0 +1,33 @@
+package org.hswebframework.web.crud.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hswebframework.web.api.crud.entity.GenericEntity;
+import org.hswebframework.web.crud.generator.Generators;
+
+import javax.persistence.Column;
+import javax.persistence.GeneratedValue;
+import javax.persistence.Table;
+
+@Getter
+@Setter
+@Table(name = "s_test_cursor")
+@AllArgsConstructor(staticName = "of")
+@NoArgsConstructor
+public class CursorTestEntity extends GenericEntity<String> {
+
+    @Column(length = 32)
+    private String name;
+
+    //游标分页的排序字段不能为null
+    @Column(nullable = false)
+    private Integer age;
+
+    @Override
+    @GeneratedValue(generator = Generators.DEFAULT_ID_GENERATOR)
+    public String getId() {
+        return super.getId();
+    }
+}
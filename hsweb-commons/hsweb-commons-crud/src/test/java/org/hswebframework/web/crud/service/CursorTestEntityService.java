@@ -0,0 +1,9 @@
+package org.hswebframework.web.crud.service;
+
+import org.hswebframework.web.crud.entity.CursorTestEntity;
+import org.springframework.stereotype.Service;
+
+@Service
+public class CursorTestEntityService extends GenericReactiveCrudService<CursorTestEntity, String> {
+
+}
@@ -1,10 +1,19 @@
 package org.hswebframework.web.crud.service;
 
+import org.hswebframework.web.api.crud.entity.CountStrategy;
 import org.hswebframework.web.crud.entity.TestEntity;
 import org.hswebframework.web.id.IDGenerator;
 import org.springframework.stereotype.Service;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 @Service
 public class TestEntityService extends GenericReactiveCrudService<TestEntity,String> {
 
+    @Override
+    public Set<CountStrategy> getAllowedCountStrategies() {
+        return EnumSet.allOf(CountStrategy.class);
+    }
+
 }
@@ -1,15 +1,23 @@
 package org.hswebframework.web.crud.service;
 
+import org.hswebframework.web.api.crud.entity.CountStrategy;
 import org.hswebframework.web.crud.entity.TestTreeSortEntity;
 import org.hswebframework.web.id.IDGenerator;
 import org.springframework.stereotype.Service;
 
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 @Service
 public class TestTreeSortEntityService extends GenericReactiveCrudService<TestTreeSortEntity,String>
         implements ReactiveTreeSortEntityService<TestTreeSortEntity,String> {
 
+    @Override
+    public Set<CountStrategy> getAllowedCountStrategies() {
+        return EnumSet.allOf(CountStrategy.class);
+    }
+
     @Override
     public IDGenerator<String> getIDGenerator() {
         return IDGenerator.MD5;
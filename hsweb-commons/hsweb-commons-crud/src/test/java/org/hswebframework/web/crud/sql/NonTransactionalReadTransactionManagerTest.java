@@ -0,0 +1,80 @@
+package org.hswebframework.web.crud.sql;
+
+import org.hswebframework.web.api.crud.entity.QueryParamEntity;
+import org.hswebframework.web.api.crud.entity.TransactionManagers;
+import org.hswebframework.web.crud.TestApplication;
+import org.hswebframework.web.crud.entity.TestEntity;
+import org.hswebframework.web.crud.service.TestEntityService;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import static org.junit.Assert.*;
+
+@SpringBootTest(classes = TestApplication.class, args = "--easyorm.read-without-transaction=true")
+@RunWith(SpringRunner.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_CLASS)
+public class NonTransactionalReadTransactionManagerTest {
+
+    @Autowired
+    private TestEntityService entityService;
+
+    @Autowired
+    @Qualifier(TransactionManagers.reactiveTransactionManager)
+    private ReactiveTransactionManager transactionManager;
+
+    @Test
+    public void test() {
+        assertTrue(transactionManager instanceof NonTransactionalReadTransactionManager);
+        NonTransactionalReadTransactionManager manager = ((NonTransactionalReadTransactionManager) transactionManager);
+
+        TestEntity entity = TestEntity.of("non-tx", 20);
+        entityService.insert(entity)
+                .as(StepVerifier::create)
+                .expectNext(1)
+                .verifyComplete();
+        long reads = manager.getNonTransactionalReads();
+
+        entityService.findById(entity.getId())
+                .map(TestEntity::getName)
+                .as(StepVerifier::create)
+                .expectNext("non-tx")
+                .verifyComplete();
+        assertEquals(reads + 1, manager.getNonTransactionalReads());
+
+        //count和查询在同一个范围内执行
+        entityService.queryPager(QueryParamEntity.of("id", entity.getId()))
+                .map(result -> result.getData().size())
+                .as(StepVerifier::create)
+                .expectNext(1)
+                .verifyComplete();
+        assertEquals(reads + 2, manager.getNonTransactionalReads());
+        assertEquals((reads + 2) * 2, manager.getSavedRoundTrips());
+
+        //连接在查询完成后释放
+        Flux.range(0, 50)
+                .concatMap(i -> entityService.findById(entity.getId()))
+                .count()
+                .as(StepVerifier::create)
+                .expectNext(50L)
+                .verifyComplete();
+        assertEquals(reads + 52, manager.getNonTransactionalReads());
+
+        //存在事务时加入事务
+        entityService.findById(entity.getId())
+                .as(TransactionalOperator.create(transactionManager)::transactional)
+                .map(TestEntity::getName)
+                .as(StepVerifier::create)
+                .expectNext("non-tx")
+                .verifyComplete();
+        assertEquals(reads + 52, manager.getNonTransactionalReads());
+    }
+}
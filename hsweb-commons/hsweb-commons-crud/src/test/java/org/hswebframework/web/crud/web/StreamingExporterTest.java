@@ -0,0 +1,122 @@
+package org.hswebframework.web.crud.web;
+
+import org.hswebframework.web.crud.entity.TestEntity;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class StreamingExporterTest {
+
+    @Test
+    public void testNdjson() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/_export"));
+
+        StreamingExporter.DEFAULT
+                .write(exchange, Flux.just(TestEntity.of("a", 1), TestEntity.of("b", 2)), StreamingExporter.Format.ndjson, "test")
+                .as(StepVerifier::create)
+                .verifyComplete();
+
+        assertEquals("application/x-ndjson", exchange.getResponse().getHeaders().getContentType().toString());
+        assertTrue(exchange.getResponse().getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION).contains("test.ndjson"));
+
+        String[] lines = exchange.getResponse().getBodyAsString().block().split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].contains("\"name\":\"a\""));
+        assertTrue(lines[1].contains("\"name\":\"b\""));
+    }
+
+    @Test
+    public void testCsv() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/_export"));
+
+        Map<String, Object> first = new LinkedHashMap<>();
+        first.put("name", "a,b");
+        first.put("age", 1);
+        Map<String, Object> second = new LinkedHashMap<>();
+        second.put("name", "say \"hi\"");
+        second.put("age", null);
+
+        StreamingExporter.DEFAULT
+                .write(exchange, Flux.just(first, second), StreamingExporter.Format.csv, null)
+                .as(StepVerifier::create)
+                .verifyComplete();
+
+        assertEquals("\uFEFFname,age\r\n" +
+                             "\"a,b\",1\r\n" +
+                             "\"say \"\"hi\"\"\",\r\n",
+                     exchange.getResponse().getBodyAsString().block());
+    }
+
+    @Test
+    public void testCsvEscapeFormula() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/_export"));
+
+        Map<String, Object> first = new LinkedHashMap<>();
+        first.put("name", "=1+1");
+        first.put("age", -1);
+        Map<String, Object> second = new LinkedHashMap<>();
+        second.put("name", "@SUM(A1,A2)");
+        second.put("age", "-2");
+
+        StreamingExporter.DEFAULT
+                .write(exchange, Flux.just(first, second), StreamingExporter.Format.csv, null)
+                .as(StepVerifier::create)
+                .verifyComplete();
+
+        assertEquals("\uFEFFname,age\r\n" +
+                             "'=1+1,-1\r\n" +
+                             "\"'@SUM(A1,A2)\",'-2\r\n",
+                     exchange.getResponse().getBodyAsString().block());
+    }
+
+    @Test
+    public void testCsvHeader() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/_export"));
+
+        Map<String, Object> first = new LinkedHashMap<>();
+        first.put("name", "a");
+        Map<String, Object> second = new LinkedHashMap<>();
+        second.put("name", "b");
+        second.put("age", 2);
+
+        StreamingExporter.DEFAULT
+                .write(exchange, Flux.just(first, second), StreamingExporter.Format.csv, null, Arrays.asList("name", "age"))
+                .as(StepVerifier::create)
+                .verifyComplete();
+
+        assertEquals("\uFEFFname,age\r\n" +
+                             "a,\r\n" +
+                             "b,2\r\n",
+                     exchange.getResponse().getBodyAsString().block());
+    }
+
+    @Test
+    public void testBackpressure() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/_export"));
+        StreamingExporter exporter = new StreamingExporter();
+        exporter.setFetchSize(16);
+
+        AtomicLong maxRequest = new AtomicLong();
+        Flux<TestEntity> rows = Flux
+                .range(0, 1000)
+                .map(i -> TestEntity.of("test" + i, i))
+                .doOnRequest(n -> maxRequest.accumulateAndGet(n, Math::max));
+
+        exporter.write(exchange, rows, StreamingExporter.Format.csv, null)
+                .as(StepVerifier::create)
+                .verifyComplete();
+
+        assertTrue(maxRequest.get() <= 16);
+        assertEquals(1001, exchange.getResponse().getBodyAsString().block().split("\r\n").length);
+    }
+}
@@ -0,0 +1,128 @@
+package org.hswebframework.web.crud.web.reactive;
+
+import org.hswebframework.web.api.crud.entity.QueryParamEntity;
+import org.hswebframework.web.authorization.Authentication;
+import org.hswebframework.web.authorization.Permission;
+import org.hswebframework.web.authorization.ReactiveAuthenticationHolder;
+import org.hswebframework.web.authorization.ReactiveAuthenticationSupplier;
+import org.hswebframework.web.authorization.annotation.Resource;
+import org.hswebframework.web.authorization.simple.SimpleAuthentication;
+import org.hswebframework.web.authorization.simple.SimpleFieldFilterDataAccessConfig;
+import org.hswebframework.web.authorization.simple.SimplePermission;
+import org.hswebframework.web.crud.entity.TestEntity;
+import org.hswebframework.web.crud.service.ReactiveCrudService;
+import org.hswebframework.web.crud.service.TestEntityService;
+import org.hswebframework.web.crud.web.StreamingExporter;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import static org.junit.Assert.*;
+
+@SpringBootTest
+@RunWith(SpringJUnit4ClassRunner.class)
+public class ReactiveServiceQueryControllerTest {
+
+    @Autowired
+    private TestEntityService service;
+
+    private TestController controller;
+
+    @Before
+    public void init() {
+        controller = new TestController(service);
+
+        SimpleFieldFilterDataAccessConfig config = new SimpleFieldFilterDataAccessConfig("age");
+        config.setAction(Permission.ACTION_QUERY);
+
+        SimpleAuthentication authentication = new SimpleAuthentication();
+        authentication.setPermissions(Collections.singletonList(SimplePermission
+                                                                        .builder()
+                                                                        .id("export-test")
+                                                                        .actions(new HashSet<>(Collections.singletonList(Permission.ACTION_QUERY)))
+                                                                        .dataAccesses(Collections.singleton(config))
+                                                                        .build()));
+
+        ReactiveAuthenticationHolder.setSupplier(new ReactiveAuthenticationSupplier() {
+            @Override
+            public Mono<Authentication> get(String userId) {
+                return Mono.empty();
+            }
+
+            @Override
+            public Mono<Authentication> get() {
+                return Mono.just(authentication);
+            }
+        });
+
+        service.insert(TestEntity.of("export-deny", 123456))
+               .as(StepVerifier::create)
+               .expectNext(1)
+               .verifyComplete();
+    }
+
+    @Test
+    public void testExportDenyFields() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.post("/_export"));
+
+        controller
+                .export(Mono.just(QueryParamEntity.newQuery().is("name", "export-deny").getParam()),
+                        StreamingExporter.Format.ndjson,
+                        exchange)
+                .as(StepVerifier::create)
+                .verifyComplete();
+
+        String body = exchange.getResponse().getBodyAsString().block();
+        assertNotNull(body);
+        assertTrue(body.contains("\"name\":\"export-deny\""));
+        assertFalse(body.contains("\"age\":123456"));
+    }
+
+    @Test
+    public void testExportDenyFieldsAfterInvoke() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/_export"));
+        QueryParamEntity query = QueryParamEntity.newQuery().is("name", "export-deny").getParam();
+
+        Mono<Void> export = controller.export(query, StreamingExporter.Format.csv, exchange);
+        //方法调用后处理的数据权限
+        query.excludes("name");
+
+        export.as(StepVerifier::create)
+              .verifyComplete();
+
+        String body = exchange.getResponse().getBodyAsString().block();
+        assertNotNull(body);
+        String[] lines = body.split("\r\n");
+        assertTrue(lines.length > 1);
+        for (int i = 1; i < lines.length; i++) {
+            assertFalse(Arrays.asList(lines[i].split(",")).contains("export-deny"));
+            assertFalse(Arrays.asList(lines[i].split(",")).contains("123456"));
+        }
+    }
+
+    @Resource(id = "export-test", name = "导出测试")
+    static class TestController implements ReactiveServiceQueryController<TestEntity, String> {
+
+        private final TestEntityService service;
+
+        TestController(TestEntityService service) {
+            this.service = service;
+        }
+
+        @Override
+        public ReactiveCrudService<TestEntity, String> getService() {
+            return service;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package org.hswebframework.web.cache;
+
+import lombok.Getter;
+import org.springframework.util.Assert;
+
+import java.time.Duration;
+
+/**
+ * 缓存策略,用于在{@link ReactiveCache#mono(Object, CachePolicy)},{@link ReactiveCache#flux(Object, CachePolicy)}中
+ * 指定单个缓存的过期时间以及提前刷新时间.
+ *
+ * <pre>
+ *  cache.mono(userId, CachePolicy.ttl(Duration.ofMinutes(30)).refreshAhead(Duration.ofMinutes(5)))
+ *       .onCacheMissResume(() -> loadAuthentication(userId));
+ * </pre>
+ *
+ * @since 4.0.15
+ */
+@Getter
+public class CachePolicy {
+
+    /**
+     * 缓存有效期
+     */
+    private final Duration ttl;
+
+    /**
+     * 距离过期时间小于此值时,在后台重新加载缓存,为null时不提前刷新
+     */
+    private final Duration refreshAhead;
+
+    private CachePolicy(Duration ttl, Duration refreshAhead) {
+        this.ttl = ttl;
+        this.refreshAhead = refreshAhead;
+    }
+
+    public static CachePolicy ttl(Duration ttl) {
+        Assert.notNull(ttl, "ttl can not be null");
+        Assert.isTrue(!ttl.isNegative() && !ttl.isZero(), "ttl must be positive");
+        return new CachePolicy(ttl, null);
+    }
+
+    /**
+     * 设置提前刷新时间,在缓存命中并且距离过期时间小于此值时,将在后台重新加载缓存.
+     *
+     * @param refreshAhead 提前刷新时间,必须小于ttl
+     * @return 新的缓存策略
+     */
+    public CachePolicy refreshAhead(Duration refreshAhead) {
+        Assert.notNull(refreshAhead, "refreshAhead can not be null");
+        Assert.isTrue(refreshAhead.compareTo(ttl) < 0, "refreshAhead must be less than ttl");
+        return new CachePolicy(ttl, refreshAhead);
+    }
+
+    public boolean isRefreshAhead() {
+        return refreshAhead != null;
+    }
+
+    /**
+     * 判断指定过期时间的缓存是否需要提前刷新
+     *
+     * @param expireAt 过期时间戳
+     * @return 是否需要刷新
+     */
+    public boolean shouldRefresh(long expireAt) {
+        return refreshAhead != null && expireAt - System.currentTimeMillis() <= refreshAhead.toMillis();
+    }
+
+    @Override
+    public String toString() {
+        return "ttl=" + ttl + (refreshAhead == null ? "" : ",refreshAhead=" + refreshAhead);
+    }
+}
@@ -6,7 +6,9 @@ import reactor.cache.CacheMono;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.util.Collection;
+import java.util.Map;
 import java.util.function.Function;
 
 public interface ReactiveCache<E> {
@@ -17,6 +19,32 @@ public interface ReactiveCache<E> {
 
     Mono<Void> put(Object key, Publisher<E> data);
 
+    /**
+     * 设置缓存并指定有效期,不支持单独设置有效期的实现将使用缓存管理器的过期配置.
+     *
+     * @param key  key
+     * @param data 数据
+     * @param ttl  有效期
+     * @return void
+     * @since 4.0.15
+     */
+    default Mono<Void> put(Object key, Publisher<E> data, Duration ttl) {
+        return put(key, data);
+    }
+
+    /**
+     * 批量设置缓存
+     *
+     * @param values 缓存key和值
+     * @return void
+     * @since 4.0.15
+     */
+    default Mono<Void> putAll(Map<?, E> values) {
+        return Flux.fromIterable(values.entrySet())
+                   .flatMap(e -> put(e.getKey(), Mono.just(e.getValue())))
+                   .then();
+    }
+
     Mono<Void> evict(Object key);
 
     Flux<E> getAll(Object... keys);
@@ -42,4 +70,40 @@ public interface ReactiveCache<E> {
                         .switchIfEmpty(otherSupplier.get()
                                                     .flatMap(value -> put(key, Mono.just(value)).thenReturn(value))));
     }
+
+    /**
+     * 使用指定的缓存策略获取缓存,缓存不存在时加载数据并按{@link CachePolicy#getTtl()}设置有效期.
+     * 支持提前刷新的实现在缓存即将过期时会在后台重新加载.
+     *
+     * @param key    key
+     * @param policy 缓存策略
+     * @return CacheFlux
+     * @since 4.0.15
+     */
+    default CacheFlux.FluxCacheBuilderMapMiss<E> flux(Object key, CachePolicy policy) {
+        return otherSupplier -> Flux
+                .defer(() -> this
+                        .getFlux(key)
+                        .switchIfEmpty(otherSupplier.get()
+                                                    .collectList()
+                                                    .flatMapMany(values -> put(key, Flux.fromIterable(values), policy.getTtl())
+                                                            .thenMany(Flux.fromIterable(values)))));
+    }
+
+    /**
+     * 使用指定的缓存策略获取缓存,缓存不存在时加载数据并按{@link CachePolicy#getTtl()}设置有效期.
+     * 支持提前刷新的实现在缓存即将过期时会在后台重新加载.
+     *
+     * @param key    key
+     * @param policy 缓存策略
+     * @return CacheMono
+     * @since 4.0.15
+     */
+    default CacheMono.MonoCacheBuilderMapMiss<E> mono(Object key, CachePolicy policy) {
+        return otherSupplier -> Mono
+                .defer(() -> this
+                        .getMono(key)
+                        .switchIfEmpty(otherSupplier.get()
+                                                    .flatMap(value -> put(key, Mono.just(value), policy.getTtl()).thenReturn(value))));
+    }
 }
@@ -6,7 +6,10 @@ import lombok.Getter;
 import lombok.Setter;
 import org.hswebframework.web.cache.ReactiveCache;
 import org.hswebframework.web.cache.ReactiveCacheManager;
+import org.hswebframework.web.cache.supports.CaffeineExpiry;
 import org.hswebframework.web.cache.supports.CaffeineReactiveCacheManager;
+import org.hswebframework.web.cache.supports.CompositeReactiveCacheManager;
+import org.hswebframework.web.cache.supports.ExpirableValue;
 import org.hswebframework.web.cache.supports.GuavaReactiveCacheManager;
 import org.hswebframework.web.cache.supports.RedisLocalReactiveCacheManager;
 import org.hswebframework.web.cache.supports.UnSupportedReactiveCache;
@@ -18,6 +21,9 @@ import org.springframework.util.ClassUtils;
 import org.springframework.util.StringUtils;
 
 import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 
 @ConfigurationProperties(prefix = "hsweb.cache")
 @Getter
@@ -33,6 +39,24 @@ public class ReactiveCacheProperties {
 
     private RedisProperties redis = new RedisProperties();
 
+    /**
+     * 按缓存名称单独配置,未配置的项使用全局配置.
+     * <pre>
+     * hsweb:
+     *   cache:
+     *     type: redis
+     *     caches:
+     *       user-auth:
+     *         maximum-size: 100000
+     *         expire-after-access: 30m
+     *       dic-define:
+     *         type: caffeine
+     * </pre>
+     *
+     * @since 4.0.15
+     */
+    private Map<String, CacheProperties> caches = new HashMap<>();
+
 
     public boolean anyProviderPresent() {
         return ClassUtils.isPresent("com.google.common.cache.Cache", this.getClass().getClassLoader())
@@ -61,6 +85,26 @@ public class ReactiveCacheProperties {
             };
         }
 
+        ReactiveCacheManager defaultManager = createCacheManager(context, type, guava, caffeine);
+        if (caches.isEmpty()) {
+            return defaultManager;
+        }
+        Map<String, ReactiveCacheManager> managers = new HashMap<>();
+        for (Map.Entry<String, CacheProperties> entry : caches.entrySet()) {
+            CacheProperties properties = entry.getValue();
+            managers.put(entry.getKey(), createCacheManager(context,
+                                                            properties.type == null ? type : properties.type,
+                                                            properties.applyTo(guava),
+                                                            properties.applyTo(caffeine)));
+        }
+        return new CompositeReactiveCacheManager(defaultManager, managers);
+    }
+
+    @SuppressWarnings("all")
+    private ReactiveCacheManager createCacheManager(ApplicationContext context,
+                                                    Type type,
+                                                    GuavaProperties guava,
+                                                    CaffeineProperties caffeine) {
         if (type == Type.redis) {
             ReactiveRedisOperations<Object, Object> operations;
             if (StringUtils.hasText(redis.getBeanName())) {
@@ -68,18 +112,26 @@ public class ReactiveCacheProperties {
             } else {
                 operations = (ReactiveRedisOperations) context.getBeanProvider(ResolvableType.forClassWithGenerics(ReactiveRedisOperations.class, Object.class, Object.class)).getIfAvailable();
             }
-            return new RedisLocalReactiveCacheManager(operations, createCacheManager(redis.localCacheType));
+            RedisLocalReactiveCacheManager manager = new RedisLocalReactiveCacheManager(operations, createCacheManager(redis.localCacheType, guava, caffeine));
+            manager.setLayout(redis.layout);
+            manager.setEntryTtl(redis.entryTtl);
+            manager.setEntryIndex(redis.entryIndex);
+            manager.setVersionTtl(redis.versionTtl);
+            manager.setInvalidationWindow(redis.invalidationWindow);
+            manager.setInvalidationBatchSize(redis.invalidationBatchSize);
+            manager.setLegacyInvalidation(redis.legacyInvalidation);
+            return manager;
         }
 
-        return createCacheManager(type);
+        return createCacheManager(type, guava, caffeine);
     }
 
-    private ReactiveCacheManager createCacheManager(Type type) {
+    private ReactiveCacheManager createCacheManager(Type type, GuavaProperties guava, CaffeineProperties caffeine) {
         switch (type) {
             case guava:
-                return getGuava().createCacheManager();
+                return guava.createCacheManager();
             case caffeine:
-                return getCaffeine().createCacheManager();
+                return caffeine.createCacheManager();
 
         }
         return createUnsupported();
@@ -93,6 +145,58 @@ public class ReactiveCacheProperties {
 
         private Type localCacheType = Type.caffeine;
 
+        /**
+         * redis中的存储结构,设置为key时每个缓存使用单独的key存储
+         *
+         * @since 4.0.15
+         */
+        private RedisLocalReactiveCacheManager.Layout layout = RedisLocalReactiveCacheManager.Layout.hash;
+
+        /**
+         * 使用key存储结构时缓存的默认有效期.清空缓存时不会删除旧数据,建议设置此项以便redis回收.
+         *
+         * @since 4.0.15
+         */
+        private Duration entryTtl;
+
+        /**
+         * 使用key存储结构时是否使用有序集合记录每个版本写入的key,开启后获取全部缓存不需要SCAN,清空时在后台删除旧数据.
+         * 每次写入会多一次ZADD,并且索引集中在一个key上.
+         *
+         * @since 4.0.15
+         */
+        private boolean entryIndex = false;
+
+        /**
+         * 使用key存储结构时本地缓存版本号的有效期,没有收到清空缓存的通知时最多在这段时间内使用旧版本
+         *
+         * @since 4.0.15
+         */
+        private Duration versionTtl = Duration.ofSeconds(10);
+
+        /**
+         * 缓存失效通知的合并窗口,窗口内的失效通知将合并为一条消息发送,为0时不合并
+         *
+         * @since 4.0.15
+         */
+        private Duration invalidationWindow = Duration.ofMillis(20);
+
+        /**
+         * 单条缓存失效通知最多包含的key数量
+         *
+         * @since 4.0.15
+         */
+        private int invalidationBatchSize = 500;
+
+        /**
+         * 兼容旧版本节点的缓存失效通知.开启时同时在旧的topic上发送和订阅旧格式的通知,
+         * 合并,去重以及忽略自己发送的通知都不会生效.只在从旧版本滚动升级期间设置为true,全部节点升级后关闭.
+         *
+         * @see org.hswebframework.web.cache.supports.RedisCacheInvalidationBus
+         * @since 4.0.15
+         */
+        private boolean legacyInvalidation = false;
+
     }
 
     @Getter
@@ -104,6 +208,12 @@ public class ReactiveCacheProperties {
         Duration expireAfterAccess = Duration.ofHours(1);
         Strength keyStrength = Strength.SOFT;
         Strength valueStrength = Strength.SOFT;
+        /**
+         * 按权重限制缓存大小,设置后将忽略maximumSize.集合类型的缓存值权重为集合大小,其他为1.
+         *
+         * @since 4.0.15
+         */
+        Long maximumWeight;
 
         ReactiveCacheManager createCacheManager() {
             return new GuavaReactiveCacheManager(createBuilder());
@@ -112,8 +222,13 @@ public class ReactiveCacheProperties {
         CacheBuilder<Object, Object> createBuilder() {
             CacheBuilder<Object,Object> builder = CacheBuilder.newBuilder()
                     .expireAfterAccess(expireAfterAccess)
-                    .expireAfterWrite(expireAfterWrite)
-                    .maximumSize(maximumSize);
+                    .expireAfterWrite(expireAfterWrite);
+            if (maximumWeight != null) {
+                builder.maximumWeight(maximumWeight)
+                       .weigher((key, value) -> weigh(value));
+            } else {
+                builder.maximumSize(maximumSize);
+            }
             if (valueStrength == Strength.SOFT) {
                 builder.softValues();
             } else {
@@ -135,16 +250,27 @@ public class ReactiveCacheProperties {
         Duration expireAfterAccess = Duration.ofHours(1);
         Strength keyStrength = Strength.SOFT;
         Strength valueStrength = Strength.SOFT;
+        /**
+         * 按权重限制缓存大小,设置后将忽略maximumSize.集合类型的缓存值权重为集合大小,其他为1.
+         *
+         * @since 4.0.15
+         */
+        Long maximumWeight;
 
         ReactiveCacheManager createCacheManager() {
             return new CaffeineReactiveCacheManager(createBuilder());
         }
 
         Caffeine<Object, Object> createBuilder() {
+            //使用可变的过期时间,单独设置了过期时间的缓存到期后也会被移除
             Caffeine<Object,Object> builder = Caffeine.newBuilder()
-                    .expireAfterAccess(expireAfterAccess)
-                    .expireAfterWrite(expireAfterWrite)
-                    .maximumSize(maximumSize);
+                    .expireAfter(CaffeineExpiry.of(expireAfterWrite, expireAfterAccess));
+            if (maximumWeight != null) {
+                builder.maximumWeight(maximumWeight)
+                       .weigher((key, value) -> weigh(value));
+            } else {
+                builder.maximumSize(maximumSize);
+            }
             if (valueStrength == Strength.SOFT) {
                 builder.softValues();
             } else {
@@ -157,7 +283,63 @@ public class ReactiveCacheProperties {
         }
     }
 
-    enum Strength {WEAK, SOFT}
+    /**
+     * 单个缓存的配置,为null的配置项使用全局配置
+     *
+     * @since 4.0.15
+     */
+    @Getter
+    @Setter
+    public static class CacheProperties {
+        /**
+         * 缓存类型,设置为{@link Type#redis}时本地缓存类型为{@link RedisProperties#getLocalCacheType()},
+         * 设置为caffeine或者guava时只使用本地缓存.
+         */
+        private Type type;
+        private Long maximumSize;
+        private Long maximumWeight;
+        private Duration expireAfterWrite;
+        private Duration expireAfterAccess;
+        private Strength keyStrength;
+        private Strength valueStrength;
+
+        GuavaProperties applyTo(GuavaProperties global) {
+            GuavaProperties properties = new GuavaProperties();
+            properties.initialCapacity = global.initialCapacity;
+            properties.maximumSize = maximumSize == null ? global.maximumSize : maximumSize;
+            properties.maximumWeight = maximumWeight == null ? global.maximumWeight : maximumWeight;
+            properties.expireAfterWrite = expireAfterWrite == null ? global.expireAfterWrite : expireAfterWrite;
+            properties.expireAfterAccess = expireAfterAccess == null ? global.expireAfterAccess : expireAfterAccess;
+            properties.keyStrength = keyStrength == null ? global.keyStrength : keyStrength;
+            properties.valueStrength = valueStrength == null ? global.valueStrength : valueStrength;
+            return properties;
+        }
+
+        CaffeineProperties applyTo(CaffeineProperties global) {
+            CaffeineProperties properties = new CaffeineProperties();
+            properties.initialCapacity = global.initialCapacity;
+            properties.maximumSize = maximumSize == null ? global.maximumSize : maximumSize;
+            properties.maximumWeight = maximumWeight == null ? global.maximumWeight : maximumWeight;
+            properties.expireAfterWrite = expireAfterWrite == null ? global.expireAfterWrite : expireAfterWrite;
+            properties.expireAfterAccess = expireAfterAccess == null ? global.expireAfterAccess : expireAfterAccess;
+            properties.keyStrength = keyStrength == null ? global.keyStrength : keyStrength;
+            properties.valueStrength = valueStrength == null ? global.valueStrength : valueStrength;
+            return properties;
+        }
+    }
+
+    static int weigh(Object value) {
+        value = value instanceof ExpirableValue ? ((ExpirableValue) value).getValue() : value;
+        if (value instanceof Collection) {
+            return Math.max(1, ((Collection<?>) value).size());
+        }
+        if (value instanceof Map) {
+            return Math.max(1, ((Map<?, ?>) value).size());
+        }
+        return 1;
+    }
+
+    public enum Strength {WEAK, SOFT}
 
     public enum Type {
         redis,
@@ -0,0 +1,182 @@
+package org.hswebframework.web.cache.supports;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hswebframework.web.cache.CachePolicy;
+import org.hswebframework.web.cache.ReactiveCache;
+import org.reactivestreams.Publisher;
+import reactor.cache.CacheFlux;
+import reactor.cache.CacheMono;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 支持合并加载(single-flight)以及提前刷新的缓存抽象类.
+ * <p>
+ * 通过{@link #mono(Object)},{@link #flux(Object)}获取缓存时,如果缓存不存在,
+ * 同一个key上并发的多个订阅者只会执行一次加载逻辑,其他订阅者共享本次加载的结果.
+ * 加载完成(成功或者失败)后将移除正在加载的标记,之后的订阅将重新读取缓存.
+ * <p>
+ * 使用{@link #mono(Object, CachePolicy)},{@link #flux(Object, CachePolicy)}并设置了{@link CachePolicy#refreshAhead(Duration)}时,
+ * 命中的缓存如果即将过期,将在后台重新加载,当前订阅者仍然获取到旧的缓存值.
+ *
+ * @param <E> 缓存值类型
+ * @since 4.0.15
+ */
+@Slf4j
+public abstract class AbstractReactiveCache<E> implements ReactiveCache<E> {
+
+    private final Map<Object, Mono<E>> loadingMono = new ConcurrentHashMap<>();
+
+    private final Map<Object, Mono<List<E>>> loadingFlux = new ConcurrentHashMap<>();
+
+    private final LongAdder loadCount = new LongAdder();
+
+    private final LongAdder coalescedLoadCount = new LongAdder();
+
+    private final LongAdder refreshCount = new LongAdder();
+
+    /**
+     * 获取缓存的过期时间戳,缓存不存在或者没有单独设置有效期时返回{@link Mono#empty()}.
+     * 用于判断是否需要提前刷新缓存.
+     *
+     * @param key key
+     * @return 过期时间戳
+     */
+    protected Mono<Long> getExpireAt(Object key) {
+        return Mono.empty();
+    }
+
+    @Override
+    public CacheFlux.FluxCacheBuilderMapMiss<E> flux(Object key) {
+        return otherSupplier -> Flux
+                .defer(() -> this
+                        .getFlux(key)
+                        .switchIfEmpty(Flux.defer(() -> loadFlux(key, otherSupplier, null))));
+    }
+
+    @Override
+    public CacheMono.MonoCacheBuilderMapMiss<E> mono(Object key) {
+        return otherSupplier -> Mono
+                .defer(() -> this
+                        .getMono(key)
+                        .switchIfEmpty(Mono.defer(() -> loadMono(key, otherSupplier, null))));
+    }
+
+    @Override
+    public CacheFlux.FluxCacheBuilderMapMiss<E> flux(Object key, CachePolicy policy) {
+        return otherSupplier -> Flux
+                .defer(() -> {
+                    Flux<E> cached = this.getFlux(key);
+                    if (policy.isRefreshAhead()) {
+                        cached = cached.doOnComplete(() -> refreshAhead(key, policy, loadingFlux, () -> loadFlux(key, otherSupplier, policy.getTtl())));
+                    }
+                    return cached.switchIfEmpty(Flux.defer(() -> loadFlux(key, otherSupplier, policy.getTtl())));
+                });
+    }
+
+    @Override
+    public CacheMono.MonoCacheBuilderMapMiss<E> mono(Object key, CachePolicy policy) {
+        return otherSupplier -> Mono
+                .defer(() -> {
+                    Mono<E> cached = this.getMono(key);
+                    if (policy.isRefreshAhead()) {
+                        cached = cached.doOnNext(ignore -> refreshAhead(key, policy, loadingMono, () -> loadMono(key, otherSupplier, policy.getTtl())));
+                    }
+                    return cached.switchIfEmpty(Mono.defer(() -> loadMono(key, otherSupplier, policy.getTtl())));
+                });
+    }
+
+    private void refreshAhead(Object key,
+                              CachePolicy policy,
+                              Map<Object, ?> loading,
+                              Supplier<Publisher<E>> loader) {
+        if (loading.containsKey(key)) {
+            return;
+        }
+        this.getExpireAt(key)
+            .filter(policy::shouldRefresh)
+            .flatMapMany(expireAt -> {
+                if (loading.containsKey(key)) {
+                    return Mono.empty();
+                }
+                refreshCount.increment();
+                return loader.get();
+            })
+            .subscribe(null, err -> log.warn("refresh cache [{}] error", key, err));
+    }
+
+    private Mono<Void> putWithTtl(Object key, Publisher<E> data, Duration ttl) {
+        return ttl == null ? put(key, data) : put(key, data, ttl);
+    }
+
+    protected Mono<E> loadMono(Object key, Supplier<Mono<E>> loader, Duration ttl) {
+        return coalesce(loadingMono, key, () -> loader
+                .get()
+                .flatMap(value -> putWithTtl(key, Mono.just(value), ttl).thenReturn(value)));
+    }
+
+    protected Flux<E> loadFlux(Object key, Supplier<Flux<E>> loader, Duration ttl) {
+        return coalesce(loadingFlux, key, () -> loader
+                .get()
+                .collectList()
+                .flatMap(values -> putWithTtl(key, Flux.fromIterable(values), ttl).thenReturn(values)))
+                .flatMapIterable(values -> values);
+    }
+
+    private <T> Mono<T> coalesce(Map<Object, Mono<T>> loading, Object key, Supplier<Mono<T>> loader) {
+        boolean[] created = new boolean[1];
+        Mono<T> flight = loading.computeIfAbsent(key, k -> {
+            created[0] = true;
+            @SuppressWarnings("unchecked")
+            Mono<T>[] self = new Mono[1];
+            //在结果发送给订阅者之前移除加载标记,避免订阅者收到结果后再次加载时合并到已经完成的加载中.
+            //只移除自己,不影响移除后新发起的加载
+            return self[0] = loader
+                    .get()
+                    .doOnTerminate(() -> loading.remove(k, self[0]))
+                    .cache();
+        });
+        if (created[0]) {
+            loadCount.increment();
+        } else {
+            coalescedLoadCount.increment();
+        }
+        return flight;
+    }
+
+    /**
+     * @return 缓存未命中时实际执行加载的次数
+     */
+    public long getLoadCount() {
+        return loadCount.sum();
+    }
+
+    /**
+     * @return 缓存未命中时被合并,共享了其他订阅者加载结果的次数
+     */
+    public long getCoalescedLoadCount() {
+        return coalescedLoadCount.sum();
+    }
+
+    /**
+     * @return 缓存即将过期时提前刷新的次数
+     */
+    public long getRefreshCount() {
+        return refreshCount.sum();
+    }
+
+    /**
+     * @return 当前正在加载中的key数量
+     */
+    public int getLoadingSize() {
+        return loadingMono.size() + loadingFlux.size();
+    }
+
+}
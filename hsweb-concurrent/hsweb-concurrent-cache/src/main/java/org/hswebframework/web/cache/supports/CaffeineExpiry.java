@@ -0,0 +1,82 @@
+package org.hswebframework.web.cache.supports;
+
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caffeine缓存的过期策略,在expireAfterWrite和expireAfterAccess的基础上支持{@link ExpirableValue}单独的过期时间.
+ * <p>
+ * 单独设置了过期时间的缓存,到期后由Caffeine直接移除,不需要再次读取.
+ * 写入和访问过期时间的计算方式与{@link com.github.benmanes.caffeine.cache.Caffeine#expireAfterWrite(Duration)},
+ * {@link com.github.benmanes.caffeine.cache.Caffeine#expireAfterAccess(Duration)}一致.
+ *
+ * @see CaffeineReactiveCache
+ * @since 4.0.15
+ */
+public class CaffeineExpiry implements Expiry<Object, Object> {
+
+    private final long expireAfterWriteNanos;
+
+    private final long expireAfterAccessNanos;
+
+    public CaffeineExpiry(Duration expireAfterWrite, Duration expireAfterAccess) {
+        this.expireAfterWriteNanos = expireAfterWrite.toNanos();
+        this.expireAfterAccessNanos = expireAfterAccess.toNanos();
+    }
+
+    /**
+     * 创建过期策略.返回值类型为{@link Expiry},没有引入caffeine依赖时,调用方在类校验阶段不会因为类型转换而加载caffeine的类.
+     *
+     * @param expireAfterWrite  写入后过期时间
+     * @param expireAfterAccess 访问后过期时间
+     * @return 过期策略
+     */
+    public static Expiry<Object, Object> of(Duration expireAfterWrite, Duration expireAfterAccess) {
+        return new CaffeineExpiry(expireAfterWrite, expireAfterAccess);
+    }
+
+    @Override
+    public long expireAfterCreate(Object key, Object value, long currentTime) {
+        if (value instanceof WrittenValue) {
+            ((WrittenValue) value).writeTime = currentTime;
+        }
+        return Math.min(expireAfterAccessNanos, getRemaining(value, currentTime, expireAfterWriteNanos));
+    }
+
+    @Override
+    public long expireAfterUpdate(Object key, Object value, long currentTime, long currentDuration) {
+        return expireAfterCreate(key, value, currentTime);
+    }
+
+    @Override
+    public long expireAfterRead(Object key, Object value, long currentTime, long currentDuration) {
+        return Math.min(expireAfterAccessNanos, getRemaining(value, currentTime, currentDuration));
+    }
+
+    //距离写入过期或者单独设置的过期时间的剩余时间
+    private long getRemaining(Object value, long currentTime, long defaultRemaining) {
+        if (value instanceof WrittenValue) {
+            return Math.max(0, expireAfterWriteNanos - (currentTime - ((WrittenValue) value).writeTime));
+        }
+        if (value instanceof ExpirableValue) {
+            long remainingMillis = ((ExpirableValue) value).getExpireAt() - System.currentTimeMillis();
+            return Math.max(0, TimeUnit.MILLISECONDS.toNanos(remainingMillis));
+        }
+        return defaultRemaining;
+    }
+
+    /**
+     * 未单独设置过期时间的缓存值,记录写入时间用于计算写入过期时间
+     */
+    static class WrittenValue extends ExpirableValue {
+        private static final long serialVersionUID = -1;
+
+        private volatile long writeTime;
+
+        WrittenValue(Object value) {
+            super(value, Long.MAX_VALUE);
+        }
+    }
+}
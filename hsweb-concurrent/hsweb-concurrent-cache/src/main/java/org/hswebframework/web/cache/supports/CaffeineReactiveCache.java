@@ -2,24 +2,27 @@ package org.hswebframework.web.cache.supports;
 
 import com.github.benmanes.caffeine.cache.Cache;
 import lombok.AllArgsConstructor;
-import org.hswebframework.web.cache.ReactiveCache;
 import org.reactivestreams.Publisher;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.Collection;
 
+/**
+ * 使用Caffeine实现的本地缓存,缓存值使用{@link ExpirableValue}包装,配合{@link CaffeineExpiry}实现单独的过期时间.
+ */
 @SuppressWarnings("all")
 @AllArgsConstructor
-public class CaffeineReactiveCache<E> implements ReactiveCache<E> {
+public class CaffeineReactiveCache<E> extends AbstractReactiveCache<E> {
 
     private Cache<Object, Object> cache;
 
     @Override
     public Flux<E> getFlux(Object key) {
         return (Flux) Flux.defer(() -> {
-            Object v = cache.getIfPresent(key);
+            Object v = getIfPresent(key);
             if (v == null) {
                 return Flux.empty();
             }
@@ -33,7 +36,7 @@ public class CaffeineReactiveCache<E> implements ReactiveCache<E> {
     @Override
     public Mono<E> getMono(Object key) {
         return Mono.defer(() -> {
-            Object v = cache.getIfPresent(key);
+            Object v = getIfPresent(key);
             if (v == null) {
                 return Mono.empty();
             }
@@ -41,17 +44,53 @@ public class CaffeineReactiveCache<E> implements ReactiveCache<E> {
         });
     }
 
+    private Object getIfPresent(Object key) {
+        Object v = cache.getIfPresent(key);
+        if (v instanceof ExpirableValue && ((ExpirableValue) v).isExpired()) {
+            cache.invalidate(key);
+            return null;
+        }
+        return ExpirableValue.unwrap(v);
+    }
+
+    @Override
+    protected Mono<Long> getExpireAt(Object key) {
+        return Mono.fromSupplier(() -> {
+            Object v = cache.getIfPresent(key);
+            return v instanceof ExpirableValue && !(v instanceof CaffeineExpiry.WrittenValue)
+                    ? ((ExpirableValue) v).getExpireAt()
+                    : null;
+        });
+    }
+
+    @Override
+    public Mono<Void> put(Object key, Publisher<E> data, Duration ttl) {
+        return Mono.defer(() -> {
+            if (data instanceof Flux) {
+                return ((Flux<E>) data).collectList()
+                        .doOnNext(v -> cache.put(key, ExpirableValue.of(v, ttl)))
+                        .then();
+            }
+            if (data instanceof Mono) {
+                return ((Mono<E>) data)
+                        .doOnNext(v -> cache.put(key, ExpirableValue.of(v, ttl)))
+                        .then();
+            }
+            return Mono.error(new UnsupportedOperationException("unsupport publisher:" + data));
+        });
+    }
+
     @Override
     public Mono<Void> put(Object key, Publisher<E> data) {
         return Mono.defer(() -> {
             if (data instanceof Flux) {
                 return ((Flux<E>) data).collectList()
-                        .doOnNext(v -> cache.put(key, v))
+                        .doOnNext(v -> cache.put(key, new CaffeineExpiry.WrittenValue(v)))
                         .then();
             }
             if (data instanceof Mono) {
                 return ((Mono<E>) data)
-                        .doOnNext(v -> cache.put(key, v))
+                        .doOnNext(v -> cache.put(key, new CaffeineExpiry.WrittenValue(v)))
                         .then();
             }
             return Mono.error(new UnsupportedOperationException("unsupport publisher:" + data));
@@ -67,7 +106,12 @@ public class CaffeineReactiveCache<E> implements ReactiveCache<E> {
     public Flux<E> getAll(Object... keys) {
         return Flux.<E>defer(() -> {
             return Flux.fromIterable(cache.getAllPresent(Arrays.asList(keys)).values())
-                    .map(e -> (E) e);
+                    .<E>handle((v, sink) -> {
+                        Object value = ExpirableValue.unwrap(v);
+                        if (value != null) {
+                            sink.next((E) value);
+                        }
+                    });
         });
     }
 
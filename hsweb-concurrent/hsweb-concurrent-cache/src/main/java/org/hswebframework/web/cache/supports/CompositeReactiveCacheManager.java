@@ -0,0 +1,31 @@
+package org.hswebframework.web.cache.supports;
+
+import lombok.AllArgsConstructor;
+import org.hswebframework.web.cache.ReactiveCache;
+import org.hswebframework.web.cache.ReactiveCacheManager;
+
+import java.util.Map;
+
+/**
+ * 根据缓存名称选择缓存管理器,未单独配置的缓存使用默认的缓存管理器.
+ *
+ * @since 4.0.15
+ */
+@AllArgsConstructor
+public class CompositeReactiveCacheManager implements ReactiveCacheManager {
+
+    private final ReactiveCacheManager defaultManager;
+
+    private final Map<String, ReactiveCacheManager> managers;
+
+    @Override
+    public <E> ReactiveCache<E> getCache(String name) {
+        return managers
+                .getOrDefault(name, defaultManager)
+                .getCache(name);
+    }
+
+    public ReactiveCacheManager getManager(String name) {
+        return managers.getOrDefault(name, defaultManager);
+    }
+}
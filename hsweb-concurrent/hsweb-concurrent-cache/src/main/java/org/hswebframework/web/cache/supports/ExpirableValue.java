@@ -0,0 +1,58 @@
+package org.hswebframework.web.cache.supports;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.time.Duration;
+
+/**
+ * 设置了单独过期时间的缓存值,读取时如果已过期则视为缓存不存在.
+ *
+ * @since 4.0.15
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ExpirableValue implements Serializable {
+    private static final long serialVersionUID = -1;
+
+    private Object value;
+
+    /**
+     * 过期时间戳
+     */
+    private long expireAt;
+
+    public static ExpirableValue of(Object value, Duration ttl) {
+        return new ExpirableValue(value, System.currentTimeMillis() + ttl.toMillis());
+    }
+
+    public boolean isExpired() {
+        return System.currentTimeMillis() >= expireAt;
+    }
+
+    /**
+     * @return 剩余有效期
+     */
+    public Duration getTtl() {
+        return Duration.ofMillis(Math.max(0, expireAt - System.currentTimeMillis()));
+    }
+
+    /**
+     * 获取实际的缓存值,如果已过期则返回null
+     *
+     * @param value 缓存中存储的值
+     * @return 实际的缓存值
+     */
+    public static Object unwrap(Object value) {
+        if (value instanceof ExpirableValue) {
+            ExpirableValue expirable = ((ExpirableValue) value);
+            return expirable.isExpired() ? null : expirable.value;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,46 @@
+package org.hswebframework.web.cache.supports;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.scheduler.Schedulers;
+
+import java.lang.ref.WeakReference;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 定期清理缓存中已过期的{@link ExpirableValue},避免过期后不再读取的缓存一直占用内存.
+ * <p>
+ * 定时任务只持有缓存的弱引用,缓存被回收后任务自动停止,不需要手动销毁.
+ *
+ * @since 4.0.15
+ */
+@Slf4j
+final class ExpiredValueCleaner {
+
+    static final Duration DEFAULT_INTERVAL = Duration.ofMinutes(1);
+
+    private ExpiredValueCleaner() {
+    }
+
+    static <T> Disposable schedule(T target, Duration interval, Consumer<T> cleaner) {
+        WeakReference<T> reference = new WeakReference<>(target);
+        Disposable[] task = new Disposable[1];
+        task[0] = Schedulers
+                .parallel()
+                .schedulePeriodically(() -> {
+                    T cache = reference.get();
+                    if (cache == null) {
+                        task[0].dispose();
+                        return;
+                    }
+                    try {
+                        cleaner.accept(cache);
+                    } catch (Throwable e) {
+                        log.warn("clean up expired cache value error", e);
+                    }
+                }, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+        return task[0];
+    }
+}
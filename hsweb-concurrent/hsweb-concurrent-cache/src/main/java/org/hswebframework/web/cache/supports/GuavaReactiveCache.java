@@ -1,25 +1,31 @@
 package org.hswebframework.web.cache.supports;
 
 import com.google.common.cache.Cache;
-import lombok.AllArgsConstructor;
-import org.hswebframework.web.cache.ReactiveCache;
 import org.reactivestreams.Publisher;
+import reactor.core.Disposable;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.Collection;
 
 @SuppressWarnings("all")
-@AllArgsConstructor
-public class GuavaReactiveCache<E> implements ReactiveCache<E> {
+public class GuavaReactiveCache<E> extends AbstractReactiveCache<E> {
 
     private Cache<Object, Object> cache;
 
+    //设置了单独过期时间后才定期清理过期的缓存
+    private volatile Disposable cleanUpTask;
+
+    public GuavaReactiveCache(Cache<Object, Object> cache) {
+        this.cache = cache;
+    }
+
     @Override
     public Flux<E> getFlux(Object key) {
         return (Flux)Flux.defer(() -> {
-            Object v = cache.getIfPresent(key);
+            Object v = getIfPresent(key);
             if (v == null) {
                 return Flux.empty();
             }
@@ -33,7 +39,7 @@ public class GuavaReactiveCache<E> implements ReactiveCache<E> {
     @Override
     public Mono<E> getMono(Object key) {
         return (Mono)Mono.defer(() -> {
-            Object v = cache.getIfPresent(key);
+            Object v = getIfPresent(key);
             if (v == null) {
                 return Mono.empty();
             }
@@ -41,6 +47,41 @@ public class GuavaReactiveCache<E> implements ReactiveCache<E> {
         });
     }
 
+    private Object getIfPresent(Object key) {
+        Object v = cache.getIfPresent(key);
+        if (v instanceof ExpirableValue && ((ExpirableValue) v).isExpired()) {
+            cache.invalidate(key);
+            return null;
+        }
+        return ExpirableValue.unwrap(v);
+    }
+
+    @Override
+    protected Mono<Long> getExpireAt(Object key) {
+        return Mono.fromSupplier(() -> {
+            Object v = cache.getIfPresent(key);
+            return v instanceof ExpirableValue ? ((ExpirableValue) v).getExpireAt() : null;
+        });
+    }
+
+    @Override
+    public Mono<Void> put(Object key, Publisher<E> data, Duration ttl) {
+        return Mono.defer(() -> {
+            scheduleCleanUp();
+            if (data instanceof Flux) {
+                return ((Flux<E>) data).collectList()
+                        .doOnNext(v -> cache.put(key, ExpirableValue.of(v, ttl)))
+                        .then();
+            }
+            if (data instanceof Mono) {
+                return ((Mono<E>) data)
+                        .doOnNext(v -> cache.put(key, ExpirableValue.of(v, ttl)))
+                        .then();
+            }
+            return Mono.error(new UnsupportedOperationException("unsupport publisher:" + data));
+        });
+    }
+
     @Override
     public Mono<Void> put(Object key, Publisher<E> data) {
         return Mono.defer(() -> {
@@ -71,7 +112,12 @@ public class GuavaReactiveCache<E> implements ReactiveCache<E> {
     public Flux<E> getAll(Object... keys) {
         return Flux.<E>defer(() -> {
             return Flux.fromIterable(cache.getAllPresent(Arrays.asList(keys)).values())
-                    .map(e -> (E) e);
+                    .<E>handle((v, sink) -> {
+                        Object value = ExpirableValue.unwrap(v);
+                        if (value != null) {
+                            sink.next((E) value);
+                        }
+                    });
         });
     }
 
@@ -80,4 +126,24 @@ public class GuavaReactiveCache<E> implements ReactiveCache<E> {
     public Mono<Void> clear() {
         return Mono.fromRunnable(() -> cache.invalidateAll());
     }
+
+    private void scheduleCleanUp() {
+        if (cleanUpTask == null) {
+            synchronized (this) {
+                if (cleanUpTask == null) {
+                    cleanUpTask = ExpiredValueCleaner.schedule(this, ExpiredValueCleaner.DEFAULT_INTERVAL, GuavaReactiveCache::removeExpired);
+                }
+            }
+        }
+    }
+
+    /**
+     * 删除已过期的缓存
+     */
+    public void removeExpired() {
+        cache.asMap()
+             .values()
+             .removeIf(v -> v instanceof ExpirableValue && ((ExpirableValue) v).isExpired());
+        cache.cleanUp();
+    }
 }
@@ -0,0 +1,266 @@
+package org.hswebframework.web.cache.supports;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.ReactiveSubscription;
+import org.springframework.data.redis.core.ReactiveRedisOperations;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.UnicastProcessor;
+
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * 基于redis发布订阅的缓存失效通知,用于在多个节点之间同步清空本地缓存.
+ * <p>
+ * 设置了合并窗口时,窗口内的失效通知将去重后合并为一条消息发送,避免批量操作时产生大量的消息.
+ * 每条消息中包含发送节点的ID,节点收到自己发送的消息时将忽略,避免清空刚写入的本地缓存.
+ * <p>
+ * 合并后的消息使用新的topic({@link #TOPIC_PREFIX})发送,旧版本节点订阅的topic({@link #LEGACY_TOPIC_PREFIX})只能处理key字符串.
+ * 设置了legacyTopic时,将同时在旧topic上逐个发送key字符串以及清空通知,并订阅旧topic上的通知,用于新旧版本节点混合部署.
+ * <p>
+ * 兼容模式默认关闭.从旧版本滚动升级时:
+ * <ol>
+ *     <li>设置hsweb.cache.redis.legacy-invalidation=true,滚动升级全部节点</li>
+ *     <li>全部节点升级完成后,删除此配置(或设置为false),再次滚动重启</li>
+ * </ol>
+ * 兼容模式下旧topic上的消息不包含节点ID,已升级的节点会同时收到新旧两种格式的通知,也会收到自己发送的旧格式通知,
+ * 合并,去重以及忽略自己发送的通知都不会生效,消息数量也多于旧版本,因此只应在升级期间开启.
+ *
+ * @since 4.0.15
+ */
+@Slf4j
+public class RedisCacheInvalidationBus {
+
+    /**
+     * 当前节点ID
+     */
+    public static final String NODE_ID = UUID.randomUUID().toString();
+
+    /**
+     * 合并后的失效通知topic前缀
+     */
+    public static final String TOPIC_PREFIX = "_cache_invalidation:";
+
+    /**
+     * 旧版本的失效通知topic前缀,消息内容为key字符串或者{@link #CLEAR_ALL}
+     */
+    public static final String LEGACY_TOPIC_PREFIX = "_cache_changed:";
+
+    static final String CLEAR_ALL = "___all";
+
+    private final ReactiveRedisOperations<Object, Object> operations;
+
+    private final String topic;
+
+    private final String legacyTopic;
+
+    private final String nodeId;
+
+    private final FluxSink<Object> sink;
+
+    private final LongAdder publishedKeys = new LongAdder();
+
+    private final LongAdder sentMessages = new LongAdder();
+
+    private final LongAdder skippedMessages = new LongAdder();
+
+    /**
+     * @param operations   ReactiveRedisOperations
+     * @param topic        通知的topic
+     * @param window       合并窗口,为null或者0时不合并,每次失效都立即发送
+     * @param maxBatchSize 单条消息最多包含的key数量
+     */
+    public RedisCacheInvalidationBus(ReactiveRedisOperations<Object, Object> operations,
+                                     String topic,
+                                     Duration window,
+                                     int maxBatchSize) {
+        this(operations, topic, null, NODE_ID, window, maxBatchSize);
+    }
+
+    public RedisCacheInvalidationBus(ReactiveRedisOperations<Object, Object> operations,
+                                     String topic,
+                                     String nodeId,
+                                     Duration window,
+                                     int maxBatchSize) {
+        this(operations, topic, null, nodeId, window, maxBatchSize);
+    }
+
+    /**
+     * @param operations   ReactiveRedisOperations
+     * @param topic        通知的topic
+     * @param legacyTopic  旧版本的topic,不为null时兼容旧版本节点
+     * @param nodeId       当前节点ID
+     * @param window       合并窗口,为null或者0时不合并,每次失效都立即发送
+     * @param maxBatchSize 单条消息最多包含的key数量
+     */
+    public RedisCacheInvalidationBus(ReactiveRedisOperations<Object, Object> operations,
+                                     String topic,
+                                     String legacyTopic,
+                                     String nodeId,
+                                     Duration window,
+                                     int maxBatchSize) {
+        this.operations = operations;
+        this.topic = topic;
+        this.legacyTopic = legacyTopic;
+        this.nodeId = nodeId;
+        if (window == null || window.isZero() || window.isNegative()) {
+            this.sink = null;
+        } else {
+            UnicastProcessor<Object> processor = UnicastProcessor.create();
+            this.sink = processor.sink();
+            processor
+                    .bufferTimeout(maxBatchSize, window)
+                    .concatMap(keys -> send(new Invalidation(nodeId, false, new ArrayList<>(new LinkedHashSet<>(keys))))
+                            .onErrorResume(err -> {
+                                log.error("send cache invalidation [{}] error", topic, err);
+                                return Mono.empty();
+                            }))
+                    .subscribe();
+        }
+    }
+
+    /**
+     * 订阅其他节点发送的失效通知
+     *
+     * @param handler 处理器
+     * @return Disposable
+     */
+    public Disposable listen(Consumer<Invalidation> handler) {
+        String[] channels = legacyTopic == null ? new String[]{topic} : new String[]{topic, legacyTopic};
+        return operations
+                .listenToChannel(channels)
+                .map(ReactiveSubscription.Message::getMessage)
+                .subscribe(msg -> {
+                    Invalidation invalidation = convert(msg);
+                    if (nodeId.equals(invalidation.getNodeId())) {
+                        skippedMessages.increment();
+                        return;
+                    }
+                    try {
+                        handler.accept(invalidation);
+                    } catch (Throwable e) {
+                        log.error("handle cache invalidation [{}] error", topic, e);
+                    }
+                }, err -> log.error("listen cache invalidation [{}] error", topic, err));
+    }
+
+    private Invalidation convert(Object message) {
+        if (message instanceof Invalidation) {
+            return ((Invalidation) message);
+        }
+        //旧版本的消息格式
+        if (CLEAR_ALL.equals(message)) {
+            return new Invalidation(null, true, Collections.emptyList());
+        }
+        return new Invalidation(null, false, Collections.singletonList(message));
+    }
+
+    public Mono<Void> publish(Object key) {
+        return publish(Collections.singletonList(key));
+    }
+
+    /**
+     * 发送缓存失效通知,设置了合并窗口时,将在窗口结束后合并发送
+     *
+     * @param keys 失效的key
+     * @return void
+     */
+    public Mono<Void> publish(Iterable<?> keys) {
+        if (sink == null) {
+            List<Object> list = new ArrayList<>();
+            keys.forEach(list::add);
+            if (list.isEmpty()) {
+                return Mono.empty();
+            }
+            return send(new Invalidation(nodeId, false, list));
+        }
+        return Mono.fromRunnable(() -> keys.forEach(sink::next));
+    }
+
+    /**
+     * 发送清空缓存通知,此通知不合并,将立即发送
+     *
+     * @return void
+     */
+    public Mono<Void> publishClear() {
+        return send(new Invalidation(nodeId, true, Collections.emptyList()));
+    }
+
+    private Mono<Void> send(Invalidation invalidation) {
+        return operations
+                .convertAndSend(topic, invalidation)
+                .doOnNext(ignore -> {
+                    sentMessages.increment();
+                    publishedKeys.add(invalidation.getKeys().size());
+                })
+                .then(sendLegacy(invalidation));
+    }
+
+    //旧版本节点只能处理key字符串
+    private Mono<Void> sendLegacy(Invalidation invalidation) {
+        if (legacyTopic == null) {
+            return Mono.empty();
+        }
+        if (invalidation.isAll()) {
+            return operations.convertAndSend(legacyTopic, CLEAR_ALL).then();
+        }
+        return Flux
+                .fromIterable(invalidation.getKeys())
+                .concatMap(key -> operations.convertAndSend(legacyTopic, String.valueOf(key)))
+                .then();
+    }
+
+    /**
+     * @return 已发送的失效key数量
+     */
+    public long getPublishedKeys() {
+        return publishedKeys.sum();
+    }
+
+    /**
+     * @return 已发送的消息数量
+     */
+    public long getSentMessages() {
+        return sentMessages.sum();
+    }
+
+    /**
+     * @return 收到的由当前节点发送而被忽略的消息数量
+     */
+    public long getSkippedMessages() {
+        return skippedMessages.sum();
+    }
+
+    @Getter
+    @Setter
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Invalidation implements Serializable {
+        private static final long serialVersionUID = -1;
+
+        /**
+         * 发送消息的节点ID
+         */
+        private String nodeId;
+
+        /**
+         * 是否清空全部缓存
+         */
+        private boolean all;
+
+        /**
+         * 失效的key
+         */
+        private List<Object> keys;
+    }
+}
@@ -0,0 +1,451 @@
+package org.hswebframework.web.cache.supports;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.hswebframework.web.cache.ReactiveCache;
+import org.reactivestreams.Publisher;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.ReactiveRedisOperations;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.ZSetOperations;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * 每个缓存使用单独的redis key存储的缓存实现,key格式为: {redisKey}:{version}:{key}.
+ * <p>
+ * 与{@link RedisReactiveCache}使用一个hash存储所有缓存相比:
+ * <ul>
+ *     <li>每个缓存可以单独设置有效期,使用redis原生的过期机制</li>
+ *     <li>批量获取和设置使用MGET,MSET</li>
+ *     <li>{@link #clear()}时递增版本号({redisKey}:version)</li>
+ *     <li>在redis集群中可以分散到不同的节点</li>
+ * </ul>
+ * 本地缓存的版本号在{@link #setVersionTtl(Duration)}后重新从redis中获取,
+ * 即使没有收到其他节点清空缓存的通知,也最多在这段时间内读写旧版本的数据.
+ * <p>
+ * 默认不记录写入的key,清空后旧版本的数据由redis过期删除,建议通过defaultTtl设置默认的有效期.
+ * {@link #getAll(Object...)}获取全部缓存时将通过SCAN遍历keyspace,只适合少量使用.
+ * <p>
+ * 通过{@link #setEntryIndex(boolean)}开启索引后,每个版本使用一个有序集合({redisKey}:index:{version})记录写入的key,
+ * 分值为过期时间戳,获取全部缓存和清空时在后台删除旧版本的数据都只遍历这个集合.
+ * 每次写入都会多一次ZADD,并且同一个缓存的索引在同一个节点上,写入频繁的缓存不建议开启.
+ * 已过期的key在写入过设置了有效期的缓存后定期从集合中删除.
+ * 设置了有效期的缓存值使用{@link ExpirableValue}存储,以保证本地缓存不会比redis中的缓存存活更久.
+ *
+ * @param <E> 缓存值类型
+ * @since 4.0.15
+ */
+@SuppressWarnings("all")
+@Slf4j
+public class RedisEntryReactiveCache<E> extends AbstractReactiveCache<E> {
+
+    private static final int SCAN_BATCH_SIZE = 200;
+
+    //没有设置有效期的缓存在索引中的分值
+    private static final double NEVER_EXPIRE = Long.MAX_VALUE;
+
+    private final ReactiveRedisOperations<Object, Object> operations;
+
+    private final String redisKey;
+
+    private final String versionKey;
+
+    private final ReactiveCache<E> localCache;
+
+    private final Duration defaultTtl;
+
+    private final RedisCacheInvalidationBus invalidationBus;
+
+    private final Mono<Long> version;
+
+    //本地缓存的版本号,为null或者已过期时从redis中获取
+    private volatile CachedVersion currentVersion;
+
+    /**
+     * 本地缓存版本号的有效期,过期后重新从redis中获取
+     */
+    @Getter
+    @Setter
+    private Duration versionTtl = Duration.ofSeconds(10);
+
+    /**
+     * 是否使用有序集合记录每个版本写入的key
+     */
+    @Getter
+    @Setter
+    private boolean entryIndex;
+
+    private final AtomicInteger versionGeneration = new AtomicInteger();
+
+    //写入了设置有效期的缓存后定期从索引中删除已过期的key
+    private volatile Disposable cleanUpTask;
+
+    public RedisEntryReactiveCache(String redisKey,
+                                   ReactiveRedisOperations<Object, Object> operations,
+                                   ReactiveCache<E> localCache,
+                                   Duration defaultTtl) {
+        this(redisKey, operations, localCache, defaultTtl,
+             new RedisCacheInvalidationBus(operations,
+                                           RedisCacheInvalidationBus.TOPIC_PREFIX + redisKey,
+                                           null,
+                                           RedisCacheInvalidationBus.NODE_ID,
+                                           null,
+                                           0));
+    }
+
+    public RedisEntryReactiveCache(String redisKey,
+                                   ReactiveRedisOperations<Object, Object> operations,
+                                   ReactiveCache<E> localCache,
+                                   Duration defaultTtl,
+                                   RedisCacheInvalidationBus invalidationBus) {
+        this.operations = operations;
+        this.localCache = localCache;
+        this.redisKey = redisKey;
+        this.versionKey = redisKey + ":version";
+        this.defaultTtl = defaultTtl;
+        this.version = Mono.defer(this::loadVersion);
+        this.invalidationBus = invalidationBus;
+        invalidationBus.listen(invalidation -> {
+            if (invalidation.isAll()) {
+                resetVersion();
+                localCache.clear().subscribe();
+                return;
+            }
+            //清空本地缓存
+            localCache.evictAll(invalidation.getKeys()).subscribe();
+        });
+    }
+
+    private Mono<Long> loadVersion() {
+        CachedVersion current = currentVersion;
+        if (current != null && current.expireAt > System.currentTimeMillis()) {
+            return Mono.just(current.version);
+        }
+        int generation = versionGeneration.get();
+        //INCRBY 0 获取当前版本号,避免使用value序列化器反序列化数字
+        return operations
+                .opsForValue()
+                .increment(versionKey, 0L)
+                .doOnNext(ver -> {
+                    if (versionGeneration.get() == generation) {
+                        currentVersion = new CachedVersion(ver, System.currentTimeMillis() + versionTtl.toMillis());
+                    }
+                });
+    }
+
+    private void resetVersion() {
+        versionGeneration.incrementAndGet();
+        currentVersion = null;
+    }
+
+    private static final class CachedVersion {
+        private final long version;
+        private final long expireAt;
+
+        private CachedVersion(long version, long expireAt) {
+            this.version = version;
+            this.expireAt = expireAt;
+        }
+    }
+
+    private String entryKey(long version, Object key) {
+        return redisKey + ":" + version + ":" + key;
+    }
+
+    //版本号之后不是数字,不会与缓存的key冲突
+    private String indexKey(long version) {
+        return redisKey + ":index:" + version;
+    }
+
+    private static double expireScore(Duration ttl) {
+        return ttl == null ? NEVER_EXPIRE : System.currentTimeMillis() + ttl.toMillis();
+    }
+
+    private Mono<Object> getValue(Object key) {
+        return version
+                .flatMap(ver -> operations.opsForValue().get(entryKey(ver, key)));
+    }
+
+    protected <T> Mono<T> handleError(Throwable error) {
+        return Mono.fromRunnable(() -> {
+            log.error(error.getMessage(), error);
+        });
+    }
+
+    @Override
+    protected Mono<Long> getExpireAt(Object key) {
+        if (localCache instanceof AbstractReactiveCache) {
+            return ((AbstractReactiveCache<E>) localCache).getExpireAt(key);
+        }
+        return Mono.empty();
+    }
+
+    @Override
+    public Flux<E> getFlux(Object key) {
+        return localCache
+                .getFlux(key)
+                .switchIfEmpty(Flux.defer(() -> getValue(key)
+                        .flatMap(v -> Mono.justOrEmpty(ExpirableValue.unwrap(v)))
+                        .flatMapIterable(r -> {
+                            if (r instanceof Iterable) {
+                                return ((Iterable) r);
+                            }
+                            return Collections.singletonList(r);
+                        })
+                        .map(r -> (E) r)))
+                .onErrorResume(err -> this.<E>handleError((Throwable) err));
+    }
+
+    @Override
+    public Mono<E> getMono(Object key) {
+        return localCache
+                .getMono(key)
+                .switchIfEmpty(Mono.defer(() -> getValue(key)
+                        .flatMap(v -> {
+                            //本地缓存的有效期不能超过redis中的有效期
+                            if (v instanceof ExpirableValue) {
+                                ExpirableValue expirable = ((ExpirableValue) v);
+                                //本地时钟认为已过期时视为缓存不存在
+                                if (expirable.isExpired()) {
+                                    return Mono.empty();
+                                }
+                                E r = (E) expirable.getValue();
+                                return localCache.put(key, Mono.just(r), expirable.getTtl()).thenReturn(r);
+                            }
+                            return localCache.put(key, Mono.just((E) v)).thenReturn((E) v);
+                        })))
+                .onErrorResume(err -> this.handleError(err));
+    }
+
+    @Override
+    public Mono<Void> put(Object key, Publisher<E> data) {
+        return put(key, data, defaultTtl);
+    }
+
+    @Override
+    public Mono<Void> put(Object key, Publisher<E> data, Duration ttl) {
+        Mono<Object> value = data instanceof Flux
+                ? ((Flux<Object>) data).collectList().cast(Object.class)
+                : Mono.from(data);
+        return Mono
+                .zip(value, version)
+                .flatMap(tp2 -> {
+                    Object r = tp2.getT1();
+                    String entryKey = entryKey(tp2.getT2(), key);
+                    Publisher<E> local = data instanceof Flux ? Flux.fromIterable((Iterable<E>) r) : Mono.just((E) r);
+                    return (ttl == null
+                            ? operations.opsForValue().set(entryKey, r)
+                            : operations.opsForValue().set(entryKey, ExpirableValue.of(r, ttl), ttl))
+                            .then(addIndex(tp2.getT2(), Collections.singleton(entryKey), ttl))
+                            .then(ttl == null ? localCache.put(key, local) : localCache.put(key, local, ttl))
+                            .then(invalidationBus.publish(key));
+                })
+                .then()
+                .onErrorResume(err -> this.handleError(err));
+    }
+
+    @Override
+    public Mono<Void> putAll(Map<?, E> values) {
+        if (values.isEmpty()) {
+            return Mono.empty();
+        }
+        return version
+                .flatMap(ver -> {
+                    Map<Object, Object> entries = new LinkedHashMap<>();
+                    values.forEach((key, value) -> entries.put(entryKey(ver, key), value));
+                    Mono<?> write;
+                    if (defaultTtl == null) {
+                        write = operations.opsForValue().multiSet(entries);
+                    } else {
+                        //MSET不支持设置有效期,使用pipeline执行SET
+                        write = Flux.fromIterable(entries.entrySet())
+                                    .flatMap(e -> operations.opsForValue().set(e.getKey(), ExpirableValue.of(e.getValue(), defaultTtl), defaultTtl))
+                                    .then();
+                    }
+                    return write.then(addIndex(ver, entries.keySet(), defaultTtl));
+                })
+                .then(localCache.evictAll(values.keySet()))
+                .then(invalidationBus.publish(values.keySet()))
+                .onErrorResume(err -> this.handleError(err));
+    }
+
+    @Override
+    public Mono<Void> evict(Object key) {
+        return version
+                .flatMap(ver -> {
+                    String entryKey = entryKey(ver, key);
+                    return operations
+                            .delete(entryKey)
+                            .then(removeIndex(ver, entryKey));
+                })
+                .then(localCache.evict(key))
+                .then(invalidationBus.publish(key))
+                .onErrorResume(err -> this.handleError(err))
+                .then();
+    }
+
+    @Override
+    public Flux<E> getAll(Object... keys) {
+        if (keys.length == 0 && !entryIndex) {
+            //使用scan分批获取,避免阻塞redis
+            return version
+                    .flatMapMany(ver -> operations
+                            .scan(ScanOptions.scanOptions().match(entryKey(ver, "*")).count(SCAN_BATCH_SIZE).build())
+                            .buffer(SCAN_BATCH_SIZE)
+                            .concatMap(batch -> operations.opsForValue().multiGet(batch)))
+                    .flatMapIterable(this::unwrapValues)
+                    .onErrorResume(err -> this.handleError(err));
+        }
+        if (keys.length == 0) {
+            //使用ZSCAN分批遍历索引,跳过已过期的key
+            return version
+                    .flatMapMany(ver -> {
+                        long now = System.currentTimeMillis();
+                        return operations
+                                .opsForZSet()
+                                .scan(indexKey(ver))
+                                .filter(tuple -> tuple.getScore() == null || tuple.getScore() > now)
+                                .map(ZSetOperations.TypedTuple::getValue)
+                                .buffer(SCAN_BATCH_SIZE)
+                                .concatMap(batch -> operations.opsForValue().multiGet(batch));
+                    })
+                    .flatMapIterable(this::unwrapValues)
+                    .onErrorResume(err -> this.handleError(err));
+        }
+        return version
+                .flatMap(ver -> operations
+                        .opsForValue()
+                        .multiGet(Arrays.stream(keys).map(key -> entryKey(ver, key)).collect(Collectors.toList())))
+                .flatMapIterable(this::unwrapValues)
+                .onErrorResume(err -> this.handleError(err));
+    }
+
+    //MGET返回的结果中不存在的key对应的值为null
+    private List<E> unwrapValues(List<Object> values) {
+        List<E> result = new ArrayList<>(values.size());
+        for (Object value : values) {
+            value = ExpirableValue.unwrap(value);
+            if (value != null) {
+                result.add((E) value);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Mono<Void> evictAll(Iterable<?> keys) {
+        return version
+                .flatMap(ver -> {
+                    List<Object> entryKeys = new ArrayList<>();
+                    for (Object key : keys) {
+                        entryKeys.add(entryKey(ver, key));
+                    }
+                    if (entryKeys.isEmpty()) {
+                        return Mono.empty();
+                    }
+                    return operations
+                            .delete(entryKeys.toArray())
+                            .then(removeIndex(ver, entryKeys.toArray()));
+                })
+                .then(localCache.evictAll(keys))
+                .then(invalidationBus.publish(keys))
+                .onErrorResume(err -> this.handleError(err));
+    }
+
+    @Override
+    public Mono<Void> clear() {
+        return operations
+                .opsForValue()
+                .increment(versionKey)
+                .doOnNext(ver -> {
+                    resetVersion();
+                    if (entryIndex) {
+                        deleteVersion(ver - 1)
+                                .subscribe(null, err -> log.warn("delete cache [{}] version [{}] error", redisKey, ver - 1, err));
+                    }
+                })
+                .then(localCache.clear())
+                .then(invalidationBus.publishClear())
+                .onErrorResume(err -> this.handleError(err))
+                .then();
+    }
+
+    private Mono<Void> addIndex(long version, Collection<?> entryKeys, Duration ttl) {
+        if (!entryIndex) {
+            return Mono.empty();
+        }
+        if (ttl != null) {
+            scheduleCleanUp();
+        }
+        double score = expireScore(ttl);
+        Set<ZSetOperations.TypedTuple<Object>> tuples = new HashSet<>();
+        for (Object entryKey : entryKeys) {
+            tuples.add(new DefaultTypedTuple<>(entryKey, score));
+        }
+        return operations
+                .opsForZSet()
+                .addAll(indexKey(version), tuples)
+                .then();
+    }
+
+    private Mono<Void> removeIndex(long version, Object... entryKeys) {
+        if (!entryIndex) {
+            return Mono.empty();
+        }
+        return operations
+                .opsForZSet()
+                .remove(indexKey(version), entryKeys)
+                .then();
+    }
+
+    /**
+     * 删除指定版本的全部缓存数据和索引
+     *
+     * @param version 版本号
+     * @return void
+     */
+    protected Mono<Void> deleteVersion(long version) {
+        String indexKey = indexKey(version);
+        return operations
+                .opsForZSet()
+                .scan(indexKey)
+                .map(ZSetOperations.TypedTuple::getValue)
+                .buffer(SCAN_BATCH_SIZE)
+                .concatMap(batch -> operations.delete(batch.toArray()))
+                .then(operations.delete(indexKey))
+                .then();
+    }
+
+    private void scheduleCleanUp() {
+        if (cleanUpTask == null) {
+            synchronized (this) {
+                if (cleanUpTask == null) {
+                    cleanUpTask = ExpiredValueCleaner.schedule(this, ExpiredValueCleaner.DEFAULT_INTERVAL, cache -> cache
+                            .removeExpiredIndex()
+                            .subscribe(null, err -> log.warn("remove expired cache [{}] index error", cache.redisKey, err)));
+                }
+            }
+        }
+    }
+
+    /**
+     * 从当前版本的索引中删除已过期的key,缓存数据本身由redis过期删除
+     *
+     * @return 删除的数量
+     */
+    public Mono<Long> removeExpiredIndex() {
+        return version
+                .flatMap(ver -> operations
+                        .opsForZSet()
+                        .removeRangeByScore(indexKey(ver), Range.closed(0D, (double) System.currentTimeMillis())));
+    }
+}
@@ -6,6 +6,8 @@ import org.hswebframework.web.cache.ReactiveCache;
 import org.hswebframework.web.cache.ReactiveCacheManager;
 import org.springframework.data.redis.core.ReactiveRedisOperations;
 
+import java.time.Duration;
+
 public class RedisLocalReactiveCacheManager extends AbstractReactiveCacheManager {
 
     private ReactiveRedisOperations<Object, Object> operations;
@@ -21,8 +23,102 @@ public class RedisLocalReactiveCacheManager extends AbstractReactiveCacheManager
     @Getter
     private String redisCachePrefix = "spring-cache:";
 
+    /**
+     * redis中的存储结构
+     *
+     * @since 4.0.15
+     */
+    @Setter
+    @Getter
+    private Layout layout = Layout.hash;
+
+    /**
+     * 使用{@link Layout#key}时缓存的默认有效期,为null时不过期
+     *
+     * @since 4.0.15
+     */
+    @Setter
+    @Getter
+    private Duration entryTtl;
+
+    /**
+     * 使用{@link Layout#key}时是否使用有序集合记录写入的key
+     *
+     * @see RedisEntryReactiveCache#setEntryIndex(boolean)
+     * @since 4.0.15
+     */
+    @Setter
+    @Getter
+    private boolean entryIndex = false;
+
+    /**
+     * 使用{@link Layout#key}时本地缓存版本号的有效期
+     *
+     * @see RedisEntryReactiveCache#setVersionTtl(Duration)
+     * @since 4.0.15
+     */
+    @Setter
+    @Getter
+    private Duration versionTtl = Duration.ofSeconds(10);
+
+    /**
+     * 缓存失效通知的合并窗口,为0时不合并
+     *
+     * @since 4.0.15
+     */
+    @Setter
+    @Getter
+    private Duration invalidationWindow = Duration.ofMillis(20);
+
+    /**
+     * 单条缓存失效通知最多包含的key数量
+     *
+     * @since 4.0.15
+     */
+    @Setter
+    @Getter
+    private int invalidationBatchSize = 500;
+
+    /**
+     * 是否兼容旧版本的缓存失效通知,只在从旧版本滚动升级期间开启
+     *
+     * @see RedisCacheInvalidationBus
+     * @since 4.0.15
+     */
+    @Setter
+    @Getter
+    private boolean legacyInvalidation = false;
+
     @Override
     protected <E> ReactiveCache<E> createCache(String name) {
-        return new RedisReactiveCache<>(redisCachePrefix.concat(name), operations, localCacheManager.getCache(name));
+        String redisKey = redisCachePrefix.concat(name);
+        RedisCacheInvalidationBus bus = new RedisCacheInvalidationBus(operations,
+                                                                      RedisCacheInvalidationBus.TOPIC_PREFIX + redisKey,
+                                                                      legacyInvalidation ? RedisCacheInvalidationBus.LEGACY_TOPIC_PREFIX + redisKey : null,
+                                                                      RedisCacheInvalidationBus.NODE_ID,
+                                                                      invalidationWindow,
+                                                                      invalidationBatchSize);
+        if (layout == Layout.key) {
+            RedisEntryReactiveCache<E> cache = new RedisEntryReactiveCache<>(redisKey, operations, localCacheManager.getCache(name), entryTtl, bus);
+            cache.setEntryIndex(entryIndex);
+            cache.setVersionTtl(versionTtl);
+            return cache;
+        }
+        return new RedisReactiveCache<>(redisKey, operations, localCacheManager.getCache(name), bus);
+    }
+
+    public enum Layout {
+        /**
+         * 所有缓存存储在同一个hash中
+         *
+         * @see RedisReactiveCache
+         */
+        hash,
+        /**
+         * 每个缓存使用单独的key存储
+         *
+         * @see RedisEntryReactiveCache
+         */
+        key
     }
 }
@@ -3,44 +3,74 @@ package org.hswebframework.web.cache.supports;
 import lombok.extern.slf4j.Slf4j;
 import org.hswebframework.web.cache.ReactiveCache;
 import org.reactivestreams.Publisher;
-import org.springframework.data.redis.connection.ReactiveSubscription;
 import org.springframework.data.redis.core.ReactiveRedisOperations;
+import reactor.core.Disposable;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-import java.util.Arrays;
-import java.util.Collection;
-import java.util.Collections;
-import java.util.function.Function;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.StreamSupport;
 
+/**
+ * 使用redis hash存储的缓存,本地缓存作为一级缓存.
+ * <p>
+ * 设置了单独过期时间的缓存存储在另外一个hash({@code redisKey + ":ttl"})中,
+ * 原hash中只存储缓存值本身,不支持单独过期时间的旧版本节点读取原hash时不会因为值类型不同而出错,可以滚动升级.
+ * 旧版本节点不会读取也不会清除单独设置了过期时间的缓存,在其他节点上未命中时会重新加载并写入原hash.
+ * <p>
+ * 对两个hash的读写同时发出,在共享连接上以管道方式执行,只需要一次网络往返.
+ *
+ * @see ExpirableValue
+ */
 @SuppressWarnings("all")
 @Slf4j
-public class RedisReactiveCache<E> implements ReactiveCache<E> {
+public class RedisReactiveCache<E> extends AbstractReactiveCache<E> {
 
     private ReactiveRedisOperations<Object, Object> operations;
 
     private String redisKey;
 
+    //设置了单独过期时间的缓存
+    private String ttlKey;
+
     private ReactiveCache<E> localCache;
 
-    private String topicName;
+    private RedisCacheInvalidationBus invalidationBus;
+
+    //hash中的字段不能单独设置过期时间,写入了设置过期时间的缓存后定期删除已过期的字段
+    private volatile Disposable cleanUpTask;
+
+    private final AtomicBoolean cleaning = new AtomicBoolean();
 
     public RedisReactiveCache(String redisKey, ReactiveRedisOperations<Object, Object> operations, ReactiveCache<E> localCache) {
+        this(redisKey, operations, localCache,
+             new RedisCacheInvalidationBus(operations,
+                                           RedisCacheInvalidationBus.TOPIC_PREFIX + redisKey,
+                                           null,
+                                           RedisCacheInvalidationBus.NODE_ID,
+                                           null,
+                                           0));
+    }
+
+    public RedisReactiveCache(String redisKey,
+                              ReactiveRedisOperations<Object, Object> operations,
+                              ReactiveCache<E> localCache,
+                              RedisCacheInvalidationBus invalidationBus) {
         this.operations = operations;
         this.localCache = localCache;
         this.redisKey = redisKey;
-        operations.listenToChannel(topicName = ("_cache_changed:" + redisKey))
-                .map(ReactiveSubscription.Message::getMessage)
-                .cast(String.class)
-                .subscribe(s -> {
-                    if (s.equals("___all")) {
-                        localCache.clear().subscribe();
-                        return;
-                    }
-                    //清空本地缓存
-                    localCache.evict(s).subscribe();
-                });
+        this.ttlKey = redisKey + ":ttl";
+        this.invalidationBus = invalidationBus;
+        invalidationBus.listen(invalidation -> {
+            if (invalidation.isAll()) {
+                localCache.clear().subscribe();
+                return;
+            }
+            //清空本地缓存
+            localCache.evictAll(invalidation.getKeys()).subscribe();
+        });
     }
 
     @Override
@@ -48,9 +78,8 @@ public class RedisReactiveCache<E> implements ReactiveCache<E> {
         return localCache
                 .getFlux(key)
                 .switchIfEmpty(Flux.<E>defer(() -> {
-                    return operations
-                            .opsForHash()
-                            .get(redisKey, key)
+                    return getValue(key)
+                            .flatMap(v -> Mono.justOrEmpty(ExpirableValue.unwrap(v)))
                             .flatMapIterable(r -> {
                                 if (r instanceof Iterable) {
                                     return ((Iterable) r);
@@ -72,11 +101,75 @@ public class RedisReactiveCache<E> implements ReactiveCache<E> {
     @Override
     public Mono<E> getMono(Object key) {
         return localCache.getMono(key)
-                .switchIfEmpty(operations.opsForHash()
-                        .get(redisKey, key)
-                        .map(v -> (E) v)
-                        .flatMap(r -> localCache.put(key, Mono.just(r))
-                                .thenReturn(r)))
+                .switchIfEmpty(getValue(key)
+                        .flatMap(v -> {
+                            if (v instanceof ExpirableValue) {
+                                ExpirableValue expirable = ((ExpirableValue) v);
+                                E r = (E) expirable.getValue();
+                                return localCache.put(key, Mono.just(r), expirable.getTtl())
+                                        .thenReturn(r);
+                            }
+                            return localCache.put(key, Mono.just((E) v))
+                                    .thenReturn((E) v);
+                        }))
+                .onErrorResume(err -> this.handleError(err));
+    }
+
+    //同时读取原hash和设置了过期时间的缓存,原hash中的值优先,返回未过期的ExpirableValue
+    private Mono<Object> getValue(Object key) {
+        return Mono
+                .zip(getOptional(redisKey, key), getOptional(ttlKey, key))
+                .flatMap(tp2 -> {
+                    if (tp2.getT1().isPresent()) {
+                        return Mono.just(tp2.getT1().get());
+                    }
+                    return Mono
+                            .justOrEmpty(tp2.getT2())
+                            .flatMap(v -> checkExpired(key, v));
+                });
+    }
+
+    private Mono<Optional<Object>> getOptional(String hash, Object key) {
+        return operations
+                .opsForHash()
+                .get(hash, key)
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty());
+    }
+
+    //已过期的缓存从redis中删除
+    private Mono<Object> checkExpired(Object key, Object value) {
+        if (value instanceof ExpirableValue && ((ExpirableValue) value).isExpired()) {
+            return operations.opsForHash()
+                    .remove(ttlKey, key)
+                    .then(Mono.empty());
+        }
+        return Mono.just(value);
+    }
+
+    @Override
+    protected Mono<Long> getExpireAt(Object key) {
+        if (localCache instanceof AbstractReactiveCache) {
+            return ((AbstractReactiveCache<E>) localCache).getExpireAt(key);
+        }
+        return Mono.empty();
+    }
+
+    @Override
+    public Mono<Void> put(Object key, Publisher<E> data, Duration ttl) {
+        scheduleCleanUp();
+        Mono<Object> value = data instanceof Flux
+                ? ((Flux<Object>) data).collectList().cast(Object.class)
+                : Mono.from(data);
+        return value
+                .flatMap(r -> Mono
+                        .when(operations.opsForHash().put(ttlKey, key, ExpirableValue.of(r, ttl)),
+                              operations.opsForHash().remove(redisKey, key))
+                        .then(localCache.put(key, data instanceof Flux
+                                ? Flux.fromIterable((Iterable<E>) r)
+                                : Mono.just((E) r), ttl))
+                        .then(invalidationBus.publish(key)))
+                .then()
                 .onErrorResume(err -> this.handleError(err));
     }
 
@@ -85,10 +178,11 @@ public class RedisReactiveCache<E> implements ReactiveCache<E> {
         if (data instanceof Mono) {
             return ((Mono<?>) data)
                     .flatMap(r -> {
-                        return operations.opsForHash()
-                                .put(redisKey, key, r)
+                        return Mono
+                                .when(operations.opsForHash().put(redisKey, key, r),
+                                      removeTtl(key))
                                 .then(localCache.put(key, data))
-                                .then(operations.convertAndSend(topicName, key));
+                                .then(invalidationBus.publish(key));
 
                     })
                     .then()
@@ -99,10 +193,11 @@ public class RedisReactiveCache<E> implements ReactiveCache<E> {
             return ((Flux<?>) data)
                     .collectList()
                     .flatMap(r -> {
-                        return operations.opsForHash()
-                                .put(redisKey, key, r)
+                        return Mono
+                                .when(operations.opsForHash().put(redisKey, key, r),
+                                      removeTtl(key))
                                 .then(localCache.put(key, data))
-                                .then(operations.convertAndSend(topicName, key));
+                                .then(invalidationBus.publish(key));
 
                     })
                     .then()
@@ -113,41 +208,66 @@ public class RedisReactiveCache<E> implements ReactiveCache<E> {
     }
 
 
+    //写入了没有单独过期时间的缓存后,删除之前设置了过期时间的缓存
+    private Mono<Long> removeTtl(Object key) {
+        return operations.opsForHash().remove(ttlKey, key);
+    }
+
     @Override
     public Mono<Void> evictAll(Iterable<?> key) {
-        return operations.opsForHash()
-                .remove(redisKey, StreamSupport.stream(key.spliterator(), false).toArray())
+        Object[] keys = StreamSupport.stream(key.spliterator(), false).toArray();
+        return Mono
+                .when(operations.opsForHash().remove(redisKey, keys),
+                      operations.opsForHash().remove(ttlKey, keys))
                 .then(localCache.evictAll(key))
-                .flatMap(nil -> Flux.fromIterable(key)
-                        .flatMap(k -> operations.convertAndSend(topicName, key))
-                        .then()
-                )
+                .then(invalidationBus.publish(key))
                 .onErrorResume(err -> this.handleError(err));
     }
 
     @Override
     public Flux<E> getAll(Object... keys) {
         if (keys.length == 0) {
-            return operations
-                    .opsForHash()
-                    .values(redisKey)
-                    .map(r -> (E) r);
+            return Flux
+                    .concat(operations.opsForHash().values(redisKey),
+                            operations.opsForHash().values(ttlKey))
+                    .<E>handle((r, sink) -> {
+                        Object value = ExpirableValue.unwrap(r);
+                        if (value != null) {
+                            sink.next((E) value);
+                        }
+                    });
         }
-        return operations.opsForHash()
-                .multiGet(redisKey, Arrays.asList(keys))
-                .flatMapIterable(Function.identity())
-                .map(r -> (E) r)
+        List<Object> keyList = Arrays.asList(keys);
+        return Mono
+                .zip(operations.opsForHash().multiGet(redisKey, keyList),
+                     operations.opsForHash().multiGet(ttlKey, keyList))
+                .flatMapIterable(tp2 -> {
+                    //原hash中的值优先
+                    List<Object> values = new ArrayList<>(tp2.getT1());
+                    for (int i = 0; i < values.size(); i++) {
+                        if (values.get(i) == null) {
+                            values.set(i, tp2.getT2().get(i));
+                        }
+                    }
+                    return values;
+                })
+                .<E>handle((r, sink) -> {
+                    Object value = ExpirableValue.unwrap(r);
+                    if (value != null) {
+                        sink.next((E) value);
+                    }
+                })
                 .onErrorResume(err -> this.handleError(err));
     }
 
 
     @Override
     public Mono<Void> evict(Object key) {
-        return operations
-                .opsForHash()
-                .remove(redisKey, key)
+        return Mono
+                .when(operations.opsForHash().remove(redisKey, key),
+                      operations.opsForHash().remove(ttlKey, key))
                 .then(localCache.evict(key))
-                .then(operations.convertAndSend(topicName, key))
+                .then(invalidationBus.publish(key))
                 .onErrorResume(err -> this.handleError(err))
                 .then();
     }
@@ -155,11 +275,43 @@ public class RedisReactiveCache<E> implements ReactiveCache<E> {
     @Override
     public Mono<Void> clear() {
         return operations
-                .opsForHash()
-                .delete(redisKey)
+                .delete(redisKey, ttlKey)
                 .then(localCache.clear())
-                .then(operations.convertAndSend(topicName, "___all"))
+                .then(invalidationBus.publishClear())
                 .onErrorResume(err -> this.handleError(err))
                 .then();
     }
+
+    private void scheduleCleanUp() {
+        if (cleanUpTask == null) {
+            synchronized (this) {
+                if (cleanUpTask == null) {
+                    cleanUpTask = ExpiredValueCleaner.schedule(this, ExpiredValueCleaner.DEFAULT_INTERVAL, cache -> {
+                        if (cache.cleaning.compareAndSet(false, true)) {
+                            cache.removeExpired()
+                                 .doFinally(signal -> cache.cleaning.set(false))
+                                 .subscribe(null, err -> log.warn("remove expired cache [{}] error", cache.redisKey, err));
+                        }
+                    });
+                }
+            }
+        }
+    }
+
+    /**
+     * 使用HSCAN遍历设置了过期时间的缓存,删除已过期的字段.
+     * 在遍历和删除之间被重新写入的字段也会被删除,只会导致一次缓存未命中.
+     *
+     * @return 删除的数量
+     */
+    public Mono<Long> removeExpired() {
+        return operations
+                .opsForHash()
+                .scan(ttlKey)
+                .filter(entry -> entry.getValue() instanceof ExpirableValue && ((ExpirableValue) entry.getValue()).isExpired())
+                .map(Map.Entry::getKey)
+                .buffer(200)
+                .concatMap(keys -> operations.opsForHash().remove(ttlKey, keys.toArray()))
+                .reduce(0L, Long::sum);
+    }
 }
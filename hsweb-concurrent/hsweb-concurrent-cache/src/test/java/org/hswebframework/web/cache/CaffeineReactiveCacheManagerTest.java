@@ -1,5 +1,10 @@
 package org.hswebframework.web.cache;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.hswebframework.web.cache.supports.AbstractReactiveCache;
+import org.hswebframework.web.cache.supports.CaffeineExpiry;
+import org.hswebframework.web.cache.supports.CaffeineReactiveCache;
 import org.hswebframework.web.cache.supports.CaffeineReactiveCacheManager;
 import org.hswebframework.web.cache.supports.GuavaReactiveCacheManager;
 import org.junit.Assert;
@@ -13,6 +18,10 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
 
 @SpringBootTest(classes = TestApplication.class,args = {
         "--hsweb.cache.type=caffeine"
@@ -67,4 +76,119 @@ public class CaffeineReactiveCacheManagerTest {
 
 
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testCoalesce() {
+        ReactiveCache<String> cache = cacheManager.getCache("test-coalesce");
+        AtomicInteger loads = new AtomicInteger();
+        Mono<String> loader = Mono
+                .fromSupplier(() -> String.valueOf(loads.incrementAndGet()))
+                .delayElement(Duration.ofMillis(100));
+
+        Flux.range(0, 100)
+            .flatMap(i -> cache.mono("test-mono").onCacheMissResume(loader))
+            .distinct()
+            .as(StepVerifier::create)
+            .expectNext("1")
+            .verifyComplete();
+        Assert.assertEquals(1, loads.get());
+
+        Flux.range(0, 100)
+            .flatMap(i -> cache.flux("test-flux").onCacheMissResume(loader.flux()))
+            .distinct()
+            .as(StepVerifier::create)
+            .expectNext("2")
+            .verifyComplete();
+        Assert.assertEquals(2, loads.get());
+
+        AbstractReactiveCache<String> abstractCache = (AbstractReactiveCache<String>) cache;
+        Assert.assertEquals(2, abstractCache.getLoadCount());
+        Assert.assertEquals(198, abstractCache.getCoalescedLoadCount());
+        Assert.assertEquals(0, abstractCache.getLoadingSize());
+    }
+
+    @Test
+    public void testCoalesceRelease() {
+        ReactiveCache<String> cache = cacheManager.getCache("test-coalesce-release");
+        AtomicInteger loads = new AtomicInteger();
+        Mono<String> loader = Mono
+                .fromSupplier(() -> String.valueOf(loads.incrementAndGet()))
+                .delayElement(Duration.ofMillis(10));
+
+        //收到加载结果时,加载标记已经移除,再次加载不会合并到已完成的加载中
+        cache.mono("test-mono")
+             .onCacheMissResume(loader)
+             .flatMap(first -> cache
+                     .evict("test-mono")
+                     .then(cache.mono("test-mono").onCacheMissResume(loader)))
+             .as(StepVerifier::create)
+             .expectNext("2")
+             .verifyComplete();
+
+        //加载失败时移除加载标记,下一次重新加载
+        cache.mono("test-error")
+             .onCacheMissResume(Mono.error(new IllegalStateException()))
+             .as(StepVerifier::create)
+             .verifyError(IllegalStateException.class);
+        cache.mono("test-error")
+             .onCacheMissResume(loader)
+             .as(StepVerifier::create)
+             .expectNext("3")
+             .verifyComplete();
+
+        Assert.assertEquals(0, ((AbstractReactiveCache<String>) cache).getLoadingSize());
+    }
+
+    @Test
+    public void testRemoveExpired() {
+        AtomicLong time = new AtomicLong();
+        Cache<Object, Object> caffeine = Caffeine
+                .newBuilder()
+                .expireAfter(new CaffeineExpiry(Duration.ofHours(1), Duration.ofHours(1)))
+                .ticker(time::get)
+                .executor(Runnable::run)
+                .build();
+        CaffeineReactiveCache<String> cache = new CaffeineReactiveCache<>(caffeine);
+
+        cache.put("ttl", Mono.just("1"), Duration.ofMillis(100))
+             .then(cache.put("plain", Mono.just("2")))
+             .as(StepVerifier::create)
+             .verifyComplete();
+
+        time.addAndGet(Duration.ofSeconds(2).toNanos());
+        caffeine.cleanUp();
+
+        //过期后不需要读取也会被移除
+        Assert.assertEquals(1, caffeine.estimatedSize());
+        Assert.assertNotNull(caffeine.getIfPresent("plain"));
+    }
+
+    @Test
+    public void testExpiry() {
+        AtomicLong time = new AtomicLong();
+        Cache<Object, Object> caffeine = Caffeine
+                .newBuilder()
+                .expireAfter(new CaffeineExpiry(Duration.ofSeconds(10), Duration.ofSeconds(3)))
+                .ticker(time::get)
+                .executor(Runnable::run)
+                .build();
+        CaffeineReactiveCache<String> cache = new CaffeineReactiveCache<>(caffeine);
+        cache.put("plain", Mono.just("1"))
+             .as(StepVerifier::create)
+             .verifyComplete();
+
+        //访问后延长有效期,但是不超过写入后的有效期
+        for (int i = 0; i < 4; i++) {
+            time.addAndGet(Duration.ofSeconds(2).toNanos());
+            Assert.assertEquals("1", cache.getMono("plain").block());
+        }
+        time.addAndGet(Duration.ofSeconds(2).toNanos());
+        Assert.assertNull(cache.getMono("plain").block());
+
+        cache.put("plain", Mono.just("2"))
+             .as(StepVerifier::create)
+             .verifyComplete();
+        time.addAndGet(Duration.ofSeconds(4).toNanos());
+        Assert.assertNull(cache.getMono("plain").block());
+    }
+}
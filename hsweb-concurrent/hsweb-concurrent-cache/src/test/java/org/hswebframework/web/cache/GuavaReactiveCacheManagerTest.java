@@ -1,5 +1,9 @@
 package org.hswebframework.web.cache;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.hswebframework.web.cache.supports.AbstractReactiveCache;
+import org.hswebframework.web.cache.supports.GuavaReactiveCache;
 import org.hswebframework.web.cache.supports.GuavaReactiveCacheManager;
 import org.hswebframework.web.cache.supports.RedisLocalReactiveCacheManager;
 import org.junit.Assert;
@@ -13,6 +17,9 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
 
 @SpringBootTest(classes = TestApplication.class,args = {
         "--hsweb.cache.type=guava"
@@ -67,4 +74,71 @@ public class GuavaReactiveCacheManagerTest {
 
 
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testTtl() throws InterruptedException {
+        ReactiveCache<String> cache = cacheManager.getCache("test-ttl");
+
+        cache.put("test-mono", Mono.just("1"), Duration.ofMillis(200))
+             .as(StepVerifier::create)
+             .verifyComplete();
+
+        cache.getMono("test-mono")
+             .as(StepVerifier::create)
+             .expectNext("1")
+             .verifyComplete();
+
+        Thread.sleep(300);
+
+        cache.getMono("test-mono")
+             .as(StepVerifier::create)
+             .verifyComplete();
+    }
+
+    @Test
+    public void testRefreshAhead() throws InterruptedException {
+        ReactiveCache<String> cache = cacheManager.getCache("test-refresh");
+        CachePolicy policy = CachePolicy.ttl(Duration.ofMillis(500)).refreshAhead(Duration.ofMillis(400));
+        AtomicInteger loads = new AtomicInteger();
+        Mono<String> loader = Mono.fromSupplier(() -> String.valueOf(loads.incrementAndGet()));
+
+        cache.mono("test-mono", policy)
+             .onCacheMissResume(loader)
+             .as(StepVerifier::create)
+             .expectNext("1")
+             .verifyComplete();
+
+        Thread.sleep(200);
+
+        //即将过期,返回旧值并在后台刷新
+        cache.mono("test-mono", policy)
+             .onCacheMissResume(loader)
+             .as(StepVerifier::create)
+             .expectNext("1")
+             .verifyComplete();
+
+        cache.getMono("test-mono")
+             .as(StepVerifier::create)
+             .expectNext("2")
+             .verifyComplete();
+
+        Assert.assertEquals(1, ((AbstractReactiveCache<String>) cache).getRefreshCount());
+    }
+
+    @Test
+    public void testRemoveExpired() throws InterruptedException {
+        Cache<Object, Object> guava = CacheBuilder.newBuilder().build();
+        GuavaReactiveCache<String> cache = new GuavaReactiveCache<>(guava);
+
+        cache.put("ttl", Mono.just("1"), Duration.ofMillis(100))
+             .then(cache.put("plain", Mono.just("2")))
+             .as(StepVerifier::create)
+             .verifyComplete();
+
+        Thread.sleep(200);
+        cache.removeExpired();
+
+        Assert.assertEquals(1, guava.size());
+        Assert.assertNotNull(guava.getIfPresent("plain"));
+    }
+}
@@ -0,0 +1,191 @@
+package org.hswebframework.web.cache;
+
+import org.hswebframework.web.cache.supports.ExpirableValue;
+import org.hswebframework.web.cache.supports.RedisEntryReactiveCache;
+import org.hswebframework.web.cache.supports.RedisLocalReactiveCacheManager;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.ReactiveRedisOperations;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit4.SpringRunner;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+
+@SpringBootTest(classes = TestApplication.class, args = {
+        "--hsweb.cache.type=redis",
+        "--hsweb.cache.redis.layout=key",
+        "--hsweb.cache.redis.entry-ttl=1h",
+        "--hsweb.cache.redis.entry-index=true",
+        "--hsweb.cache.redis.version-ttl=200ms"
+})
+@RunWith(SpringRunner.class)
+@DirtiesContext
+public class RedisEntryReactiveCacheManagerTest {
+
+    @Autowired
+    ReactiveCacheManager cacheManager;
+
+    @Autowired
+    ReactiveRedisOperations<Object, Object> operations;
+
+    @Test
+    public void test() {
+        Assert.assertTrue(cacheManager instanceof RedisLocalReactiveCacheManager);
+
+        ReactiveCache<String> cache = cacheManager.getCache("test-entry");
+        Assert.assertTrue(cache instanceof RedisEntryReactiveCache);
+
+        cache.clear()
+             .as(StepVerifier::create)
+             .verifyComplete();
+
+        cache.flux("test-flux")
+             .onCacheMissResume(Flux.just("1", "2", "3"))
+             .as(StepVerifier::create)
+             .expectNext("1", "2", "3")
+             .verifyComplete();
+
+        cache.getFlux("test-flux")
+             .as(StepVerifier::create)
+             .expectNext("1", "2", "3")
+             .verifyComplete();
+
+        cache.mono("test-mono")
+             .onCacheMissResume(Mono.just("1"))
+             .as(StepVerifier::create)
+             .expectNext("1")
+             .verifyComplete();
+
+        Map<String, String> values = new HashMap<>();
+        values.put("a", "1");
+        values.put("b", "2");
+        cache.putAll(values)
+             .thenMany(cache.getAll("a", "b", "c"))
+             .sort()
+             .as(StepVerifier::create)
+             .expectNext("1", "2")
+             .verifyComplete();
+
+        cache.evict("a")
+             .then(cache.getMono("a"))
+             .as(StepVerifier::create)
+             .verifyComplete();
+
+        cache.clear()
+             .then(cache.getMono("test-mono"))
+             .as(StepVerifier::create)
+             .verifyComplete();
+
+        cache.getAll()
+             .as(StepVerifier::create)
+             .verifyComplete();
+    }
+
+    @Test
+    public void testTtl() throws InterruptedException {
+        ReactiveCache<String> cache = cacheManager.getCache("test-entry-ttl");
+
+        cache.put("test", Mono.just("1"), Duration.ofSeconds(1))
+             .then(cache.getMono("test"))
+             .as(StepVerifier::create)
+             .expectNext("1")
+             .verifyComplete();
+
+        Thread.sleep(1500);
+
+        cache.getMono("test")
+             .as(StepVerifier::create)
+             .verifyComplete();
+    }
+
+    @Test
+    public void testClearDeleteOldVersion() throws InterruptedException {
+        ReactiveCache<String> cache = cacheManager.getCache("test-entry-clear");
+
+        cache.clear()
+             .then(cache.put("a", Mono.just("1")))
+             .then(cache.put("b", Mono.just("2"), Duration.ofMinutes(1)))
+             .thenMany(cache.getAll())
+             .sort()
+             .as(StepVerifier::create)
+             .expectNext("1", "2")
+             .verifyComplete();
+
+        long version = operations.opsForValue().increment("spring-cache:test-entry-clear:version", 0L).block();
+
+        cache.clear()
+             .as(StepVerifier::create)
+             .verifyComplete();
+
+        //旧版本的数据在后台删除
+        Thread.sleep(500);
+        Flux.just("spring-cache:test-entry-clear:" + version + ":a",
+                  "spring-cache:test-entry-clear:" + version + ":b",
+                  "spring-cache:test-entry-clear:index:" + version)
+            .flatMap(operations::hasKey)
+            .filter(Boolean::booleanValue)
+            .count()
+            .as(StepVerifier::create)
+            .expectNext(0L)
+            .verifyComplete();
+
+        cache.getAll()
+             .as(StepVerifier::create)
+             .verifyComplete();
+    }
+
+    /**
+     * 测试redis中未过期但本地时钟认为已过期的缓存视为不存在
+     */
+    @Test
+    public void testLocalExpired() {
+        ReactiveCache<String> cache = cacheManager.getCache("test-entry-skew");
+
+        long version = operations.opsForValue().increment("spring-cache:test-entry-skew:version", 0L).block();
+        ExpirableValue value = new ExpirableValue("1", System.currentTimeMillis() - 1000);
+        operations.opsForValue()
+                  .set("spring-cache:test-entry-skew:" + version + ":test", value, Duration.ofMinutes(1))
+                  .block();
+
+        cache.getFlux("test")
+             .as(StepVerifier::create)
+             .verifyComplete();
+
+        cache.getMono("test")
+             .as(StepVerifier::create)
+             .verifyComplete();
+    }
+
+    /**
+     * 测试没有收到清空缓存的通知时,版本号过期后使用新的版本
+     */
+    @Test
+    public void testVersionTtl() throws InterruptedException {
+        ReactiveCache<String> cache = cacheManager.getCache("test-entry-version");
+
+        cache.put("a", Mono.just("1"))
+             .thenMany(cache.getAll("a"))
+             .as(StepVerifier::create)
+             .expectNext("1")
+             .verifyComplete();
+
+        //模拟其他节点清空了缓存
+        operations.opsForValue()
+                  .increment("spring-cache:test-entry-version:version")
+                  .block();
+        Thread.sleep(300);
+
+        cache.getAll("a")
+             .as(StepVerifier::create)
+             .verifyComplete();
+    }
+}
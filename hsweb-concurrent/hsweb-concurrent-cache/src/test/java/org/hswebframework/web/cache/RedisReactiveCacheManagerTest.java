@@ -1,5 +1,6 @@
 package org.hswebframework.web.cache;
 
+import org.hswebframework.web.cache.supports.RedisCacheInvalidationBus;
 import org.hswebframework.web.cache.supports.RedisLocalReactiveCacheManager;
 import org.hswebframework.web.cache.supports.RedisReactiveCache;
 import org.junit.Assert;
@@ -8,6 +9,8 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.connection.ReactiveSubscription;
+import org.springframework.data.redis.core.ReactiveRedisOperations;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.context.junit4.rules.SpringClassRule;
@@ -15,6 +18,11 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
 import static org.junit.Assert.*;
 
 
@@ -28,10 +36,15 @@ public class RedisReactiveCacheManagerTest {
     @Autowired
     ReactiveCacheManager cacheManager;
 
+    @Autowired
+    ReactiveRedisOperations<Object, Object> operations;
+
     @Test
     public void test() {
         Assert.assertNotNull(cacheManager);
         Assert.assertTrue(cacheManager instanceof RedisLocalReactiveCacheManager);
+        //兼容旧版本的失效通知只在升级期间开启
+        Assert.assertFalse(((RedisLocalReactiveCacheManager) cacheManager).isLegacyInvalidation());
 
         ReactiveCache<String> cache = cacheManager.getCache("test");
         cache.clear()
@@ -71,4 +84,127 @@ public class RedisReactiveCacheManagerTest {
 
 
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testInvalidationBus() throws InterruptedException {
+        String topic = RedisCacheInvalidationBus.TOPIC_PREFIX + "test-bus";
+        RedisCacheInvalidationBus node1 = new RedisCacheInvalidationBus(operations, topic, "node1", Duration.ofMillis(200), 500);
+        RedisCacheInvalidationBus node2 = new RedisCacheInvalidationBus(operations, topic, "node2", Duration.ofMillis(200), 500);
+
+        List<RedisCacheInvalidationBus.Invalidation> node1Received = new CopyOnWriteArrayList<>();
+        List<RedisCacheInvalidationBus.Invalidation> node2Received = new CopyOnWriteArrayList<>();
+        node1.listen(node1Received::add);
+        node2.listen(node2Received::add);
+        Thread.sleep(500);
+
+        Flux.range(0, 100)
+            .concatMap(i -> node1.publish("key-" + (i % 10)))
+            .then()
+            .as(StepVerifier::create)
+            .verifyComplete();
+
+        Thread.sleep(1000);
+
+        //合并为一条消息,并且不会通知到自己
+        Assert.assertEquals(1, node1.getSentMessages());
+        Assert.assertEquals(10, node1.getPublishedKeys());
+        Assert.assertTrue(node1Received.isEmpty());
+        Assert.assertEquals(1, node2Received.size());
+        Assert.assertEquals(10, node2Received.get(0).getKeys().size());
+    }
+
+    @Test
+    public void testRemoveExpired() throws InterruptedException {
+        RedisReactiveCache<String> cache = (RedisReactiveCache<String>) cacheManager.<String>getCache("test-remove-expired");
+
+        cache.clear()
+             .then(cache.put("ttl", Mono.just("1"), Duration.ofMillis(100)))
+             .then(cache.put("plain", Mono.just("2")))
+             .as(StepVerifier::create)
+             .verifyComplete();
+
+        Thread.sleep(200);
+
+        //hash中的字段不能单独过期,未读取的过期字段需要主动删除
+        cache.removeExpired()
+             .as(StepVerifier::create)
+             .expectNext(1L)
+             .verifyComplete();
+
+        cache.removeExpired()
+             .as(StepVerifier::create)
+             .expectNext(0L)
+             .verifyComplete();
+
+        cache.getAll()
+             .as(StepVerifier::create)
+             .expectNext("2")
+             .verifyComplete();
+    }
+
+    @Test
+    public void testTtlValueNotInSharedHash() {
+        RedisReactiveCache<String> cache = (RedisReactiveCache<String>) cacheManager.<String>getCache("test-ttl-hash");
+
+        cache.clear()
+             .then(cache.put("ttl", Mono.just("1"), Duration.ofMinutes(1)))
+             .then(cache.put("plain", Mono.just("2")))
+             .as(StepVerifier::create)
+             .verifyComplete();
+
+        //旧版本节点读取的hash中只有缓存值本身
+        operations.opsForHash()
+                  .entries("spring-cache:test-ttl-hash")
+                  .map(e -> e.getKey() + "=" + e.getValue())
+                  .as(StepVerifier::create)
+                  .expectNext("plain=2")
+                  .verifyComplete();
+
+        cache.getAll("ttl", "plain")
+             .as(StepVerifier::create)
+             .expectNext("1", "2")
+             .verifyComplete();
+
+        //重新写入没有过期时间的缓存后,删除设置了过期时间的缓存
+        cache.put("ttl", Mono.just("3"))
+             .then(operations.opsForHash().hasKey("spring-cache:test-ttl-hash:ttl", "ttl"))
+             .as(StepVerifier::create)
+             .expectNext(false)
+             .verifyComplete();
+    }
+
+    @Test
+    public void testLegacyInvalidation() throws InterruptedException {
+        String topic = RedisCacheInvalidationBus.TOPIC_PREFIX + "test-legacy";
+        String legacyTopic = RedisCacheInvalidationBus.LEGACY_TOPIC_PREFIX + "test-legacy";
+        RedisCacheInvalidationBus node = new RedisCacheInvalidationBus(operations, topic, legacyTopic, "node1", Duration.ofMillis(100), 500);
+
+        //旧版本节点只订阅旧topic,并且只能处理字符串
+        List<String> legacyReceived = new CopyOnWriteArrayList<>();
+        operations.listenToChannel(legacyTopic)
+                  .map(ReactiveSubscription.Message::getMessage)
+                  .cast(String.class)
+                  .subscribe(legacyReceived::add);
+        List<RedisCacheInvalidationBus.Invalidation> received = new CopyOnWriteArrayList<>();
+        node.listen(received::add);
+        Thread.sleep(500);
+
+        node.publish(Arrays.asList("key-1", "key-2"))
+            .then(node.publishClear())
+            .as(StepVerifier::create)
+            .verifyComplete();
+        //旧版本节点发送的通知
+        operations.convertAndSend(legacyTopic, "key-3")
+                  .then()
+                  .as(StepVerifier::create)
+                  .verifyComplete();
+
+        Thread.sleep(1000);
+
+        Assert.assertEquals(4, legacyReceived.size());
+        Assert.assertTrue(legacyReceived.containsAll(Arrays.asList("key-1", "key-2", "key-3", "___all")));
+        Assert.assertTrue(received
+                                  .stream()
+                                  .anyMatch(invalidation -> invalidation.getKeys().contains("key-3")));
+    }
+}
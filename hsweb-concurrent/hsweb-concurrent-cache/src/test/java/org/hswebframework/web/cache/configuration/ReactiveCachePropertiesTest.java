@@ -0,0 +1,55 @@
+package org.hswebframework.web.cache.configuration;
+
+import org.hswebframework.web.cache.ReactiveCache;
+import org.hswebframework.web.cache.ReactiveCacheManager;
+import org.hswebframework.web.cache.supports.CaffeineReactiveCacheManager;
+import org.hswebframework.web.cache.supports.CompositeReactiveCacheManager;
+import org.hswebframework.web.cache.supports.GuavaReactiveCacheManager;
+import org.junit.Assert;
+import org.junit.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.Arrays;
+
+public class ReactiveCachePropertiesTest {
+
+    @Test
+    public void testPerCacheProperties() {
+        ReactiveCacheProperties properties = new ReactiveCacheProperties();
+        properties.setType(ReactiveCacheProperties.Type.caffeine);
+
+        ReactiveCacheProperties.CacheProperties small = new ReactiveCacheProperties.CacheProperties();
+        small.setMaximumSize(1L);
+        properties.getCaches().put("small", small);
+
+        ReactiveCacheProperties.CacheProperties guava = new ReactiveCacheProperties.CacheProperties();
+        guava.setType(ReactiveCacheProperties.Type.guava);
+        properties.getCaches().put("guava", guava);
+
+        ReactiveCacheManager manager = properties.createCacheManager(null);
+        Assert.assertTrue(manager instanceof CompositeReactiveCacheManager);
+        CompositeReactiveCacheManager composite = ((CompositeReactiveCacheManager) manager);
+
+        Assert.assertTrue(composite.getManager("default") instanceof CaffeineReactiveCacheManager);
+        Assert.assertTrue(composite.getManager("small") instanceof CaffeineReactiveCacheManager);
+        Assert.assertTrue(composite.getManager("guava") instanceof GuavaReactiveCacheManager);
+        Assert.assertNotSame(composite.getManager("default"), composite.getManager("small"));
+        Assert.assertSame(manager.getCache("small"), manager.getCache("small"));
+
+        ReactiveCache<String> cache = manager.getCache("guava");
+        cache.put("test", Mono.just("1"))
+             .then(cache.getMono("test"))
+             .as(StepVerifier::create)
+             .expectNext("1")
+             .verifyComplete();
+    }
+
+    @Test
+    public void testWeigh() {
+        Assert.assertEquals(1, ReactiveCacheProperties.weigh("1"));
+        Assert.assertEquals(3, ReactiveCacheProperties.weigh(Arrays.asList(1, 2, 3)));
+    }
+
+}
@@ -0,0 +1,96 @@
+package org.hswebframework.web.bean;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 预先绑定了源类型,目标类型以及忽略属性的复制器,通过{@link FastBeanCopier#bind(Class, Class, String...)}获取.
+ * <p>
+ * 适用于在同一位置反复复制相同类型的场景,复制时不会再创建忽略属性集合,缓存key,也不会再解析实际类型.
+ * 如果复制时传入对象的类型与绑定的类型不一致(如子类或者代理类),将回退到{@link FastBeanCopier#copy(Object, Object, Converter, Set)}.
+ *
+ * <pre>
+ *  static final BoundCopier&lt;UserEntity, UserDetail&gt; COPIER = FastBeanCopier.bind(UserEntity.class, UserDetail.class, "password");
+ *
+ *  UserDetail detail = COPIER.copy(entity);
+ * </pre>
+ *
+ * @param <S> 源类型
+ * @param <T> 目标类型
+ * @since 4.0.15
+ */
+public final class BoundCopier<S, T> {
+
+    private final Class<?> sourceType;
+
+    private final Class<T> targetType;
+
+    private final boolean sourceIsMap;
+
+    private final boolean targetIsMap;
+
+    private final Set<String> ignore;
+
+    private final Converter converter;
+
+    private final Copier copier;
+
+    BoundCopier(Class<?> sourceType,
+                Class<T> targetType,
+                Converter converter,
+                Set<String> ignore,
+                Copier copier) {
+        this.sourceType = sourceType;
+        this.targetType = targetType;
+        this.sourceIsMap = Map.class.isAssignableFrom(sourceType);
+        this.targetIsMap = Map.class.isAssignableFrom(targetType);
+        this.converter = converter;
+        this.ignore = ignore;
+        this.copier = copier;
+    }
+
+    public Class<?> getSourceType() {
+        return sourceType;
+    }
+
+    public Class<T> getTargetType() {
+        return targetType;
+    }
+
+    /**
+     * 复制到一个新的目标对象中,目标对象由{@link FastBeanCopier#getBeanFactory()}创建
+     *
+     * @param source 源对象
+     * @return 新的目标对象
+     */
+    public T copy(S source) {
+        return copy(source, FastBeanCopier.getBeanFactory().newInstance(targetType));
+    }
+
+    /**
+     * 复制源对象的属性到目标对象中
+     *
+     * @param source 源对象
+     * @param target 目标对象
+     * @return 目标对象
+     */
+    @SuppressWarnings("all")
+    public T copy(S source, T target) {
+        if (!isBound(source, target)) {
+            return FastBeanCopier.copy(source, target, converter, ignore);
+        }
+        if (copier == null) {
+            //map to map
+            ((Map) target).putAll(((Map) source));
+        } else {
+            copier.copy(source, target, ignore, converter);
+        }
+        return target;
+    }
+
+    private boolean isBound(Object source, Object target) {
+        return (sourceIsMap ? source instanceof Map : source.getClass() == sourceType)
+                && (targetIsMap ? target instanceof Map : target.getClass() == targetType);
+    }
+
+}
@@ -0,0 +1,22 @@
+package org.hswebframework.web.bean;
+
+/**
+ * 复制器工厂,用于根据源类型和目标类型生成{@link Copier}.
+ *
+ * @see FastBeanCopier#setCopierFactory(CopierFactory)
+ * @see JavassistCopierFactory
+ * @see LambdaCopierFactory
+ * @since 4.0.15
+ */
+public interface CopierFactory {
+
+    /**
+     * 创建复制器
+     *
+     * @param source 源类型,为Map时固定为{@link java.util.Map}
+     * @param target 目标类型,为Map时固定为{@link java.util.Map}
+     * @return 复制器
+     */
+    Copier createCopier(Class<?> source, Class<?> target);
+
+}
@@ -55,12 +55,23 @@ public class DefaultToStringOperator<T> implements ToStringOperator<T> {
             .or(Boolean.class::isAssignableFrom);
     private Class<T> targetType;
 
+    @SuppressWarnings("all")
+    private BoundCopier<T, Map> mapCopier;
+
     public DefaultToStringOperator(Class<T> targetType) {
         this.targetType = targetType;
         descriptors = BeanUtils.getPropertyDescriptors(targetType);
         init();
     }
 
+    @SuppressWarnings("all")
+    private BoundCopier<T, Map> getMapCopier() {
+        if (mapCopier == null) {
+            mapCopier = FastBeanCopier.bind(targetType, Map.class);
+        }
+        return mapCopier;
+    }
+
     public static String coverString(String str, double percent) {
         if (str.length() == 1) {
             return "*";
@@ -278,7 +289,7 @@ public class DefaultToStringOperator<T> implements ToStringOperator<T> {
     }
 
     protected Map<String, Object> toMap(T target, long features, Set<String> ignoreProperty) {
-        Map<String, Object> map = target instanceof Map ? ((Map) target) : FastBeanCopier.copy(target, new LinkedHashMap<>());
+        Map<String, Object> map = target instanceof Map ? ((Map) target) : getMapCopier().copy(target, new LinkedHashMap<>());
 
         Set<String> ignore = ignoreProperty == null || ignoreProperty.isEmpty() ? defaultIgnoreProperties : ignoreProperty;
         ConvertConfig convertConfig = new ConvertConfig();
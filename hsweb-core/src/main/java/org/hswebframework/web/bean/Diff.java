@@ -24,11 +24,24 @@ public class Diff {
 
     private Object after;
 
+    @SuppressWarnings("all")
+    private static final ClassValue<BoundCopier<Object, Map>> MAP_COPIERS = new ClassValue<BoundCopier<Object, Map>>() {
+        @Override
+        protected BoundCopier<Object, Map> computeValue(Class<?> type) {
+            return FastBeanCopier.bind((Class) type, Map.class);
+        }
+    };
+
+    @SuppressWarnings("all")
+    private static Map<String, Object> toMap(Object value) {
+        return MAP_COPIERS.get(value.getClass()).copy(value, new HashMap<>());
+    }
+
     public static List<Diff> of(Object before, Object after) {
         List<Diff> diffs = new ArrayList<>();
 
-        Map<String, Object> beforeMap = FastBeanCopier.copy(before, HashMap::new);
-        Map<String, Object> afterMap = FastBeanCopier.copy(after, HashMap::new);
+        Map<String, Object> beforeMap = toMap(before);
+        Map<String, Object> afterMap = toMap(after);
 
         for (Map.Entry<String, Object> entry : afterMap.entrySet()) {
             Object afterValue = entry.getValue();
@@ -47,6 +47,16 @@ public final class FastBeanCopier {
 
     public static final DefaultConverter DEFAULT_CONVERT;
 
+    /**
+     * 用于选择复制器的生成方式的系统参数,可选值: javassist(默认),lambda
+     *
+     * @see JavassistCopierFactory
+     * @see LambdaCopierFactory
+     */
+    public static final String COPIER_FACTORY_PROPERTY = "hsweb.bean.copier";
+
+    private static volatile CopierFactory COPIER_FACTORY = createCopierFactory(System.getProperty(COPIER_FACTORY_PROPERTY));
+
     public static void setBeanFactory(BeanFactory beanFactory) {
         BEAN_FACTORY = beanFactory;
         DEFAULT_CONVERT.setBeanFactory(beanFactory);
@@ -56,6 +66,31 @@ public final class FastBeanCopier {
         return BEAN_FACTORY;
     }
 
+    /**
+     * 设置复制器的生成方式,设置后将清空已经生成的复制器.应该在应用启动时设置.
+     *
+     * @param copierFactory 复制器工厂
+     */
+    public static void setCopierFactory(CopierFactory copierFactory) {
+        COPIER_FACTORY = Objects.requireNonNull(copierFactory, "copierFactory can not be null");
+        CACHE.clear();
+    }
+
+    public static CopierFactory getCopierFactory() {
+        return COPIER_FACTORY;
+    }
+
+    static CopierFactory createCopierFactory(String name) {
+        if (name == null || name.isEmpty() || "javassist".equalsIgnoreCase(name)) {
+            return JavassistCopierFactory.INSTANCE;
+        }
+        if ("lambda".equalsIgnoreCase(name)) {
+            return LambdaCopierFactory.INSTANCE;
+        }
+        log.warn("不支持的复制器生成方式:{},将使用javassist", name);
+        return JavassistCopierFactory.INSTANCE;
+    }
+
     static {
         wrapperClassMapping.put(byte.class, Byte.class);
         wrapperClassMapping.put(short.class, Short.class);
@@ -120,11 +155,61 @@ public final class FastBeanCopier {
         return target;
     }
 
+    /**
+     * 绑定源类型和目标类型,获取一个可重复使用的复制器.
+     *
+     * @param source 源类型
+     * @param target 目标类型
+     * @param ignore 忽略的属性
+     * @return BoundCopier
+     * @see BoundCopier
+     */
+    public static <S, T> BoundCopier<S, T> bind(Class<S> source, Class<T> target, String... ignore) {
+        return bind(source, target, DEFAULT_CONVERT, (ignore == null || ignore.length == 0) ? Collections.emptySet() : new HashSet<>(Arrays.asList(ignore)));
+    }
+
+    public static <S, T> BoundCopier<S, T> bind(Class<S> source, Class<T> target, Set<String> ignore) {
+        return bind(source, target, DEFAULT_CONVERT, ignore);
+    }
+
+    public static <S, T> BoundCopier<S, T> bind(Class<S> source, Class<T> target, Converter converter, Set<String> ignore) {
+        Copier copier = null;
+        //map to map 直接使用putAll
+        if (!Map.class.isAssignableFrom(source) || !Map.class.isAssignableFrom(target)) {
+            copier = prepareCopier(source, target);
+        }
+        //复制忽略属性集合,避免外部修改后影响已绑定的复制器
+        Set<String> ignoreProperties = (ignore == null || ignore.isEmpty())
+                ? Collections.emptySet()
+                : Collections.unmodifiableSet(new HashSet<>(ignore));
+        return new BoundCopier<>(source, target, converter, ignoreProperties, copier);
+    }
+
+    /**
+     * 根据类型获取复制器,如果复制器还未生成则立即生成并缓存.可用于在启动时预先生成复制器.
+     *
+     * @param source 源类型
+     * @param target 目标类型
+     * @return 复制器
+     */
+    public static Copier prepareCopier(Class<?> source, Class<?> target) {
+        Class<?> sourceType = getUserClass(source);
+        Class<?> targetType = getUserClass(target);
+        return CACHE.computeIfAbsent(createCacheKey(sourceType, targetType), k -> createCopier(sourceType, targetType));
+    }
+
     static Class<?> getUserClass(Object object) {
         if (object instanceof Map) {
             return Map.class;
         }
-        Class<?> type = ClassUtils.getUserClass(object);
+        return getUserClass(ClassUtils.getUserClass(object));
+    }
+
+    static Class<?> getUserClass(Class<?> type) {
+        if (Map.class.isAssignableFrom(type)) {
+            return Map.class;
+        }
+        type = ClassUtils.getUserClass(type);
 
         if (java.lang.reflect.Proxy.isProxyClass(type)) {
             Class<?>[] interfaces = type.getInterfaces();
@@ -151,6 +236,10 @@ public final class FastBeanCopier {
     }
 
     public static Copier createCopier(Class<?> source, Class<?> target) {
+        return COPIER_FACTORY.createCopier(source, target);
+    }
+
+    static Copier createJavassistCopier(Class<?> source, Class<?> target) {
         String sourceName = source.getName();
         String tartName = target.getName();
         if (sourceName.startsWith("package ")) {
@@ -179,7 +268,7 @@ public final class FastBeanCopier {
         }
     }
 
-    private static Map<String, ClassProperty> createProperty(Class<?> type) {
+    static Map<String, ClassProperty> createProperty(Class<?> type) {
 
         List<String> fieldNames = Arrays.stream(type.getDeclaredFields())
                                         .map(Field::getName).collect(Collectors.toList());
@@ -195,12 +284,19 @@ public final class FastBeanCopier {
 
     }
 
-    private static Map<String, ClassProperty> createMapProperty(Map<String, ClassProperty> template) {
+    static Map<String, ClassProperty> createMapProperty(Map<String, ClassProperty> template) {
         return template.values().stream().map(classProperty -> new MapClassProperty(classProperty.name))
                        .collect(Collectors.toMap(ClassProperty::getName, Function.identity(), (k, k2) -> k, LinkedHashMap::new));
     }
 
-    private static String createCopierCode(Class<?> source, Class<?> target) {
+    /**
+     * 获取源类型和目标类型中名称相同的属性,按源类型中属性的顺序返回
+     *
+     * @param source 源类型
+     * @param target 目标类型
+     * @return [源属性, 目标属性]
+     */
+    static List<ClassProperty[]> createPropertyPairs(Class<?> source, Class<?> target) {
         Map<String, ClassProperty> sourceProperties = null;
 
         Map<String, ClassProperty> targetProperties = null;
@@ -225,13 +321,42 @@ public final class FastBeanCopier {
         if (sourceProperties == null || targetProperties == null) {
             throw new UnsupportedOperationException("不支持的类型,source:" + source + " target:" + target);
         }
-        StringBuilder code = new StringBuilder();
-
+        List<ClassProperty[]> pairs = new ArrayList<>(sourceProperties.size());
         for (ClassProperty sourceProperty : sourceProperties.values()) {
             ClassProperty targetProperty = targetProperties.get(sourceProperty.getName());
-            if (targetProperty == null) {
-                continue;
+            if (targetProperty != null) {
+                pairs.add(new ClassProperty[]{sourceProperty, targetProperty});
             }
+        }
+        return pairs;
+    }
+
+    /**
+     * 获取类型中指定字段的泛型
+     *
+     * @param beanType 类型
+     * @param name     字段名
+     * @return 泛型, 没有泛型时返回{@link FastBeanCopier#EMPTY_CLASS_ARRAY}
+     */
+    static Class<?>[] getFieldGenerics(Class<?> beanType, String name) {
+        Field field = ReflectionUtils.findField(beanType, name);
+        if (field == null) {
+            return EMPTY_CLASS_ARRAY;
+        }
+        Class<?>[] generics = Arrays
+                .stream(ResolvableType.forField(field).getGenerics())
+                .map(ResolvableType::getRawClass)
+                .filter(Objects::nonNull)
+                .toArray(Class[]::new);
+        return generics.length == 0 ? EMPTY_CLASS_ARRAY : generics;
+    }
+
+    private static String createCopierCode(Class<?> source, Class<?> target) {
+        StringBuilder code = new StringBuilder();
+
+        for (ClassProperty[] pair : createPropertyPairs(source, target)) {
+            ClassProperty sourceProperty = pair[0];
+            ClassProperty targetProperty = pair[1];
             code.append("if(!ignore.contains(\"").append(sourceProperty.getName()).append("\")){\n\t");
             if (!sourceProperty.isPrimitive()) {
                 code.append("if($$__source.").append(sourceProperty.getReadMethod()).append("!=null){\n");
@@ -339,19 +464,14 @@ public final class FastBeanCopier {
                 String getterCode = "$$__source." + getReadMethod();
 
                 String generic = "org.hswebframework.web.bean.FastBeanCopier.EMPTY_CLASS_ARRAY";
-                Field field = ReflectionUtils.findField(targetBeanType, name);
+                Class<?>[] generics = getFieldGenerics(targetBeanType, name);
                 boolean hasGeneric = false;
-                if (field != null) {
-                    String[] arr = Arrays.stream(ResolvableType.forField(field)
-                                                               .getGenerics())
-                                         .map(ResolvableType::getRawClass)
-                                         .filter(Objects::nonNull)
-                                         .map(t -> t.getName().concat(".class"))
-                                         .toArray(String[]::new);
-                    if (arr.length > 0) {
-                        generic = "new Class[]{" + String.join(",", arr) + "}";
-                        hasGeneric = true;
-                    }
+                if (generics.length > 0) {
+                    generic = "new Class[]{" + Arrays
+                            .stream(generics)
+                            .map(t -> t.getName().concat(".class"))
+                            .collect(Collectors.joining(",")) + "}";
+                    hasGeneric = true;
                 }
                 String convert = "converter.convert((Object)(" + (isPrimitive() ? castWrapper(getterCode) : getterCode) + "),"
                         + getTypeName(targetType) + ".class," + generic + ")";
@@ -446,7 +566,11 @@ public final class FastBeanCopier {
     }
 
     static class BeanClassProperty extends ClassProperty {
+        @Getter
+        private final PropertyDescriptor descriptor;
+
         public BeanClassProperty(PropertyDescriptor descriptor) {
+            this.descriptor = descriptor;
             type = descriptor.getPropertyType();
             readMethodName = descriptor.getReadMethod().getName();
             writeMethodName = descriptor.getWriteMethod().getName();
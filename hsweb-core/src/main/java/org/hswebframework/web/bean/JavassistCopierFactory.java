@@ -0,0 +1,17 @@
+package org.hswebframework.web.bean;
+
+/**
+ * 使用javassist编译源代码的方式生成复制器,为默认的复制器生成方式.
+ *
+ * @see org.hswebframework.web.proxy.Proxy
+ * @since 4.0.15
+ */
+public class JavassistCopierFactory implements CopierFactory {
+
+    public static final JavassistCopierFactory INSTANCE = new JavassistCopierFactory();
+
+    @Override
+    public Copier createCopier(Class<?> source, Class<?> target) {
+        return FastBeanCopier.createJavassistCopier(source, target);
+    }
+}
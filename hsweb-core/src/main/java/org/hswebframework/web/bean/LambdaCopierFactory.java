@@ -0,0 +1,270 @@
+package org.hswebframework.web.bean;
+
+import lombok.AllArgsConstructor;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.ClassUtils;
+
+import java.lang.invoke.*;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * 使用{@link LambdaMetafactory}生成get,set方法的调用器来实现复制器,不需要编译源代码,也不依赖javassist的ClassPool.
+ * <p>
+ * 相比{@link JavassistCopierFactory},首次创建复制器的速度更快,并且不会持有额外的类定义信息.
+ * 当类型对当前类加载器不可见或者不是public时,将使用{@link MethodHandle}进行调用.
+ * <p>
+ * 可通过系统参数<code>-Dhsweb.bean.copier=lambda</code>或者{@link FastBeanCopier#setCopierFactory(CopierFactory)}启用.
+ *
+ * @since 4.0.15
+ */
+@Slf4j
+public class LambdaCopierFactory implements CopierFactory {
+
+    public static final LambdaCopierFactory INSTANCE = new LambdaCopierFactory();
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    @Override
+    public Copier createCopier(Class<?> source, Class<?> target) {
+        List<FastBeanCopier.ClassProperty[]> pairs = FastBeanCopier.createPropertyPairs(source, target);
+        PropertyCopier[] copiers = new PropertyCopier[pairs.size()];
+        for (int i = 0; i < copiers.length; i++) {
+            FastBeanCopier.ClassProperty[] pair = pairs.get(i);
+            copiers[i] = createPropertyCopier(target, pair[0], pair[1]);
+        }
+        return new LambdaCopier(copiers);
+    }
+
+    private PropertyCopier createPropertyCopier(Class<?> targetBeanType,
+                                                FastBeanCopier.ClassProperty sourceProperty,
+                                                FastBeanCopier.ClassProperty targetProperty) {
+        String name = sourceProperty.getName();
+        return new PropertyCopier(
+                name,
+                createGetter(sourceProperty),
+                createSetter(targetProperty),
+                createValueMapper(sourceProperty.getType(),
+                                  targetProperty.getType(),
+                                  FastBeanCopier.getFieldGenerics(targetBeanType, name))
+        );
+    }
+
+    /**
+     * 转换规则与{@link FastBeanCopier.ClassProperty#createGetterFunction()}生成的代码一致
+     */
+    private ValueMapper createValueMapper(Class<?> sourceType, Class<?> targetType, Class<?>[] generics) {
+        ValueMapper convert = (value, converter) -> converter.convert(value, targetType, generics);
+
+        if (targetType != sourceType) {
+            //基本数据类型与对应的包装器类型之间,直接使用装箱后的值
+            if (targetType.isPrimitive() && ClassUtils.resolvePrimitiveIfNecessary(targetType) == sourceType) {
+                return ValueMapper.IDENTITY;
+            }
+            if (sourceType.isPrimitive() && ClassUtils.resolvePrimitiveIfNecessary(sourceType) == targetType) {
+                return ValueMapper.IDENTITY;
+            }
+            return convert;
+        }
+        if (Cloneable.class.isAssignableFrom(targetType)) {
+            return createCloner(targetType);
+        }
+        if ((Map.class.isAssignableFrom(targetType) || Collection.class.isAssignableFrom(sourceType)) && generics.length > 0) {
+            return convert;
+        }
+        return ValueMapper.IDENTITY;
+    }
+
+    private ValueMapper createCloner(Class<?> type) {
+        if (type.isArray()) {
+            Class<?> componentType = type.getComponentType();
+            return (value, converter) -> {
+                int len = Array.getLength(value);
+                Object arr = Array.newInstance(componentType, len);
+                System.arraycopy(value, 0, arr, 0, len);
+                return arr;
+            };
+        }
+        try {
+            Method clone = type.getMethod("clone");
+            MethodHandle handle = LOOKUP.unreflect(clone).asType(GETTER_TYPE);
+            return new MethodHandleValueMapper(handle);
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            log.warn("{}实现了Cloneable,但是没有public的clone方法,将直接复制引用", type);
+            return ValueMapper.IDENTITY;
+        }
+    }
+
+    @SuppressWarnings("all")
+    private Function<Object, Object> createGetter(FastBeanCopier.ClassProperty property) {
+        if (!(property instanceof FastBeanCopier.BeanClassProperty)) {
+            String name = property.getName();
+            return map -> ((Map) map).get(name);
+        }
+        Method method = ((FastBeanCopier.BeanClassProperty) property).getDescriptor().getReadMethod();
+        MethodHandle handle = unreflect(method);
+        if (isLambdaSupported(method)) {
+            try {
+                CallSite site = LambdaMetafactory.metafactory(
+                        LOOKUP,
+                        "apply",
+                        MethodType.methodType(Function.class),
+                        GETTER_TYPE,
+                        handle,
+                        MethodType.methodType(Object.class, method.getDeclaringClass()));
+                return (Function<Object, Object>) site.getTarget().invoke();
+            } catch (Throwable e) {
+                log.debug("create lambda getter [{}] error", method, e);
+            }
+        }
+        return new MethodHandleGetter(handle.asType(GETTER_TYPE));
+    }
+
+    @SuppressWarnings("all")
+    private BiConsumer<Object, Object> createSetter(FastBeanCopier.ClassProperty property) {
+        if (!(property instanceof FastBeanCopier.BeanClassProperty)) {
+            String name = property.getName();
+            return (map, value) -> ((Map) map).put(name, value);
+        }
+        return createSetter(((FastBeanCopier.BeanClassProperty) property).getDescriptor().getWriteMethod());
+    }
+
+    /**
+     * 根据set方法创建调用器
+     *
+     * @param method set方法
+     * @return 调用器
+     * @see FieldMask
+     */
+    @SuppressWarnings("all")
+    BiConsumer<Object, Object> createSetter(Method method) {
+        MethodHandle handle = unreflect(method);
+        if (isLambdaSupported(method)) {
+            try {
+                CallSite site = LambdaMetafactory.metafactory(
+                        LOOKUP,
+                        "accept",
+                        MethodType.methodType(BiConsumer.class),
+                        SETTER_TYPE,
+                        handle,
+                        MethodType.methodType(void.class,
+                                              method.getDeclaringClass(),
+                                              ClassUtils.resolvePrimitiveIfNecessary(method.getParameterTypes()[0])));
+                return (BiConsumer<Object, Object>) site.getTarget().invoke();
+            } catch (Throwable e) {
+                log.debug("create lambda setter [{}] error", method, e);
+            }
+        }
+        return new MethodHandleSetter(handle.asType(SETTER_TYPE));
+    }
+
+    @SneakyThrows
+    private static MethodHandle unreflect(Method method) {
+        if (!Modifier.isPublic(method.getModifiers()) || !Modifier.isPublic(method.getDeclaringClass().getModifiers())) {
+            method.setAccessible(true);
+        }
+        return LOOKUP.unreflect(method);
+    }
+
+    //lambda生成的类由当前类加载器加载,需要能访问到对应的类型
+    private static boolean isLambdaSupported(Method method) {
+        ClassLoader loader = LambdaCopierFactory.class.getClassLoader();
+        Class<?> declaringClass = method.getDeclaringClass();
+        if (!Modifier.isPublic(method.getModifiers()) || !Modifier.isPublic(declaringClass.getModifiers())) {
+            return false;
+        }
+        if (!ClassUtils.isVisible(declaringClass, loader)) {
+            return false;
+        }
+        for (Class<?> parameterType : method.getParameterTypes()) {
+            if (!parameterType.isPrimitive() && !ClassUtils.isVisible(parameterType, loader)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    interface ValueMapper {
+        ValueMapper IDENTITY = (value, converter) -> value;
+
+        Object map(Object value, Converter converter) throws Throwable;
+    }
+
+    @AllArgsConstructor
+    static class PropertyCopier {
+        private final String name;
+
+        private final Function<Object, Object> getter;
+
+        private final BiConsumer<Object, Object> setter;
+
+        private final ValueMapper mapper;
+    }
+
+    @AllArgsConstructor
+    static class LambdaCopier implements Copier {
+        private final PropertyCopier[] properties;
+
+        @Override
+        public void copy(Object source, Object target, Set<String> ignore, Converter converter) {
+            try {
+                for (PropertyCopier property : properties) {
+                    if (ignore.contains(property.name)) {
+                        continue;
+                    }
+                    Object value = property.getter.apply(source);
+                    if (value == null) {
+                        continue;
+                    }
+                    value = property.mapper.map(value, converter);
+                    if (value != null) {
+                        property.setter.accept(target, value);
+                    }
+                }
+            } catch (Throwable e) {
+                throw new RuntimeException(e.getMessage(), e);
+            }
+        }
+    }
+
+    @AllArgsConstructor
+    static class MethodHandleGetter implements Function<Object, Object> {
+        private final MethodHandle handle;
+
+        @Override
+        @SneakyThrows
+        public Object apply(Object target) {
+            return handle.invokeExact(target);
+        }
+    }
+
+    @AllArgsConstructor
+    static class MethodHandleSetter implements BiConsumer<Object, Object> {
+        private final MethodHandle handle;
+
+        @Override
+        @SneakyThrows
+        public void accept(Object target, Object value) {
+            handle.invokeExact(target, value);
+        }
+    }
+
+    @AllArgsConstructor
+    static class MethodHandleValueMapper implements ValueMapper {
+        private final MethodHandle handle;
+
+        @Override
+        public Object map(Object value, Converter converter) throws Throwable {
+            return handle.invokeExact(value);
+        }
+    }
+}
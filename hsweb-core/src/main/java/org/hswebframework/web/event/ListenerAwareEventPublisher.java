@@ -0,0 +1,176 @@
+package org.hswebframework.web.event;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeansException;
+import org.springframework.context.*;
+import org.springframework.context.event.ApplicationEventMulticaster;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.GenericApplicationListener;
+import org.springframework.context.event.GenericApplicationListenerAdapter;
+import org.springframework.context.event.SimpleApplicationEventMulticaster;
+import org.springframework.context.support.AbstractApplicationContext;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.ResolvableTypeProvider;
+import org.springframework.core.annotation.AnnotationAwareOrderComparator;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 感知监听器的事件推送器,用于在请求处理过程中高频推送的事件.
+ * <p>
+ * 在容器启动完成后获取所有的监听器,并按事件类型缓存支持此事件的监听器列表.
+ * 推送事件时直接调用缓存的监听器,不再经过{@link org.springframework.context.event.ApplicationEventMulticaster}
+ * 进行监听器的解析.没有监听器时可通过{@link #hasListener(Class)}判断,跳过事件的创建和推送.
+ * <pre>{@code
+ *  if (publisher.hasListener(MyEvent.class)) {
+ *      publisher.publishEvent(new MyEvent());
+ *  }
+ *
+ *  //推送异步事件
+ *  asyncEvent.publish(publisher::publishEvent);
+ * }</pre>
+ * <p>
+ * 注意: 监听器将在当前线程中同步执行,容器启动完成之前,事件实现了{@link ResolvableTypeProvider},
+ * 或者容器使用了自定义的{@link ApplicationEventMulticaster}(包括设置了线程池或者异常处理器的{@link SimpleApplicationEventMulticaster})时,
+ * 将使用{@link ApplicationContext#publishEvent(Object)}推送事件,保持事件广播器的执行方式.
+ *
+ * @since 4.0.15
+ */
+@Slf4j
+public class ListenerAwareEventPublisher implements ApplicationContextAware, ApplicationListener<ContextRefreshedEvent> {
+
+    private static final GenericApplicationListener[] EMPTY = new GenericApplicationListener[0];
+
+    private ApplicationContext context;
+
+    //事件类型->监听器
+    private final Map<Class<?>, GenericApplicationListener[]> listeners = new ConcurrentHashMap<>();
+
+    //所有的监听器,为null时说明容器还未启动完成
+    private volatile List<ApplicationListener<?>> allListeners;
+
+    //容器使用的是同步执行的默认事件广播器,可以直接调用监听器
+    private volatile boolean directInvoke;
+
+    @Override
+    public void setApplicationContext(ApplicationContext applicationContext) throws BeansException {
+        this.context = applicationContext;
+    }
+
+    @Override
+    public void onApplicationEvent(ContextRefreshedEvent event) {
+        if (event.getApplicationContext() != context) {
+            return;
+        }
+        refresh();
+    }
+
+    /**
+     * 重新获取所有的监听器,在动态注册了监听器后调用
+     */
+    public void refresh() {
+        if (!(context instanceof AbstractApplicationContext)) {
+            return;
+        }
+        Set<ApplicationListener<?>> all = new LinkedHashSet<>(((AbstractApplicationContext) context).getApplicationListeners());
+        for (String name : context.getBeanNamesForType(ApplicationListener.class, true, false)) {
+            all.add(context.getBean(name, ApplicationListener.class));
+        }
+        List<ApplicationListener<?>> sorted = new ArrayList<>(all);
+        AnnotationAwareOrderComparator.sort(sorted);
+        allListeners = sorted;
+        directInvoke = isSynchronousMulticaster();
+        listeners.clear();
+        log.debug("listener aware event publisher initialized,listener size:{}", sorted.size());
+    }
+
+    private boolean isSynchronousMulticaster() {
+        if (!context.containsBean(AbstractApplicationContext.APPLICATION_EVENT_MULTICASTER_BEAN_NAME)) {
+            return false;
+        }
+        Object multicaster = context.getBean(AbstractApplicationContext.APPLICATION_EVENT_MULTICASTER_BEAN_NAME);
+        if (multicaster.getClass() != SimpleApplicationEventMulticaster.class) {
+            return false;
+        }
+        //getTaskExecutor和getErrorHandler为protected方法
+        return invokeGetter(multicaster, "getTaskExecutor") == null
+                && invokeGetter(multicaster, "getErrorHandler") == null;
+    }
+
+    private static Object invokeGetter(Object target, String name) {
+        Method method = ReflectionUtils.findMethod(target.getClass(), name);
+        if (method == null) {
+            return null;
+        }
+        ReflectionUtils.makeAccessible(method);
+        return ReflectionUtils.invokeMethod(method, target);
+    }
+
+    /**
+     * 判断是否有指定事件的监听器
+     *
+     * @param eventType 事件类型
+     * @return 是否有监听器, 容器启动完成之前始终返回true
+     */
+    public boolean hasListener(Class<?> eventType) {
+        if (allListeners == null) {
+            return true;
+        }
+        return getListeners(eventType).length > 0 || context.getParent() != null;
+    }
+
+    /**
+     * 推送事件,没有监听器时直接返回
+     *
+     * @param event 事件
+     */
+    public void publishEvent(Object event) {
+        if (allListeners == null || !directInvoke || event instanceof ResolvableTypeProvider) {
+            context.publishEvent(event);
+            return;
+        }
+        GenericApplicationListener[] listeners = getListeners(event.getClass());
+        if (listeners.length > 0) {
+            ApplicationEvent applicationEvent = event instanceof ApplicationEvent
+                    ? (ApplicationEvent) event
+                    : new PayloadApplicationEvent<>(context, event);
+            Class<?> sourceType = applicationEvent.getSource() == null ? null : applicationEvent.getSource().getClass();
+            for (GenericApplicationListener listener : listeners) {
+                if (listener.supportsSourceType(sourceType)) {
+                    listener.onApplicationEvent(applicationEvent);
+                }
+            }
+        }
+        //与ApplicationContext行为一致,同时推送到父容器
+        if (context.getParent() != null) {
+            context.getParent().publishEvent(event);
+        }
+    }
+
+    private GenericApplicationListener[] getListeners(Class<?> eventType) {
+        return listeners.computeIfAbsent(eventType, this::resolveListeners);
+    }
+
+    private GenericApplicationListener[] resolveListeners(Class<?> eventType) {
+        List<ApplicationListener<?>> all = allListeners;
+        if (all == null) {
+            return EMPTY;
+        }
+        ResolvableType type = ApplicationEvent.class.isAssignableFrom(eventType)
+                ? ResolvableType.forClass(eventType)
+                : ResolvableType.forClassWithGenerics(PayloadApplicationEvent.class, eventType);
+        List<GenericApplicationListener> supported = new ArrayList<>();
+        for (ApplicationListener<?> listener : all) {
+            GenericApplicationListener adapter = listener instanceof GenericApplicationListener
+                    ? (GenericApplicationListener) listener
+                    : new GenericApplicationListenerAdapter(listener);
+            if (adapter.supportsEventType(type)) {
+                supported.add(adapter);
+            }
+        }
+        return supported.isEmpty() ? EMPTY : supported.toArray(EMPTY);
+    }
+}
@@ -12,8 +12,8 @@ import org.springframework.core.type.AnnotationMetadata;
 import org.springframework.core.type.StandardAnnotationMetadata;
 import org.springframework.util.ClassUtils;
 
-import java.util.Arrays;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 
@@ -24,6 +24,15 @@ import java.util.function.Consumer;
 public class Proxy<I> {
     private static final AtomicLong counter = new AtomicLong(1);
 
+    //已经添加到ClassPool中的classpath,避免每次创建代理时重复添加导致ClassPool的搜索路径无限增长
+    private static final Set<String> insertedClassPaths = ConcurrentHashMap.newKeySet();
+
+    private static final Set<ClassLoader> insertedClassLoaders = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+
+    static {
+        ClassPool.getDefault().insertClassPath(new ClassClassPath(Proxy.class));
+    }
+
     private final CtClass ctClass;
     @Getter
     private final Class<I> superClass;
@@ -47,12 +56,15 @@ public class Proxy<I> {
         this.superClass = superClass;
         ClassPool classPool = ClassPool.getDefault();
 
-        classPool.insertClassPath(new ClassClassPath(this.getClass()));
-        classPool.insertClassPath(new LoaderClassPath(ClassUtils.getDefaultClassLoader()));
-
+        ClassLoader classLoader = ClassUtils.getDefaultClassLoader();
+        if (classLoader != null && insertedClassLoaders.add(classLoader)) {
+            classPool.insertClassPath(new LoaderClassPath(classLoader));
+        }
         if (classPathString != null) {
             for (String path : classPathString) {
-                classPool.insertClassPath(path);
+                if (insertedClassPaths.add(path)) {
+                    classPool.insertClassPath(path);
+                }
             }
         }
         className = superClass.getSimpleName() + "FastBeanCopier" + counter.getAndAdd(1);
@@ -154,6 +166,8 @@ public class Proxy<I> {
     public Class<I> getTargetClass() {
         if (targetClass == null) {
             targetClass = (Class)ctClass.toClass(ClassUtils.getDefaultClassLoader(), null);
+            //类已经生成,从ClassPool中移除,避免ClassPool持有所有生成的CtClass
+            ctClass.detach();
         }
         return targetClass;
     }
@@ -8,7 +8,9 @@ import java.lang.reflect.Proxy;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicReference;
 
 /**
@@ -113,6 +115,48 @@ public class FastBeanCopierTest {
         Assert.assertEquals(reference.get(),source.getName());
     }
 
+    @Test
+    public void testBind() {
+        BoundCopier<Source, Target> copier = FastBeanCopier.bind(Source.class, Target.class, "age");
+
+        Source source = new Source();
+        source.setName("测试");
+        source.setAge(100);
+        source.setAge2(2);
+
+        Target target = copier.copy(source);
+        Assert.assertEquals(source.getName(), target.getName());
+        Assert.assertEquals(2, target.getAge2());
+        Assert.assertEquals(0, target.getAge());
+
+        //子类回退到通用复制
+        Source sub = new SubSource();
+        sub.setName("sub");
+        sub.setAge(10);
+        target = copier.copy(sub, new Target());
+        Assert.assertEquals("sub", target.getName());
+        Assert.assertEquals(0, target.getAge());
+
+        BoundCopier<Source, Map> mapCopier = FastBeanCopier.bind(Source.class, Map.class);
+        Map<String, Object> map = mapCopier.copy(source, new HashMap<>());
+        Assert.assertEquals(100, map.get("age"));
+
+        BoundCopier<Map, Target> fromMap = FastBeanCopier.bind(Map.class, Target.class);
+        Assert.assertEquals("测试", fromMap.copy(map).getName());
+
+        BoundCopier<Map, Map> mapToMap = FastBeanCopier.bind(Map.class, Map.class);
+        Assert.assertEquals(map, mapToMap.copy(map, new HashMap<>()));
+
+        //绑定后修改忽略属性集合不影响复制
+        Set<String> ignore = new HashSet<>(Collections.singletonList("age"));
+        BoundCopier<Source, Target> ignoreCopier = FastBeanCopier.bind(Source.class, Target.class, ignore);
+        ignore.clear();
+        Assert.assertEquals(0, ignoreCopier.copy(source).getAge());
+    }
+
+    public static class SubSource extends Source {
+
+    }
 
     public interface ProxyTest {
         String getName();
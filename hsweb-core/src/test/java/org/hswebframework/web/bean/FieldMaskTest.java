@@ -0,0 +1,43 @@
+package org.hswebframework.web.bean;
+
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class FieldMaskTest {
+
+    @Test
+    public void test() {
+        Source source = new Source();
+        source.setName("test");
+        source.setAge(10);
+        source.setAge2(20);
+
+        Set<String> fields = new HashSet<>(Arrays.asList("name", "age", "age2", "nestObject3.password", "notExists"));
+        FieldMask.apply(source, fields);
+
+        assertNull(source.getName());
+        //基本数据类型不处理
+        assertEquals(10, source.getAge());
+        assertNull(source.getAge2());
+        assertNull(source.getNestObject3().getPassword());
+        assertEquals("test", source.getNestObject3().getName());
+
+        //相同的类型和属性使用同一个实例
+        assertSame(FieldMask.of(Source.class, fields), FieldMask.of(Source.class, new HashSet<>(fields)));
+    }
+
+    @Test
+    public void testMap() {
+        Map<String, Object> map = new HashMap<>();
+        map.put("name", "test");
+        map.put("age", 10);
+
+        FieldMask.apply(map, Collections.singleton("name"));
+
+        assertNull(map.get("name"));
+        assertEquals(10, map.get("age"));
+    }
+}
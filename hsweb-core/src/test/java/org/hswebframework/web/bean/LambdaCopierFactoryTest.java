@@ -0,0 +1,107 @@
+package org.hswebframework.web.bean;
+
+import com.alibaba.fastjson.JSON;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+public class LambdaCopierFactoryTest {
+
+    private Source createSource() {
+        Source source = new Source();
+        source.setAge(100);
+        source.setName("测试");
+        source.setIds(new String[]{"1", "2", "3"});
+        source.setAge2(2);
+        source.setBoy2(true);
+        source.setColor(Color.RED);
+        source.setNestObject2(Collections.singletonMap("name", "mapTest"));
+        NestObject nestObject = new NestObject();
+        nestObject.setAge(10);
+        nestObject.setPassword("1234567");
+        nestObject.setName("测试2");
+        source.setNestObject(nestObject);
+        source.setNestObject3(nestObject);
+        return source;
+    }
+
+    private void assertSame(Class<?> sourceType, Class<?> targetType, Object source, Object javassistTarget, Object lambdaTarget) {
+        JavassistCopierFactory.INSTANCE
+                .createCopier(sourceType, targetType)
+                .copy(source, javassistTarget, Collections.emptySet(), FastBeanCopier.DEFAULT_CONVERT);
+
+        LambdaCopierFactory.INSTANCE
+                .createCopier(sourceType, targetType)
+                .copy(source, lambdaTarget, Collections.emptySet(), FastBeanCopier.DEFAULT_CONVERT);
+
+        Assert.assertEquals(JSON.toJSONString(javassistTarget), JSON.toJSONString(lambdaTarget));
+    }
+
+    @Test
+    public void testBeanToBean() {
+        Source source = createSource();
+        Target javassist = new Target(), lambda = new Target();
+        javassist.setDeleteTime(null);
+        lambda.setDeleteTime(null);
+
+        assertSame(Source.class, Target.class, source, javassist, lambda);
+
+        Assert.assertEquals("测试", lambda.getName());
+        Assert.assertEquals(100, lambda.getAge());
+        Assert.assertNotSame(source.getIds(), lambda.getIds());
+        Assert.assertArrayEquals(source.getIds(), lambda.getIds());
+    }
+
+    @Test
+    public void testBeanToMap() {
+        Source source = createSource();
+        assertSame(Source.class, Map.class, source, new HashMap<>(), new HashMap<>());
+    }
+
+    @Test
+    public void testMapToBean() {
+        Map<String, Object> map = FastBeanCopier.copy(createSource(), new HashMap<>());
+        map.put("age", "18");
+        Target javassist = new Target(), lambda = new Target();
+        javassist.setDeleteTime(null);
+        lambda.setDeleteTime(null);
+
+        assertSame(Map.class, Target.class, map, javassist, lambda);
+        Assert.assertEquals(18, lambda.getAge());
+    }
+
+    @Test
+    public void testIgnore() {
+        Copier copier = LambdaCopierFactory.INSTANCE.createCopier(Source.class, Target.class);
+        Target target = new Target();
+        copier.copy(createSource(), target, "name");
+        Assert.assertNull(target.getName());
+        Assert.assertEquals(100, target.getAge());
+    }
+
+    @Test
+    public void testNonPublicType() {
+        Copier copier = LambdaCopierFactory.INSTANCE.createCopier(PrivateBean.class, PrivateBean.class);
+        PrivateBean source = new PrivateBean();
+        source.setValue(10);
+        PrivateBean target = new PrivateBean();
+        copier.copy(source, target);
+        Assert.assertEquals(10, target.getValue());
+    }
+
+    static class PrivateBean {
+        private int value;
+
+        public int getValue() {
+            return value;
+        }
+
+        public void setValue(int value) {
+            this.value = value;
+        }
+    }
+
+}
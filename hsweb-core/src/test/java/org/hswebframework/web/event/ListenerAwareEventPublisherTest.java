@@ -0,0 +1,135 @@
+package org.hswebframework.web.event;
+
+import org.junit.Test;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.context.event.SimpleApplicationEventMulticaster;
+import org.springframework.context.support.AbstractApplicationContext;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ListenerAwareEventPublisherTest {
+
+    @Test
+    public void test() {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(TestConfiguration.class);
+        try {
+            ListenerAwareEventPublisher publisher = context.getBean(ListenerAwareEventPublisher.class);
+            TestListener listener = context.getBean(TestListener.class);
+
+            assertTrue(publisher.hasListener(String.class));
+            assertTrue(publisher.hasListener(TestEvent.class));
+            assertFalse(publisher.hasListener(Integer.class));
+            assertFalse(publisher.hasListener(OtherEvent.class));
+
+            publisher.publishEvent("test");
+            publisher.publishEvent(new TestEvent());
+            publisher.publishEvent(1);
+            publisher.publishEvent(new OtherEvent());
+
+            assertEquals(2, listener.events.size());
+            assertEquals("test", listener.events.get(0));
+            assertTrue(listener.events.get(1) instanceof TestEvent);
+
+            //异步事件
+            DefaultAsyncEvent event = new DefaultAsyncEvent();
+            event.publish(publisher::publishEvent).block();
+            assertTrue(event.hasListener());
+        } finally {
+            context.close();
+        }
+    }
+
+    @Test
+    public void testCustomMulticaster() {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(TestConfiguration.class, MulticasterConfiguration.class);
+        try {
+            ListenerAwareEventPublisher publisher = context.getBean(ListenerAwareEventPublisher.class);
+            TestListener listener = context.getBean(TestListener.class);
+            List<Throwable> errors = context.getBean(MulticasterConfiguration.class).errors;
+
+            //使用事件广播器的异常处理器
+            publisher.publishEvent(new ErrorEvent());
+            assertEquals(1, errors.size());
+
+            publisher.publishEvent("test");
+            assertEquals(1, listener.events.size());
+        } finally {
+            context.close();
+        }
+    }
+
+    @Configuration
+    static class MulticasterConfiguration {
+        private final List<Throwable> errors = new ArrayList<>();
+
+        @Bean(AbstractApplicationContext.APPLICATION_EVENT_MULTICASTER_BEAN_NAME)
+        public SimpleApplicationEventMulticaster applicationEventMulticaster() {
+            SimpleApplicationEventMulticaster multicaster = new SimpleApplicationEventMulticaster();
+            multicaster.setErrorHandler(errors::add);
+            return multicaster;
+        }
+    }
+
+    @Configuration
+    static class TestConfiguration {
+        @Bean
+        public ListenerAwareEventPublisher listenerAwareEventPublisher() {
+            return new ListenerAwareEventPublisher();
+        }
+
+        @Bean
+        public TestListener testListener() {
+            return new TestListener();
+        }
+    }
+
+    static class TestListener {
+        private final List<Object> events = new ArrayList<>();
+
+        @EventListener
+        public void handleString(String event) {
+            events.add(event);
+        }
+
+        @EventListener
+        public void handleEvent(TestEvent event) {
+            events.add(event);
+        }
+
+        @EventListener
+        public void handleAsyncEvent(DefaultAsyncEvent event) {
+            event.async(Mono.empty());
+        }
+
+        @EventListener
+        public void handleErrorEvent(ErrorEvent event) {
+            throw new IllegalStateException("test");
+        }
+    }
+
+    static class TestEvent extends ApplicationEvent {
+        public TestEvent() {
+            super("test");
+        }
+    }
+
+    static class ErrorEvent extends ApplicationEvent {
+        public ErrorEvent() {
+            super("test");
+        }
+    }
+
+    static class OtherEvent extends ApplicationEvent {
+        public OtherEvent() {
+            super("test");
+        }
+    }
+}
@@ -3,6 +3,7 @@ package org.hswebframework.web.system.authorization.defaults.configuration;
 import org.hswebframework.ezorm.rdb.mapping.ReactiveRepository;
 import org.hswebframework.web.authorization.ReactiveAuthenticationInitializeService;
 import org.hswebframework.web.authorization.ReactiveAuthenticationManagerProvider;
+import org.hswebframework.web.authorization.basic.handler.DefaultAuthorizingHandler;
 import org.hswebframework.web.authorization.define.AuthorizeDefinitionCustomizer;
 import org.hswebframework.web.authorization.define.CompositeAuthorizeDefinitionCustomizer;
 import org.hswebframework.web.authorization.simple.DefaultAuthorizationAutoConfiguration;
@@ -16,6 +17,7 @@ import org.hswebframework.web.system.authorization.defaults.service.terms.UserDi
 import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.AutoConfigureBefore;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -82,6 +84,16 @@ public class AuthorizationServiceAutoConfiguration {
         }
     }
 
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(name = "org.hswebframework.web.authorization.basic.handler.DefaultAuthorizingHandler")
+    static class AuthorizingDecisionCacheConfiguration {
+
+        @Bean
+        public ClearAuthorizingDecisionCacheWhenAuthorizationChanged clearAuthorizingDecisionCacheWhenAuthorizationChanged(ObjectProvider<DefaultAuthorizingHandler> handler) {
+            return new ClearAuthorizingDecisionCacheWhenAuthorizationChanged(handler);
+        }
+    }
+
     @Bean
     public UserDimensionTerm userDimensionTerm() {
         return new UserDimensionTerm();
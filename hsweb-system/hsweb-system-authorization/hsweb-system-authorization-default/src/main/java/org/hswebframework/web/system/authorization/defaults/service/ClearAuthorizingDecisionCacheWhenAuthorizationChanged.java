@@ -0,0 +1,34 @@
+package org.hswebframework.web.system.authorization.defaults.service;
+
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hswebframework.web.authorization.basic.handler.AuthorizingDecisionCache;
+import org.hswebframework.web.authorization.basic.handler.DefaultAuthorizingHandler;
+import org.hswebframework.web.system.authorization.api.event.ClearUserAuthorizationCacheEvent;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.event.EventListener;
+
+/**
+ * 用户权限发生变化时,清空RBAC权限控制结果缓存
+ *
+ * @see AuthorizingDecisionCache
+ * @since 4.0.15
+ */
+@AllArgsConstructor
+@Slf4j
+public class ClearAuthorizingDecisionCacheWhenAuthorizationChanged {
+
+    //在事件发生时获取,不依赖自动配置的顺序
+    private final ObjectProvider<DefaultAuthorizingHandler> authorizingHandler;
+
+    @EventListener
+    public void handleClearAuthCache(ClearUserAuthorizationCacheEvent event) {
+        DefaultAuthorizingHandler handler = authorizingHandler.getIfAvailable();
+        AuthorizingDecisionCache cache = handler == null ? null : handler.getDecisionCache();
+        if (cache != null) {
+            log.debug("clear authorizing decision cache,hit ratio:{}", cache.getHitRatio());
+            cache.clear();
+        }
+    }
+
+}